@@ -0,0 +1,326 @@
+/** @file
+ * This file contains the ChebyshevSegments class, a vector function of time fit with
+ * piecewise Chebyshev polynomials, shared by the satellite and solar ephemerides.
+ */
+
+package com.qbizzle.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A vector valued function of time approximated by Chebyshev polynomial segments. The span
+ * is divided into segments and each component is fit with a polynomial over its segment, so
+ * evaluating the function is a binary search for the segment and a short Clenshaw recurrence
+ * per component.
+ * <p>
+ * The components are taken as groups of three, the position and velocity of an ephemeris.
+ * Every segment is checked against the function halfway between its nodes and at its ends,
+ * and a segment whose error in the first group is larger than the tolerance is split in half
+ * and refit, down to a minimum segment length. The largest error found in each group is kept.
+ * The units of time are those of the Sampler, the class doesn't depend on them.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class ChebyshevSegments {
+    /** Supplies the function being fit. */
+    @FunctionalInterface
+    public interface Sampler {
+        /**
+         * Evaluates the function at several times. Every call passes all the nodes or all the
+         * checks of one segment, so samplers that share work between times can batch them.
+         * @param times     Times to evaluate the function at.
+         * @param values    One array per component, each at least as long as @p times, to
+         *                  store the values in.
+         */
+        void sample(double[] times, double[][] values);
+    }
+
+    private final int degree;
+    private final int components;
+//    segment boundaries, and one block of degree + 1 coefficients per component per segment
+    private final double[] bounds;
+    private final double[] coefficients;
+    private final double[] maxErrors;
+    private final long buildTime;
+
+    private ChebyshevSegments(int degree, int components, double[] bounds, double[] coefficients,
+                              double[] maxErrors, long buildTime) {
+        this.degree = degree;
+        this.components = components;
+        this.bounds = bounds;
+        this.coefficients = coefficients;
+        this.maxErrors = maxErrors;
+        this.buildTime = buildTime;
+    }
+
+    /**
+     * Fits segments to a function. The span is divided into segments of @p segmentLength,
+     * and any segment whose error in the first three components is larger than @p tolerance
+     * is bisected and refit.
+     * @param sampler       The function to fit.
+     * @param components    Number of components of the function, a multiple of three.
+     * @param start         Start of the span.
+     * @param end           End of the span.
+     * @param tolerance     Maximum error of the first three components in any segment.
+     * @param degree        Degree of the polynomial fit to each component.
+     * @param segmentLength Initial length of each segment.
+     * @param minimumLength Segments are never split below this length, whether or not they
+     *                      meet the bound.
+     * @return              The fitted segments.
+     * @throws IllegalArgumentException If @p end is not after @p start, @p components is not
+     *                                  a positive multiple of three, or @p tolerance,
+     *                                  @p degree or @p segmentLength are not positive.
+     */
+    public static ChebyshevSegments fit(Sampler sampler, int components, double start, double end,
+                                        double tolerance, int degree, double segmentLength, double minimumLength) {
+        if (end <= start)
+            throw new IllegalArgumentException("Ephemeris end time must be after the start time.");
+        if (tolerance <= 0 || degree <= 0 || segmentLength <= 0)
+            throw new IllegalArgumentException("Ephemeris tolerance, degree and segment length must be positive.");
+        if (components <= 0 || components % 3 != 0)
+            throw new IllegalArgumentException("Ephemeris component count must be a positive multiple of three.");
+        long startNanos = System.nanoTime();
+        int initialCount = (int) Math.ceil((end - start) / segmentLength);
+
+        Fitter fitter = new Fitter(sampler, components, degree, tolerance, minimumLength);
+        for (int i = 0; i < initialCount; i++) {
+            double a = start + (end - start) * i / initialCount;
+            double b = (i == initialCount - 1) ? end : start + (end - start) * (i + 1) / initialCount;
+            fitter.fit(a, b);
+        }
+
+        double[] bounds = new double[fitter.starts.size() + 1];
+        for (int i = 0; i < fitter.starts.size(); i++)
+            bounds[i] = fitter.starts.get(i);
+        bounds[bounds.length - 1] = end;
+        int block = components * (degree + 1);
+        double[] coefficients = new double[fitter.segments.size() * block];
+        for (int i = 0; i < fitter.segments.size(); i++)
+            System.arraycopy(fitter.segments.get(i), 0, coefficients, i * block, block);
+        return new ChebyshevSegments(degree, components, bounds, coefficients,
+                fitter.maxErrors, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Evaluates every component at a time using the Clenshaw recurrence. This method
+     * allocates nothing.
+     * @param t     Time within the span.
+     * @param out   Array of at least #getComponentCount elements to store the components.
+     * @throws IllegalArgumentException If @p t is outside the span.
+     */
+    public void evaluate(double t, double[] out) {
+        int segment = findSegment(t);
+        double a = bounds[segment];
+        double b = bounds[segment + 1];
+        evaluate(coefficients, segment * components * (degree + 1), degree, components,
+                (2 * t - a - b) / (b - a), out);
+    }
+
+    private static void evaluate(double[] coefficients, int base, int degree, int components, double u, double[] out) {
+        double u2 = 2 * u;
+        int stride = degree + 1;
+        for (int c = 0; c < components; c++) {
+            int offset = base + c * stride;
+            double b1 = 0, b2 = 0;
+            for (int k = degree; k > 0; k--) {
+                double temp = u2 * b1 - b2 + coefficients[offset + k];
+                b2 = b1;
+                b1 = temp;
+            }
+            out[c] = u * b1 - b2 + coefficients[offset];
+        }
+    }
+
+    private int findSegment(double t) {
+        if (!contains(t))
+            throw new IllegalArgumentException("Time " + t + " is outside the ephemeris span.");
+        int index = Arrays.binarySearch(bounds, t);
+        if (index < 0) index = -index - 2;
+        return Math.min(index, bounds.length - 2);
+    }
+
+    /**
+     * Measures the mean time taken to evaluate the function, sweeping evenly across the
+     * span. The result includes JIT warm up if this is the first use.
+     * @param samples   Number of evaluations.
+     * @return          The mean evaluation time in nanoseconds.
+     */
+    public double measureEvaluationTime(int samples) {
+        double t0 = bounds[0];
+        double step = (bounds[bounds.length - 1] - t0) / Math.max(1, samples - 1);
+        double[] scratch = new double[components];
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++)
+            evaluate(t0 + step * i, scratch);
+        return (double) (System.nanoTime() - start) / samples;
+    }
+
+    /**
+     * Determines if a time is within the span.
+     * @param t The time to check.
+     * @return  True if the segments can be evaluated at @p t.
+     */
+    public boolean contains(double t) {
+        return t >= bounds[0] && t <= bounds[bounds.length - 1];
+    }
+
+    /**
+     * Retrieves the start of the span.
+     * @return The start time.
+     */
+    public double getStart() {
+        return bounds[0];
+    }
+
+    /**
+     * Retrieves the end of the span.
+     * @return The end time.
+     */
+    public double getEnd() {
+        return bounds[bounds.length - 1];
+    }
+
+    /**
+     * Retrieves the number of segments the span was divided into.
+     * @return The segment count.
+     */
+    public int getSegmentCount() {
+        return bounds.length - 1;
+    }
+
+    /**
+     * Retrieves the degree of the polynomials.
+     * @return The polynomial degree.
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Retrieves the number of components of the function.
+     * @return The component count.
+     */
+    public int getComponentCount() {
+        return components;
+    }
+
+    /**
+     * Retrieves the number of coefficients stored, a measure of the memory used.
+     * @return The total coefficient count.
+     */
+    public int getCoefficientCount() {
+        return coefficients.length;
+    }
+
+    /**
+     * Retrieves the largest error of a group of three components found when checking the
+     * segments against the function.
+     * @param group Index of the group, 0 for the first three components.
+     * @return      The maximum distance between the fitted and sampled vectors.
+     */
+    public double getMaxError(int group) {
+        return maxErrors[group];
+    }
+
+    /**
+     * Retrieves the time taken to fit the segments.
+     * @return The build time in milliseconds.
+     */
+    public double getBuildTime() {
+        return buildTime / 1.0e6;
+    }
+
+    /**
+     * Fits and checks segments, bisecting those that miss the error bound.
+     */
+    private static final class Fitter {
+        private final Sampler sampler;
+        private final int components;
+        private final int degree;
+        private final double tolerance;
+        private final double minimumLength;
+        private final double[] nodes;
+        private final double[] checks;
+        private final double[][] cosTable;
+        private final double[][] samples;
+        private final double[][] expected;
+        private final double[] fitted;
+        private final List<Double> starts = new ArrayList<>();
+        private final List<double[]> segments = new ArrayList<>();
+        private final double[] maxErrors;
+
+        Fitter(Sampler sampler, int components, int degree, double tolerance, double minimumLength) {
+            this.sampler = sampler;
+            this.components = components;
+            this.degree = degree;
+            this.tolerance = tolerance;
+            this.minimumLength = minimumLength;
+            int n = degree + 1;
+            nodes = new double[n];
+            cosTable = new double[n][n];
+            for (int j = 0; j < n; j++) {
+                nodes[j] = Math.cos(Math.PI * (j + 0.5) / n);
+                for (int k = 0; k < n; k++)
+                    cosTable[k][j] = Math.cos(Math.PI * k * (j + 0.5) / n);
+            }
+//            halfway between the nodes, where interpolation error is largest, and at the ends
+            checks = new double[2 * n + 1];
+            for (int j = 0; j <= 2 * n; j++)
+                checks[j] = -Math.cos(Math.PI * j / (2 * n));
+            samples = new double[components][n];
+            expected = new double[components][2 * n + 1];
+            fitted = new double[components];
+            maxErrors = new double[components / 3];
+        }
+
+        void fit(double a, double b) {
+            int n = degree + 1;
+            double mid = 0.5 * (a + b);
+            double half = 0.5 * (b - a);
+            double[] times = new double[n];
+            for (int j = 0; j < n; j++)
+                times[j] = mid + half * nodes[j];
+            sampler.sample(times, samples);
+            double[] coefficients = new double[components * n];
+            for (int c = 0; c < components; c++) {
+                for (int k = 0; k < n; k++) {
+                    double sum = 0;
+                    for (int j = 0; j < n; j++)
+                        sum += samples[c][j] * cosTable[k][j];
+                    coefficients[c * n + k] = ((k == 0) ? 1.0 : 2.0) * sum / n;
+                }
+            }
+
+            double[] checkTimes = new double[checks.length];
+            for (int j = 0; j < checks.length; j++)
+                checkTimes[j] = mid + half * checks[j];
+            sampler.sample(checkTimes, expected);
+            double[] errors = new double[components / 3];
+            for (int j = 0; j < checks.length; j++) {
+                ChebyshevSegments.evaluate(coefficients, 0, degree, components, checks[j], fitted);
+                for (int g = 0; g < errors.length; g++) {
+                    int c = 3 * g;
+                    errors[g] = Math.max(errors[g], Math.sqrt(square(fitted[c] - expected[c][j])
+                            + square(fitted[c + 1] - expected[c + 1][j]) + square(fitted[c + 2] - expected[c + 2][j])));
+                }
+            }
+
+            if (errors[0] > tolerance && b - a > 2 * minimumLength) {
+                fit(a, mid);
+                fit(mid, b);
+                return;
+            }
+            starts.add(a);
+            segments.add(coefficients);
+            for (int g = 0; g < errors.length; g++)
+                maxErrors[g] = Math.max(maxErrors[g], errors[g]);
+        }
+
+        private static double square(double value) {
+            return value * value;
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/** @file
+ * This file contains the FastMath class, polynomial approximations of the trigonometric
+ * functions for propagation runs that don't need full double precision.
+ */
+
+package com.qbizzle.math;
+
+/**
+ * Static class with reduced precision sine and cosine. The argument is reduced to within
+ * pi/4 of the nearest multiple of pi/2, with a two part constant so the reduction itself is
+ * exact for the arguments met in orbit propagation. The sine and cosine of the reduced
+ * argument are then truncated Taylor series, through x<sup>11</sup> and x<sup>10</sup>. The
+ * truncation error on [-pi/4, pi/4] is bounded by (pi/4)<sup>12</sup>/12!, so every result
+ * is within #MAX_ERROR of the exact value.
+ * <p>
+ * #sinCos evaluates both functions from a single reduction, which is the common case in the
+ * SGP4 kernel where every angle is needed as a sine and cosine pair.
+ */
+public class FastMath {
+    /** Largest absolute error of #sin, #cos and #sinCos. */
+    public static final double MAX_ERROR = 2e-10;
+    /** Arguments larger than this in magnitude fall back to the exact Math functions. */
+    public static final double MAX_ARGUMENT = 1e6;
+
+//    pi/2 split into a 33 bit head, so k * PIO2_HI is exact for |k| < 2^20, and the remaining tail
+    private static final double PIO2_HI = 1.57079632673412561417e+00;
+    private static final double PIO2_LO = 6.07710050650619224932e-11;
+    private static final double TWO_OVER_PI = 2.0 / Math.PI;
+//    adding and subtracting 1.5 * 2^52 rounds to the nearest integer, much faster than Math.rint
+    private static final double ROUNDING = 6755399441055744.0;
+//    Taylor coefficients, (-1)^n / (2n+1)! and (-1)^n / (2n)!
+    private static final double S1 = -1.0 / 6.0;
+    private static final double S2 = 1.0 / 120.0;
+    private static final double S3 = -1.0 / 5040.0;
+    private static final double S4 = 1.0 / 362880.0;
+    private static final double S5 = -1.0 / 39916800.0;
+    private static final double C1 = -1.0 / 2.0;
+    private static final double C2 = 1.0 / 24.0;
+    private static final double C3 = -1.0 / 720.0;
+    private static final double C4 = 1.0 / 40320.0;
+    private static final double C5 = -1.0 / 3628800.0;
+
+    /**
+     * Computes the sine of an angle to within #MAX_ERROR.
+     * @param x Angle in radians.
+     * @return  The approximate sine of @p x.
+     */
+    public static double sin(double x) {
+        if (!(Math.abs(x) <= MAX_ARGUMENT)) return Math.sin(x);
+        double k = (x * TWO_OVER_PI + ROUNDING) - ROUNDING;
+        double r = (x - k * PIO2_HI) - k * PIO2_LO;
+        return switch ((int) ((long) k & 3)) {
+            case 0 -> sinPolynomial(r);
+            case 1 -> cosPolynomial(r);
+            case 2 -> -sinPolynomial(r);
+            default -> -cosPolynomial(r);
+        };
+    }
+
+    /**
+     * Computes the cosine of an angle to within #MAX_ERROR.
+     * @param x Angle in radians.
+     * @return  The approximate cosine of @p x.
+     */
+    public static double cos(double x) {
+        if (!(Math.abs(x) <= MAX_ARGUMENT)) return Math.cos(x);
+        double k = (x * TWO_OVER_PI + ROUNDING) - ROUNDING;
+        double r = (x - k * PIO2_HI) - k * PIO2_LO;
+        return switch ((int) ((long) k & 3)) {
+            case 0 -> cosPolynomial(r);
+            case 1 -> -sinPolynomial(r);
+            case 2 -> -cosPolynomial(r);
+            default -> sinPolynomial(r);
+        };
+    }
+
+    /**
+     * Computes the sine and cosine of an angle from a single argument reduction, each to
+     * within #MAX_ERROR.
+     * @param x     Angle in radians.
+     * @param out   Array to store the sine in index 0 and the cosine in index 1.
+     */
+    public static void sinCos(double x, double[] out) {
+        if (!(Math.abs(x) <= MAX_ARGUMENT)) {
+            out[0] = Math.sin(x);
+            out[1] = Math.cos(x);
+            return;
+        }
+        double k = (x * TWO_OVER_PI + ROUNDING) - ROUNDING;
+        double r = (x - k * PIO2_HI) - k * PIO2_LO;
+        double s = sinPolynomial(r);
+        double c = cosPolynomial(r);
+//        rotate by the quadrant without branching, the quadrant is effectively random in the Kepler solver
+        int quadrant = (int) ((long) k & 3);
+        boolean odd = (quadrant & 1) != 0;
+        out[0] = (1 - (quadrant & 2)) * (odd ? c : s);
+        out[1] = (1 - ((quadrant + 1) & 2)) * (odd ? s : c);
+    }
+
+//    Estrin's scheme, pairing the terms shortens the chain of dependent multiplications
+    private static double sinPolynomial(double r) {
+        double r2 = r * r;
+        double r4 = r2 * r2;
+        return r + r * r2 * ((S1 + r2 * S2) + r4 * ((S3 + r2 * S4) + r4 * S5));
+    }
+
+    private static double cosPolynomial(double r) {
+        double r2 = r * r;
+        double r4 = r2 * r2;
+        return 1 + r2 * ((C1 + r2 * C2) + r4 * ((C3 + r2 * C4) + r4 * C5));
+    }
+
+}
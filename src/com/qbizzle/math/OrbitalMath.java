@@ -23,6 +23,8 @@ public class OrbitalMath {
     public static final double G = 6.67408e-11; // m3/kgs2
     /** Epsilon value used in Newton Raphson Method. */
     public static double newtonEpsilon = 0.0000001;
+    /** Largest number of iterations of the Newton Raphson Method. */
+    public static int newtonMaxIterations = 50;
     /** Constant to convert radians to degrees. */
     @SuppressWarnings("unused")
     public static final double RAD2DEG = 180.0 / Math.PI;
@@ -86,7 +88,20 @@ public class OrbitalMath {
      * @return The eccentric anomaly in @em radians.
      */
     public static double mean2Eccentric(double meanAnomaly, double eccentricity) {
-        return m2ENewtonRaphson(meanAnomaly, meanAnomaly, eccentricity);
+        return mean2Eccentric(meanAnomaly, eccentricity, newtonEpsilon, newtonMaxIterations);
+    }
+
+    /** Converts mean anomaly to eccentric anomaly with a given tolerance, see
+     * #mean2Eccentric(double, double). The iteration stops when successive outputs are
+     * within @p tolerance or after @p maxIterations steps, whichever comes first.
+     * @param meanAnomaly Mean anomaly in @em radians.
+     * @param eccentricity Eccentricity of the orbit.
+     * @param tolerance Difference in @em radians between successive outputs to stop at.
+     * @param maxIterations Largest number of iterations.
+     * @return The eccentric anomaly in @em radians.
+     */
+    public static double mean2Eccentric(double meanAnomaly, double eccentricity, double tolerance, int maxIterations) {
+        return m2ENewtonRaphson(meanAnomaly, eccentricity, tolerance, maxIterations);
     }
 
     /** Converts eccentric anomaly to true anomaly.
@@ -139,15 +154,20 @@ public class OrbitalMath {
 
     /** Newton-Raphson numerical method used to solve Kepler's equation for eccentric anomaly.
      * The method is iterated until the difference in successive outputs is less than or equal to
-     * the @link com.qbizzle.math.OrbitalMath.newtonEpsilon newtonEpsilon @endlink field which can be adjusted if needed.
+     * @p tolerance, or until it has made @p maxIterations steps. The initial guess is the mean anomaly.
      * @param M Mean anomaly in @em radians.
-     * @param Ej The Jth computation for eccentric anomaly. The initial guess should be the mean anomaly in @em radians.
      * @param ecc The eccentricity of the orbit.
+     * @param tolerance Difference between successive outputs to stop at.
+     * @param maxIterations Largest number of iterations.
      * @return The eccentric anomaly in @em radians.
      */
-    private static double m2ENewtonRaphson(double M, double Ej, double ecc) {
-        double Ej1 = Ej - ((Ej - ecc * Math.sin(Ej) - M) / (1 - ecc * Math.cos(Ej)));
-        if (Math.abs(Ej1 - Ej) <= newtonEpsilon) return Ej1;
-        return m2ENewtonRaphson(M, Ej1, ecc);
+    private static double m2ENewtonRaphson(double M, double ecc, double tolerance, int maxIterations) {
+        double Ej = M;
+        for (int i = 0; i < maxIterations; i++) {
+            double Ej1 = Ej - ((Ej - ecc * Math.sin(Ej) - M) / (1 - ecc * Math.cos(Ej)));
+            if (Math.abs(Ej1 - Ej) <= tolerance) return Ej1;
+            Ej = Ej1;
+        }
+        return Ej;
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import com.qbizzle.math.OrbitalMath;
 import com.qbizzle.math.Vector;
 import com.qbizzle.satellite.Satellite;
 import com.qbizzle.time.JD;
+import com.qbizzle.tracking.EnvironmentFrame;
 import com.qbizzle.tracking.Sun;
 
 /**
@@ -52,6 +53,26 @@ public class Eclipse {
         return thetaS > thetaE && theta < (thetaS - thetaE);
     }
 
+    /**
+     * Computes how far an object is from the edge of the earths shadow, as the angle between
+     * the earth and sun centers minus the sum of their semi-diameters, all seen from the
+     * object. The value is negative when #isEclipsed(Vector, Vector) is true, and unlike
+     * it varies continuously, so the time an object enters or leaves the shadow is a root
+     * that can be found with a root-finder instead of by bisection.
+     * @param satPosition Position of the object relative to the Earth in IJK coordinates.
+     * @param sunPosition Position of the Sun relative to the Earth in IJK coordinates.
+     * @return The angle from the edge of the shadow in radians, negative inside the shadow.
+     */
+    public static double getShadowAngle(Vector satPosition, Vector sunPosition) {
+        Vector earthFromSatPosition = satPosition.minus();
+        Vector sunFromSatPosition = satPosition.minus().plus(sunPosition);
+        double thetaE = Math.asin(earthRadius / earthFromSatPosition.mag());
+        double thetaS = Math.asin(sunRadius / sunFromSatPosition.mag());
+        double theta = Math.acos(earthFromSatPosition.dot(sunFromSatPosition) /
+                (earthFromSatPosition.mag() * sunFromSatPosition.mag()));
+        return theta - (thetaE + thetaS);
+    }
+
     public static boolean isEclipsed(Satellite satellite, JD time) {
         return isEclipsed(
                 satellite.getState(time).position(),
@@ -59,4 +80,17 @@ public class Eclipse {
         );
     }
 
+    /** Determines if a satellite is currently eclipsed by the earths shadow, using the
+     * position of the Sun from a frame shared by every satellite checked at that time.
+     * @param satellite The satellite to check.
+     * @param frame     The environment at the time to check.
+     * @return Returns true if the satellite is at least partially eclipsed, false otherwise.
+     */
+    public static boolean isEclipsed(Satellite satellite, EnvironmentFrame frame) {
+        return isEclipsed(
+                satellite.getState(frame.getTime()).position(),
+                frame.getSunPosition()
+        );
+    }
+
 }
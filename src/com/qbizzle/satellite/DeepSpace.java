@@ -0,0 +1,524 @@
+/** @file
+ * This file contains the DeepSpace class, which holds the SDP4 lunar-solar and resonance
+ * terms used to propagate satellites with orbital periods of 225 minutes or longer.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.time.JD;
+import com.qbizzle.time.SiderealTime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The deep space part of the SDP4 model. This follows the structure of the dscom, dsinit,
+ * dpper and dspace routines of the revised SGP4 code by Vallado et al., with the near earth
+ * values taken from SGP4TimeIndependentValues.
+ * <p>
+ * Everything the lunar-solar perturbations need is computed once at construction, so the
+ * periodic terms at a given time cost only a handful of trigonometric calls. Satellites near
+ * the one day or half day geopotential resonances integrate the mean motion and longitude
+ * from the epoch in 720 minute steps. Rather than restarting that integration from the epoch
+ * on every call, the state at each step is kept as a checkpoint, and a propagation resumes
+ * from the nearest checkpoint between the epoch and the target time. The integration is
+ * deterministic, so this gives exactly the same result as integrating from the epoch. The
+ * checkpoints are held in a concurrent map and never change once written, so a shared
+ * Satellite remains safe to use from any number of threads.
+ * <p>
+ * At most #MAX_CHECKPOINTS are kept. Whenever a long search fills the map, every other
+ * checkpoint is dropped and only every second step is stored from then on, so the spacing
+ * doubles instead of the map growing without limit. A propagation then resumes at most a
+ * spacing away from its target.
+ */
+class DeepSpace {
+    private static final double
+            ZES     = 0.01675,
+            ZEL     = 0.05490,
+            ZNS     = 1.19459e-5,
+            ZNL     = 1.5835218e-4,
+            C1SS    = 2.9864797e-6,
+            C1L     = 4.7968065e-7,
+            ZSINIS  = 0.39785416,
+            ZCOSIS  = 0.91744867,
+            ZCOSGS  = 0.1945905,
+            ZSINGS  = -0.98088458,
+            Q22     = 1.7891679e-6,
+            Q31     = 2.1460748e-6,
+            Q33     = 2.2123015e-7,
+            ROOT22  = 1.7891679e-6,
+            ROOT32  = 3.7393792e-7,
+            ROOT44  = 7.3636953e-9,
+            ROOT52  = 1.1428639e-7,
+            ROOT54  = 2.1765803e-9,
+            RPTIM   = 4.37526908801129966e-3,
+            FASX2   = 0.13130908,
+            FASX4   = 2.8843198,
+            FASX6   = 0.37448087,
+            G22     = 5.7686396,
+            G32     = 0.95240898,
+            G44     = 1.8014998,
+            G52     = 1.0508330,
+            G54     = 4.4108898,
+            STEP    = 720.0,
+            STEP2   = 0.5 * STEP * STEP;
+
+    /** No resonance. */
+    static final int NONE = 0;
+    /** One day (geosynchronous) resonance. */
+    static final int SYNCHRONOUS = 1;
+    /** Half day (Molniya and GNSS type) resonance. */
+    static final int HALF_DAY = 2;
+    /** Largest number of resonance integrator checkpoints kept. */
+    static final int MAX_CHECKPOINTS = 128;
+
+//    values from the near earth initialization
+    private final double xn0dp, omega0, omgdot;
+//    lunar-solar periodic coefficients
+    private final double e3, ee2, se2, se3, sgh2, sgh3, sgh4, sh2, sh3, si2, si3, sl2, sl3, sl4,
+            xgh2, xgh3, xgh4, xh2, xh3, xi2, xi3, xl2, xl3, xl4, zmol, zmos;
+//    lunar-solar secular rates
+    private final double dedt, didt, dmdt, dnodt, domdt;
+//    resonance terms
+    final int resonance;
+    private final double gsto, xfact, xlamo, del1, del2, del3,
+            d2201, d2211, d3210, d3222, d4410, d4422, d5220, d5232, d5421, d5433;
+    private final ConcurrentSkipListMap<Integer, double[]> checkpoints = new ConcurrentSkipListMap<>();
+//    only steps that are a multiple of this are kept as checkpoints
+    private volatile int spacing = 1;
+
+    /**
+     * Computes the lunar-solar and resonance terms for a deep space satellite.
+     * @param values    The near earth time independent values of the satellite.
+     * @param tle       The element set of the satellite.
+     */
+    DeepSpace(SGP4TimeIndependentValues values, TLE tle) {
+        MeanElements me = values.me;
+        xn0dp = values.xn0dp;
+        omega0 = me.omega0;
+        omgdot = values.omgdot;
+        JD epochJD = new JD(tle);
+        gsto = Math.toRadians(SiderealTime.earthOffsetAngle(epochJD)) % SGP4Constants.TWOPI;
+
+//        dscom, the lunar and solar terms at epoch
+        double epoch = epochJD.value() - 2433281.5;
+        double em = me.e0;
+        double snodm = Math.sin(me.xnode0);
+        double cnodm = Math.cos(me.xnode0);
+        double sinomm = Math.sin(me.omega0);
+        double cosomm = Math.cos(me.omega0);
+        double sinim = Math.sin(me.xincl);
+        double cosim = Math.cos(me.xincl);
+        double emsq = em * em;
+        double betasq = 1 - emsq;
+        double rtemsq = Math.sqrt(betasq);
+        double day = epoch + 18261.5;
+        double xnodce = (4.5236020 - 9.2422029e-4 * day) % SGP4Constants.TWOPI;
+        double stem = Math.sin(xnodce);
+        double ctem = Math.cos(xnodce);
+        double zcosil = 0.91375164 - 0.03568096 * ctem;
+        double zsinil = Math.sqrt(1 - zcosil * zcosil);
+        double zsinhl = 0.089683511 * stem / zsinil;
+        double zcoshl = Math.sqrt(1 - zsinhl * zsinhl);
+        double gam = 5.8351514 + 0.0019443680 * day;
+        double zx = 0.39785416 * stem / zsinil;
+        double zy = zcoshl * ctem + 0.91744867 * zsinhl * stem;
+        zx = Math.atan2(zx, zy);
+        zx = gam + zx - xnodce;
+        double zcosgl = Math.cos(zx);
+        double zsingl = Math.sin(zx);
+
+//        [0] holds the solar terms and [1] the lunar terms
+        double[][] s = new double[2][8];
+        double[][] z = new double[2][];
+        double zcosg = ZCOSGS, zsing = ZSINGS, zcosi = ZCOSIS, zsini = ZSINIS;
+        double zcosh = cnodm, zsinh = snodm, cc = C1SS;
+        double xnoi = 1 / xn0dp;
+        for (int body = 0; body < 2; body++) {
+            double a1 = zcosg * zcosh + zsing * zcosi * zsinh;
+            double a3 = -zsing * zcosh + zcosg * zcosi * zsinh;
+            double a7 = -zcosg * zsinh + zsing * zcosi * zcosh;
+            double a8 = zsing * zsini;
+            double a9 = zsing * zsinh + zcosg * zcosi * zcosh;
+            double a10 = zcosg * zsini;
+            double a2 = cosim * a7 + sinim * a8;
+            double a4 = cosim * a9 + sinim * a10;
+            double a5 = -sinim * a7 + cosim * a8;
+            double a6 = -sinim * a9 + cosim * a10;
+            double x1 = a1 * cosomm + a2 * sinomm;
+            double x2 = a3 * cosomm + a4 * sinomm;
+            double x3 = -a1 * sinomm + a2 * cosomm;
+            double x4 = -a3 * sinomm + a4 * cosomm;
+            double x5 = a5 * sinomm;
+            double x6 = a6 * sinomm;
+            double x7 = a5 * cosomm;
+            double x8 = a6 * cosomm;
+            double z31 = 12 * x1 * x1 - 3 * x3 * x3;
+            double z32 = 24 * x1 * x2 - 6 * x3 * x4;
+            double z33 = 12 * x2 * x2 - 3 * x4 * x4;
+            double z1 = 3 * (a1 * a1 + a2 * a2) + z31 * emsq;
+            double z2 = 6 * (a1 * a3 + a2 * a4) + z32 * emsq;
+            double z3 = 3 * (a3 * a3 + a4 * a4) + z33 * emsq;
+            double z11 = -6 * a1 * a5 + emsq * (-24 * x1 * x7 - 6 * x3 * x5);
+            double z12 = -6 * (a1 * a6 + a3 * a5) + emsq * (-24 * (x2 * x7 + x1 * x8) - 6 * (x3 * x6 + x4 * x5));
+            double z13 = -6 * a3 * a6 + emsq * (-24 * x2 * x8 - 6 * x4 * x6);
+            double z21 = 6 * a2 * a5 + emsq * (24 * x1 * x5 - 6 * x3 * x7);
+            double z22 = 6 * (a4 * a5 + a2 * a6) + emsq * (24 * (x2 * x5 + x1 * x6) - 6 * (x4 * x7 + x3 * x8));
+            double z23 = 6 * a4 * a6 + emsq * (24 * x2 * x6 - 6 * x4 * x8);
+            z1 = z1 + z1 + betasq * z31;
+            z2 = z2 + z2 + betasq * z32;
+            z3 = z3 + z3 + betasq * z33;
+            double s3 = cc * xnoi;
+            double s2 = -0.5 * s3 / rtemsq;
+            double s4 = s3 * rtemsq;
+            double s1 = -15 * em * s4;
+            s[body] = new double[]{0, s1, s2, s3, s4, x1 * x3 + x2 * x4, x2 * x3 + x1 * x4, x2 * x4 - x1 * x3};
+            z[body] = new double[]{z1, z2, z3, z11, z12, z13, z21, z22, z23, z31, z32, z33};
+//            switch to the moon for the second pass
+            zcosg = zcosgl;
+            zsing = zsingl;
+            zcosi = zcosil;
+            zsini = zsinil;
+            zcosh = zcoshl * cnodm + zsinhl * snodm;
+            zsinh = snodm * zcoshl - cnodm * zsinhl;
+            cc = C1L;
+        }
+        zmol = (4.7199672 + 0.22997150 * day - gam) % SGP4Constants.TWOPI;
+        zmos = (6.2565837 + 0.017201977 * day) % SGP4Constants.TWOPI;
+
+        double[] ss = s[0], sz = z[0], sl = s[1], zl = z[1];
+//        solar periodic coefficients
+        se2 = 2 * ss[1] * ss[6];
+        se3 = 2 * ss[1] * ss[7];
+        si2 = 2 * ss[2] * sz[4];
+        si3 = 2 * ss[2] * (sz[5] - sz[3]);
+        sl2 = -2 * ss[3] * sz[1];
+        sl3 = -2 * ss[3] * (sz[2] - sz[0]);
+        sl4 = -2 * ss[3] * (-21 - 9 * emsq) * ZES;
+        sgh2 = 2 * ss[4] * sz[10];
+        sgh3 = 2 * ss[4] * (sz[11] - sz[9]);
+        sgh4 = -18 * ss[4] * ZES;
+        sh2 = -2 * ss[2] * sz[7];
+        sh3 = -2 * ss[2] * (sz[8] - sz[6]);
+//        lunar periodic coefficients
+        ee2 = 2 * sl[1] * sl[6];
+        e3 = 2 * sl[1] * sl[7];
+        xi2 = 2 * sl[2] * zl[4];
+        xi3 = 2 * sl[2] * (zl[5] - zl[3]);
+        xl2 = -2 * sl[3] * zl[1];
+        xl3 = -2 * sl[3] * (zl[2] - zl[0]);
+        xl4 = -2 * sl[3] * (-21 - 9 * emsq) * ZEL;
+        xgh2 = 2 * sl[4] * zl[10];
+        xgh3 = 2 * sl[4] * (zl[11] - zl[9]);
+        xgh4 = -18 * sl[4] * ZEL;
+        xh2 = -2 * sl[2] * zl[7];
+        xh3 = -2 * sl[2] * (zl[8] - zl[6]);
+
+//        dsinit, the secular rates
+        boolean lowInclination = me.xincl < 5.2359877e-2 || me.xincl > SGP4Constants.PI - 5.2359877e-2;
+        double ses = ss[1] * ZNS * ss[5];
+        double sis = ss[2] * ZNS * (sz[3] + sz[5]);
+        double sls = -ZNS * ss[3] * (sz[0] + sz[2] - 14 - 6 * emsq);
+        double sghs = ss[4] * ZNS * (sz[9] + sz[11] - 6);
+        double shs = lowInclination ? 0 : -ZNS * ss[2] * (sz[6] + sz[8]);
+        if (sinim != 0) shs = shs / sinim;
+        double sgs = sghs - cosim * shs;
+        double sghl = sl[4] * ZNL * (zl[9] + zl[11] - 6);
+        double shll = lowInclination ? 0 : -ZNL * sl[2] * (zl[6] + zl[8]);
+        dedt = ses + sl[1] * ZNL * sl[5];
+        didt = sis + sl[2] * ZNL * (zl[3] + zl[5]);
+        dmdt = sls - ZNL * sl[3] * (zl[0] + zl[2] - 14 - 6 * emsq);
+        double domdtTemp = sgs + sghl;
+        double dnodtTemp = shs;
+        if (sinim != 0) {
+            domdtTemp = domdtTemp - cosim / sinim * shll;
+            dnodtTemp = dnodtTemp + shll / sinim;
+        }
+        domdt = domdtTemp;
+        dnodt = dnodtTemp;
+
+//        resonance terms
+        if (xn0dp < 0.0052359877 && xn0dp > 0.0034906585) resonance = SYNCHRONOUS;
+        else if (xn0dp >= 8.26e-3 && xn0dp <= 9.24e-3 && em >= 0.5) resonance = HALF_DAY;
+        else resonance = NONE;
+        double aonv = Math.pow(xn0dp / SGP4Constants.XKE, SGP4Constants.TOTHRD);
+        double theta = gsto;
+        double r2201 = 0, r2211 = 0, r3210 = 0, r3222 = 0, r4410 = 0, r4422 = 0,
+                r5220 = 0, r5232 = 0, r5421 = 0, r5433 = 0, rdel1 = 0, rdel2 = 0, rdel3 = 0,
+                rxlamo = 0, rxfact = 0;
+        if (resonance == HALF_DAY) {
+            double cosisq = cosim * cosim;
+            double eoc = em * emsq;
+            double g201 = -0.306 - (em - 0.64) * 0.440;
+            double g211, g310, g322, g410, g422, g520, g521, g532, g533;
+            if (em <= 0.65) {
+                g211 = 3.616 - 13.2470 * em + 16.2900 * emsq;
+                g310 = -19.302 + 117.3900 * em - 228.4190 * emsq + 156.5910 * eoc;
+                g322 = -18.9068 + 109.7927 * em - 214.6334 * emsq + 146.5816 * eoc;
+                g410 = -41.122 + 242.6940 * em - 471.0940 * emsq + 313.9530 * eoc;
+                g422 = -146.407 + 841.8800 * em - 1629.014 * emsq + 1083.4350 * eoc;
+                g520 = -532.114 + 3017.977 * em - 5740.032 * emsq + 3708.2760 * eoc;
+            } else {
+                g211 = -72.099 + 331.819 * em - 508.738 * emsq + 266.724 * eoc;
+                g310 = -346.844 + 1582.851 * em - 2415.925 * emsq + 1246.113 * eoc;
+                g322 = -342.585 + 1554.908 * em - 2366.899 * emsq + 1215.972 * eoc;
+                g410 = -1052.797 + 4758.686 * em - 7193.992 * emsq + 3651.957 * eoc;
+                g422 = -3581.690 + 16178.110 * em - 24462.770 * emsq + 12422.520 * eoc;
+                if (em > 0.715) g520 = -5149.66 + 29936.92 * em - 54087.36 * emsq + 31324.56 * eoc;
+                else g520 = 1464.74 - 4664.75 * em + 3763.64 * emsq;
+            }
+            if (em < 0.7) {
+                g533 = -919.22770 + 4988.6100 * em - 9064.7700 * emsq + 5542.21 * eoc;
+                g521 = -822.71072 + 4568.6173 * em - 8491.4146 * emsq + 5337.524 * eoc;
+                g532 = -853.66600 + 4690.2500 * em - 8624.7700 * emsq + 5341.4 * eoc;
+            } else {
+                g533 = -37995.780 + 161616.52 * em - 229838.20 * emsq + 109377.94 * eoc;
+                g521 = -51752.104 + 218913.95 * em - 309468.16 * emsq + 146349.42 * eoc;
+                g532 = -40023.880 + 170470.89 * em - 242699.48 * emsq + 115605.82 * eoc;
+            }
+            double sini2 = sinim * sinim;
+            double f220 = 0.75 * (1 + 2 * cosim + cosisq);
+            double f221 = 1.5 * sini2;
+            double f321 = 1.875 * sinim * (1 - 2 * cosim - 3 * cosisq);
+            double f322 = -1.875 * sinim * (1 + 2 * cosim - 3 * cosisq);
+            double f441 = 35 * sini2 * f220;
+            double f442 = 39.3750 * sini2 * sini2;
+            double f522 = 9.84375 * sinim * (sini2 * (1 - 2 * cosim - 5 * cosisq)
+                    + 0.33333333 * (-2 + 4 * cosim + 6 * cosisq));
+            double f523 = sinim * (4.92187512 * sini2 * (-2 - 4 * cosim + 10 * cosisq)
+                    + 6.56250012 * (1 + 2 * cosim - 3 * cosisq));
+            double f542 = 29.53125 * sinim * (2 - 8 * cosim + cosisq * (-12 + 8 * cosim + 10 * cosisq));
+            double f543 = 29.53125 * sinim * (-2 - 8 * cosim + cosisq * (12 + 8 * cosim - 10 * cosisq));
+            double xno2 = xn0dp * xn0dp;
+            double ainv2 = aonv * aonv;
+            double temp1 = 3 * xno2 * ainv2;
+            double temp = temp1 * ROOT22;
+            r2201 = temp * f220 * g201;
+            r2211 = temp * f221 * g211;
+            temp1 = temp1 * aonv;
+            temp = temp1 * ROOT32;
+            r3210 = temp * f321 * g310;
+            r3222 = temp * f322 * g322;
+            temp1 = temp1 * aonv;
+            temp = 2 * temp1 * ROOT44;
+            r4410 = temp * f441 * g410;
+            r4422 = temp * f442 * g422;
+            temp1 = temp1 * aonv;
+            temp = temp1 * ROOT52;
+            r5220 = temp * f522 * g520;
+            r5232 = temp * f523 * g532;
+            temp = 2 * temp1 * ROOT54;
+            r5421 = temp * f542 * g521;
+            r5433 = temp * f543 * g533;
+            rxlamo = (me.xm0 + me.xnode0 + me.xnode0 - theta - theta) % SGP4Constants.TWOPI;
+            rxfact = values.xmdot + dmdt + 2 * (values.xn0dot + dnodt - RPTIM) - xn0dp;
+        } else if (resonance == SYNCHRONOUS) {
+            double g200 = 1 + emsq * (-2.5 + 0.8125 * emsq);
+            double g310 = 1 + 2 * emsq;
+            double g300 = 1 + emsq * (-6 + 6.60937 * emsq);
+            double f220 = 0.75 * (1 + cosim) * (1 + cosim);
+            double f311 = 0.9375 * sinim * sinim * (1 + 3 * cosim) - 0.75 * (1 + cosim);
+            double f330 = 1 + cosim;
+            f330 = 1.875 * f330 * f330 * f330;
+            rdel1 = 3 * xn0dp * xn0dp * aonv * aonv;
+            rdel2 = 2 * rdel1 * f220 * g200 * Q22;
+            rdel3 = 3 * rdel1 * f330 * g300 * Q33 * aonv;
+            rdel1 = rdel1 * f311 * g310 * Q31 * aonv;
+            rxlamo = (me.xm0 + me.xnode0 + me.omega0 - theta) % SGP4Constants.TWOPI;
+            rxfact = values.xmdot + (values.omgdot + values.xn0dot) - RPTIM + dmdt + domdt + dnodt - xn0dp;
+        }
+        d2201 = r2201;
+        d2211 = r2211;
+        d3210 = r3210;
+        d3222 = r3222;
+        d4410 = r4410;
+        d4422 = r4422;
+        d5220 = r5220;
+        d5232 = r5232;
+        d5421 = r5421;
+        d5433 = r5433;
+        del1 = rdel1;
+        del2 = rdel2;
+        del3 = rdel3;
+        xlamo = rxlamo;
+        xfact = rxfact;
+        checkpoints.put(0, new double[]{xlamo, xn0dp});
+    }
+
+    /**
+     * Applies the lunar-solar secular rates and the resonance effects to the mean elements.
+     * @param t         Time since epoch in minutes.
+     * @param elements  Eccentricity, inclination, argument of perigee, right ascension of the
+     *                  ascending node, mean anomaly and mean motion, updated in place.
+     */
+    void secular(double t, double[] elements) {
+        elements[0] += dedt * t;
+        elements[1] += didt * t;
+        elements[2] += domdt * t;
+        elements[3] += dnodt * t;
+        elements[4] += dmdt * t;
+        if (resonance == NONE) return;
+
+//        resume the integration from the nearest checkpoint between the epoch and t
+        int target = (int) (Math.abs(t) / STEP);
+        if (t < 0) target = -target;
+        Map.Entry<Integer, double[]> start = (target >= 0) ? checkpoints.floorEntry(target) : checkpoints.ceilingEntry(target);
+        int index = start.getKey();
+        double xli = start.getValue()[0];
+        double xni = start.getValue()[1];
+        double delt = (t > 0) ? STEP : -STEP;
+        double[] dot = new double[3];
+        derivatives(index * STEP, xli, xni, dot);
+        while (index != target) {
+            xli = xli + dot[1] * delt + dot[0] * STEP2;
+            xni = xni + dot[0] * delt + dot[2] * STEP2;
+            index += (target > index) ? 1 : -1;
+            if (index % spacing == 0)
+                checkpoints.putIfAbsent(index, new double[]{xli, xni});
+            derivatives(index * STEP, xli, xni, dot);
+        }
+        if (checkpoints.size() > MAX_CHECKPOINTS) thinCheckpoints();
+
+        double ft = t - index * STEP;
+        double theta = (gsto + t * RPTIM) % SGP4Constants.TWOPI;
+        double xn = xni + dot[0] * ft + dot[2] * ft * ft * 0.5;
+        double xl = xli + dot[1] * ft + dot[0] * ft * ft * 0.5;
+        if (resonance == SYNCHRONOUS)
+            elements[4] = xl - elements[3] - elements[2] + theta;
+        else
+            elements[4] = xl - 2 * elements[3] + 2 * theta;
+        elements[5] = xn;
+    }
+
+    /**
+     * Doubles the spacing between checkpoints until the map is within #MAX_CHECKPOINTS. The
+     * epoch is a multiple of every spacing, so it is always kept.
+     */
+    private synchronized void thinCheckpoints() {
+        while (checkpoints.size() > MAX_CHECKPOINTS) {
+            int doubled = 2 * spacing;
+            checkpoints.keySet().removeIf(key -> key % doubled != 0);
+            spacing = doubled;
+        }
+    }
+
+    /**
+     * Computes the rates of the resonance integrator.
+     * @param atime Time of the integrator state in minutes since epoch.
+     * @param xli   Integrated mean longitude.
+     * @param xni   Integrated mean motion.
+     * @param dot   Array to store the mean motion rate, the longitude rate and the second
+     *              derivative of the mean motion.
+     */
+    private void derivatives(double atime, double xli, double xni, double[] dot) {
+        double xldot = xni + xfact;
+        if (resonance == SYNCHRONOUS) {
+            dot[0] = del1 * Math.sin(xli - FASX2) + del2 * Math.sin(2 * (xli - FASX4))
+                    + del3 * Math.sin(3 * (xli - FASX6));
+            dot[2] = (del1 * Math.cos(xli - FASX2) + 2 * del2 * Math.cos(2 * (xli - FASX4))
+                    + 3 * del3 * Math.cos(3 * (xli - FASX6))) * xldot;
+        } else {
+            double xomi = omega0 + omgdot * atime;
+            double x2omi = xomi + xomi;
+            double x2li = xli + xli;
+            dot[0] = d2201 * Math.sin(x2omi + xli - G22) + d2211 * Math.sin(xli - G22)
+                    + d3210 * Math.sin(xomi + xli - G32) + d3222 * Math.sin(-xomi + xli - G32)
+                    + d4410 * Math.sin(x2omi + x2li - G44) + d4422 * Math.sin(x2li - G44)
+                    + d5220 * Math.sin(xomi + xli - G52) + d5232 * Math.sin(-xomi + xli - G52)
+                    + d5421 * Math.sin(xomi + x2li - G54) + d5433 * Math.sin(-xomi + x2li - G54);
+            dot[2] = (d2201 * Math.cos(x2omi + xli - G22) + d2211 * Math.cos(xli - G22)
+                    + d3210 * Math.cos(xomi + xli - G32) + d3222 * Math.cos(-xomi + xli - G32)
+                    + d5220 * Math.cos(xomi + xli - G52) + d5232 * Math.cos(-xomi + xli - G52)
+                    + 2 * (d4410 * Math.cos(x2omi + x2li - G44) + d4422 * Math.cos(x2li - G44)
+                    + d5421 * Math.cos(xomi + x2li - G54) + d5433 * Math.cos(-xomi + x2li - G54))) * xldot;
+        }
+        dot[1] = xldot;
+    }
+
+    /**
+     * Applies the lunar-solar periodic perturbations to the elements.
+     * @param t         Time since epoch in minutes.
+     * @param elements  Eccentricity, inclination, right ascension of the ascending node,
+     *                  argument of perigee and mean anomaly, updated in place.
+     */
+    void periodics(double t, double[] elements) {
+        double zm = zmos + ZNS * t;
+        double zf = zm + 2 * ZES * Math.sin(zm);
+        double sinzf = Math.sin(zf);
+        double f2 = 0.5 * sinzf * sinzf - 0.25;
+        double f3 = -0.5 * sinzf * Math.cos(zf);
+        double ses = se2 * f2 + se3 * f3;
+        double sis = si2 * f2 + si3 * f3;
+        double sls = sl2 * f2 + sl3 * f3 + sl4 * sinzf;
+        double sghs = sgh2 * f2 + sgh3 * f3 + sgh4 * sinzf;
+        double shs = sh2 * f2 + sh3 * f3;
+        zm = zmol + ZNL * t;
+        zf = zm + 2 * ZEL * Math.sin(zm);
+        sinzf = Math.sin(zf);
+        f2 = 0.5 * sinzf * sinzf - 0.25;
+        f3 = -0.5 * sinzf * Math.cos(zf);
+        double sel = ee2 * f2 + e3 * f3;
+        double sil = xi2 * f2 + xi3 * f3;
+        double sll = xl2 * f2 + xl3 * f3 + xl4 * sinzf;
+        double sghl = xgh2 * f2 + xgh3 * f3 + xgh4 * sinzf;
+        double shll = xh2 * f2 + xh3 * f3;
+        double pe = ses + sel;
+        double pinc = sis + sil;
+        double pl = sls + sll;
+        double pgh = sghs + sghl;
+        double ph = shs + shll;
+
+        double inclp = elements[1] + pinc;
+        double nodep = elements[2];
+        double argpp = elements[3];
+        double mp = elements[4];
+        double sinip = Math.sin(inclp);
+        double cosip = Math.cos(inclp);
+        if (inclp >= 0.2) {
+            ph = ph / sinip;
+            pgh = pgh - cosip * ph;
+            argpp = argpp + pgh;
+            nodep = nodep + ph;
+            mp = mp + pl;
+        } else {
+//            Lyddane modification for low inclinations
+            double sinop = Math.sin(nodep);
+            double cosop = Math.cos(nodep);
+            double alfdp = sinip * sinop;
+            double betdp = sinip * cosop;
+            double dalf = ph * cosop + pinc * cosip * sinop;
+            double dbet = -ph * sinop + pinc * cosip * cosop;
+            alfdp = alfdp + dalf;
+            betdp = betdp + dbet;
+            nodep = nodep % SGP4Constants.TWOPI;
+            if (nodep < 0) nodep += SGP4Constants.TWOPI;
+            double xls = mp + argpp + cosip * nodep;
+            double dls = pl + pgh - pinc * nodep * sinip;
+            xls = xls + dls;
+            double xnoh = nodep;
+            nodep = Math.atan2(alfdp, betdp);
+            if (nodep < 0) nodep += SGP4Constants.TWOPI;
+            if (Math.abs(xnoh - nodep) > SGP4Constants.PI) {
+                if (nodep < xnoh) nodep += SGP4Constants.TWOPI;
+                else nodep -= SGP4Constants.TWOPI;
+            }
+            mp = mp + pl;
+            argpp = xls - mp - cosip * nodep;
+        }
+        elements[0] += pe;
+        elements[1] = inclp;
+        elements[2] = nodep;
+        elements[3] = argpp;
+        elements[4] = mp;
+    }
+
+    /**
+     * Retrieves the number of resonance integrator checkpoints currently stored.
+     * @return The checkpoint count, including the epoch.
+     */
+    int getCheckpointCount() {
+        return checkpoints.size();
+    }
+
+}
@@ -0,0 +1,291 @@
+/** @file
+ * This file contains the Ephemeris class, a precomputed table of Chebyshev polynomial
+ * segments fit to the SGP4 state of a satellite over a span of time.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.math.ChebyshevSegments;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.time.JD;
+
+/**
+ * A compressed ephemeris of a satellite over a fixed span of time. The span is divided into
+ * segments and each component of the position and velocity is fit with a Chebyshev polynomial
+ * over its segment. Evaluating a state is then a binary search for the segment and a short
+ * Clenshaw recurrence, instead of the full SGP4 secular, periodic and Kepler computations.
+ * This makes an ephemeris well suited to high rate consumers such as animation, antenna
+ * pointing and visibility scans.
+ * <p>
+ * An ephemeris is built with one of the #build methods. Segments that fail to meet the
+ * requested position error bound are split in half and refit until they do, so the segment
+ * count adapts to the orbit. The number of segments, the worst fitting error found while
+ * checking each segment and the time taken to build are all kept, and #measureEvaluationTime
+ * reports the evaluation speed, so memory can be traded against accuracy.
+ * <p>
+ * The segments are fit to, and checked against, the SGP4 model with Kepler's equation fully
+ * converged by a SteppingPropagator, not against Satellite#getState. Plain SGP4 stops its
+ * Kepler iteration within 1e-6 radians, so it differs from the converged model by up to
+ * several meters in low earth orbit (6.6 meters for the ISS over a day). The error bound and
+ * #getMaxPositionError are relative to the converged model, the difference from
+ * Satellite#getState can be as large as that bound plus the Kepler truncation.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class Ephemeris implements Propagator {
+    /** Polynomial degree used by #build(Satellite, JD, JD, double). */
+    public static final int DEFAULT_DEGREE = 12;
+    /** Fraction of an orbital period used as the initial segment length by #build(Satellite, JD, JD, double). */
+    public static final double DEFAULT_SEGMENT_FRACTION = 0.5;
+    /** Segments are never split below this length in minutes, whether or not they meet the bound. */
+    public static final double MINIMUM_SEGMENT_LENGTH = 1.0 / 60.0;
+
+    private final Satellite satellite;
+    private final JD epoch;
+    private final double tolerance;
+//    six components (x, y, z, vx, vy, vz) in minutes since the TLE epoch
+    private final ChebyshevSegments segments;
+
+    private Ephemeris(Satellite satellite, double tolerance, ChebyshevSegments segments) {
+        this.satellite = satellite;
+        this.epoch = new JD(satellite.getTle());
+        this.tolerance = tolerance;
+        this.segments = segments;
+    }
+
+    /**
+     * Builds an ephemeris with the default polynomial degree and initial segment length.
+     * @param satellite The satellite to fit.
+     * @param start     Start of the span covered by the ephemeris.
+     * @param end       End of the span covered by the ephemeris.
+     * @param tolerance Maximum position error in meters of any segment.
+     * @return          The fitted ephemeris.
+     * @throws IllegalArgumentException If @p end is not after @p start or @p tolerance is not positive.
+     */
+    public static Ephemeris build(Satellite satellite, JD start, JD end, double tolerance) {
+        double period = SGP4Constants.TWOPI / satellite.xn0dp;
+        return build(satellite, start, end, tolerance, DEFAULT_DEGREE, DEFAULT_SEGMENT_FRACTION * period);
+    }
+
+    /**
+     * Builds an ephemeris by fitting Chebyshev polynomials to the SGP4 state of a satellite,
+     * with Kepler's equation fully converged by a SteppingPropagator. The span is divided
+     * into segments of @p segmentLength, and any segment whose position error is larger than
+     * @p tolerance is bisected and refit.
+     * @param satellite     The satellite to fit.
+     * @param start         Start of the span covered by the ephemeris.
+     * @param end           End of the span covered by the ephemeris.
+     * @param tolerance     Maximum position error in meters of any segment.
+     * @param degree        Degree of the polynomial fit to each component.
+     * @param segmentLength Initial length of each segment in minutes.
+     * @return              The fitted ephemeris.
+     * @throws IllegalArgumentException If @p end is not after @p start, or @p tolerance,
+     *                                  @p degree or @p segmentLength are not positive.
+     */
+    public static Ephemeris build(Satellite satellite, JD start, JD end, double tolerance,
+                                  int degree, double segmentLength) {
+        JD epoch = new JD(satellite.getTle());
+//        sampled with a SteppingPropagator, whose fully converged Kepler solution is smooth in time
+        SteppingPropagator stepper = new SteppingPropagator(satellite);
+        double[] scratch = new double[6];
+        ChebyshevSegments segments = ChebyshevSegments.fit((times, values) -> {
+            for (int j = 0; j < times.length; j++) {
+                satellite.propagate(times[j], scratch, stepper);
+                for (int c = 0; c < 6; c++)
+                    values[c][j] = scratch[c];
+            }
+        }, 6, start.difference(epoch) * SGP4Constants.XMNPDA, end.difference(epoch) * SGP4Constants.XMNPDA,
+                tolerance, degree, segmentLength, MINIMUM_SEGMENT_LENGTH);
+        return new Ephemeris(satellite, tolerance, segments);
+    }
+
+    /**
+     * Evaluates the ephemeris at a time.
+     * @param time  Time to find the state vectors, within the span of the ephemeris.
+     * @return      The state vectors of the satellite at @p time.
+     * @throws IllegalArgumentException If @p time is outside the span of the ephemeris.
+     */
+    @Override
+    public StateVectors getState(JD time) {
+        return getState(time.difference(epoch) * SGP4Constants.XMNPDA);
+    }
+
+    /**
+     * Evaluates the ephemeris at a time relative to the TLE epoch.
+     * @param dt    Time since the TLE epoch in minutes, within the span of the ephemeris.
+     * @return      The state vectors of the satellite.
+     * @throws IllegalArgumentException If @p dt is outside the span of the ephemeris.
+     */
+    public StateVectors getState(double dt) {
+        double[] scratch = new double[6];
+        evaluate(dt, scratch);
+        return new StateVectors(
+                new Vector(scratch[0], scratch[1], scratch[2]),
+                new Vector(scratch[3], scratch[4], scratch[5])
+        );
+    }
+
+    /**
+     * Evaluates the ephemeris over an evenly spaced time grid, writing the state vectors
+     * into caller supplied arrays in a structure-of-arrays layout.
+     * @param start Time of the first sample in minutes since the TLE epoch.
+     * @param step  Time between successive samples in minutes.
+     * @param count Number of samples to compute.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @param vx    Array to store the x-component of the velocity in meters / second.
+     * @param vy    Array to store the y-component of the velocity in meters / second.
+     * @param vz    Array to store the z-component of the velocity in meters / second.
+     * @throws IllegalArgumentException If any of the arrays are shorter than @p count, or
+     *                                  a sample is outside the span of the ephemeris.
+     */
+    public void getStates(double start, double step, int count,
+                          double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz) {
+        Satellite.checkLengths(count, x, y, z, vx, vy, vz);
+        double[] scratch = new double[6];
+        for (int i = 0; i < count; i++) {
+            evaluate(start + step * i, scratch);
+            x[i] = scratch[0];
+            y[i] = scratch[1];
+            z[i] = scratch[2];
+            vx[i] = scratch[3];
+            vy[i] = scratch[4];
+            vz[i] = scratch[5];
+        }
+    }
+
+    /**
+     * Evaluates every component at a time. This method allocates nothing.
+     * @param dt    Time since the TLE epoch in minutes.
+     * @param out   Array of length 6 to store the position and velocity components.
+     */
+    void evaluate(double dt, double[] out) {
+        segments.evaluate(dt, out);
+    }
+
+    /**
+     * Measures the mean time taken to evaluate a state, sweeping evenly across the span of
+     * the ephemeris. The result includes JIT warm up if this is the first use.
+     * @param samples   Number of states to evaluate.
+     * @return          The mean evaluation time in nanoseconds.
+     */
+    public double measureEvaluationTime(int samples) {
+        return segments.measureEvaluationTime(samples);
+    }
+
+    /**
+     * Retrieves the fidelity of this model.
+     * @return Propagator.Fidelity#INTERPOLATED.
+     */
+    @Override
+    public Fidelity getFidelity() {
+        return Fidelity.INTERPOLATED;
+    }
+
+    /**
+     * Retrieves the satellite this ephemeris was fit to.
+     * @return The satellite.
+     */
+    public Satellite getSatellite() {
+        return satellite;
+    }
+
+    /**
+     * Retrieves the start of the span covered by the ephemeris.
+     * @return The start time.
+     */
+    public JD getStartTime() {
+        return epoch.future(segments.getStart() / SGP4Constants.XMNPDA);
+    }
+
+    /**
+     * Retrieves the end of the span covered by the ephemeris.
+     * @return The end time.
+     */
+    public JD getEndTime() {
+        return epoch.future(segments.getEnd() / SGP4Constants.XMNPDA);
+    }
+
+    /**
+     * Determines if a time is within the span of the ephemeris.
+     * @param time  The time to check.
+     * @return      True if the ephemeris can be evaluated at @p time.
+     */
+    public boolean contains(JD time) {
+        return segments.contains(time.difference(epoch) * SGP4Constants.XMNPDA);
+    }
+
+    /**
+     * Retrieves the number of segments the span was divided into.
+     * @return The segment count.
+     */
+    public int getSegmentCount() {
+        return segments.getSegmentCount();
+    }
+
+    /**
+     * Retrieves the degree of the polynomials.
+     * @return The polynomial degree.
+     */
+    public int getDegree() {
+        return segments.getDegree();
+    }
+
+    /**
+     * Retrieves the number of coefficients stored, a measure of the memory used.
+     * @return The total coefficient count.
+     */
+    public int getCoefficientCount() {
+        return segments.getCoefficientCount();
+    }
+
+    /**
+     * Retrieves the position error bound the ephemeris was built with.
+     * @return The tolerance in meters.
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Retrieves the largest position error found when checking the segments against the
+     * converged SGP4 model of the SteppingPropagator.
+     * @return The maximum position error in meters.
+     */
+    public double getMaxPositionError() {
+        return segments.getMaxError(0);
+    }
+
+    /**
+     * Retrieves the largest velocity error found when checking the segments against the
+     * converged SGP4 model of the SteppingPropagator.
+     * @return The maximum velocity error in meters / second.
+     */
+    public double getMaxVelocityError() {
+        return segments.getMaxError(1);
+    }
+
+    /**
+     * Retrieves the time taken to fit the ephemeris.
+     * @return The build time in milliseconds.
+     */
+    public double getBuildTime() {
+        return segments.getBuildTime();
+    }
+
+    @Override
+    public String toString() {
+        return "Ephemeris{" +
+                "satellite=" + satellite.getName().trim() +
+                ", segments=" + getSegmentCount() +
+                ", degree=" + getDegree() +
+                ", coefficients=" + getCoefficientCount() +
+                ", maxPositionError=" + getMaxPositionError() +
+                ", maxVelocityError=" + getMaxVelocityError() +
+                ", buildTime=" + getBuildTime() + "ms" +
+                '}';
+    }
+
+}
@@ -0,0 +1,223 @@
+/** @file
+ * This file contains the FastMathPropagator class, which propagates a satellite with a
+ * reduced precision SGP4 kernel and keeps a running report of its accuracy.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.math.FastMath;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.time.JD;
+
+/**
+ * Propagates a shared {@link Satellite} with a reduced precision version of the SGP4 kernel,
+ * for the first pass of large jobs such as visibility screening or conjunction prefilters.
+ * The kernel is the one Satellite uses, with the sines and cosines evaluated by the
+ * polynomial approximations of {@link FastMath}. The trigonometric error is bounded by
+ * FastMath#MAX_ERROR, which amounts to millimeters of position error in low earth orbit.
+ * Deep space satellites are propagated with the exact kernel.
+ * <p>
+ * Rather than trusting the bound, every @p checkInterval'th propagation is repeated with the
+ * exact kernel and the difference is recorded, so each run carries its own accuracy report.
+ * A fast math propagator holds this mutable state and should be confined to a single thread,
+ * many of them can share the same satellite.
+ */
+public class FastMathPropagator implements Propagator {
+    /** Number of propagations between accuracy checks used by #FastMathPropagator(Satellite). */
+    public static final int DEFAULT_CHECK_INTERVAL = 100;
+
+    private final Satellite satellite;
+    private final int checkInterval;
+    private final double[] scratch = new double[6];
+    private final double[] exact = new double[6];
+//    accuracy statistics
+    private long samples = 0, checks = 0;
+    private double maxPositionError = 0, maxVelocityError = 0, sumPositionError = 0;
+
+    /**
+     * Constructs a fast math propagator that checks one propagation in every
+     * #DEFAULT_CHECK_INTERVAL against the exact kernel.
+     * @param satellite The shared satellite to propagate.
+     */
+    public FastMathPropagator(Satellite satellite) {
+        this(satellite, DEFAULT_CHECK_INTERVAL);
+    }
+
+    /**
+     * Constructs a fast math propagator.
+     * @param satellite     The shared satellite to propagate.
+     * @param checkInterval Number of propagations between checks against the exact kernel,
+     *                      1 to check every propagation or 0 to never check.
+     * @throws IllegalArgumentException If @p checkInterval is negative.
+     */
+    public FastMathPropagator(Satellite satellite, int checkInterval) {
+        if (checkInterval < 0)
+            throw new IllegalArgumentException("Check interval must not be negative.");
+        this.satellite = satellite;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Propagates the satellite to a time.
+     * @param time  Time to find the state vectors.
+     * @return      The state vectors of the satellite at @p time.
+     */
+    @Override
+    public StateVectors getState(JD time) {
+        return getState(time.difference(new JD(satellite.getTle())) * SGP4Constants.XMNPDA);
+    }
+
+    /**
+     * Propagates the satellite to a time relative to its epoch.
+     * @param dt    Time since the TLE epoch in minutes.
+     * @return      The state vectors of the satellite.
+     */
+    public StateVectors getState(double dt) {
+        propagate(dt);
+        return new StateVectors(
+                new Vector(scratch[0], scratch[1], scratch[2]),
+                new Vector(scratch[3], scratch[4], scratch[5])
+        );
+    }
+
+    /**
+     * Propagates the satellite over an evenly spaced time grid, writing the state vectors
+     * into caller supplied arrays in a structure-of-arrays layout. This is the reduced
+     * precision equivalent of
+     * {@link Satellite#getStates(double, double, int, double[], double[], double[], double[], double[], double[])}.
+     * @param start Time of the first sample in minutes since the TLE epoch.
+     * @param step  Time between successive samples in minutes.
+     * @param count Number of samples to compute.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @param vx    Array to store the x-component of the velocity in meters / second.
+     * @param vy    Array to store the y-component of the velocity in meters / second.
+     * @param vz    Array to store the z-component of the velocity in meters / second.
+     * @throws IllegalArgumentException If any of the arrays are shorter than @p count.
+     */
+    public void getStates(double start, double step, int count,
+                          double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz) {
+        Satellite.checkLengths(count, x, y, z, vx, vy, vz);
+        for (int i = 0; i < count; i++) {
+            propagate(start + step * i);
+            x[i] = scratch[0];
+            y[i] = scratch[1];
+            z[i] = scratch[2];
+            vx[i] = scratch[3];
+            vy[i] = scratch[4];
+            vz[i] = scratch[5];
+        }
+    }
+
+    private void propagate(double dt) {
+        satellite.propagate(dt, scratch, null, Trigonometry.FAST);
+        if (checkInterval > 0 && samples % checkInterval == 0) {
+            satellite.propagate(dt, exact);
+            double position = distance(scratch, exact, 0);
+            double velocity = distance(scratch, exact, 3);
+            maxPositionError = Math.max(maxPositionError, position);
+            maxVelocityError = Math.max(maxVelocityError, velocity);
+            sumPositionError += position;
+            checks++;
+        }
+        samples++;
+    }
+
+    private static double distance(double[] a, double[] b, int offset) {
+        double dx = a[offset] - b[offset];
+        double dy = a[offset + 1] - b[offset + 1];
+        double dz = a[offset + 2] - b[offset + 2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Resets the accuracy report.
+     */
+    public void resetStatistics() {
+        samples = 0;
+        checks = 0;
+        maxPositionError = 0;
+        maxVelocityError = 0;
+        sumPositionError = 0;
+    }
+
+    /**
+     * Retrieves the fidelity of this model.
+     * @return Propagator.Fidelity#REDUCED.
+     */
+    @Override
+    public Fidelity getFidelity() {
+        return Fidelity.REDUCED;
+    }
+
+    /**
+     * Retrieves the satellite this propagator propagates.
+     * @return The shared satellite.
+     */
+    public Satellite getSatellite() {
+        return satellite;
+    }
+
+    /**
+     * Retrieves the number of propagations between accuracy checks.
+     * @return The check interval, 0 if propagations are never checked.
+     */
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Retrieves the number of propagations since the report was last reset.
+     * @return The number of propagated samples.
+     */
+    public long getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * Retrieves the number of propagations that were checked against the exact kernel.
+     * @return The number of checked samples.
+     */
+    public long getCheckCount() {
+        return checks;
+    }
+
+    /**
+     * Retrieves the largest position difference from the exact kernel among the checked samples.
+     * @return The maximum position error in meters.
+     */
+    public double getMaxPositionError() {
+        return maxPositionError;
+    }
+
+    /**
+     * Retrieves the largest velocity difference from the exact kernel among the checked samples.
+     * @return The maximum velocity error in meters / second.
+     */
+    public double getMaxVelocityError() {
+        return maxVelocityError;
+    }
+
+    /**
+     * Retrieves the mean position difference from the exact kernel among the checked samples.
+     * @return The mean position error in meters, or zero if nothing has been checked.
+     */
+    public double getMeanPositionError() {
+        return (checks == 0) ? 0.0 : sumPositionError / checks;
+    }
+
+    @Override
+    public String toString() {
+        return "FastMathPropagator{" +
+                "satellite=" + satellite.getName().trim() +
+                ", samples=" + samples +
+                ", checks=" + checks +
+                ", maxPositionError=" + maxPositionError +
+                ", meanPositionError=" + getMeanPositionError() +
+                ", maxVelocityError=" + maxVelocityError +
+                '}';
+    }
+
+}
@@ -0,0 +1,172 @@
+/** @file
+ * This file contains the J2Propagator class, a cheap two-body propagator with the secular
+ * effects of the earth's oblateness, meant for screening long spans of time.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.math.OrbitalMath;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.COE;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.time.JD;
+
+/**
+ * Propagates the mean elements of a TLE as a conic orbit whose node, perigee and mean
+ * anomaly drift at the secular J2 rates, with the first derivative of the mean motion
+ * applied as a simple drag term. This is the model of COE#COE(TLE, double), worked
+ * consistently in SGP4 units and with the original mean motion recovered from the TLE the
+ * same way SGP4 does. There are no periodic terms and no deep space effects, so the state
+ * drifts from SGP4 by several kilometers over a day. In exchange a state costs one short
+ * Kepler solve and a handful of sines and cosines, which makes this propagator the
+ * Propagator.Fidelity#SCREENING tier used to find the windows worth refining with SGP4.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class J2Propagator implements Propagator {
+    private static final int MAX_ITERATIONS = 10;
+    private static final double positionScale = 1000.0 * SGP4Constants.XKMPER;
+    private static final double velocityScale = 1000.0 * SGP4Constants.XKMPER / 60.0;
+
+    private final TLE tle;
+    private final JD epoch;
+    private final MeanElements me;
+    private final double xn0dp, a0dp, cosi0, sini0, nodeRate, argpRate, meanAnomalyRate;
+
+    /**
+     * Constructs a propagator from the mean elements of a TLE.
+     * @param tle   TLE of the satellite.
+     */
+    public J2Propagator(TLE tle) {
+        this.tle = tle;
+        this.epoch = new JD(tle);
+        this.me = new MeanElements(tle);
+//        recover the original mean motion and semi-major axis, as in SGP4
+        double a1 = Math.pow(SGP4Constants.XKE / me.xn0, SGP4Constants.TOTHRD);
+        cosi0 = Math.cos(me.xincl);
+        sini0 = Math.sin(me.xincl);
+        double x3thm1 = 3 * cosi0 * cosi0 - 1;
+        double beta02 = 1 - me.e0 * me.e0;
+        double beta0 = Math.sqrt(beta02);
+        double del1 = 1.5 * SGP4Constants.CK2 * x3thm1 / (a1 * a1 * beta0 * beta02);
+        double a0 = a1 * (1 - del1 * (0.5 * SGP4Constants.TOTHRD + del1 * (1 + 134.0 / 81.0 * del1)));
+        double del0 = 1.5 * SGP4Constants.CK2 * x3thm1 / (a0 * a0 * beta0 * beta02);
+        xn0dp = me.xn0 / (1 + del0);
+        a0dp = a0 / (1 - del0);
+//        first order secular rates from J2, CK2 is J2 / 2 in earth radii squared
+        double pinvsq = 1.0 / (a0dp * a0dp * beta02 * beta02);
+        double temp = 3 * SGP4Constants.CK2 * pinvsq * xn0dp;
+        nodeRate = -temp * cosi0;
+        argpRate = 0.5 * temp * (5 * cosi0 * cosi0 - 1);
+        meanAnomalyRate = xn0dp + 0.5 * temp * beta0 * x3thm1;
+    }
+
+    /**
+     * Propagates the satellite to a time.
+     * @param time  Time to find the state vectors.
+     * @return      The state vectors of the satellite at @p time.
+     */
+    @Override
+    public StateVectors getState(JD time) {
+        return getState(time.difference(epoch) * SGP4Constants.XMNPDA);
+    }
+
+    /**
+     * Propagates the satellite to a time relative to its epoch.
+     * @param dt    Time since the TLE epoch in minutes.
+     * @return      The state vectors of the satellite.
+     */
+    public StateVectors getState(double dt) {
+        double decay = decay(dt);
+        double a = a0dp * (1 - decay);
+        double e = Math.max(me.e0 - (1 - me.e0) * decay, 0.0);
+        double node = me.xnode0 + nodeRate * dt;
+        double argp = me.omega0 + argpRate * dt;
+        double m = me.xm0 + meanAnomalyRate * dt + me.xndt20 * dt * dt;
+        m -= SGP4Constants.TWOPI * Math.floor(m / SGP4Constants.TWOPI);
+
+//        Newton's method on Kepler's equation, keeping the sine and cosine of the last iterate
+        double epw = m;
+        double sinE = 0, cosE = 0;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            sinE = Math.sin(epw);
+            cosE = Math.cos(epw);
+            double correction = (epw - e * sinE - m) / (1 - e * cosE);
+            if (Math.abs(correction) <= SGP4Constants.E6A) break;
+            epw -= correction;
+        }
+        double beta = Math.sqrt(1 - e * e);
+        double ecosE = 1 - e * cosE;
+        double cosv = (cosE - e) / ecosE;
+        double sinv = beta * sinE / ecosE;
+        double r = a * ecosE;
+
+//        argument of latitude, and the unit vectors along the node and normal to it in the orbit plane
+        double sinArgp = Math.sin(argp), cosArgp = Math.cos(argp);
+        double sinu = sinArgp * cosv + cosArgp * sinv;
+        double cosu = cosArgp * cosv - sinArgp * sinv;
+        double sinNode = Math.sin(node), cosNode = Math.cos(node);
+        double mx = -sinNode * cosi0, my = cosNode * cosi0;
+
+        double rScale = r * positionScale;
+        double vScale = SGP4Constants.XKE / Math.sqrt(a * beta * beta) * velocityScale;
+        double vn = -(sinu + e * sinArgp) * vScale;
+        double vm = (cosu + e * cosArgp) * vScale;
+        return new StateVectors(
+                new Vector((cosu * cosNode + sinu * mx) * rScale, (cosu * sinNode + sinu * my) * rScale, sinu * sini0 * rScale),
+                new Vector(vn * cosNode + vm * mx, vn * sinNode + vm * my, vm * sini0)
+        );
+    }
+
+    /**
+     * Computes the propagated mean elements at a time.
+     * @param time  Time to find the orbital elements.
+     * @return      The orbital elements at @p time, in meters and degrees.
+     */
+    public COE getElements(JD time) {
+        double dt = time.difference(epoch) * SGP4Constants.XMNPDA;
+        double decay = decay(dt);
+        double e = Math.max(me.e0 - (1 - me.e0) * decay, 0.0);
+        double m = wrap(me.xm0 + meanAnomalyRate * dt + me.xndt20 * dt * dt);
+        return new COE(
+                a0dp * (1 - decay) * positionScale,
+                e,
+                Math.toDegrees(wrap(me.xnode0 + nodeRate * dt)),
+                Math.toDegrees(wrap(me.omega0 + argpRate * dt)),
+                Math.toDegrees(me.xincl),
+                Math.toDegrees(OrbitalMath.mean2True(m, e))
+        );
+    }
+
+    /**
+     * Computes the fractional decay of the semi-major axis from the change in mean motion,
+     * da/dt = -2a/3n dn/dt.
+     */
+    private double decay(double dt) {
+        return 2 * SGP4Constants.TOTHRD * me.xndt20 * dt / xn0dp;
+    }
+
+    private static double wrap(double angle) {
+        angle %= SGP4Constants.TWOPI;
+        return (angle < 0) ? angle + SGP4Constants.TWOPI : angle;
+    }
+
+    /**
+     * Retrieves the fidelity of this model.
+     * @return Propagator.Fidelity#SCREENING.
+     */
+    @Override
+    public Fidelity getFidelity() {
+        return Fidelity.SCREENING;
+    }
+
+    /**
+     * Retrieves the TLE the mean elements were taken from.
+     * @return The TLE of the satellite.
+     */
+    public TLE getTle() {
+        return tle;
+    }
+
+}
@@ -0,0 +1,25 @@
+/** @file
+ * This file contains the MeanElements class, the SGP4 mean elements of a TLE in radians
+ * and minutes.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.orbit.TLE;
+
+class MeanElements {
+    public final double xm0, xnode0, omega0, e0, xincl, xn0, xndt20, xndd60;
+
+    public MeanElements(TLE tle) {
+        xm0     = Math.toRadians( tle.meanAnomaly() );
+        xnode0  = Math.toRadians( tle.lan() );
+        omega0  = Math.toRadians( tle.aop() );
+        e0      = tle.eccentricity();
+        xincl   = Math.toRadians( tle.inclination() );
+        xn0     = tle.meanMotion() * SGP4Constants.TWOPI / SGP4Constants.XMNPDA;
+        xndt20  = tle.meanMotionDot() * SGP4Constants.TWOPI
+                / (SGP4Constants.XMNPDA * SGP4Constants.XMNPDA);
+        xndd60  = tle.meanMotionDDot() * SGP4Constants.TWOPI
+                / (SGP4Constants.XMNPDA * SGP4Constants.XMNPDA * SGP4Constants.XMNPDA);
+    }
+}
@@ -0,0 +1,82 @@
+/** @file
+ * This file contains the PropagationContext class, which keeps the most recent
+ * result of propagating a shared Satellite for a single caller.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.time.JD;
+
+/**
+ * Per-caller wrapper around a shared {@link Satellite} that remembers the most recent
+ * propagation. Satellites are immutable and shared between threads, so any "last result"
+ * state belongs to the caller. A context is cheap to create and should be confined to a
+ * single thread, it is not safe to share one context between threads.
+ */
+public class PropagationContext {
+    private final Satellite satellite;
+    private JD time;
+    private StateVectors state;
+
+    /**
+     * Constructs a context for a satellite with no recent state.
+     * @param satellite The shared satellite to propagate.
+     */
+    public PropagationContext(Satellite satellite) {
+        this.satellite = satellite;
+    }
+
+    /**
+     * Propagates the satellite to a time and remembers the result. Asking for the same
+     * time as the previous call returns the remembered state without propagating.
+     * @param time  Time to find the state vectors.
+     * @return      The state vectors of the satellite at @p time.
+     */
+    public StateVectors getState(JD time) {
+        if (this.time == null || this.time.value() != time.value()) {
+            this.state = satellite.getState(time);
+            this.time = time;
+        }
+        return state;
+    }
+
+    /**
+     * Propagates the satellite to a time relative to its epoch and remembers the result.
+     * @param dt    Time since the TLE epoch in minutes.
+     * @return      The state vectors of the satellite.
+     */
+    public StateVectors getState(double dt) {
+        JD time = new JD(satellite.getTle()).future(dt / JD.MINUTESPERDAY);
+        if (this.time == null || this.time.value() != time.value()) {
+            this.state = satellite.getState(dt);
+            this.time = time;
+        }
+        return state;
+    }
+
+    /**
+     * Retrieves the satellite this context propagates.
+     * @return The shared satellite.
+     */
+    public Satellite getSatellite() {
+        return satellite;
+    }
+
+    /**
+     * Retrieves the time of the most recent propagation.
+     * @return The time of the most recent state, or {@code null} if none has been computed.
+     */
+    public JD getRecentTime() {
+        return time;
+    }
+
+    /**
+     * Retrieves the most recently propagated state.
+     * @return The most recent state, or {@code null} if none has been computed.
+     */
+    public StateVectors getRecentState() {
+        return state;
+    }
+
+}
@@ -0,0 +1,45 @@
+/** @file
+ * This file contains the Propagator interface, implemented by every model that can
+ * compute the state of a satellite at a given time.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.time.JD;
+
+/**
+ * A source of satellite states. The tracking methods accept any propagator, so the model
+ * can be chosen per query. Cheap, low fidelity models can screen long spans of time, and
+ * only the candidate windows they find need to be refined with full SGP4.
+ */
+public interface Propagator {
+
+    /**
+     * The fidelity tiers of the available models, from cheapest to most accurate.
+     */
+    enum Fidelity {
+        /** Secular two-body motion with J2, see J2Propagator. Errors grow to kilometers within a day. */
+        SCREENING,
+        /** States interpolated or fit to SGP4, see StateCache and Ephemeris. */
+        INTERPOLATED,
+        /** The SGP4 model with approximate trigonometry, see FastMathPropagator. Errors are millimeters. */
+        REDUCED,
+        /** The full SGP4 or SDP4 model, see Satellite. */
+        FULL
+    }
+
+    /**
+     * Computes the state of the satellite at a time.
+     * @param time  Time to find the state vectors.
+     * @return      The state vectors of the satellite at @p time, in meters and meters / second.
+     */
+    StateVectors getState(JD time);
+
+    /**
+     * Retrieves the fidelity tier of this propagator.
+     * @return The fidelity of the model.
+     */
+    Fidelity getFidelity();
+
+}
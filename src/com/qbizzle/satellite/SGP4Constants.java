@@ -0,0 +1,25 @@
+/** @file
+ * This file contains the SGP4Constants class, the constants of the SGP4 model.
+ */
+
+package com.qbizzle.satellite;
+
+class SGP4Constants {
+    static final double
+            CK2     = 5.413080e-4,
+            CK4     = 0.62098875e-6,
+            E6A     = 1E-6,
+            Q0MS2T  = 1.88027916e-9,
+            S       = 1.01222928,
+            TOTHRD  = 2.0 / 3.0,
+            XJ3     = -0.253881e-5,
+            XKE     = 0.743669161e-1,
+            XKMPER  = 6378.135,
+            XMNPDA  = 1440.0,
+            AE      = 1.0,
+            DE2RA   = 0.174532925e-1,
+            PI      = Math.PI,
+            PIO2    = Math.PI / 2.0,
+            TWOPI   = 2.0 * Math.PI,
+            X3PIO2  = 3.0 * PIO2;
+}
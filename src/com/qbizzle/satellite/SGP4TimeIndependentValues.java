@@ -0,0 +1,111 @@
+/** @file
+ * This file contains the SGP4TimeIndependentValues class, the part of the SGP4 model that
+ * is computed once per TLE.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.orbit.TLE;
+
+/**
+ * The SGP4 values that don't depend on time. Every field is final and assigned in the
+ * constructor, so instances are safely published and can be shared between threads.
+ */
+class SGP4TimeIndependentValues {
+    final MeanElements me;
+    final boolean isImp;
+    final DeepSpace deepSpace;
+    final double cosi0, x3thm1, xn0dp, a0dp, s4, q0ms24, tsi, eta, c1, sini0, x1mth2, c4, c5, xmdot, omgdot, xn0dot,
+            omgcof, xmcof, xnodcf, t2cof, xlcof, aycof, delm0, sinm0, x7thm1, d2, d3, d4, t3cof, t4cof, t5cof;
+
+    public SGP4TimeIndependentValues(TLE tle) {
+        me = new MeanElements(tle);
+
+//        Recover original mean motion (xn0dp) and semimajor axis (a0dp) from input elements
+        double a1 = Math.pow(SGP4Constants.XKE / me.xn0, SGP4Constants.TOTHRD);
+        cosi0 = Math.cos(me.xincl);
+        double theta2 = cosi0 * cosi0;
+        x3thm1 = 3 * theta2 - 1;
+        double e0sq = me.e0 * me.e0;
+        double beta02 = 1 - e0sq;
+        double beta0 = Math.sqrt(beta02);
+        double del1 = 1.5 * SGP4Constants.CK2 * x3thm1 / (a1 * a1 * beta0 * beta02);
+        double a0 = a1 * (1 - del1 * (0.5 * SGP4Constants.TOTHRD + del1 * (1 + 134.0 / 81.0 * del1)));
+        double del0 = 1.5 * SGP4Constants.CK2 * x3thm1 / (a0 * a0 * beta0 * beta02);
+        xn0dp = me.xn0 / (1 + del0);
+        a0dp = a0 / (1 - del0);
+//        correct through here
+
+//        Initialization
+//        SDP4 for periods of 225 minutes or more, which always uses the simplified drag model
+        boolean isDeepSpace = SGP4Constants.TWOPI / xn0dp >= 225.0;
+        isImp = isDeepSpace || (a0dp * (1 - me.e0) / SGP4Constants.AE) < (220 / SGP4Constants.XKMPER + SGP4Constants.AE);
+        double sParam = SGP4Constants.S;
+        double qParam = SGP4Constants.Q0MS2T;
+        double perige = (a0dp * (1 - me.e0) - SGP4Constants.AE) * SGP4Constants.XKMPER;
+        if (perige < 156) {
+            if (perige <= 98) sParam = 20;
+            else sParam = perige - 78;
+            qParam = Math.pow((120 - sParam) * SGP4Constants.AE / SGP4Constants.XKMPER, 4);
+            sParam = sParam / SGP4Constants.XKMPER + SGP4Constants.AE;
+        }
+        s4 = sParam;
+        q0ms24 = qParam;
+        double pinvsq = 1.0 / (a0dp * a0dp * beta02 * beta02);
+        tsi = 1 / (a0dp - s4);
+        eta = a0dp * me.e0 * tsi;
+        double etasq = eta * eta;
+        double eeta = me.e0 * eta;
+        double psisq = Math.abs(1 - etasq);
+        double coef = q0ms24 * Math.pow(tsi, 4);
+        double coef1 = coef / Math.pow(psisq, 3.5);
+        double c2 = coef1 * xn0dp * (a0dp * (1 + 1.5 * etasq + eeta * (4 + etasq)) + .75
+                * SGP4Constants.CK2 * tsi / psisq * x3thm1 * (8 + 3 * etasq * (8 + etasq)));
+        c1 = tle.bStar() * c2;
+        sini0 = Math.sin(me.xincl);
+        double a30vk2 = -SGP4Constants.XJ3 / SGP4Constants.CK2 * Math.pow(SGP4Constants.AE, 3);
+        double c3 = coef * tsi * a30vk2 * xn0dp * SGP4Constants.AE * sini0 / me.e0;
+        x1mth2 = 1 - theta2;
+        c4 = 2 * xn0dp * coef1 * a0dp * beta02 * (eta
+                * (2 + 0.5 * etasq) + me.e0 * (0.5 + 2 * etasq) - 2 * SGP4Constants.CK2 * tsi
+                / (a0dp * psisq) * (-3 * x3thm1 * (1 - 2 * eeta + etasq
+                * (1.5 - 0.5 * eeta)) + 0.75 * x1mth2 * (2 * etasq - eeta
+                * (1 + etasq)) * Math.cos(2 * me.omega0)));
+        c5 = 2 * coef1 * a0dp * beta02 * (1 + 2.75 * (etasq + eeta) + eeta * etasq);
+        double theta4 = theta2 * theta2;
+        double temp1 = 3 * SGP4Constants.CK2 * pinvsq * xn0dp;
+        double temp2 = temp1 * SGP4Constants.CK2 * pinvsq;
+        double temp3 = 1.25 * SGP4Constants.CK4 * pinvsq * pinvsq * xn0dp;
+        xmdot = xn0dp + 0.5 * temp1 * beta0 * x3thm1 + 0.0625 * temp2 * beta0
+                * (13 - 78 * theta2 + 137 * theta4);
+        double x1m5th = 1 - 5 * theta2;
+        omgdot = -0.5 * temp1 * x1m5th + 0.0625 * temp2 * (7 - 114 * theta2
+                + 395 * theta4) + temp3 * (3 - 36 * theta2 + 49 * theta4);
+        double xhdot1 = -temp1 * cosi0;
+        xn0dot = xhdot1 + (0.5 * temp2 * (4 - 19 * theta2) + 2 * temp3 * (3
+                - 7 *theta2)) * cosi0;
+        omgcof = tle.bStar() * c3 * Math.cos(me.omega0);
+        xmcof = -SGP4Constants.TOTHRD * coef * tle.bStar() * SGP4Constants.AE / eeta;
+        xnodcf = 3.5 * beta02 * xhdot1 * c1;
+        t2cof = 1.5 * c1;
+        xlcof = 0.125 * a30vk2 * sini0 * (3 + 5 * cosi0) / (1 + cosi0);
+        aycof = 0.25 * a30vk2 * sini0;
+        delm0 = Math.pow(1 + eta * Math.cos(me.xm0), 3);
+        sinm0 = Math.sin(me.xm0);
+        x7thm1 = 7 * theta2 - 1;
+        if (!isImp) {
+            double c1sq = c1 * c1;
+            d2 = 4 * a0dp * tsi * c1sq;
+            double temp = d2 * tsi * c1 / 3.0;
+            d3 = (17 * a0dp + s4) * temp;
+            d4 = 0.5 * temp * a0dp * tsi * (221 * a0dp + 31 * s4) * c1;
+            t3cof = d2 + 2 * c1sq;
+            t4cof = 0.25 * (3 * d3 + c1 * (12 * d2 + 10 * c1sq));
+            t5cof = 0.2 * (3 * d4 + 12 * c1 * d3 + 6 * d2 * d2 + 15 * c1sq * (2 * d2 + c1sq));
+        } else {
+            d2 = d3 = d4 = t3cof = t4cof = t5cof = 0.0;
+        }
+        deepSpace = isDeepSpace ? new DeepSpace(this, tle) : null;
+
+    }
+}
@@ -6,51 +6,186 @@ import com.qbizzle.orbit.StateVectors;
 import com.qbizzle.orbit.TLE;
 import com.qbizzle.time.JD;
 
-public class Satellite extends SGP4TimeIndependentValues {
+/**
+ * A satellite propagated with the SGP4 model. All time independent values are computed
+ * once at construction and never modified afterwards, and propagation does not write to
+ * any fields, so a single instance can be shared by any number of threads. Callers that
+ * want to keep the most recent result around should use their own
+ * {@link PropagationContext}.
+ */
+public class Satellite extends SGP4TimeIndependentValues implements Propagator {
     final String name;
     final TLE tle;
-    boolean iFlag = false;
-    //    cache the most recent calculation internally
-    JD time;
-    StateVectors state;
 
     public Satellite(TLE tle) {
         super(tle);
-        this.iFlag = true;
         this.name = tle.name();
         this.tle = tle;
     }
 
+    @Override
     public StateVectors getState(JD t) {
         return getState(t.difference(new JD(this.tle)) * SGP4Constants.XMNPDA);
     }
 
     public StateVectors getState(double dt) {
-//        update for secular gravity and atmospheric drag
+        double[] scratch = new double[6];
+        propagate(dt, scratch);
+        return new StateVectors(
+                new Vector(scratch[0], scratch[1], scratch[2]),
+                new Vector(scratch[3], scratch[4], scratch[5])
+        );
+    }
+
+    /**
+     * Propagates the satellite over an evenly spaced time grid, writing the state vectors
+     * into caller supplied arrays in a structure-of-arrays layout. No objects are allocated
+     * per sample, so this is the preferred method when sampling many thousands of times.
+     * @param start Time of the first sample in minutes since the TLE epoch.
+     * @param step  Time between successive samples in minutes.
+     * @param count Number of samples to compute.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @param vx    Array to store the x-component of the velocity in meters / second.
+     * @param vy    Array to store the y-component of the velocity in meters / second.
+     * @param vz    Array to store the z-component of the velocity in meters / second.
+     * @throws IllegalArgumentException If any of the arrays are shorter than @p count.
+     */
+    public void getStates(double start, double step, int count,
+                          double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz) {
+        checkLengths(count, x, y, z, vx, vy, vz);
+        double[] scratch = new double[6];
+        for (int i = 0; i < count; i++) {
+            propagate(start + step * i, scratch);
+            x[i] = scratch[0];
+            y[i] = scratch[1];
+            z[i] = scratch[2];
+            vx[i] = scratch[3];
+            vy[i] = scratch[4];
+            vz[i] = scratch[5];
+        }
+    }
 
+    /**
+     * Propagates the satellite to each time in @p times, writing the state vectors into
+     * caller supplied arrays in a structure-of-arrays layout. No objects are allocated
+     * per sample.
+     * @param times Times of each sample in minutes since the TLE epoch.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @param vx    Array to store the x-component of the velocity in meters / second.
+     * @param vy    Array to store the y-component of the velocity in meters / second.
+     * @param vz    Array to store the z-component of the velocity in meters / second.
+     * @throws IllegalArgumentException If any of the arrays are shorter than @p times.
+     */
+    public void getStates(double[] times,
+                          double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz) {
+        checkLengths(times.length, x, y, z, vx, vy, vz);
+        double[] scratch = new double[6];
+        for (int i = 0; i < times.length; i++) {
+            propagate(times[i], scratch);
+            x[i] = scratch[0];
+            y[i] = scratch[1];
+            z[i] = scratch[2];
+            vx[i] = scratch[3];
+            vy[i] = scratch[4];
+            vz[i] = scratch[5];
+        }
+    }
+
+    static void checkLengths(int count, double[]... arrays) {
+        for (double[] array : arrays) {
+            if (array.length < count)
+                throw new IllegalArgumentException("Output array length " + array.length
+                        + " is less than the sample count " + count + ".");
+        }
+    }
+
+    /**
+     * Implementation of the SGP4 model. This method allocates nothing, and stores the
+     * position (meters) and velocity (meters / second) in @p out.
+     * @param dt    Time since the TLE epoch in minutes.
+     * @param out   Array of length 6 to store the position and velocity components.
+     */
+    void propagate(double dt, double[] out) {
+        propagate(dt, out, null);
+    }
+
+    /**
+     * Implementation of the SGP4 model with an optional warm started Kepler solver.
+     * @param dt        Time since the TLE epoch in minutes.
+     * @param out       Array of length 6 to store the position and velocity components.
+     * @param stepper   Stepping propagator that solves Kepler's equation from its previous
+     *                  solution, or {@code null} to solve it from scratch.
+     */
+    void propagate(double dt, double[] out, SteppingPropagator stepper) {
+        propagate(dt, out, stepper, Trigonometry.EXACT);
+    }
+
+    /**
+     * Implementation of the SGP4 model with an optional warm started Kepler solver, evaluating
+     * the near earth kernel with the given sine and cosine. Deep space satellites are always
+     * propagated with the exact functions.
+     * @param dt        Time since the TLE epoch in minutes.
+     * @param out       Array of length 6 to store the position and velocity components.
+     * @param stepper   Stepping propagator that solves Kepler's equation from its previous
+     *                  solution, or {@code null} to solve it from scratch.
+     * @param trig      The sine and cosine of the near earth kernel.
+     */
+    void propagate(double dt, double[] out, SteppingPropagator stepper, Trigonometry trig) {
+        if (deepSpace != null) {
+            propagateDeepSpace(dt, out, stepper);
+            return;
+        }
+//        update for secular gravity and atmospheric drag
         double xmdf = me.xm0 + xmdot * dt;
         double omgadf = me.omega0 + omgdot * dt;
         double xnoddf = me.xnode0 + xn0dot * dt;
-        double omega = omgadf;
-        double xmp = xmdf;
         double tsq = dt * dt;
         double xnode = xnoddf + xnodcf * tsq;
         double tempa = 1 - c1 * dt;
         double tempe = tle.bStar() * c4 * dt;
         double templ = t2cof * tsq;
         if (!isImp) {
-            double delomg = omgcof * dt;
-            double delm = xmcof * (Math.pow( 1 + eta * Math.cos(xmdf), 3) - delm0);
-            double temp = delomg + delm;
-            xmp = xmdf + temp;
-            omega = omgadf - temp;
             double tcube = tsq * dt;
             double tfour = dt * tcube;
             tempa = tempa - d2 * tsq - d3 * tcube - d4 * tfour;
-            tempe = tempe + tle.bStar() * c5 * (Math.sin(xmp) - sinm0);
             templ = templ + t3cof * tcube +
                     tfour * (t4cof + dt * t5cof);
         }
+        propagateNearEarth(dt, xmdf, omgadf, xnode, tempa, tempe, templ, out, stepper, trig);
+    }
+
+    /**
+     * The rest of the near earth SGP4 model once the secular polynomials are evaluated. This is
+     * split from #propagate so SatelliteCatalogPropagator can evaluate the polynomials for a
+     * whole catalog in one pass and still share the rest of the model.
+     * @param dt        Time since the TLE epoch in minutes.
+     * @param xmdf      Mean anomaly with the secular gravity rate applied.
+     * @param omgadf    Argument of perigee with the secular gravity rate applied.
+     * @param xnode     Right ascension of the ascending node with the secular gravity and drag terms applied.
+     * @param tempa     Drag polynomial of the semi-major axis.
+     * @param tempe     Drag term of the eccentricity, linear in @p dt.
+     * @param templ     Drag polynomial of the mean longitude.
+     * @param out       Array of length 6 to store the position and velocity components.
+     * @param stepper   Stepping propagator that solves Kepler's equation from its previous
+     *                  solution, or {@code null} to solve it from scratch.
+     * @param trig      The sine and cosine to evaluate the kernel with.
+     */
+    void propagateNearEarth(double dt, double xmdf, double omgadf, double xnode, double tempa, double tempe,
+                            double templ, double[] out, SteppingPropagator stepper, Trigonometry trig) {
+        double omega = omgadf;
+        double xmp = xmdf;
+        if (!isImp) {
+            double delomg = omgcof * dt;
+            double delm = xmcof * (Math.pow( 1 + eta * trig.cos(xmdf), 3) - delm0);
+            double temp = delomg + delm;
+            xmp = xmdf + temp;
+            omega = omgadf - temp;
+            tempe = tempe + tle.bStar() * c5 * (trig.sin(xmp) - sinm0);
+        }
         double a = a0dp * Math.pow(tempa, 2);
         double e = me.e0 - tempe;
         double xl = xmp + omega + xnode + xn0dp * templ;
@@ -58,13 +193,104 @@ public class Satellite extends SGP4TimeIndependentValues {
         double xn = SGP4Constants.XKE / Math.pow(a, 1.5);
 
         // long period periodics
-        double axn = e * Math.cos(omega);
+//        out isn't written until the end of solve, so it holds the sine and cosine pairs until then
+        trig.sinCos(omega, out);
+        double axn = e * out[1];
         double temp = 1 / (a * beta * beta);
         double xll = temp * xlcof * axn;
         double aynl = temp * aycof;
         double xlt = xl + xll;
+        double ayn = e * out[0] + aynl;
+
+        solve(a, axn, ayn, xlt, xnode, me.xincl, xn, cosi0, sini0, x3thm1, x1mth2, x7thm1, false, out, stepper, trig);
+    }
+
+    /**
+     * Implementation of the SDP4 model for satellites with periods of 225 minutes or longer.
+     * The lunar-solar and resonance terms are applied by #deepSpace. This method allocates
+     * nothing, @p out is used as scratch space for the perturbed elements.
+     * @param dt        Time since the TLE epoch in minutes.
+     * @param out       Array of length 6 to store the position and velocity components.
+     * @param stepper   Stepping propagator that solves Kepler's equation from its previous
+     *                  solution, or {@code null} to solve it from scratch.
+     */
+    private void propagateDeepSpace(double dt, double[] out, SteppingPropagator stepper) {
+//        update for secular gravity and atmospheric drag
+        double xmdf = me.xm0 + xmdot * dt;
+        double omgadf = me.omega0 + omgdot * dt;
+        double xnoddf = me.xnode0 + xn0dot * dt;
+        double tsq = dt * dt;
+        double xnode = xnoddf + xnodcf * tsq;
+        double tempa = 1 - c1 * dt;
+        double tempe = tle.bStar() * c4 * dt;
+        double templ = t2cof * tsq;
+
+//        lunar-solar secular effects and resonance
+        out[0] = me.e0;
+        out[1] = me.xincl;
+        out[2] = omgadf;
+        out[3] = xnode;
+        out[4] = xmdf;
+        out[5] = xn0dp;
+        deepSpace.secular(dt, out);
+        double xn = out[5];
+        double a = Math.pow(SGP4Constants.XKE / xn, SGP4Constants.TOTHRD) * tempa * tempa;
+        double e = out[0] - tempe;
+        if (e < 1e-6) e = 1e-6;
+        double xmam = out[4] + xn0dp * templ;
+        double omega = out[2] % SGP4Constants.TWOPI;
+        xnode = out[3] % SGP4Constants.TWOPI;
+        double xlm = (xmam + out[2] + out[3]) % SGP4Constants.TWOPI;
+        xmam = (xlm - omega - xnode) % SGP4Constants.TWOPI;
+
+//        lunar-solar periodics
+        out[0] = e;
+        out[2] = xnode;
+        out[3] = omega;
+        out[4] = xmam;
+        deepSpace.periodics(dt, out);
+        e = out[0];
+        double xinc = out[1];
+        xnode = out[2];
+        omega = out[3];
+        xmam = out[4];
+        if (xinc < 0) {
+            xinc = -xinc;
+            xnode = xnode + SGP4Constants.PI;
+            omega = omega - SGP4Constants.PI;
+        }
+
+//        inclination dependent terms with the perturbed inclination
+        double sini = Math.sin(xinc);
+        double cosi = Math.cos(xinc);
+        double cosisq = cosi * cosi;
+        double a30vk2 = -SGP4Constants.XJ3 / SGP4Constants.CK2 * Math.pow(SGP4Constants.AE, 3);
+        double xlcofp = 0.125 * a30vk2 * sini * (3 + 5 * cosi) / Math.max(1 + cosi, 1.5e-12);
+        double aycofp = 0.25 * a30vk2 * sini;
+        double beta = Math.sqrt(1 - e * e);
+        xn = SGP4Constants.XKE / Math.pow(a, 1.5);
+
+        // long period periodics
+        double axn = e * Math.cos(omega);
+        double temp = 1 / (a * beta * beta);
+        double xll = temp * xlcofp * axn;
+        double aynl = temp * aycofp;
+        double xlt = xmam + omega + xnode + xll;
         double ayn = e * Math.sin(omega) + aynl;
 
+        solve(a, axn, ayn, xlt, xnode, xinc, xn, cosi, sini,
+                3 * cosisq - 1, 1 - cosisq, 7 * cosisq - 1, true, out, stepper, Trigonometry.EXACT);
+    }
+
+    /**
+     * Solves Kepler's equation and applies the short period periodics, the part of the
+     * model shared by SGP4 and SDP4. SDP4 limits each Newton step to 0.95 radians for highly
+     * eccentric orbits, @p limitStep selects that behaviour. The sines and cosines are
+     * evaluated with @p trig, in pairs held in @p out until the state is written to it.
+     */
+    private void solve(double a, double axn, double ayn, double xlt, double xnode, double xincl, double xn,
+                       double cosi0, double sini0, double x3thm1, double x1mth2, double x7thm1,
+                       boolean limitStep, double[] out, SteppingPropagator stepper, Trigonometry trig) {
         // solve keplers equation
         double capu = (xlt - xnode) % SGP4Constants.TWOPI;
         if (capu < 0) capu += SGP4Constants.TWOPI;
@@ -75,23 +301,37 @@ public class Satellite extends SGP4TimeIndependentValues {
         double temp4 = 0;
         double temp5 = 0;
         double temp6 = 0;
-        for (int i = 0; i < 10; i++) {
-            sinepw = Math.sin(temp2);
-            cosepw = Math.cos(temp2);
+        if (stepper == null) {
+            for (int i = 0; i < 10; i++) {
+                trig.sinCos(temp2, out);
+                sinepw = out[0];
+                cosepw = out[1];
+                temp3 = axn * sinepw;
+                temp4 = ayn * cosepw;
+                temp5 = axn * cosepw;
+                temp6 = ayn * sinepw;
+                double tem5 = (capu - temp4 + temp3 - temp2) / (1 - temp5 - temp6);
+//                limit the step for highly eccentric orbits
+                if (limitStep && Math.abs(tem5) >= 0.95) tem5 = (tem5 > 0) ? 0.95 : -0.95;
+                double epw = tem5 + temp2;
+                if (Math.abs(epw - temp2) <= SGP4Constants.E6A) break;
+                temp2 = epw;
+            }
+        } else {
+            stepper.solveKepler(capu, axn, ayn);
+            sinepw = stepper.sinepw;
+            cosepw = stepper.cosepw;
             temp3 = axn * sinepw;
             temp4 = ayn * cosepw;
             temp5 = axn * cosepw;
             temp6 = ayn * sinepw;
-            double epw = (capu - temp4 + temp3 - temp2) / (1 - temp5 - temp6) + temp2;
-            if (Math.abs(epw - temp2) <= SGP4Constants.E6A) break;
-            temp2 = epw;
         }
 
         // short period preliminary quantities
         double ecose = temp5 + temp6;
         double esine = temp3 - temp4;
         double elsq = axn * axn + ayn * ayn;
-        temp = 1 - elsq;
+        double temp = 1 - elsq;
         double pl = a * temp;
         double r = a * (1 - ecose);
         double temp1 = 1.0 / r;
@@ -113,17 +353,20 @@ public class Satellite extends SGP4TimeIndependentValues {
         double rk = r * (1 - 1.5 * temp2 * betal * x3thm1) + 0.5 * temp1 * x1mth2 * cos2u;
         double uk = u - 0.25 * temp2 * x7thm1 * sin2u;
         double xnodek = xnode + 1.5 * temp2 * cosi0 * sin2u;
-        double xinck = me.xincl + 1.5 * temp2 * cosi0 * sini0 * cos2u;
+        double xinck = xincl + 1.5 * temp2 * cosi0 * sini0 * cos2u;
         double rdotk = rdot - xn * temp1 * x1mth2 * sin2u;
         double rfdotk = rfdot + xn * temp1 * (x1mth2 * cos2u + 1.5 * x3thm1);
 
         // orientation vectors
-        double sinuk = Math.sin(uk);
-        double cosuk = Math.cos(uk);
-        double sinik = Math.sin(xinck);
-        double cosik = Math.cos(xinck);
-        double sinnok = Math.sin(xnodek);
-        double cosnok = Math.cos(xnodek);
+        trig.sinCos(uk, out);
+        double sinuk = out[0];
+        double cosuk = out[1];
+        trig.sinCos(xinck, out);
+        double sinik = out[0];
+        double cosik = out[1];
+        trig.sinCos(xnodek, out);
+        double sinnok = out[0];
+        double cosnok = out[1];
         double xmx = -sinnok * cosik;
         double xmy = cosnok * cosik;
         double ux = xmx * sinuk + cosnok * cosuk;
@@ -134,20 +377,23 @@ public class Satellite extends SGP4TimeIndependentValues {
         double vz = sinik * cosuk;
 
         // position and velocity
-        state = new StateVectors(
-                new Vector(
-                        rk * ux,
-                        rk * uy,
-                        rk * uz
-                ).scale(1000.0 * SGP4Constants.XKMPER),
-                new Vector(
-                        rdotk * ux + rfdotk * vx,
-                        rdotk * uy + rfdotk * vy,
-                        rdotk * uz + rfdotk * vz
-                ).scale(1000.0 * SGP4Constants.XKMPER / 60.0)
-        );
-        time = new JD(tle).future(dt);
-        return state;
+        final double positionScale = 1000.0 * SGP4Constants.XKMPER;
+        final double velocityScale = 1000.0 * SGP4Constants.XKMPER / 60.0;
+        out[0] = rk * ux * positionScale;
+        out[1] = rk * uy * positionScale;
+        out[2] = rk * uz * positionScale;
+        out[3] = (rdotk * ux + rfdotk * vx) * velocityScale;
+        out[4] = (rdotk * uy + rfdotk * vy) * velocityScale;
+        out[5] = (rdotk * uz + rfdotk * vz) * velocityScale;
+    }
+
+    /**
+     * Retrieves the fidelity of this model.
+     * @return Propagator.Fidelity#FULL.
+     */
+    @Override
+    public Fidelity getFidelity() {
+        return Fidelity.FULL;
     }
 
     public String getName() {
@@ -158,141 +404,4 @@ public class Satellite extends SGP4TimeIndependentValues {
         return tle;
     }
 
-    public JD getRecentTime() {
-        return time;
-    }
-
-    public StateVectors getRecentState() {
-        return state;
-    }
-
-}
-
-class MeanElements {
-    public double xm0, xnode0, omega0, e0, xincl, xn0, xndt20, xndd60;
-
-    public MeanElements(TLE tle) {
-        xm0     = Math.toRadians( tle.meanAnomaly() );
-        xnode0  = Math.toRadians( tle.lan() );
-        omega0  = Math.toRadians( tle.aop() );
-        e0      = tle.eccentricity();
-        xincl   = Math.toRadians( tle.inclination() );
-        xn0     = tle.meanMotion() * SGP4Constants.TWOPI / SGP4Constants.XMNPDA;
-        xndt20  = tle.meanMotionDot() * SGP4Constants.TWOPI
-                / (SGP4Constants.XMNPDA * SGP4Constants.XMNPDA);
-        xndd60  = tle.meanMotionDDot() * SGP4Constants.TWOPI
-                / (SGP4Constants.XMNPDA * SGP4Constants.XMNPDA * SGP4Constants.XMNPDA);
-    }
-}
-
-class SGP4Constants {
-    static final double
-            CK2     = 5.413080e-4,
-            CK4     = 0.62098875e-6,
-            E6A     = 1E-6,
-            Q0MS2T  = 1.88027916e-9,
-            S       = 1.01222928,
-            TOTHRD  = 2.0 / 3.0,
-            XJ3     = -0.253881e-5,
-            XKE     = 0.743669161e-1,
-            XKMPER  = 6378.135,
-            XMNPDA  = 1440.0,
-            AE      = 1.0,
-            DE2RA   = 0.174532925e-1,
-            PI      = Math.PI,
-            PIO2    = Math.PI / 2.0,
-            TWOPI   = 2.0 * Math.PI,
-            X3PIO2  = 3.0 * PIO2;
 }
-
-class SGP4TimeIndependentValues {
-    MeanElements me;
-    boolean isImp = false;
-    double cosi0, x3thm1, xn0dp, a0dp, s4, q0ms24, tsi, eta, c1, sini0, x1mth2, c4, c5, xmdot, omgdot, xn0dot,
-            omgcof, xmcof, xnodcf, t2cof, xlcof, aycof, delm0, sinm0, x7thm1, d2, d3, d4, t3cof, t4cof, t5cof;
-
-    public SGP4TimeIndependentValues(TLE tle) {
-        me = new MeanElements(tle);
-
-//        Recover original mean motion (xn0dp) and semimajor axis (a0dp) from input elements
-        double a1 = Math.pow(SGP4Constants.XKE / me.xn0, SGP4Constants.TOTHRD);
-        cosi0 = Math.cos(me.xincl);
-        double theta2 = cosi0 * cosi0;
-        x3thm1 = 3 * theta2 - 1;
-        double e0sq = me.e0 * me.e0;
-        double beta02 = 1 - e0sq;
-        double beta0 = Math.sqrt(beta02);
-        double del1 = 1.5 * SGP4Constants.CK2 * x3thm1 / (a1 * a1 * beta0 * beta02);
-        double a0 = a1 * (1 - del1 * (0.5 * SGP4Constants.TOTHRD + del1 * (1 + 134.0 / 81.0 * del1)));
-        double del0 = 1.5 * SGP4Constants.CK2 * x3thm1 / (a0 * a0 * beta0 * beta02);
-        xn0dp = me.xn0 / (1 + del0);
-        a0dp = a0 / (1 - del0);
-//        correct through here
-
-//        Initialization
-        if ((a0dp * (1 - me.e0) / SGP4Constants.AE) < (220 / SGP4Constants.XKMPER + SGP4Constants.AE))
-            isImp = true;
-        s4 = SGP4Constants.S;
-        q0ms24 = SGP4Constants.Q0MS2T;
-        double perige = (a0dp * (1 - me.e0) - SGP4Constants.AE) * SGP4Constants.XKMPER;
-        if (perige < 156) {
-            if (perige <= 98) s4 = 20;
-            else s4 = perige - 78;
-            q0ms24 = Math.pow((120 - s4) * SGP4Constants.AE / SGP4Constants.XKMPER, 4);
-            s4 = s4 / SGP4Constants.XKMPER + SGP4Constants.AE;
-        }
-        double pinvsq = 1.0 / (a0dp * a0dp * beta02 * beta02);
-        tsi = 1 / (a0dp - s4);
-        eta = a0dp * me.e0 * tsi;
-        double etasq = eta * eta;
-        double eeta = me.e0 * eta;
-        double psisq = Math.abs(1 - etasq);
-        double coef = q0ms24 * Math.pow(tsi, 4);
-        double coef1 = Math.pow(coef / psisq, 3.5); // this diverges from SGP4.java implementation
-        double c2 = coef1 * xn0dp * (a0dp * (1 + 1.5 * etasq + eeta * (4 + etasq)) + .75
-                * SGP4Constants.CK2 * tsi / psisq * x3thm1 * (8 + 3 * etasq * (8 + etasq)));
-        c1 = tle.bStar() * c2;
-        sini0 = Math.sin(me.xincl);
-        double a30vk2 = -SGP4Constants.XJ3 / SGP4Constants.CK2 * Math.pow(SGP4Constants.AE, 3);
-        double c3 = coef * tsi * a30vk2 * xn0dp * SGP4Constants.AE * sini0 / me.e0;
-        x1mth2 = 1 - theta2;
-        c4 = 2 * xn0dp * coef1 * a0dp * beta02 * (eta
-                * (2 + 0.5 * etasq) + me.e0 * (0.5 + 2 * etasq) - 2 * SGP4Constants.CK2 * tsi
-                / (a0dp * psisq) * (-3 * x3thm1 * (1 - 2 * eeta + etasq
-                * (1.5 - 0.5 * eeta)) + 0.75 * x1mth2 * (2 * etasq - eeta
-                * (1 + etasq)) * Math.cos(2 * me.omega0)));
-        c5 = 2 * coef1 * a0dp * beta02 * (1 + 2.75 * (etasq + eeta) + eeta * etasq);
-        double theta4 = theta2 * theta2;
-        double temp1 = 3 * SGP4Constants.CK2 * pinvsq * xn0dp;
-        double temp2 = temp1 * SGP4Constants.CK4 * pinvsq;
-        double temp3 = 1.25 * SGP4Constants.CK4 * pinvsq * pinvsq * xn0dp;
-        xmdot = xn0dp + 0.5 * temp1 * beta0 * x3thm1 + 0.0625 * temp2 * beta0
-                * (13 - 78 * theta2 + 137 * theta4);
-        double x1m5th = 1 - 5 * theta2;
-        omgdot = -0.5 * temp1 * x1m5th + 0.0625 * temp2 * (7 - 114 * theta2
-                + 395 * theta4) + temp3 * (3 - 36 * theta2 + 49 * theta4);
-        double xhdot1 = -temp1 * cosi0;
-        xn0dot = xhdot1 + (0.5 * temp2 * (4 - 19 * theta2) + 2 * temp3 * (3
-                - 7 *theta2)) * cosi0;
-        omgcof = tle.bStar() * c3 * Math.cos(me.omega0);
-        xmcof = -SGP4Constants.TOTHRD * coef * tle.bStar() * SGP4Constants.AE / eeta;
-        xnodcf = 3.5 * beta02 * xhdot1 * c1;
-        t2cof = 1.5 * c1;
-        xlcof = 0.125 * a30vk2 * sini0 * (3 + 5 * cosi0) / (1 + cosi0);
-        aycof = 0.25 * a30vk2 * sini0;
-        delm0 = Math.pow(1 + eta * Math.cos(me.xm0), 3);
-        sinm0 = Math.sin(me.xm0);
-        x7thm1 = 7 * theta2 - 1;
-        if (!isImp) {
-            double c1sq = c1 * c1;
-            d2 = 4 * a0dp * tsi * c1sq;
-            double temp = d2 * tsi * c1 / 3.0;
-            d3 = (17 * a0dp + s4) * temp;
-            d4 = 0.5 * temp * a0dp * tsi * (221 * a0dp + 31 * s4) * c1;
-            t3cof = d2 + 2 * c1sq;
-            t4cof = 0.25 * (3 * d3 + c1 * (12 * d2 + 10 * c1sq));
-            t5cof = 0.2 * (3 * d4 + 12 * c1 * d3 + 6 * d2 * d2 + 15 * c1sq * (2 * d2 + c1sq));
-        }
-
-    }
-}
\ No newline at end of file
@@ -0,0 +1,155 @@
+/** @file
+ * This file contains the SatelliteCache class, a bounded cache of initialized
+ * SGP4 propagators keyed by the element set they were built from.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.orbit.TLE;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded, thread-safe cache of initialized {@link Satellite} objects. Constructing a
+ * Satellite computes all the SGP4 time independent values, which is far more work than a
+ * single propagation. Methods that only receive a TLE should retrieve their propagator from
+ * this cache so the initialization cost is paid once per element set instead of once per call.
+ * <p>
+ * Entries are keyed by catalog number and epoch, and the least recently used entry is evicted
+ * once the capacity is reached. Hit and miss counters are kept to monitor the effectiveness
+ * of the cache.
+ */
+public class SatelliteCache {
+    /** Capacity of the shared cache returned by {@link #getDefault()}. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final SatelliteCache defaultCache = new SatelliteCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final Map<Key, Satellite> map;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructs an empty cache.
+     * @param capacity  Maximum number of satellites held before the least recently used
+     *                  entry is evicted.
+     * @throws IllegalArgumentException If @p capacity is not positive.
+     */
+    public SatelliteCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Cache capacity must be positive.");
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Satellite> eldest) {
+                return size() > SatelliteCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the cache shared by the TLE based methods of the tracking package.
+     * @return The shared cache.
+     */
+    public static SatelliteCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Retrieves the initialized satellite for an element set, initializing and storing
+     * it if it isn't already cached. The initialization is done outside the lock so
+     * other threads are not blocked while a new satellite is built.
+     * @param tle   The element set of the satellite.
+     * @return      An initialized Satellite for @p tle.
+     */
+    public Satellite get(TLE tle) {
+        Key key = new Key(tle);
+        synchronized (this) {
+            Satellite satellite = map.get(key);
+            if (satellite != null) {
+                hits++;
+                return satellite;
+            }
+            misses++;
+        }
+        Satellite satellite = new Satellite(tle);
+        synchronized (this) {
+            Satellite existing = map.putIfAbsent(key, satellite);
+            return (existing != null) ? existing : satellite;
+        }
+    }
+
+    /**
+     * Retrieves the number of lookups that found an initialized satellite.
+     * @return The number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retrieves the number of lookups that required initializing a satellite.
+     * @return The number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Retrieves the number of satellites currently cached.
+     * @return The size of the cache.
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * Retrieves the maximum number of satellites this cache holds.
+     * @return The capacity of the cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Removes all cached satellites and resets the hit and miss counters.
+     */
+    public synchronized void clear() {
+        map.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Cache key made from the catalog number and epoch of a TLE.
+     */
+    private static final class Key {
+        private final int catalogNumber;
+        private final int epochYear;
+        private final double epochDay;
+
+        Key(TLE tle) {
+            this.catalogNumber = tle.catalogNumber();
+            this.epochYear = tle.epochYear();
+            this.epochDay = tle.epochDay();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return catalogNumber == key.catalogNumber && epochYear == key.epochYear
+                    && Double.compare(key.epochDay, epochDay) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(catalogNumber, epochYear, epochDay);
+        }
+    }
+
+}
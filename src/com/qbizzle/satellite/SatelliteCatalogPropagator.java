@@ -0,0 +1,173 @@
+/** @file
+ * This file contains the SatelliteCatalogPropagator class, which propagates an entire
+ * catalog of satellites to a common time using a structure-of-arrays layout.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.time.JD;
+
+import java.util.List;
+
+/**
+ * Propagates a whole catalog of satellites to a common time. The SGP4 time independent
+ * values of every satellite are packed into contiguous columns so a catalog snapshot is
+ * a pair of tight loops over primitive arrays, instead of one virtual call per satellite
+ * over objects scattered around the heap.
+ * <p>
+ * Propagation happens in two passes. The first pass evaluates the secular gravity and drag
+ * polynomials for every satellite. It contains no method calls or branches, so the JIT is
+ * free to compile it down to SIMD instructions. The second pass hands the results to
+ * Satellite#propagateNearEarth one satellite at a time, so the trigonometric work (long
+ * period periodics, Kepler's equation and the short period periodics) is the same code as
+ * Satellite#getState. Deep space satellites are propagated individually with SDP4 in the
+ * second pass, their secular pass results are discarded.
+ * <p>
+ * The results of the first pass are kept in columns that are allocated once with the
+ * propagator, so a snapshot allocates nothing. A catalog propagator holds this mutable state
+ * and should be confined to a single thread, many of them can share the same satellites.
+ */
+public class SatelliteCatalogPropagator {
+    private final Satellite[] satellites;
+    private final int size;
+//    epoch and mean elements
+    private final double[] epoch, xm0, omega0, xnode0, bstar;
+//    secular rates and drag coefficients
+    private final double[] xmdot, omgdot, xn0dot, xnodcf, c1, c4, d2, d3, d4, t2cof, t3cof, t4cof, t5cof;
+    private final boolean[] isDeepSpace;
+//    results of the secular pass, reused by every snapshot
+    private final double[] dt, xmdf, omgadf, xnode, tempa, tempe, templ;
+    private final double[] scratch = new double[6];
+
+    /**
+     * Packs the time independent values of each satellite into columns.
+     * @param satellites    The catalog to propagate. The order of this list is the order
+     *                      of the propagated states.
+     */
+    public SatelliteCatalogPropagator(List<Satellite> satellites) {
+        this.satellites = satellites.toArray(new Satellite[0]);
+        size = this.satellites.length;
+        epoch = new double[size];
+        xm0 = new double[size];
+        omega0 = new double[size];
+        xnode0 = new double[size];
+        bstar = new double[size];
+        xmdot = new double[size];
+        omgdot = new double[size];
+        xn0dot = new double[size];
+        xnodcf = new double[size];
+        c1 = new double[size];
+        c4 = new double[size];
+        d2 = new double[size];
+        d3 = new double[size];
+        d4 = new double[size];
+        t2cof = new double[size];
+        t3cof = new double[size];
+        t4cof = new double[size];
+        t5cof = new double[size];
+        isDeepSpace = new boolean[size];
+        dt = new double[size];
+        xmdf = new double[size];
+        omgadf = new double[size];
+        xnode = new double[size];
+        tempa = new double[size];
+        tempe = new double[size];
+        templ = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            Satellite sat = this.satellites[i];
+            epoch[i] = new JD(sat.getTle()).value();
+            xm0[i] = sat.me.xm0;
+            omega0[i] = sat.me.omega0;
+            xnode0[i] = sat.me.xnode0;
+            bstar[i] = sat.getTle().bStar();
+            xmdot[i] = sat.xmdot;
+            omgdot[i] = sat.omgdot;
+            xn0dot[i] = sat.xn0dot;
+            xnodcf[i] = sat.xnodcf;
+            c1[i] = sat.c1;
+            c4[i] = sat.c4;
+//            the higher order drag terms are zero for the simplified model, which
+//            lets the secular pass run without branching on isImp
+            d2[i] = sat.d2;
+            d3[i] = sat.d3;
+            d4[i] = sat.d4;
+            t2cof[i] = sat.t2cof;
+            t3cof[i] = sat.t3cof;
+            t4cof[i] = sat.t4cof;
+            t5cof[i] = sat.t5cof;
+            isDeepSpace[i] = sat.deepSpace != null;
+        }
+    }
+
+    /**
+     * Retrieves the number of satellites in the catalog.
+     * @return The catalog size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the satellite at a given index of the catalog.
+     * @param index Index of the satellite, matching the order of the constructor list.
+     * @return      The satellite.
+     */
+    public Satellite getSatellite(int index) {
+        return satellites[index];
+    }
+
+    /**
+     * Propagates every satellite in the catalog to a common time. The states are written
+     * into caller supplied arrays in the same order as the catalog.
+     * @param time  The time to propagate all satellites to.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @param vx    Array to store the x-component of the velocity in meters / second.
+     * @param vy    Array to store the y-component of the velocity in meters / second.
+     * @param vz    Array to store the z-component of the velocity in meters / second.
+     * @throws IllegalArgumentException If any of the arrays are shorter than the catalog.
+     */
+    public void propagate(JD time, double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz) {
+        for (double[] array : new double[][]{x, y, z, vx, vy, vz}) {
+            if (array.length < size)
+                throw new IllegalArgumentException("Output array length " + array.length
+                        + " is less than the catalog size " + size + ".");
+        }
+        double jd = time.value();
+
+//        secular gravity and drag polynomials, straight line arithmetic only
+        for (int i = 0; i < size; i++) {
+            double t = (jd - epoch[i]) * SGP4Constants.XMNPDA;
+            double tsq = t * t;
+            double tcube = tsq * t;
+            double tfour = t * tcube;
+            dt[i] = t;
+            xmdf[i] = xm0[i] + xmdot[i] * t;
+            omgadf[i] = omega0[i] + omgdot[i] * t;
+            xnode[i] = xnode0[i] + xn0dot[i] * t + xnodcf[i] * tsq;
+            tempa[i] = 1 - c1[i] * t - d2[i] * tsq - d3[i] * tcube - d4[i] * tfour;
+            tempe[i] = bstar[i] * c4[i] * t;
+            templ[i] = t2cof[i] * tsq + t3cof[i] * tcube + tfour * (t4cof[i] + t * t5cof[i]);
+        }
+
+//        periodics and Kepler's equation, one satellite at a time
+        for (int i = 0; i < size; i++) {
+            if (isDeepSpace[i]) {
+//                SDP4 objects don't share the near earth kernel
+                satellites[i].propagate(dt[i], scratch);
+            } else {
+                satellites[i].propagateNearEarth(dt[i], xmdf[i], omgadf[i], xnode[i],
+                        tempa[i], tempe[i], templ[i], scratch, null, Trigonometry.EXACT);
+            }
+            x[i] = scratch[0];
+            y[i] = scratch[1];
+            z[i] = scratch[2];
+            vx[i] = scratch[3];
+            vy[i] = scratch[4];
+            vz[i] = scratch[5];
+        }
+    }
+
+}
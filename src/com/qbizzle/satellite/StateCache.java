@@ -0,0 +1,237 @@
+/** @file
+ * This file contains the StateCache class, a propagator that answers dense time queries by
+ * interpolating between states of another propagator on a coarse time grid.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.math.OrbitalMath;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.COE;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.time.JD;
+
+import java.util.TreeMap;
+
+/**
+ * Wraps a propagator with a cache of its states on a coarse time grid. Searches such as the
+ * rise, set and eclipse bisections in the Tracker class propagate the same satellite many
+ * times within a few seconds of each other. A StateCache propagates only at the grid nodes
+ * around those times, and answers every query in between with a cubic Hermite interpolation
+ * of the cached position and velocity at the two neighbouring nodes. At the nodes the states
+ * are exactly those of the wrapped propagator.
+ * <p>
+ * The interpolation error of a cubic Hermite spline is at most h<sup>4</sup>/384 times the
+ * largest fourth derivative of the position, where h is the grid step, plus a term for the
+ * velocity of the propagator not being exactly the derivative of its position.
+ * #getErrorBound evaluates this bound for the orbit of the satellite. With the default 30
+ * second step it is well under a meter in low earth orbit, much smaller than the error of
+ * SGP4 itself. The bound assumes the states of the propagator are smooth in time. Satellite
+ * stops its Kepler iteration within 1e-6 radians, so its states jump by up to 1e-6 of the
+ * semi-major axis, about 7 meters in low earth orbit, where the iteration count changes, and
+ * an interpolation across such a jump can be off by up to twice that in addition to the bound.
+ * <p>
+ * Nodes are evicted by time window, only those within @p window of the most recently
+ * propagated node are kept. A StateCache is a Propagator, so it can be passed to any method
+ * that takes one. The cache holds mutable state and should be confined to a single thread,
+ * many caches can wrap the same propagator.
+ */
+public class StateCache implements Propagator {
+    /** Grid step in seconds used by #StateCache(Propagator). */
+    public static final double DEFAULT_STEP = 30.0;
+    /** Time window in seconds used by #StateCache(Propagator). */
+    public static final double DEFAULT_WINDOW = 7200.0;
+
+    private final Propagator propagator;
+    private final double step;
+    private final long windowNodes;
+//    nodes by index of the grid from J2000, each with the state and the time it was propagated to
+    private final TreeMap<Long, double[]> nodes = new TreeMap<>();
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructs a state cache with the default grid step and time window.
+     * @param propagator    The propagator whose states are cached.
+     */
+    public StateCache(Propagator propagator) {
+        this(propagator, DEFAULT_STEP, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructs a state cache.
+     * @param propagator    The propagator whose states are cached.
+     * @param step          Time between grid nodes in seconds.
+     * @param window        Nodes further than this many seconds from the most recently
+     *                      propagated node are evicted.
+     * @throws IllegalArgumentException If @p step is not positive or @p window is less than @p step.
+     */
+    public StateCache(Propagator propagator, double step, double window) {
+        if (step <= 0 || window < step)
+            throw new IllegalArgumentException("State cache step must be positive and no larger than the window.");
+        this.propagator = propagator;
+        this.step = step;
+        this.windowNodes = (long) Math.ceil(window / step);
+    }
+
+    /**
+     * Interpolates the state of the satellite from the cached grid, propagating the two
+     * neighbouring nodes if they are not cached.
+     * @param time  Time to find the state vectors.
+     * @return      The interpolated state vectors of the satellite.
+     */
+    @Override
+    public StateVectors getState(JD time) {
+        double seconds = (time.value() - JD.J2000) * JD.SECONDSPERDAY;
+        long index = (long) Math.floor(seconds / step);
+        double[] lower = getNode(index);
+        double[] upper = getNode(index + 1);
+//        the node times are rounded to the resolution of a JD, so interpolate between the actual times
+        double h = (upper[6] - lower[6]) * JD.SECONDSPERDAY;
+        double s = (time.value() - lower[6]) * JD.SECONDSPERDAY / h;
+        double s2 = s * s;
+        double s3 = s2 * s;
+//        Hermite basis functions and their derivatives
+        double h00 = 2 * s3 - 3 * s2 + 1;
+        double h10 = s3 - 2 * s2 + s;
+        double h01 = -2 * s3 + 3 * s2;
+        double h11 = s3 - s2;
+        double d00 = (6 * s2 - 6 * s) / h;
+        double d10 = 3 * s2 - 4 * s + 1;
+        double d01 = (-6 * s2 + 6 * s) / h;
+        double d11 = 3 * s2 - 2 * s;
+        double[] state = new double[6];
+        for (int i = 0; i < 3; i++) {
+            state[i] = h00 * lower[i] + h10 * h * lower[i + 3] + h01 * upper[i] + h11 * h * upper[i + 3];
+            state[i + 3] = d00 * lower[i] + d10 * lower[i + 3] + d01 * upper[i] + d11 * upper[i + 3];
+        }
+        return new StateVectors(
+                new Vector(state[0], state[1], state[2]),
+                new Vector(state[3], state[4], state[5])
+        );
+    }
+
+    private double[] getNode(long index) {
+        double[] node = nodes.get(index);
+        if (node != null) {
+            hits++;
+            return node;
+        }
+        misses++;
+        JD time = new JD(JD.J2000 + index * step / JD.SECONDSPERDAY);
+        StateVectors state = propagator.getState(time);
+        node = new double[]{
+                state.position().x(), state.position().y(), state.position().z(),
+                state.velocity().x(), state.velocity().y(), state.velocity().z(),
+                time.value()
+        };
+        nodes.put(index, node);
+        nodes.headMap(index - windowNodes).clear();
+        nodes.tailMap(index + windowNodes, false).clear();
+        return node;
+    }
+
+    /**
+     * Computes an upper bound on the position interpolation error near a time. The bound has
+     * two parts, the truncation error of the spline using the fourth derivative of a Keplerian
+     * orbit at perigee, and the error from the velocity of the propagator not being exactly
+     * the derivative of its position, which is measured over the orbit following @p time. The
+     * orbit is the osculating orbit of the propagator at @p time.
+     * @param time  Time near which the cache is used.
+     * @return      The position error bound in meters, relative to the wrapped propagator.
+     */
+    public double getErrorBound(JD time) {
+        StateVectors state = propagator.getState(time);
+        COE coe = new COE(state.position(), state.velocity());
+        double a = coe.sma;
+        double e = coe.ecc;
+        double n = Math.sqrt(OrbitalMath.MU / (a * a * a));
+//        |r''''| <= (angular rate at perigee)^2 * (gravity at perigee), with a factor of two margin
+        double maxDerivative = 2 * Math.pow(n, 4) * a * (1 + e) / Math.pow(1 - e, 5);
+//        slope errors enter through the h10 and h11 basis functions, |h10| + |h11| <= 1/4
+        return Math.pow(step, 4) / 384.0 * maxDerivative
+                + 0.25 * step * measureVelocityInconsistency(time, n, a, e);
+    }
+
+    /**
+     * Measures the largest difference between the velocity of the propagator and a central
+     * difference of its position over one orbit, plus the truncation error of the difference
+     * itself.
+     */
+    private double measureVelocityInconsistency(JD time, double n, double a, double e) {
+        final int samples = 32;
+        final double delta = 0.5;
+        double period = 2 * Math.PI / n;
+        double differenceError = Math.pow(n, 3) * a * (1 + e) / Math.pow(1 - e, 3) * delta * delta / 6.0;
+        double max = 0;
+        for (int i = 0; i < samples; i++) {
+            JD center = time.future(period * i / samples / JD.SECONDSPERDAY);
+            JD before = center.future(-delta / JD.SECONDSPERDAY);
+            JD after = center.future(delta / JD.SECONDSPERDAY);
+            double elapsed = after.difference(before) * JD.SECONDSPERDAY;
+            Vector slope = propagator.getState(after).position()
+                    .minus(propagator.getState(before).position()).scale(1.0 / elapsed);
+            max = Math.max(max, propagator.getState(center).velocity().minus(slope).mag());
+        }
+        return max + differenceError;
+    }
+
+    /**
+     * Retrieves the fidelity of this model.
+     * @return Propagator.Fidelity#INTERPOLATED.
+     */
+    @Override
+    public Fidelity getFidelity() {
+        return Fidelity.INTERPOLATED;
+    }
+
+    /**
+     * Removes all cached nodes and resets the hit and miss counters.
+     */
+    public void clear() {
+        nodes.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Retrieves the propagator whose states are cached.
+     * @return The wrapped propagator.
+     */
+    public Propagator getPropagator() {
+        return propagator;
+    }
+
+    /**
+     * Retrieves the number of node lookups that were already cached.
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retrieves the number of nodes that had to be propagated.
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Retrieves the number of nodes currently cached.
+     * @return The size of the cache.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Retrieves the time between grid nodes.
+     * @return The grid step in seconds.
+     */
+    public double getStep() {
+        return step;
+    }
+
+}
@@ -0,0 +1,230 @@
+/** @file
+ * This file contains the SteppingPropagator class, which propagates a satellite through
+ * a sequence of nearby times by warm starting Kepler's equation from the previous solution.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.time.JD;
+
+/**
+ * Propagates a shared {@link Satellite} through a sequence of closely spaced times, such as
+ * the samples of a pass scan or a ground track. Plain SGP4 solves Kepler's equation from
+ * scratch every call, starting from the mean longitude and taking up to ten Newton steps
+ * with a sine and cosine each. Between two samples only seconds apart the solution barely
+ * moves, so this propagator carries the previous eccentric longitude forward as the
+ * starting guess and refines it with Halley's method. The guess is advanced by the change
+ * in mean longitude divided by the derivative of Kepler's equation at the previous solution,
+ * which is usually within the SGP4 tolerance already, so most samples converge after a single
+ * trigonometric evaluation.
+ * <p>
+ * The final correction is applied to the sine and cosine with a small angle rotation rather
+ * than being dropped, so the states agree with {@link Satellite#getState(double)} to within
+ * the SGP4 convergence tolerance. Large jumps in time fall back to the cold start.
+ * <p>
+ * Iteration statistics are kept so the gain can be verified on a real workload. A stepping
+ * propagator holds mutable state and should be confined to a single thread, many of them
+ * can share the same satellite.
+ */
+public class SteppingPropagator {
+    /** Largest change in mean longitude, in radians, that is warm started from the previous solution. */
+    public static final double WARM_START_LIMIT = 0.5;
+    private static final int MAX_ITERATIONS = 10;
+
+    private final Satellite satellite;
+    private final double[] scratch = new double[6];
+//    previous Kepler solution
+    private boolean hasPrevious = false;
+    private double prevCapu, prevEpw, prevSlope;
+//    results of the most recent solve, read by the SGP4 kernel
+    double sinepw, cosepw;
+//    convergence statistics
+    private long samples = 0, iterations = 0, warmStarts = 0;
+    private int maxIterations = 0;
+
+    /**
+     * Constructs a stepping propagator with no previous solution.
+     * @param satellite The shared satellite to propagate.
+     */
+    public SteppingPropagator(Satellite satellite) {
+        this.satellite = satellite;
+    }
+
+    /**
+     * Propagates the satellite to a time.
+     * @param time  Time to find the state vectors.
+     * @return      The state vectors of the satellite at @p time.
+     */
+    public StateVectors getState(JD time) {
+        return getState(time.difference(new JD(satellite.getTle())) * SGP4Constants.XMNPDA);
+    }
+
+    /**
+     * Propagates the satellite to a time relative to its epoch.
+     * @param dt    Time since the TLE epoch in minutes.
+     * @return      The state vectors of the satellite.
+     */
+    public StateVectors getState(double dt) {
+        satellite.propagate(dt, scratch, this);
+        return new StateVectors(
+                new Vector(scratch[0], scratch[1], scratch[2]),
+                new Vector(scratch[3], scratch[4], scratch[5])
+        );
+    }
+
+    /**
+     * Propagates the satellite over an evenly spaced time grid, writing the state vectors
+     * into caller supplied arrays in a structure-of-arrays layout. This is the equivalent of
+     * {@link Satellite#getStates(double, double, int, double[], double[], double[], double[], double[], double[])}
+     * with every sample warm started from the one before it.
+     * @param start Time of the first sample in minutes since the TLE epoch.
+     * @param step  Time between successive samples in minutes.
+     * @param count Number of samples to compute.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @param vx    Array to store the x-component of the velocity in meters / second.
+     * @param vy    Array to store the y-component of the velocity in meters / second.
+     * @param vz    Array to store the z-component of the velocity in meters / second.
+     * @throws IllegalArgumentException If any of the arrays are shorter than @p count.
+     */
+    public void getStates(double start, double step, int count,
+                          double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz) {
+        Satellite.checkLengths(count, x, y, z, vx, vy, vz);
+        for (int i = 0; i < count; i++) {
+            satellite.propagate(start + step * i, scratch, this);
+            x[i] = scratch[0];
+            y[i] = scratch[1];
+            z[i] = scratch[2];
+            vx[i] = scratch[3];
+            vy[i] = scratch[4];
+            vz[i] = scratch[5];
+        }
+    }
+
+    /**
+     * Solves Kepler's equation for the eccentric longitude, leaving its sine and cosine in
+     * #sinepw and #cosepw for the SGP4 kernel.
+     * @param capu  Mean longitude measured from the node, in the range [0, 2pi).
+     * @param axn   Eccentricity vector component along the node.
+     * @param ayn   Eccentricity vector component normal to the node.
+     */
+    void solveKepler(double capu, double axn, double ayn) {
+        double epw = capu;
+        if (hasPrevious) {
+            double delta = capu - prevCapu;
+            if (delta > SGP4Constants.PI) delta -= SGP4Constants.TWOPI;
+            else if (delta < -SGP4Constants.PI) delta += SGP4Constants.TWOPI;
+            if (Math.abs(delta) <= WARM_START_LIMIT) {
+//                keep the guess on the same branch as capu, it is wrapped into [0, 2pi) every sample
+                epw = capu + (prevEpw - prevCapu) + delta * (1 / prevSlope - 1);
+                warmStarts++;
+            }
+        }
+
+        double sin = 0, cos = 0, slope = 1;
+        int count = 0;
+        while (count < MAX_ITERATIONS) {
+            sin = Math.sin(epw);
+            cos = Math.cos(epw);
+            count++;
+//            f(E) = E - axn sin(E) + ayn cos(E) - capu, and its first two derivatives
+            double f = epw - axn * sin + ayn * cos - capu;
+            slope = 1 - axn * cos - ayn * sin;
+            double curvature = axn * sin - ayn * cos;
+            double correction = -2 * f * slope / (2 * slope * slope - f * curvature);
+            if (Math.abs(correction) >= 0.95) correction = (correction > 0) ? 0.95 : -0.95;
+            if (Math.abs(correction) <= SGP4Constants.E6A) {
+//                rotate the converged sine and cosine by the last correction instead of re-evaluating them
+                double cosCorrection = 1 - 0.5 * correction * correction;
+                double sinCorrected = sin * cosCorrection + cos * correction;
+                cos = cos * cosCorrection - sin * correction;
+                sin = sinCorrected;
+                epw += correction;
+                break;
+            }
+            if (count == MAX_ITERATIONS) break;
+            epw += correction;
+        }
+
+        sinepw = sin;
+        cosepw = cos;
+        prevCapu = capu;
+        prevEpw = epw;
+        prevSlope = slope;
+        hasPrevious = true;
+        samples++;
+        iterations += count;
+        if (count > maxIterations) maxIterations = count;
+    }
+
+    /**
+     * Forgets the previous Kepler solution, so the next propagation starts cold. The
+     * statistics are not affected.
+     */
+    public void reset() {
+        hasPrevious = false;
+    }
+
+    /**
+     * Resets all the convergence statistics to zero.
+     */
+    public void resetStatistics() {
+        samples = 0;
+        iterations = 0;
+        warmStarts = 0;
+        maxIterations = 0;
+    }
+
+    /**
+     * Retrieves the satellite this stepper propagates.
+     * @return The shared satellite.
+     */
+    public Satellite getSatellite() {
+        return satellite;
+    }
+
+    /**
+     * Retrieves the number of times Kepler's equation has been solved.
+     * @return The number of propagated samples.
+     */
+    public long getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * Retrieves the total number of iterations over every sample. Each iteration costs
+     * one sine and one cosine.
+     * @return The total number of iterations.
+     */
+    public long getIterationCount() {
+        return iterations;
+    }
+
+    /**
+     * Retrieves the number of samples that were started from the previous solution.
+     * @return The number of warm starts.
+     */
+    public long getWarmStartCount() {
+        return warmStarts;
+    }
+
+    /**
+     * Retrieves the largest number of iterations any single sample needed.
+     * @return The maximum iteration count.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Retrieves the mean number of iterations per sample.
+     * @return The average iteration count, or zero if nothing has been propagated.
+     */
+    public double getAverageIterations() {
+        return (samples == 0) ? 0.0 : (double) iterations / samples;
+    }
+
+}
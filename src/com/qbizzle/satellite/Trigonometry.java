@@ -0,0 +1,73 @@
+/** @file
+ * This file contains the Trigonometry enum, the sine and cosine implementations the SGP4
+ * kernel can be evaluated with.
+ */
+
+package com.qbizzle.satellite;
+
+import com.qbizzle.math.FastMath;
+
+/**
+ * The sine and cosine the near earth SGP4 kernel of Satellite is evaluated with, so the
+ * exact and reduced precision propagations share one kernel.
+ */
+enum Trigonometry {
+    /** The exact Math functions, used by Satellite. */
+    EXACT {
+        @Override
+        double sin(double x) {
+            return Math.sin(x);
+        }
+
+        @Override
+        double cos(double x) {
+            return Math.cos(x);
+        }
+
+        @Override
+        void sinCos(double x, double[] out) {
+            out[0] = Math.sin(x);
+            out[1] = Math.cos(x);
+        }
+    },
+    /** The polynomial approximations of FastMath, used by FastMathPropagator. */
+    FAST {
+        @Override
+        double sin(double x) {
+            return FastMath.sin(x);
+        }
+
+        @Override
+        double cos(double x) {
+            return FastMath.cos(x);
+        }
+
+        @Override
+        void sinCos(double x, double[] out) {
+            FastMath.sinCos(x, out);
+        }
+    };
+
+    /**
+     * Computes the sine of an angle.
+     * @param x Angle in radians.
+     * @return  The sine of @p x.
+     */
+    abstract double sin(double x);
+
+    /**
+     * Computes the cosine of an angle.
+     * @param x Angle in radians.
+     * @return  The cosine of @p x.
+     */
+    abstract double cos(double x);
+
+    /**
+     * Computes the sine and cosine of the same angle. FAST shares one argument reduction
+     * between the two, see FastMath#sinCos.
+     * @param x     Angle in radians.
+     * @param out   Array to store the sine in index 0 and the cosine in index 1.
+     */
+    abstract void sinCos(double x, double[] out);
+
+}
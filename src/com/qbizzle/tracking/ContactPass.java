@@ -0,0 +1,114 @@
+/** @file
+ * This file contains the ContactPass class, the geometry of a satellite pass without any of
+ * its optical visibility.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.satellite.Propagator;
+
+/**
+ * The times a satellite is above the horizon of an observer, for radio contacts rather than
+ * sightings. A contact has the acquisition of signal when the satellite rises, the loss of
+ * signal when it sets, and the time of closest approach when it is highest, none of which
+ * depend on the Sun. Finding them never evaluates the solar position, the twilight or the
+ * earths shadow.
+ * <p>
+ * The optical visibility of the pass is only found if #getVisibility is called, and is kept
+ * after that, so a radio schedule that never asks for it never pays for it. The contact keeps
+ * the propagator and observer it was found with for this.
+ */
+public class ContactPass {
+    private final Propagator propagator;
+    private final TopocentricObserver observer;
+    private final AltAz aos, los, tca;
+    private PassResult visibility = null;
+
+    /**
+     * Constructs a contact from its three events.
+     * @param propagator    Propagator of the satellite, used if the visibility is asked for.
+     * @param observer      The observer of the contact.
+     * @param aos           AltAz pertaining to the rise of the satellite.
+     * @param los           AltAz pertaining to the set of the satellite.
+     * @param tca           AltAz pertaining to the highest point of the pass.
+     */
+    public ContactPass(Propagator propagator, TopocentricObserver observer, AltAz aos, AltAz los, AltAz tca) {
+        this.propagator = propagator;
+        this.observer = observer;
+        this.aos = aos;
+        this.los = los;
+        this.tca = tca;
+    }
+
+    /**
+     * Retrieves the acquisition of signal, when the satellite rises above the horizon.
+     * @return  AltAz pertaining to the rise of the satellite.
+     */
+    public AltAz getAOS() {
+        return aos;
+    }
+
+    /**
+     * Retrieves the loss of signal, when the satellite sets below the horizon.
+     * @return  AltAz pertaining to the set of the satellite.
+     */
+    public AltAz getLOS() {
+        return los;
+    }
+
+    /**
+     * Retrieves the time of closest approach, when the satellite is highest above the horizon.
+     * @return  AltAz pertaining to the highest point of the pass.
+     */
+    public AltAz getTCA() {
+        return tca;
+    }
+
+    /**
+     * Retrieves the highest elevation of the pass.
+     * @return  The elevation in degrees.
+     */
+    public double getMaxElevation() {
+        return tca.getAltitude();
+    }
+
+    /**
+     * Retrieves the length of the contact.
+     * @return  The time from the rise to the set in days.
+     */
+    public double getDuration() {
+        return los.getEpoch().difference(aos.getEpoch());
+    }
+
+    /**
+     * Retrieves the optical visibility of the pass, the same result a PassFinder search for
+     * every pass gives it. This is found the first time it is called, which refines the
+     * times the satellite enters and leaves the earths shadow, and kept after that.
+     * @return  The result of the pass, with the SatellitePass if it is visible.
+     */
+    public PassResult getVisibility() {
+        if (visibility == null) {
+            visibility = new PassFinder(propagator, observer).getResult(aos.getEpoch(), los.getEpoch());
+        }
+        return visibility;
+    }
+
+    /**
+     * Retrieves the observer of the contact.
+     * @return  The observer.
+     */
+    public TopocentricObserver getObserver() {
+        return observer;
+    }
+
+    @Override
+    public String toString() {
+        return "ContactPass{" +
+                "aos=" + aos.getEpoch().date() +
+                ", los=" + los.getEpoch().date() +
+                ", tca=" + tca.getEpoch().date() +
+                ", maxElevation=" + tca.getAltitude() +
+                '}';
+    }
+
+}
@@ -0,0 +1,236 @@
+/** @file
+ * This file contains the ElevationRefiner class, which refines the rise, set and culmination
+ * times of a pass from the elevation of the satellite and its time derivatives.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.math.OrbitalMath;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.satellite.Propagator;
+import com.qbizzle.time.JD;
+
+/**
+ * Refines the times a satellite crosses an elevation or reaches its highest elevation. The
+ * propagator returns the velocity with the position, and gravity gives the acceleration, so
+ * each propagation yields the elevation together with its first and second time derivatives
+ * in the rotating SEZ frame of the observer. Crossings are refined with Halley's method and
+ * culminations with Newton's method on the elevation rate, both inside a bracket that shrinks
+ * with every evaluation. A step that would leave the bracket is replaced by bisection, and no
+ * refinement uses more propagations than its SearchBudget allows, #MAX_ITERATIONS by default,
+ * so a search from a bracket costs at most that plus the two ends.
+ * <p>
+ * The acceleration is that of a spherical earth. It is only used for the step sizes, the
+ * elevation and its rate are exact for the propagator, so the converged times are not
+ * affected, only how quickly they converge.
+ * <p>
+ * The number of propagations is counted, and the refiner reuses scratch space between
+ * calls, so it should be confined to a single thread.
+ */
+public class ElevationRefiner {
+    /** Default tolerance the times are refined to, in seconds. */
+    public static final double TIME_TOLERANCE = 0.01;
+    /** Default largest number of propagations used to refine one time from a bracket. */
+    public static final int MAX_ITERATIONS = 7;
+
+    private final Propagator propagator;
+    private final TopocentricObserver observer;
+    private final double timeTolerance;
+    private final int maxIterations;
+    private final double[] sezPosition = new double[3], sezVelocity = new double[3], sezAcceleration = new double[3];
+    private long propagations = 0;
+
+    /**
+     * State of the satellite seen by the observer at one time.
+     * @param t             Time in seconds since the epoch of the search.
+     * @param time          Time of the sample.
+     * @param position      Position of the satellite in the earth centered reference frame.
+     * @param angle         Earth rotation angle at the time of the sample.
+     * @param sez           Position of the satellite in the SEZ reference frame.
+     * @param zdot          Rate of change of the height above the horizon plane in meters / second.
+     * @param altitude      Elevation in radians.
+     * @param rate          Rate of change of the elevation in radians / second.
+     * @param acceleration  Second derivative of the elevation in radians / second^2.
+     */
+    record Sample(double t, JD time, Vector position, double angle, Vector sez, double zdot,
+                  double altitude, double rate, double acceleration) {
+        /** Height above the horizon plane in meters, which has the same sign as the elevation. */
+        double z() {
+            return sez.z();
+        }
+
+        AltAz getAltAz() {
+            return Tracker.getAltAz(sez, time);
+        }
+    }
+
+    /**
+     * Constructs an elevation refiner.
+     * @param propagator    Propagator of the satellite, its velocity is used for the
+     *                      elevation rate.
+     * @param observer      The observer the elevation is measured from.
+     */
+    public ElevationRefiner(Propagator propagator, TopocentricObserver observer) {
+        this(propagator, observer, SearchBudget.REFINEMENT);
+    }
+
+    /**
+     * Constructs an elevation refiner with its own accuracy and cost limits.
+     * @param propagator    Propagator of the satellite, its velocity is used for the
+     *                      elevation rate.
+     * @param observer      The observer the elevation is measured from.
+     * @param budget        Time tolerance and largest number of propagations of each
+     *                      refinement.
+     */
+    public ElevationRefiner(Propagator propagator, TopocentricObserver observer, SearchBudget budget) {
+        this.propagator = propagator;
+        this.observer = observer;
+        this.timeTolerance = budget.getTimeTolerance();
+        this.maxIterations = budget.getMaxEvaluations();
+    }
+
+    /**
+     * Finds the time the satellite crosses an elevation between two times.
+     * @param lower     Start of the bracket.
+     * @param upper     End of the bracket.
+     * @param altitude  The elevation to cross in degrees, 0 for the rise or set.
+     * @return          The AltAz at the crossing, or null if the elevation at both ends is on
+     *                  the same side of @p altitude.
+     */
+    public AltAz findCrossing(JD lower, JD upper, double altitude) {
+        Sample a = sample(0.0, lower), b = sample(upper.difference(lower) * JD.SECONDSPERDAY, upper);
+        double target = Math.toRadians(altitude);
+        if ((a.altitude() - target) * (b.altitude() - target) > 0) return null;
+        return refineCrossing(lower, a, b, target).getAltAz();
+    }
+
+    /**
+     * Finds the highest elevation of the satellite between two times. If the elevation
+     * doesn't rise and then fall between them, the higher end is returned.
+     * @param lower Start of the window.
+     * @param upper End of the window.
+     * @return      The AltAz at the highest elevation in the window.
+     */
+    public AltAz findCulmination(JD lower, JD upper) {
+        Sample a = sample(0.0, lower), b = sample(upper.difference(lower) * JD.SECONDSPERDAY, upper);
+        if (a.rate() <= 0 || b.rate() >= 0)
+            return (a.altitude() >= b.altitude()) ? a.getAltAz() : b.getAltAz();
+        return refineExtremum(lower, a, b).getAltAz();
+    }
+
+    /**
+     * Refines a crossing with Halley's method, f being the elevation above @p target.
+     * @param epoch     Time the sample times are measured from.
+     * @param a         Sample at the start of the bracket.
+     * @param b         Sample at the end, on the other side of @p target.
+     * @param target    The elevation to cross in radians.
+     * @return          The sample at the crossing.
+     */
+    Sample refineCrossing(JD epoch, Sample a, Sample b, double target) {
+        double fa = a.altitude() - target, fb = b.altitude() - target;
+        if (fa == 0) return a;
+        if (fb == 0) return b;
+        boolean rising = fa < 0;
+        double lower = a.t(), upper = b.t();
+        double t = a.t() - fa * (b.t() - a.t()) / (fb - fa);
+        Sample c = b;
+        for (int i = 0; i < maxIterations; i++) {
+            c = sample(epoch, t);
+            double f = c.altitude() - target;
+            if ((f < 0) == rising) lower = t;
+            else upper = t;
+            double step = 2 * f * c.rate() / (2 * c.rate() * c.rate() - f * c.acceleration());
+            if (Math.abs(step) < timeTolerance || upper - lower < timeTolerance) break;
+            t = safeguard(t - step, lower, upper);
+        }
+        return c;
+    }
+
+    /**
+     * Refines the extremum of the elevation with Newton's method on its rate. The extremum
+     * is a maximum if the elevation is rising at the start of the bracket and a minimum
+     * otherwise.
+     * @param epoch Time the sample times are measured from.
+     * @param a     Sample at the start of the bracket.
+     * @param b     Sample at the end, with the opposite sign of the rate.
+     * @return      The sample at the extremum.
+     */
+    Sample refineExtremum(JD epoch, Sample a, Sample b) {
+        if (a.rate() == 0) return a;
+        if (b.rate() == 0) return b;
+        boolean maximum = a.rate() > 0;
+        double lower = a.t(), upper = b.t();
+        double t = a.t() - a.rate() * (b.t() - a.t()) / (b.rate() - a.rate());
+        Sample c = b;
+        for (int i = 0; i < maxIterations; i++) {
+            c = sample(epoch, t);
+            if ((c.rate() > 0) == maximum) lower = t;
+            else upper = t;
+            double step = c.rate() / c.acceleration();
+            if (Math.abs(step) < timeTolerance || upper - lower < timeTolerance) break;
+            t = safeguard(t - step, lower, upper);
+        }
+        return c;
+    }
+
+//    a step outside the bracket, or one that isn't a number, is replaced by bisection
+    private static double safeguard(double t, double lower, double upper) {
+        return (t > lower && t < upper) ? t : (lower + upper) / 2;
+    }
+
+    /**
+     * Propagates the satellite and computes its elevation and the first two derivatives. The
+     * elevation is atan2(z, h) with h the horizontal distance, so its rate is
+     * (z' h - z h') / r^2, and differentiating again gives (z'' h - z h'') / r^2 minus
+     * 2 r' / r times the rate.
+     * @param epoch Time @p t is measured from.
+     * @param t     Time of the sample in seconds since @p epoch.
+     * @return      The sample.
+     */
+    Sample sample(JD epoch, double t) {
+        return sample(t, epoch.future(t / JD.SECONDSPERDAY));
+    }
+
+//    the ends of a bracket are sampled at the times given, so a memo sees the same times the caller used
+    private Sample sample(double t, JD time) {
+        StateVectors state = propagator.getState(time);
+        propagations++;
+        Vector position = state.position();
+        double angle = TopocentricObserver.getEarthRotationAngle(time);
+        double radius = position.mag();
+        Vector gravity = position.scale(-OrbitalMath.MU / (radius * radius * radius));
+        observer.computeSEZPosition(position, angle, sezPosition);
+        observer.computeSEZVelocity(position, state.velocity(), angle, sezVelocity);
+        observer.computeSEZAcceleration(position, state.velocity(), gravity, angle, sezAcceleration);
+
+        double x = sezPosition[0], y = sezPosition[1], z = sezPosition[2];
+        double vx = sezVelocity[0], vy = sezVelocity[1], vz = sezVelocity[2];
+        double ax = sezAcceleration[0], ay = sezAcceleration[1], az = sezAcceleration[2];
+//        the horizontal distance is kept away from zero, the derivatives are singular overhead
+        double h = Math.max(Math.sqrt(x * x + y * y), 1e-3);
+        double range2 = h * h + z * z;
+        double hdot = (x * vx + y * vy) / h;
+        double hddot = (vx * vx + vy * vy + x * ax + y * ay - hdot * hdot) / h;
+        double rate = (vz * h - z * hdot) / range2;
+        double rangeRate = x * vx + y * vy + z * vz;
+        double acceleration = (az * h - z * hddot) / range2 - 2 * rate * rangeRate / range2;
+        return new Sample(t, time, position, angle, new Vector(x, y, z), vz,
+                Math.atan2(z, h), rate, acceleration);
+    }
+
+    /**
+     * Retrieves the number of propagations made by the refiner since it was constructed or
+     * its statistics were reset.
+     * @return The number of propagations.
+     */
+    public long getPropagationCount() {
+        return propagations;
+    }
+
+    /** Resets the propagation count. */
+    public void resetStatistics() {
+        propagations = 0;
+    }
+
+}
@@ -0,0 +1,180 @@
+/** @file
+ * This file contains the EnvironmentFrame class, the parts of the environment that depend
+ * only on the time, computed once and shared by every satellite and observer at that time.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.Eclipse;
+import com.qbizzle.satellite.Propagator;
+import com.qbizzle.time.JD;
+import com.qbizzle.time.SiderealTime;
+
+/**
+ * The environment at one instant: the position of the Sun and the rotation of the earth.
+ * Eclipse#isEclipsed(Satellite, JD) finds the position of the Sun, and
+ * Tracker#getGeoPositionAt and TopocentricObserver#getSEZPosition(Vector, JD) find the
+ * sidereal time and its sine and cosine, on every call, although none of them depend on the
+ * satellite. A scan of a catalog over a grid of times makes those calls once per satellite
+ * at every time. A frame makes them once per time, and the methods that take a frame are
+ * left with only the geometry of the satellite.
+ * <p>
+ * The earth rotation here is the Greenwich sidereal time about the pole, the same as
+ * TopocentricObserver, and the Sun is from Sun#position, the same as Eclipse, so the results
+ * match the methods that take a JD. The frames of the library don't model precession or
+ * nutation, so there is nothing more to keep. Frames are immutable and can be shared between
+ * threads.
+ */
+public class EnvironmentFrame {
+    private final JD time;
+    private final Vector sunPosition;
+    private final double siderealTime;
+    private final double earthRotationAngle;
+//    cosine and sine of the earth rotation angle
+    private final double cos, sin;
+
+    private EnvironmentFrame(JD time) {
+        this.time = time;
+        sunPosition = Sun.position(time);
+        siderealTime = SiderealTime.getSiderealTime(time);
+        earthRotationAngle = Math.toRadians(siderealTime * 15.0);
+        cos = Math.cos(earthRotationAngle);
+        sin = Math.sin(earthRotationAngle);
+    }
+
+    /**
+     * Computes the environment at a time.
+     * @param time  The time of the frame.
+     * @return      The frame.
+     */
+    public static EnvironmentFrame at(JD time) {
+        return new EnvironmentFrame(time);
+    }
+
+    /**
+     * Computes the frames of an evenly spaced grid of times.
+     * @param start     The time of the first frame.
+     * @param step      The time between frames in solar days.
+     * @param count     The number of frames.
+     * @return          The frames, in order of time.
+     * @throws IllegalArgumentException If @p count is negative.
+     */
+    public static EnvironmentFrame[] grid(JD start, double step, int count) {
+        if (count < 0)
+            throw new IllegalArgumentException("Frame count must not be negative.");
+        EnvironmentFrame[] frames = new EnvironmentFrame[count];
+        for (int i = 0; i < count; i++)
+            frames[i] = new EnvironmentFrame(start.future(step * i));
+        return frames;
+    }
+
+    /**
+     * Rotates a position from the earth centered reference frame into the earth fixed frame,
+     * with its x axis through the Greenwich meridian.
+     * @param position  Position vector in the earth centered reference frame.
+     * @return          The position vector in the earth fixed frame.
+     */
+    public Vector toEarthFixed(Vector position) {
+        return new Vector(
+                cos * position.x() + sin * position.y(),
+                cos * position.y() - sin * position.x(),
+                position.z()
+        );
+    }
+
+    /**
+     * Finds the GeoPosition directly below a position, see Tracker#getGeoPositionAt.
+     * @param position  Position vector in the earth centered reference frame.
+     * @return          The GeoPosition of the point below @p position.
+     */
+    public GeoPosition getGeoPosition(Vector position) {
+        return new GeoPosition(toEarthFixed(position));
+    }
+
+    /**
+     * Finds the GeoPosition directly below a satellite at the time of the frame.
+     * @param propagator    The propagator of the satellite.
+     * @return              The GeoPosition of the satellite.
+     */
+    public GeoPosition getGeoPosition(Propagator propagator) {
+        return getGeoPosition(propagator.getState(time).position());
+    }
+
+    /**
+     * Determines if a position is in the shadow of the earth, see Eclipse#isEclipsed.
+     * @param position  Position vector in the earth centered reference frame.
+     * @return          True if @p position is at least partially eclipsed, false otherwise.
+     */
+    public boolean isEclipsed(Vector position) {
+        return Eclipse.isEclipsed(position, sunPosition);
+    }
+
+    /**
+     * Computes how far a position is from the edge of the shadow of the earth, see
+     * Eclipse#getShadowAngle.
+     * @param position  Position vector in the earth centered reference frame.
+     * @return          The angle from the edge of the shadow in radians, negative inside it.
+     */
+    public double getShadowAngle(Vector position) {
+        return Eclipse.getShadowAngle(position, sunPosition);
+    }
+
+    /**
+     * Retrieves the time of the frame.
+     * @return  The time.
+     */
+    public JD getTime() {
+        return time;
+    }
+
+    /**
+     * Retrieves the position of the Sun.
+     * @return  The position of the Sun in the earth centered reference frame, from Sun#position.
+     */
+    public Vector getSunPosition() {
+        return sunPosition;
+    }
+
+    /**
+     * Retrieves the Greenwich sidereal time.
+     * @return  The sidereal time in hours, from SiderealTime#getSiderealTime.
+     */
+    public double getSiderealTime() {
+        return siderealTime;
+    }
+
+    /**
+     * Retrieves the angle the earth has rotated from the celestial reference frame.
+     * @return  The angle in radians, see TopocentricObserver#getEarthRotationAngle.
+     */
+    public double getEarthRotationAngle() {
+        return earthRotationAngle;
+    }
+
+    /**
+     * Retrieves the cosine of the earth rotation angle.
+     * @return  The cosine.
+     */
+    public double getCosEarthRotation() {
+        return cos;
+    }
+
+    /**
+     * Retrieves the sine of the earth rotation angle.
+     * @return  The sine.
+     */
+    public double getSinEarthRotation() {
+        return sin;
+    }
+
+    @Override
+    public String toString() {
+        return "EnvironmentFrame{" +
+                "time=" + time +
+                ", siderealTime=" + siderealTime +
+                '}';
+    }
+
+}
@@ -0,0 +1,158 @@
+/** @file
+ * This file contains the EvaluationMemo class, which remembers everything evaluated at each
+ * time while the events of a single pass are solved for.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.Eclipse;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.satellite.Propagator;
+import com.qbizzle.time.JD;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memo of the evaluations made while solving for the events of one pass. The rise, set,
+ * sunlight and culmination searches of a pass bracket overlapping spans of time, and the
+ * bisections evaluate the ends of a bracket that the previous level already evaluated. The
+ * memo keeps the state of the satellite, the position of the Sun and the position of the
+ * satellite in the SEZ frame of the observer for every time it has been asked about, so
+ * each is computed once per time.
+ * <p>
+ * The memo is a Propagator, so an ElevationRefiner built on it shares the states with the
+ * bisections. Times are matched exactly, which the searches do by carrying the ends of their
+ * brackets forward. Nothing is evicted, so a memo should be used for one pass and dropped,
+ * and like the other per-caller helpers it should be confined to a single thread.
+ */
+public class EvaluationMemo implements Propagator {
+    private final Propagator propagator;
+    private final TopocentricObserver observer;
+    private final Map<Double, Evaluation> evaluations = new HashMap<>();
+    private long propagations = 0, sunPositions = 0, hits = 0;
+
+//    the values evaluated at one time, each filled in when first needed
+    private static class Evaluation {
+        StateVectors state;
+        Vector sunPosition;
+        Vector sezPosition;
+    }
+
+    /**
+     * Constructs an empty memo.
+     * @param propagator    Propagator of the satellite.
+     * @param observer      The observer of the pass.
+     */
+    public EvaluationMemo(Propagator propagator, TopocentricObserver observer) {
+        this.propagator = propagator;
+        this.observer = observer;
+    }
+
+    /**
+     * Retrieves the state of the satellite, propagating it only the first time @p time is
+     * asked for.
+     * @param time  Time to find the state vectors.
+     * @return      The state vectors of the satellite at @p time.
+     */
+    @Override
+    public StateVectors getState(JD time) {
+        Evaluation evaluation = getEvaluation(time);
+        if (evaluation.state == null) {
+            evaluation.state = propagator.getState(time);
+            propagations++;
+        }
+        else hits++;
+        return evaluation.state;
+    }
+
+    @Override
+    public Fidelity getFidelity() {
+        return propagator.getFidelity();
+    }
+
+    /**
+     * Retrieves the position of the Sun, computing it only the first time @p time is asked for.
+     * @param time  Time to find the position of the Sun.
+     * @return      The position of the Sun in the earth centered reference frame.
+     */
+    public Vector getSunPosition(JD time) {
+        Evaluation evaluation = getEvaluation(time);
+        if (evaluation.sunPosition == null) {
+            evaluation.sunPosition = Sun.position(time);
+            sunPositions++;
+        }
+        else hits++;
+        return evaluation.sunPosition;
+    }
+
+    /**
+     * Retrieves the position of the satellite in the SEZ frame of the observer.
+     * @param time  Time to find the position.
+     * @return      The position vector in the SEZ reference frame.
+     */
+    public Vector getSEZPosition(JD time) {
+        Evaluation evaluation = getEvaluation(time);
+        if (evaluation.sezPosition == null)
+            evaluation.sezPosition = observer.getSEZPosition(getState(time).position(), time);
+        return evaluation.sezPosition;
+    }
+
+    /**
+     * Computes the altitude and azimuth of the satellite from the remembered SEZ position.
+     * @param time  Time to find the altitude and azimuth.
+     * @return      An AltAz object with the epoch set as @p time.
+     */
+    public AltAz getAltAz(JD time) {
+        return Tracker.getAltAz(getSEZPosition(time), time);
+    }
+
+    /**
+     * Determines if the satellite is in the shadow of the earth.
+     * @param time  Time to check.
+     * @return      True if the satellite is eclipsed at @p time, false if otherwise.
+     */
+    public boolean isEclipsed(JD time) {
+        return Eclipse.isEclipsed(getState(time).position(), getSunPosition(time));
+    }
+
+    private Evaluation getEvaluation(JD time) {
+        return evaluations.computeIfAbsent(time.value(), t -> new Evaluation());
+    }
+
+    /**
+     * Retrieves the observer of the pass.
+     * @return The observer.
+     */
+    public TopocentricObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Retrieves the number of times the satellite was propagated, which is the number of
+     * distinct times its state was asked for.
+     * @return The number of propagations.
+     */
+    public long getPropagationCount() {
+        return propagations;
+    }
+
+    /**
+     * Retrieves the number of times the position of the Sun was computed.
+     * @return The number of Sun positions.
+     */
+    public long getSunPositionCount() {
+        return sunPositions;
+    }
+
+    /**
+     * Retrieves the number of states and Sun positions that were answered from the memo,
+     * each of which would have been computed again without it.
+     * @return The number of memo hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+}
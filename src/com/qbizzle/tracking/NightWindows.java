@@ -0,0 +1,397 @@
+/** @file
+ * This file contains the NightWindows class, which finds the times the Sun crosses the
+ * twilight altitudes at an observer once for a span of time.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.time.JD;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * The windows of darkness at an observer over a span of time. Sun#getTwilightType finds the
+ * precise position of the Sun and converts it to the SEZ frame every time it is called, and
+ * whether a pass can be seen is only known after that. The night windows find the times
+ * the Sun crosses the civil, nautical and astronomical twilight altitudes once, so the
+ * twilight at any time in the span is a binary search, and a search for visible passes can
+ * skip the daylight between the windows without propagating the satellite there.
+ * <p>
+ * The altitude of the Sun is sampled every hour with Sun#position, which is too coarse for
+ * the twilight but cheap, and the highest and lowest points of each day are added to the
+ * samples so the altitude only rises or falls between them. Each crossing is then refined
+ * with the Illinois method on the altitude from Sun#position2, the same model as
+ * Sun#getTwilightType, to #TIME_TOLERANCE, or from a SolarEphemeris fit to that model if
+ * one is given. The crossings of a twilight type are only refined the first time that type
+ * is asked about.
+ * <p>
+ * Outside of the span the windows fall back to Sun#getTwilightType, and the search methods
+ * treat the time as dark, so nothing is skipped that can't be shown to be daylight. The
+ * windows hold mutable state while the crossings are refined and should be confined to a
+ * single thread, but one instance can be shared by the pass searches of every satellite
+ * over the observer.
+ */
+public class NightWindows {
+    /** Tolerance the crossing times are refined to, in seconds. */
+    public static final double TIME_TOLERANCE = 1.0;
+//    step in days between the samples of the altitude, short enough that there is at most one
+//    highest or lowest point of the altitude between two samples
+    private static final double SAMPLE_STEP = 1.0 / 24.0;
+//    tolerance in days the highest and lowest points are found to
+    private static final double EXTREMUM_TOLERANCE = 60.0 / JD.SECONDSPERDAY;
+//    allowance in degrees for the difference between the altitudes from Sun#position and Sun#position2
+    private static final double MODEL_MARGIN = 0.1;
+    private static final int MAX_ITERATIONS = 50;
+    private static final double GOLDEN_RATIO = (Math.sqrt(5.0) - 1.0) / 2.0;
+    private static final Sun.TwilightType[] TYPES = Sun.TwilightType.values();
+
+    private final TopocentricObserver observer;
+    private final JD startTime, endTime;
+    private final SolarEphemeris solarEphemeris;
+//    times and altitudes from Sun#position of the samples, with the highest and lowest points
+    private final double[] times, altitudes;
+//    start and end of each window of darkness by twilight type, alternating and sorted, found when first needed
+    private final double[][] bounds = new double[TYPES.length][];
+    private long sunPositions = 0;
+
+    /**
+     * A window of time in which the Sun is at least as dark as a twilight type.
+     */
+    public static class Window {
+        private final JD start, end;
+
+        private Window(double start, double end) {
+            this.start = new JD(start);
+            this.end = new JD(end);
+        }
+
+        /**
+         * Retrieves the start of the window.
+         * @return The time the Sun falls below the twilight altitude, or the start of the span.
+         */
+        public JD getStart() {
+            return start;
+        }
+
+        /**
+         * Retrieves the end of the window.
+         * @return The time the Sun rises above the twilight altitude, or the end of the span.
+         */
+        public JD getEnd() {
+            return end;
+        }
+
+        /**
+         * Computes the length of the window.
+         * @return The duration in days.
+         */
+        public double getDuration() {
+            return end.difference(start);
+        }
+
+        /**
+         * Determines if a time is in the window.
+         * @param time  The time to check.
+         * @return      True if @p time is at or after the start and before the end.
+         */
+        public boolean contains(JD time) {
+            return time.value() >= start.value() && time.value() < end.value();
+        }
+
+        @Override
+        public String toString() {
+            return "Window{" +
+                    "start=" + start.value() +
+                    ", end=" + end.value() +
+                    '}';
+        }
+    }
+
+    /**
+     * Samples the altitude of the Sun over a span of time.
+     * @param geoPosition   GeoPosition of the observer.
+     * @param startTime     Start of the span.
+     * @param endTime       End of the span.
+     * @throws IllegalArgumentException If @p endTime is before @p startTime.
+     */
+    public NightWindows(GeoPosition geoPosition, JD startTime, JD endTime) {
+        this(new TopocentricObserver(geoPosition), startTime, endTime);
+    }
+
+    /**
+     * Samples the altitude of the Sun over a span of time for an observer that is already
+     * prepared.
+     * @param observer      The observer.
+     * @param startTime     Start of the span.
+     * @param endTime       End of the span.
+     * @throws IllegalArgumentException If @p endTime is before @p startTime.
+     */
+    public NightWindows(TopocentricObserver observer, JD startTime, JD endTime) {
+        this(observer, startTime, endTime, null);
+    }
+
+    /**
+     * Samples the altitude of the Sun over a span of time, refining the crossings with the
+     * position of the Sun from an ephemeris instead of Sun#position2. The times outside the
+     * span of the ephemeris still use Sun#position2.
+     * @param observer          The observer.
+     * @param startTime         Start of the span.
+     * @param endTime           End of the span.
+     * @param solarEphemeris    Ephemeris of the Sun, ideally covering the span.
+     * @throws IllegalArgumentException If @p endTime is before @p startTime.
+     */
+    public NightWindows(TopocentricObserver observer, JD startTime, JD endTime, SolarEphemeris solarEphemeris) {
+        if (endTime.difference(startTime) < 0)
+            throw new IllegalArgumentException("End of the span must not be before its start.");
+        this.observer = observer;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.solarEphemeris = solarEphemeris;
+
+//        one sample outside each end of the span, so the highest and lowest points near the ends are found
+        int count = (int) Math.ceil(endTime.difference(startTime) / SAMPLE_STEP) + 3;
+        double[] sampleTimes = new double[count], sampleAltitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            sampleTimes[i] = startTime.value() + (i - 1) * SAMPLE_STEP;
+            sampleAltitudes[i] = getApproximateAltitude(sampleTimes[i]);
+        }
+        double[] times = new double[2 * count], altitudes = new double[2 * count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && i < count - 1) {
+                double before = sampleAltitudes[i] - sampleAltitudes[i - 1];
+                double after = sampleAltitudes[i + 1] - sampleAltitudes[i];
+                if (before * after < 0) {
+                    double extremum = findExtremum(sampleTimes[i - 1], sampleTimes[i + 1], before > 0);
+                    if (extremum < sampleTimes[i]) {
+                        times[size] = extremum;
+                        altitudes[size++] = getApproximateAltitude(extremum);
+                    }
+                    times[size] = sampleTimes[i];
+                    altitudes[size++] = sampleAltitudes[i];
+                    if (extremum > sampleTimes[i]) {
+                        times[size] = extremum;
+                        altitudes[size++] = getApproximateAltitude(extremum);
+                    }
+                    continue;
+                }
+            }
+            times[size] = sampleTimes[i];
+            altitudes[size++] = sampleAltitudes[i];
+        }
+        this.times = Arrays.copyOf(times, size);
+        this.altitudes = Arrays.copyOf(altitudes, size);
+    }
+
+    /**
+     * Finds the twilight at a time. Inside the span this is the same as Sun#getTwilightType
+     * except within #TIME_TOLERANCE of a crossing, outside of it Sun#getTwilightType is used.
+     * @param time  Time to find the twilight at.
+     * @return      The TwilightType at @p time.
+     */
+    public Sun.TwilightType getTwilightType(JD time) {
+        if (!covers(time)) return Sun.getTwilightType(time, observer.getGeoPosition());
+        for (int i = TYPES.length - 1; i > 0; i--) {
+            if (isDark(time, TYPES[i])) return TYPES[i];
+        }
+        return Sun.TwilightType.Day;
+    }
+
+    /**
+     * Determines if the Sun is at least as dark as a twilight type, finding the crossings of
+     * only that type.
+     * @param time      Time to check.
+     * @param darkness  The twilight type.
+     * @return          True if the twilight at @p time is @p darkness or darker.
+     */
+    public boolean isDark(JD time, Sun.TwilightType darkness) {
+        if (darkness == Sun.TwilightType.Day) return true;
+        if (!covers(time))
+            return Sun.getTwilightType(time, observer.getGeoPosition()).ordinal() >= darkness.ordinal();
+        double[] window = getWindow(time.value(), darkness);
+        return time.value() >= window[0];
+    }
+
+    /**
+     * Finds the windows in the span in which the Sun is at least as dark as a twilight type.
+     * The first and last windows are cut off at the ends of the span.
+     * @param darkness  The twilight type.
+     * @return          The windows in chronological order, empty if the Sun never gets that
+     *                  dark during the span.
+     */
+    public List<Window> getWindows(Sun.TwilightType darkness) {
+        List<Window> windows = new ArrayList<>();
+        double[] typeBounds = getBounds(darkness);
+        for (int i = 0; i < typeBounds.length; i += 2) {
+            double start = Math.max(typeBounds[i], startTime.value());
+            double end = Math.min(typeBounds[i + 1], endTime.value());
+            if (end > start) windows.add(new Window(start, end));
+        }
+        return windows;
+    }
+
+    /**
+     * Finds the window of darkness containing a time, or the first one after it. Times
+     * outside the span are in a window, so the first window starts at negative infinity if
+     * the span starts in daylight and the last ends at positive infinity.
+     * @param time      Time as a Julian Date number.
+     * @param darkness  The twilight type.
+     * @return          The start and end of the window as Julian Date numbers.
+     */
+    double[] getWindow(double time, Sun.TwilightType darkness) {
+        double[] typeBounds = getBounds(darkness);
+        int low = 0, high = typeBounds.length / 2 - 1;
+//        first window whose end is after the time, the last one always is
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (typeBounds[2 * mid + 1] > time) high = mid;
+            else low = mid + 1;
+        }
+        return new double[]{typeBounds[2 * low], typeBounds[2 * low + 1]};
+    }
+
+    private double[] getBounds(Sun.TwilightType darkness) {
+        int index = darkness.ordinal();
+        if (bounds[index] == null) bounds[index] = findBounds(Sun.getTwilightAltitude(darkness));
+        return bounds[index];
+    }
+
+    /**
+     * Finds the windows in which the altitude of the Sun is below a threshold. Each interval
+     * between the samples is one where the altitude only rises or falls, so it can only be
+     * crossed once, and it is skipped unless the approximate altitude at one end is close
+     * enough to the threshold that the precise one may be on the other side.
+     */
+    private double[] findBounds(double threshold) {
+        List<Double> list = new ArrayList<>();
+        list.add(Double.NEGATIVE_INFINITY);
+        double start = startTime.value(), end = endTime.value();
+        boolean dark = getAltitude(start) < threshold;
+        if (!dark) list.add(start);
+        for (int i = 0; i < times.length - 1; i++) {
+            double a = Math.max(times[i], start), b = Math.min(times[i + 1], end);
+            if (b <= a) continue;
+            double fa = altitudes[i] - threshold, fb = altitudes[i + 1] - threshold;
+            if ((fa < 0) == (fb < 0) && Math.min(Math.abs(fa), Math.abs(fb)) > MODEL_MARGIN) continue;
+            fa = getAltitude(a) - threshold;
+            fb = getAltitude(b) - threshold;
+            if ((fa < 0) == (fb < 0) || (fb < 0) == dark) continue;
+            list.add(findCrossing(this::getAltitude, threshold, a, fa, b, fb));
+            dark = fb < 0;
+        }
+        if (!dark) list.add(end);
+        list.add(Double.POSITIVE_INFINITY);
+        return list.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * Refines the time the altitude of the Sun crosses a threshold with the Illinois method,
+     * see RootBracket, to #TIME_TOLERANCE.
+     * @param altitude  The altitude of the Sun in degrees at a Julian Date number.
+     * @param threshold The altitude crossed.
+     * @param a         Julian Date number at one end of the bracket.
+     * @param fa        Altitude at @p a minus @p threshold.
+     * @param b         Julian Date number at the other end of the bracket.
+     * @param fb        Altitude at @p b minus @p threshold, with the opposite sign of @p fa.
+     * @return          The dark end of the narrowed bracket, so every time inside a window is dark.
+     */
+    static double findCrossing(DoubleUnaryOperator altitude, double threshold, double a, double fa, double b, double fb) {
+        return new RootBracket<>(a, fa, b, fb, Double::doubleValue)
+                .narrow(t -> t, t -> altitude.applyAsDouble(t) - threshold,
+                        TIME_TOLERANCE / JD.SECONDSPERDAY, MAX_ITERATIONS)
+                .getNegativeEnd();
+    }
+
+    /**
+     * Finds the highest or lowest point of the approximate altitude by golden section search.
+     */
+    private double findExtremum(double a, double b, boolean maximum) {
+        double sign = maximum ? 1.0 : -1.0;
+        double c = b - GOLDEN_RATIO * (b - a), d = a + GOLDEN_RATIO * (b - a);
+        double fc = sign * getApproximateAltitude(c), fd = sign * getApproximateAltitude(d);
+        while (b - a > EXTREMUM_TOLERANCE) {
+            if (fc > fd) {
+                b = d;
+                d = c;
+                fd = fc;
+                c = b - GOLDEN_RATIO * (b - a);
+                fc = sign * getApproximateAltitude(c);
+            } else {
+                a = c;
+                c = d;
+                fc = fd;
+                d = a + GOLDEN_RATIO * (b - a);
+                fd = sign * getApproximateAltitude(d);
+            }
+        }
+        return (a + b) / 2;
+    }
+
+    private boolean covers(JD time) {
+        return time.value() >= startTime.value() && time.value() <= endTime.value();
+    }
+
+    private double getApproximateAltitude(double time) {
+        JD t = new JD(time);
+        return Tracker.getAltAz(observer.getSEZPosition(Sun.position(t), t), t).getAltitude();
+    }
+
+    private double getAltitude(double time) {
+        JD t = new JD(time);
+        if (solarEphemeris != null && solarEphemeris.contains(t))
+            return Tracker.getAltAz(observer.getSEZPosition(solarEphemeris.getPosition(t), t), t).getAltitude();
+        sunPositions++;
+        return getAltitude(observer, time);
+    }
+
+    /**
+     * Computes the altitude of the Sun from Sun#position2, the same model as
+     * Sun#getTwilightType.
+     * @param observer  The observer.
+     * @param time      Time as a Julian Date number.
+     * @return          The altitude of the Sun in degrees.
+     */
+    static double getAltitude(TopocentricObserver observer, double time) {
+        JD t = new JD(time);
+        return Tracker.getAltAz(observer.getSEZPosition(Sun.position2(t), t), t).getAltitude();
+    }
+
+    /**
+     * Retrieves the observer.
+     * @return The observer the windows are for.
+     */
+    public TopocentricObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Retrieves the start of the span.
+     * @return The start time.
+     */
+    public JD getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Retrieves the end of the span.
+     * @return The end time.
+     */
+    public JD getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Retrieves the number of times the precise position of the Sun was computed to refine
+     * the crossings. The hourly samples use the cheap Sun#position and aren't counted, and
+     * neither are the positions taken from a SolarEphemeris.
+     * @return The number of precise Sun positions.
+     */
+    public long getSunPositionCount() {
+        return sunPositions;
+    }
+
+}
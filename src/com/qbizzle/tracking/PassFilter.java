@@ -1,15 +1,51 @@
 package com.qbizzle.tracking;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // duration is going to be minutes not days
+/**
+ * A set of conditions a satellite pass must meet. The conditions are combined with a logical
+ * and, both the ones set on this filter and those of any filters added with #and.
+ * <p>
+ * A filter can be applied to passes that have already been found with
+ * Tracker#filterPasses, or given to the pass search in PassFinder, which checks each
+ * condition as soon as it has what it needs to. The minimum height is first checked against
+ * a bound on the height from the samples that found the set, before the rise and set are
+ * refined. The duration is checked from the rise and set, the night condition from the
+ * twilight at the rise, and the minimum height again from the highest point of the whole
+ * pass, which is never lower than the highest point where it's visible, before the times the
+ * satellite enters or leaves the earths shadow are searched for. Only the passes that survive
+ * are refined all the way, and the remaining conditions are checked on the finished pass.
+ */
 public class PassFilter {
 
     public enum FilterParameter {
         MINIMUM_HEIGHT, MINIMUM_DURATION, MINIMUM_HEIGHT_DURATION
     }
 
+    /** The conditions of a filter, used to count the passes each one rejects. */
+    public enum Criterion {
+        /** The pass is shorter than the minimum duration. */
+        DURATION,
+        /** The pass rises before the end of nautical twilight. */
+        NIGHT,
+        /** The pass doesn't reach the minimum height. */
+        HEIGHT,
+        /** The satellite is never sunlit during the pass. */
+        SUNLIT,
+        /** The highest point of the pass is outside the azimuth ranges. */
+        AZIMUTH
+    }
+
     private double minimumHeight;
     private double minimumDuration;
     private FilterParameter filterType;
+    private boolean sunlitOnly = false;
+    private boolean nightOnly = false;
+//    pairs of start and end azimuths, clockwise from north
+    private final List<double[]> azimuthRanges = new ArrayList<>();
+    private final List<PassFilter> conjuncts = new ArrayList<>();
 
 
     public PassFilter() {
@@ -45,4 +81,183 @@ public class PassFilter {
         return this;
     }
 
+    public boolean isSunlitOnly() {
+        return sunlitOnly;
+    }
+
+    /**
+     * Sets whether passes where the satellite is never sunlit are rejected. These can only
+     * come from a PassFinder search for every pass, Tracker#getPasses only returns sunlit ones.
+     * @param sunlitOnly    True to reject passes that are never sunlit.
+     * @return              This filter.
+     */
+    public PassFilter setSunlitOnly(boolean sunlitOnly) {
+        this.sunlitOnly = sunlitOnly;
+        return this;
+    }
+
+    public boolean isNightOnly() {
+        return nightOnly;
+    }
+
+    /**
+     * Sets whether passes that rise before the end of nautical twilight are rejected. These
+     * can only come from a PassFinder search for every pass, Tracker#getPasses only returns
+     * passes at night.
+     * @param nightOnly True to reject passes in daylight or civil twilight.
+     * @return          This filter.
+     */
+    public PassFilter setNightOnly(boolean nightOnly) {
+        this.nightOnly = nightOnly;
+        return this;
+    }
+
+    /**
+     * Adds a range of azimuths the highest point of the pass may be in. A pass is accepted
+     * if it is in any of the ranges, and every pass is accepted if no range was added.
+     * @param from  Start of the range in degrees clockwise from north.
+     * @param to    End of the range in degrees clockwise from north, the range may wrap
+     *              past north so from 300 to 60 is 120 degrees wide.
+     * @return      This filter.
+     */
+    public PassFilter addAzimuthRange(double from, double to) {
+        azimuthRanges.add(new double[]{normalizeAzimuth(from), normalizeAzimuth(to)});
+        return this;
+    }
+
+    /**
+     * Adds another filter whose conditions must also be met.
+     * @param other The filter to combine with this one.
+     * @return      This filter.
+     */
+    public PassFilter and(PassFilter other) {
+        conjuncts.add(other);
+        return this;
+    }
+
+    /**
+     * Determines if a pass meets every condition of the filter.
+     * @param pass  The pass to test.
+     * @return      True if the pass is accepted, false if otherwise.
+     */
+    public boolean test(SatellitePass pass) {
+        return reject(pass) == null;
+    }
+
+    /**
+     * Finds the first condition a finished pass doesn't meet. The sunlit and night conditions
+     * are always met by a SatellitePass, it is only built for visible passes.
+     * @param pass  The pass to test.
+     * @return      The condition rejecting the pass, or null if it is accepted.
+     */
+    Criterion reject(SatellitePass pass) {
+        if (hasMinimumHeight() && pass.getMaxHeight() < minimumHeight) return Criterion.HEIGHT;
+        if (hasMinimumDuration() && pass.getDisappearTime().difference(pass.getRiseTime()) < minimumDuration / 1440.0)
+            return Criterion.DURATION;
+        if (!inAzimuthRanges(pass.getMaxAzimuth())) return Criterion.AZIMUTH;
+        for (PassFilter conjunct : conjuncts) {
+            Criterion criterion = conjunct.reject(pass);
+            if (criterion != null) return criterion;
+        }
+        return null;
+    }
+
+    /**
+     * Determines if a radio contact meets every condition of the filter. The minimum height
+     * applies to the highest point of the contact, the minimum duration to the time from the
+     * rise to the set, and the azimuth ranges to the azimuth of the highest point.
+     * @param contact   The contact to test.
+     * @return          True if the contact is accepted, false if otherwise.
+     */
+    public boolean test(ContactPass contact) {
+        return reject(contact) == null;
+    }
+
+    /**
+     * Finds the first condition a radio contact doesn't meet. The night and sunlit
+     * conditions aren't checked, a contact has no optical visibility.
+     * @param contact   The contact to test.
+     * @return          The condition rejecting the contact, or null if it is accepted.
+     */
+    Criterion reject(ContactPass contact) {
+        if (hasMinimumHeight() && contact.getMaxElevation() < minimumHeight) return Criterion.HEIGHT;
+        if (hasMinimumDuration() && contact.getDuration() < minimumDuration / 1440.0) return Criterion.DURATION;
+        if (!inAzimuthRanges(contact.getTCA().getAzimuth())) return Criterion.AZIMUTH;
+        for (PassFilter conjunct : conjuncts) {
+            Criterion criterion = conjunct.reject(contact);
+            if (criterion != null) return criterion;
+        }
+        return null;
+    }
+
+    /**
+     * Determines if a pass is too short from its rise and set. The duration of a visible pass
+     * is measured from the rise to when it disappears, which is never after the set, so a
+     * pass rejected here would be rejected once it was finished too.
+     * @param days  Time from the rise to the set of the pass in days.
+     * @return      True if the pass can't meet the minimum duration.
+     */
+    boolean rejectsDuration(double days) {
+        if (hasMinimumDuration() && days < minimumDuration / 1440.0) return true;
+        for (PassFilter conjunct : conjuncts) {
+            if (conjunct.rejectsDuration(days)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Determines if a pass is too low from the highest point of the whole pass, which is
+     * never lower than the highest point where it is visible.
+     * @param height    Highest altitude of the pass in degrees.
+     * @return          True if the pass can't meet the minimum height.
+     */
+    boolean rejectsHeight(double height) {
+        if (hasMinimumHeight() && height < minimumHeight) return true;
+        for (PassFilter conjunct : conjuncts) {
+            if (conjunct.rejectsHeight(height)) return true;
+        }
+        return false;
+    }
+
+    boolean requiresNight() {
+        if (nightOnly) return true;
+        for (PassFilter conjunct : conjuncts) {
+            if (conjunct.requiresNight()) return true;
+        }
+        return false;
+    }
+
+    boolean requiresSunlight() {
+        if (sunlitOnly) return true;
+        for (PassFilter conjunct : conjuncts) {
+            if (conjunct.requiresSunlight()) return true;
+        }
+        return false;
+    }
+
+    private boolean hasMinimumHeight() {
+        return filterType != FilterParameter.MINIMUM_DURATION;
+    }
+
+    private boolean hasMinimumDuration() {
+        return filterType != FilterParameter.MINIMUM_HEIGHT;
+    }
+
+    private boolean inAzimuthRanges(double azimuth) {
+        if (azimuthRanges.isEmpty()) return true;
+        azimuth = normalizeAzimuth(azimuth);
+        for (double[] range : azimuthRanges) {
+            boolean inside = (range[0] <= range[1])
+                    ? (range[0] <= azimuth && azimuth <= range[1])
+                    : (range[0] <= azimuth || azimuth <= range[1]);
+            if (inside) return true;
+        }
+        return false;
+    }
+
+    private static double normalizeAzimuth(double azimuth) {
+        azimuth %= 360.0;
+        return (azimuth < 0) ? azimuth + 360.0 : azimuth;
+    }
+
 }
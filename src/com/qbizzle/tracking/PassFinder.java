@@ -0,0 +1,833 @@
+/** @file
+ * This file contains the PassFinder class, which finds satellite passes by bracketing the
+ * horizon crossings and refining them with a root-finder.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.math.OrbitalMath;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.Eclipse;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.satellite.Propagator;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.ElevationRefiner.Sample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Finds the passes of a satellite over a GeoPosition without scanning the window in fixed
+ * steps. Every sample computes the height of the satellite above the observers horizon
+ * plane and the rate it is changing. The height can't change faster than the speed of the
+ * satellite at perigee plus the speed the rotating horizon sweeps through its apogee, so
+ * a satellite far below the horizon can safely be skipped ahead by its height divided by
+ * that bound, and near the horizon the samples are a fixed fraction of the orbital period
+ * apart. A horizon crossing is bracketed by a change in the sign of the height, or by a
+ * change in the sign of its rate when a short pass falls entirely between two samples. The
+ * crossing and the highest point of the pass are refined by an ElevationRefiner from the
+ * elevation and its derivatives, and the times the satellite enters or leaves the earths
+ * shadow with the Illinois variant of regula falsi.
+ * <p>
+ * Passes are judged under the same rules as Tracker#getPasses, they must rise during
+ * nautical twilight or darker and be sunlit for part of the pass. #getPasses returns the
+ * passes that are visible, and #getPassResults returns a PassResult for every pass with the
+ * reason the others can't be seen. The twilight check is made before any of the visibility
+ * is refined, so passes in daylight cost almost nothing. The searches that only return
+ * visible passes go further and use NightWindows to skip the daylight entirely, without
+ * propagating the satellite there, see #PassFinder(Propagator, NightWindows).
+ * <p>
+ * Passes are found one at a time in chronological order. #iterator and #stream only search
+ * as far as the caller reads, so asking for the next visible pass costs one pass worth of
+ * propagations rather than the whole window, and #getPage returns a cursor to resume from.
+ * <p>
+ * For radio contacts, #getContacts and #contactIterator find the same passes without
+ * judging them, so none of the solar position, twilight or shadow work is done.
+ * <p>
+ * The number of propagations is counted so the cost can be compared with the fixed step
+ * scan, as are the passes a PassFilter rejects during the search. A pass finder holds this
+ * mutable state and should be confined to a single thread.
+ */
+public class PassFinder {
+    /** Number of samples per orbital period when the satellite is near the horizon. */
+    public static final int STEPS_PER_ORBIT = 32;
+    /** Tolerance the event times are refined to, in seconds. */
+    public static final double TIME_TOLERANCE = 0.01;
+    private static final int MAX_ITERATIONS = 50;
+//    safety factor on the largest rate of change of the height above the horizon
+    private static final double RATE_MARGIN = 1.1;
+//    allowance in meters for the short periodic changes in the radius missing from the osculating perigee
+    private static final double RADIUS_MARGIN = 25_000.0;
+//    allowance in meters / second^2 for the part of the gravity along the zenith the spherical earth leaves out
+    private static final double GRAVITY_MARGIN = 0.05;
+    private static final double EARTH_ROTATION = TopocentricObserver.EARTH_ROTATION_RATE;
+//    twilight a pass must rise in to be visible
+    private static final Sun.TwilightType VISIBLE_DARKNESS = Sun.TwilightType.Nautical;
+
+    private final Propagator propagator;
+    private final TopocentricObserver observer;
+//    darkness shared with other pass finders, or null to find it for each search
+    private final NightWindows nightWindows;
+//    cost statistics
+    private long propagations = 0;
+    private final ElevationRefiner refiner;
+//    the propagator the refinement of each pass evaluates through its memo, counted in the statistics
+    private final Propagator counted = new Propagator() {
+        @Override
+        public StateVectors getState(JD time) {
+            propagations++;
+            return propagator.getState(time);
+        }
+
+        @Override
+        public Fidelity getFidelity() {
+            return propagator.getFidelity();
+        }
+    };
+    private final long[] pruned = new long[PassFilter.Criterion.values().length];
+
+    /**
+     * Pair of samples either side of a horizon crossing.
+     * @param from  Sample with the sign of the height the search started with.
+     * @param to    Sample with the opposite sign.
+     */
+    private record Bracket(Sample from, Sample to) {}
+
+    /**
+     * Constructs a pass finder.
+     * @param propagator    Propagator of the satellite, usually a full fidelity one since
+     *                      every sample is used for refinement.
+     * @param geoPosition   GeoPosition of the observer.
+     */
+    public PassFinder(Propagator propagator, GeoPosition geoPosition) {
+        this(propagator, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Constructs a pass finder for an observer that is already prepared, so several pass
+     * finders over the same site can share it.
+     * @param propagator    Propagator of the satellite, usually a full fidelity one since
+     *                      every sample is used for refinement.
+     * @param observer      The observer of the passes.
+     */
+    public PassFinder(Propagator propagator, TopocentricObserver observer) {
+        this(propagator, observer, null);
+    }
+
+    /**
+     * Constructs a pass finder that takes the darkness at the observer from night windows
+     * that are already found, so the pass finders of many satellites over the same site
+     * find the crossings of the twilight altitudes once between them. Times outside the span
+     * of the windows are searched as if they were dark.
+     * @param propagator    Propagator of the satellite, usually a full fidelity one since
+     *                      every sample is used for refinement.
+     * @param nightWindows  The night windows of the observer of the passes.
+     */
+    public PassFinder(Propagator propagator, NightWindows nightWindows) {
+        this(propagator, nightWindows.getObserver(), nightWindows);
+    }
+
+    private PassFinder(Propagator propagator, TopocentricObserver observer, NightWindows nightWindows) {
+        this.propagator = propagator;
+        this.observer = observer;
+        this.nightWindows = nightWindows;
+        this.refiner = new ElevationRefiner(propagator, observer);
+    }
+
+    /**
+     * Finds every visible pass of the satellite in a window of time. A pass in progress at
+     * @p startTime is included with its actual rise time, and a pass rising before
+     * @p endTime is followed until it sets.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window.
+     * @return          The visible passes found in the window.
+     */
+    public java.util.Vector<SatellitePass> getPasses(JD startTime, JD endTime) {
+        return getPasses(startTime, endTime, null);
+    }
+
+    /**
+     * Finds every visible pass of the satellite in a window of time that meets the conditions
+     * of a filter. The filter is applied during the search, see PassFilter, so the passes it
+     * rejects are never refined further than needed to reject them. The result is the same as
+     * Tracker#filterPasses applied to #getPasses(JD, JD).
+     * @param startTime Start of the window.
+     * @param endTime   End of the window.
+     * @param filter    Conditions the passes must meet, or null to accept every pass.
+     * @return          The visible passes found in the window that meet the conditions.
+     */
+    public java.util.Vector<SatellitePass> getPasses(JD startTime, JD endTime, PassFilter filter) {
+        java.util.Vector<SatellitePass> passList = new java.util.Vector<>();
+        stream(startTime, endTime, filter).forEach(passList::add);
+        return passList;
+    }
+
+    /**
+     * Finds every time the satellite is above the horizon in a window of time, with the
+     * outcome of each pass. There is a result for every pass, visible or not, so none of
+     * them have the outcome PassResult.Outcome#NONE.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window.
+     * @return          The results of every pass in the window.
+     */
+    public java.util.Vector<PassResult> getPassResults(JD startTime, JD endTime) {
+        java.util.Vector<PassResult> resultList = new java.util.Vector<>();
+        iterator(startTime, endTime).forEachRemaining(resultList::add);
+        return resultList;
+    }
+
+    /**
+     * Creates an iterator over the results of every pass in a window of time, in
+     * chronological order. Nothing is searched until the first result is asked for, and
+     * each call to Iterator#hasNext searches only as far as the next pass.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window, a pass rising before this time is followed until
+     *                  it sets.
+     * @return          An iterator over the pass results.
+     */
+    public PassIterator iterator(JD startTime, JD endTime) {
+        return new PassIterator(startTime, endTime, null, null);
+    }
+
+    /**
+     * Creates an iterator over the results of the passes in a window of time that meet the
+     * conditions of a filter, in chronological order. Passes that aren't visible are included
+     * unless the filter requires night or sunlight, or rejects them before it is known they
+     * can't be seen, from their duration or a bound on their height.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window, a pass rising before this time is followed until
+     *                  it sets.
+     * @param filter    Conditions the passes must meet, or null to accept every pass.
+     * @return          An iterator over the pass results.
+     */
+    public PassIterator iterator(JD startTime, JD endTime, PassFilter filter) {
+        return new PassIterator(startTime, endTime, filter, null);
+    }
+
+    /**
+     * Creates a lazy stream of the visible passes in a window of time, in chronological
+     * order. The stream searches only as far as it is consumed, so short-circuiting
+     * operations such as Stream#limit, Stream#findFirst or Stream#takeWhile with a wall clock
+     * deadline stop the search as well.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window.
+     * @return          A sequential stream of the visible passes.
+     */
+    public Stream<SatellitePass> stream(JD startTime, JD endTime) {
+        return stream(startTime, endTime, null);
+    }
+
+    /**
+     * Creates a lazy stream of the visible passes in a window of time that meet the
+     * conditions of a filter, in chronological order. Passes rising in daylight can't be
+     * visible, so only the windows of nautical twilight or darker are searched.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window.
+     * @param filter    Conditions the passes must meet, or null to accept every pass.
+     * @return          A sequential stream of the visible passes.
+     */
+    public Stream<SatellitePass> stream(JD startTime, JD endTime, PassFilter filter) {
+        Spliterator<PassResult> spliterator = Spliterators.spliteratorUnknownSize(
+                new PassIterator(startTime, endTime, filter, getNightWindows(startTime, endTime)),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false)
+                .filter(PassResult::isVisible)
+                .map(PassResult::getPass);
+    }
+
+    /**
+     * Finds the next few visible passes, for callers that show the passes a page at a time.
+     * @param cursor    Time to resume the search from, the start of the window for the first
+     *                  page and PassPage#getCursor of the previous page after that.
+     * @param count     Largest number of passes to return.
+     * @param endTime   End of the window.
+     * @return          The page of passes, with the cursor to find the next page from or
+     *                  null if the window has been searched to the end.
+     * @throws IllegalArgumentException If @p count is not positive.
+     */
+    public PassPage getPage(JD cursor, int count, JD endTime) {
+        return getPage(cursor, count, endTime, null);
+    }
+
+    /**
+     * Finds the next few visible passes that meet the conditions of a filter.
+     * @param cursor    Time to resume the search from.
+     * @param count     Largest number of passes to return.
+     * @param endTime   End of the window.
+     * @param filter    Conditions the passes must meet, or null to accept every pass.
+     * @return          The page of passes, with the cursor to find the next page from or
+     *                  null if the window has been searched to the end.
+     * @throws IllegalArgumentException If @p count is not positive.
+     */
+    public PassPage getPage(JD cursor, int count, JD endTime, PassFilter filter) {
+        if (count <= 0)
+            throw new IllegalArgumentException("Page size must be positive.");
+        PassIterator iterator = new PassIterator(cursor, endTime, filter, getNightWindows(cursor, endTime));
+        List<SatellitePass> passList = new ArrayList<>();
+        while (passList.size() < count) {
+            if (!iterator.hasNext()) return new PassPage(passList, null);
+            PassResult result = iterator.next();
+            if (result.isVisible()) passList.add(result.getPass());
+        }
+//        don't look ahead for the next pass, the next page may never be asked for
+        return new PassPage(passList, iterator.getCursor());
+    }
+
+    /**
+     * Finds every radio contact with the satellite in a window of time. Only the geometry of
+     * each pass is found, the rise, set and highest point, so the Sun and the earths shadow
+     * are never evaluated. ContactPass#getVisibility finds the optical visibility of a
+     * contact if it is needed.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window.
+     * @return          The contacts found in the window.
+     */
+    public java.util.Vector<ContactPass> getContacts(JD startTime, JD endTime) {
+        return getContacts(startTime, endTime, null);
+    }
+
+    /**
+     * Finds every radio contact with the satellite in a window of time that meets the
+     * conditions of a filter, see #contactIterator(JD, JD, PassFilter).
+     * @param startTime Start of the window.
+     * @param endTime   End of the window.
+     * @param filter    Conditions the contacts must meet, or null to accept every contact.
+     * @return          The contacts found in the window that meet the conditions.
+     * @throws IllegalArgumentException If the filter requires night or sunlight.
+     */
+    public java.util.Vector<ContactPass> getContacts(JD startTime, JD endTime, PassFilter filter) {
+        java.util.Vector<ContactPass> contactList = new java.util.Vector<>();
+        contactIterator(startTime, endTime, filter).forEachRemaining(contactList::add);
+        return contactList;
+    }
+
+    /**
+     * Creates an iterator over the radio contacts in a window of time, in chronological
+     * order, see #getContacts(JD, JD).
+     * @param startTime Start of the window.
+     * @param endTime   End of the window, a contact starting before this time is followed
+     *                  until it ends.
+     * @return          An iterator over the contacts.
+     */
+    public ContactIterator contactIterator(JD startTime, JD endTime) {
+        return contactIterator(startTime, endTime, null);
+    }
+
+    /**
+     * Creates an iterator over the radio contacts in a window of time that meet the
+     * conditions of a filter, in chronological order. The minimum height applies to the
+     * highest point of the contact and the minimum duration to the time from the rise to
+     * the set, since there is no visible part of a contact. The night and sunlit conditions
+     * need the Sun, so they can't be used.
+     * @param startTime Start of the window.
+     * @param endTime   End of the window, a contact starting before this time is followed
+     *                  until it ends.
+     * @param filter    Conditions the contacts must meet, or null to accept every contact.
+     * @return          An iterator over the contacts.
+     * @throws IllegalArgumentException If the filter requires night or sunlight.
+     */
+    public ContactIterator contactIterator(JD startTime, JD endTime, PassFilter filter) {
+        if (filter != null && (filter.requiresNight() || filter.requiresSunlight()))
+            throw new IllegalArgumentException("Contacts can't be filtered by night or sunlight.");
+        return new ContactIterator(startTime, endTime, filter);
+    }
+
+    private NightWindows getNightWindows(JD startTime, JD endTime) {
+        return (nightWindows != null) ? nightWindows : new NightWindows(observer, startTime, endTime);
+    }
+
+    /**
+     * Lazy search for the passes in a window of time. The search keeps its own copy of the
+     * step near the horizon and the bound on the rate of change of the height, so several
+     * iterators from the same pass finder can be used at the same time, but like the pass
+     * finder each iterator should be confined to a single thread. The subclasses decide what
+     * is made of each pair of horizon crossings. A search for visible passes only searches the
+     * night windows, and steps from the start of each window to its end or the next rise.
+     * @param <T>   Type of the result for each pass.
+     */
+    public abstract class PassSearch<T> implements Iterator<T> {
+        final JD startTime;
+        final PassFilter filter;
+//        darkness the passes must rise in, or null to search every time
+        final NightWindows nightWindows;
+        private final double end;
+        private double minStep, maxRate, period;
+//        largest upward acceleration of the height, smallest radius of the orbit, and the observer
+//        position from the earth center along and across the zenith, for the bound on the peak height
+        private double maxAcceleration, minRadius, observerUp, observerAcross;
+//        bound on the height above the horizon between the samples of the last call to nextCrossing
+        private double heightBound;
+//        the sample the search carries on from, always after the set of the last result returned
+        private Sample current;
+        private JD cursor;
+        private T nextResult;
+        private Sample nextCurrent;
+        private boolean started = false, finished = false;
+
+        private PassSearch(JD startTime, JD endTime, PassFilter filter, NightWindows nightWindows) {
+            this.startTime = startTime;
+            this.end = endTime.difference(startTime) * JD.SECONDSPERDAY;
+            this.filter = filter;
+            this.nightWindows = nightWindows;
+            this.cursor = startTime;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextResult == null && !finished) search();
+            return nextResult != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException("No more passes in the window.");
+            T result = nextResult;
+            nextResult = null;
+            current = nextCurrent;
+            cursor = current.time();
+            return result;
+        }
+
+        /**
+         * Retrieves the time the search can be resumed from to find the passes after the last
+         * one returned by #next. This is always between passes, so a new search started from
+         * it finds the same passes this one would have.
+         * @return The time to resume from.
+         */
+        public JD getCursor() {
+            return cursor;
+        }
+
+        private void search() {
+            if (!started) {
+                current = begin();
+                started = true;
+            }
+            Sample from = current;
+//            time the next night window is looked for after, behind the last sample at the end of a window
+            double after = from.t();
+            while (after < end) {
+                double limit = end;
+                if (nightWindows != null) {
+                    double[] window = getNightWindow(after);
+                    if (window[0] >= end) break;
+                    if (window[0] > from.t()) {
+                        from = sample(window[0]);
+                        current = from;
+                    }
+                    limit = Math.min(end, window[1]);
+                }
+                Bracket crossing = nextCrossing(from, limit);
+                if (crossing == null) {
+                    if (limit >= end) break;
+                    after = limit;
+                    continue;
+                }
+                if (crossing.from().z() > 0) {
+//                    set of a pass whose rise was never found, or that rose before the window, carry
+//                    on from below the horizon
+                    from = crossing.to();
+                    current = from;
+                    after = from.t();
+                    continue;
+                }
+                Bracket setting = nextCrossing(crossing.to(), end + period);
+                if (setting == null) break;
+//                the setting search only bounds the height after the rise bracket, and a short
+//                pass can peak inside it
+                double passHeightBound = Math.max(heightBound, getHeightBound(crossing.from(), crossing.to()));
+                if (filter != null && filter.rejectsHeight(getAltitudeBound(passHeightBound))) {
+                    prune(PassFilter.Criterion.HEIGHT);
+                    from = setting.to();
+                    current = from;
+                    after = from.t();
+                    continue;
+                }
+                Sample rise = refiner.refineCrossing(startTime, crossing.from(), crossing.to(), 0.0);
+                Sample set = refiner.refineCrossing(startTime, setting.from(), setting.to(), 0.0);
+                T result = getResult(rise, set);
+                if (result == null) {
+                    from = setting.to();
+                    current = from;
+                    after = from.t();
+                    continue;
+                }
+                nextResult = result;
+                nextCurrent = setting.to();
+                return;
+            }
+            finished = true;
+        }
+
+        /**
+         * Finds the night window of the visible passes containing a time, or the first one
+         * after it.
+         * @param t Time in seconds from the start of the search.
+         * @return  The start and end of the window in seconds from the start of the search,
+         *          infinite where the window runs out of the span of the night windows.
+         */
+        private double[] getNightWindow(double t) {
+            double[] window = nightWindows.getWindow(startTime.value() + t / JD.SECONDSPERDAY, VISIBLE_DARKNESS);
+            return new double[]{
+                    (window[0] - startTime.value()) * JD.SECONDSPERDAY,
+                    (window[1] - startTime.value()) * JD.SECONDSPERDAY
+            };
+        }
+
+        /**
+         * Sets up a search from the state of the satellite at its start. The orbit at the start
+         * gives the step near the horizon and the bound on the rate of change of the height. If
+         * the satellite is already above the horizon, the search is moved back to before it rose.
+         */
+        private Sample begin() {
+            StateVectors state = propagator.getState(startTime);
+            propagations++;
+            double r = state.position().mag();
+            double v = state.velocity().mag();
+            double a = 1.0 / (2.0 / r - v * v / OrbitalMath.MU);
+            double h = state.position().cross(state.velocity()).mag();
+            double e = Math.sqrt(Math.max(0.0, 1.0 - h * h / (OrbitalMath.MU * a)));
+            double perigeeSpeed = Math.sqrt(OrbitalMath.MU * (1 + e) / (a * (1 - e)));
+            minStep = 2 * Math.PI * Math.sqrt(a * a * a / OrbitalMath.MU) / STEPS_PER_ORBIT;
+            maxRate = RATE_MARGIN * (perigeeSpeed + EARTH_ROTATION * (a * (1 + e) + OrbitalMath.EARTH_EQUITORIAL_RADIUS));
+            period = minStep * STEPS_PER_ORBIT;
+//            above the horizon the gravity pulls the satellite down, so only the coriolis and
+//            centrifugal terms of the rotating horizon frame can push the height up
+            double apogeeRadius = a * (1 + e);
+            maxAcceleration = RATE_MARGIN * (2 * EARTH_ROTATION * (perigeeSpeed + EARTH_ROTATION * apogeeRadius)
+                    + EARTH_ROTATION * EARTH_ROTATION * apogeeRadius) + GRAVITY_MARGIN;
+            minRadius = a * (1 - e) - RADIUS_MARGIN;
+
+//            the earth center seen from the observer is below it by the distance along the zenith
+            double[] sez = new double[3];
+            observer.computeSEZPosition(new Vector(0, 0, 0), 0.0, sez);
+            observerUp = -sez[2];
+            observerAcross = Math.hypot(sez[0], sez[1]);
+
+            Sample current = sample(0.0);
+            for (int i = 1; current.z() > 0 && i <= STEPS_PER_ORBIT; i++) {
+                Sample previous = sample(-i * minStep);
+                if (previous.z() <= 0) return previous;
+            }
+            return current;
+        }
+
+        /**
+         * Steps forward from a sample until the height changes sign. The step is the time the
+         * height needs to reach zero at the largest possible rate, but never less than the step
+         * near the horizon. If the rate changes sign between two samples and the height doesn't,
+         * the extremum between them is refined in case the satellite crossed the horizon and came
+         * back within one step.
+         * @param from  Sample to start stepping from.
+         * @param limit Time in seconds to give up stepping at.
+         * @return      The bracket of the next crossing, or null if there isn't one before @p limit.
+         */
+        private Bracket nextCrossing(Sample from, double limit) {
+            double sign = Math.signum(from.z());
+            Sample a = from;
+            heightBound = from.z();
+            while (a.t() < limit) {
+                double step = Math.max(minStep, Math.abs(a.z()) / maxRate);
+                Sample b = sample(Math.min(a.t() + step, limit));
+                heightBound = Math.max(heightBound, getHeightBound(a, b));
+                if (sign * b.z() <= 0) return new Bracket(a, b);
+                if (sign * a.zdot() < 0 && sign * b.zdot() > 0) {
+                    Sample extremum = refiner.refineExtremum(startTime, a, b);
+                    if (sign * extremum.z() <= 0) return new Bracket(a, extremum);
+                }
+                a = b;
+            }
+            return null;
+        }
+
+        /**
+         * Bounds the height above the horizon between two samples. The upward acceleration of
+         * the height is at most #maxAcceleration, so the height is below the parabolas leaving
+         * each sample at its rate, and the highest point under both is where they meet.
+         */
+        private double getHeightBound(Sample a, Sample b) {
+            double tau = b.t() - a.t();
+            double bound = Math.max(a.z(), b.z());
+            double denominator = a.zdot() - b.zdot() + maxAcceleration * tau;
+            if (denominator <= 0) return Math.max(bound, a.z() + a.zdot() * tau + maxAcceleration * tau * tau / 2);
+            double s = (b.z() - a.z() - b.zdot() * tau + maxAcceleration * tau * tau / 2) / denominator;
+            if (s > 0 && s < tau) bound = Math.max(bound, a.z() + a.zdot() * s + maxAcceleration * s * s / 2);
+            return bound;
+        }
+
+        /**
+         * Bounds the altitude of the satellite from a bound on its height above the horizon.
+         * The satellite is no closer to the earth center than #minRadius, which puts it at
+         * least a distance from the zenith line of the observer that grows as the height falls,
+         * so the altitude grows with the height and shrinks with the radius.
+         * @param height    Bound on the height above the horizon in meters.
+         * @return          Bound on the altitude in degrees.
+         */
+        private double getAltitudeBound(double height) {
+            if (height <= 0) return 0.0;
+            double up = height + observerUp;
+            double across = Math.sqrt(Math.max(0.0, minRadius * minRadius - up * up)) - observerAcross;
+            if (across <= 0) return 90.0;
+            return Math.toDegrees(Math.atan2(height, across));
+        }
+
+        /**
+         * Makes the result of the pass between a rise and a set, checking the filter as the
+         * information each condition needs becomes available.
+         * @param rise  Sample at the rise.
+         * @param set   Sample at the set.
+         * @return      The result, or null if the filter rejected the pass.
+         */
+        abstract T getResult(Sample rise, Sample set);
+
+        private Sample sample(double t) {
+            return refiner.sample(startTime, t);
+        }
+
+    }
+
+    /**
+     * Search for the outcome of every pass, visible or not, see #iterator(JD, JD, PassFilter).
+     */
+    public class PassIterator extends PassSearch<PassResult> {
+        private PassIterator(JD startTime, JD endTime, PassFilter filter, NightWindows nightWindows) {
+            super(startTime, endTime, filter, nightWindows);
+        }
+
+        @Override
+        PassResult getResult(Sample rise, Sample set) {
+            return PassFinder.this.getResult(startTime, rise, set, filter, nightWindows);
+        }
+    }
+
+    /**
+     * Search for the radio contacts, see #contactIterator(JD, JD, PassFilter). The Sun is
+     * never evaluated.
+     */
+    public class ContactIterator extends PassSearch<ContactPass> {
+        private ContactIterator(JD startTime, JD endTime, PassFilter filter) {
+            super(startTime, endTime, filter, null);
+        }
+
+        @Override
+        ContactPass getResult(Sample rise, Sample set) {
+            if (filter != null && filter.rejectsDuration((set.t() - rise.t()) / JD.SECONDSPERDAY))
+                return prune(PassFilter.Criterion.DURATION);
+            Sample peak = getPeak(refiner, startTime, rise, set);
+            ContactPass contact = new ContactPass(propagator, observer, getAltAz(rise), getAltAz(set), getAltAz(peak));
+            PassFilter.Criterion criterion = (filter == null) ? null : filter.reject(contact);
+            if (criterion != null) return prune(criterion);
+            return contact;
+        }
+    }
+
+    /**
+     * Finds the outcome of the pass between a rise and a set, for a contact whose visibility
+     * is asked for after it was found.
+     * @param riseTime  Time the satellite rises.
+     * @param setTime   Time the satellite sets.
+     * @return          The result of the pass.
+     */
+    PassResult getResult(JD riseTime, JD setTime) {
+        Sample rise = refiner.sample(riseTime, 0.0);
+        Sample set = refiner.sample(riseTime, setTime.difference(riseTime) * JD.SECONDSPERDAY);
+        return getResult(riseTime, rise, set, null, nightWindows);
+    }
+
+    /**
+     * Builds the result of the pass between a rise and a set, checking the filter as the
+     * information each condition needs becomes available. The twilight is taken from the
+     * night windows if there are any.
+     * @return The result, or null if the filter rejected the pass.
+     */
+    private PassResult getResult(JD epoch, Sample rise, Sample set, PassFilter filter, NightWindows nightWindows) {
+        if (filter != null && filter.rejectsDuration((set.t() - rise.t()) / JD.SECONDSPERDAY))
+            return prune(PassFilter.Criterion.DURATION);
+        boolean night = (nightWindows != null) ? nightWindows.isDark(rise.time(), VISIBLE_DARKNESS)
+                : Sun.getTwilightType(rise.time(), observer.getGeoPosition()).ordinal() >= VISIBLE_DARKNESS.ordinal();
+        if (!night && filter != null && filter.requiresNight())
+            return prune(PassFilter.Criterion.NIGHT);
+        AltAz riseAltAz = getAltAz(rise), setAltAz = getAltAz(set);
+        if (!night) return PassResult.daylight(riseAltAz, setAltAz);
+
+//        the highest point is only refined when the filter or the shadow needs it, the rest of a
+//        visible pass is refined by the SatellitePass when it is asked for
+        PassRefinement refinement = new PassRefinement(epoch);
+        Sample peak = null;
+        if (filter != null) {
+            peak = refinement.getPeak(rise, set);
+            if (filter.rejectsHeight(getAltAz(peak).getAltitude()))
+                return prune(PassFilter.Criterion.HEIGHT);
+        }
+        if (refinement.getShadowAngle(rise) < 0 && refinement.getShadowAngle(set) < 0) {
+            if (peak == null) peak = refinement.getPeak(rise, set);
+            if (refinement.getShadowAngle(peak) < 0) {
+                if (filter != null && filter.requiresSunlight())
+                    return prune(PassFilter.Criterion.SUNLIT);
+                return PassResult.unlit(riseAltAz, setAltAz);
+            }
+        }
+        Sample knownPeak = peak;
+        SatellitePass pass = new SatellitePass(riseAltAz, setAltAz, () -> refinement.getVisiblePoints(rise, set, knownPeak));
+        PassFilter.Criterion criterion = (filter == null) ? null : filter.reject(pass);
+        if (criterion != null) return prune(criterion);
+        return PassResult.visible(riseAltAz, setAltAz, pass);
+    }
+
+    /**
+     * The refinement of a single pass. Its samples are evaluated through an EvaluationMemo,
+     * so the states and Sun positions shared by the searches for the peak, the shadow and
+     * the visible points are evaluated once, whether the pass is refined as the search finds
+     * it or when a SatellitePass asks for its points. The memo is dropped with the pass.
+     */
+    private class PassRefinement {
+        private final JD epoch;
+        private final EvaluationMemo memo;
+        private final ElevationRefiner refiner;
+
+        /**
+         * Constructs the refinement of a pass.
+         * @param epoch Time the sample times of the pass are measured from.
+         */
+        private PassRefinement(JD epoch) {
+            this.epoch = epoch;
+            this.memo = new EvaluationMemo(counted, observer);
+            this.refiner = new ElevationRefiner(memo, observer);
+        }
+
+        /**
+         * Refines the points of a visible pass that depend on the sunlight, for a SatellitePass
+         * that only knows its rise and set. The samples at the rise and set, and the highest
+         * point if the search already refined it, are the ones the search found the pass with.
+         * @param rise  Sample at the rise.
+         * @param set   Sample at the set.
+         * @param peak  Sample at the highest point, or null if it isn't refined yet.
+         * @return      The AltAz of the point the satellite becomes visible, the point it
+         *              disappears and its highest visible point, in that order.
+         */
+        private AltAz[] getVisiblePoints(Sample rise, Sample set, Sample peak) {
+            if (peak == null) peak = getPeak(rise, set);
+            boolean riseLit = getShadowAngle(rise) >= 0;
+            boolean setLit = getShadowAngle(set) >= 0;
+            Sample visible = rise, disappear = set;
+            if (!riseLit && setLit) visible = refine(rise, set, this::getShadowAngle);
+            else if (riseLit && !setLit) disappear = refine(rise, set, this::getShadowAngle);
+            else if (!riseLit) {
+                visible = refine(rise, peak, this::getShadowAngle);
+                disappear = refine(peak, set, this::getShadowAngle);
+            }
+//            the height only has one maximum in a pass, so the highest visible point is the nearest to it
+            Sample max = peak;
+            if (max.t() < visible.t()) max = visible;
+            else if (max.t() > disappear.t()) max = disappear;
+            return new AltAz[]{getAltAz(visible), getAltAz(disappear), getAltAz(max)};
+        }
+
+        /**
+         * Refines the root of a function of the samples with the Illinois method, see RootBracket.
+         * @param a Sample at one end of the bracket.
+         * @param b Sample at the other end, with the opposite sign of @p f.
+         * @param f Function to find the root of.
+         * @return  The sample at the root.
+         */
+        private Sample refine(Sample a, Sample b, ToDoubleFunction<Sample> f) {
+            return new RootBracket<>(a, f.applyAsDouble(a), b, f.applyAsDouble(b), Sample::t)
+                    .narrow(t -> refiner.sample(epoch, t), f, TIME_TOLERANCE, MAX_ITERATIONS)
+                    .getLast();
+        }
+
+        private Sample getPeak(Sample rise, Sample set) {
+            return PassFinder.getPeak(refiner, epoch, rise, set);
+        }
+
+        private double getShadowAngle(Sample sample) {
+            return Eclipse.getShadowAngle(sample.position(), memo.getSunPosition(sample.time()));
+        }
+    }
+
+    private <T> T prune(PassFilter.Criterion criterion) {
+        pruned[criterion.ordinal()]++;
+        return null;
+    }
+
+    /**
+     * Refines the highest point of the pass between a rise and a set. A pass that starts or
+     * ends above the horizon, cut off by the window, may have its highest point at the rise.
+     */
+    private static Sample getPeak(ElevationRefiner refiner, JD epoch, Sample rise, Sample set) {
+        return (rise.rate() > 0 && set.rate() < 0) ? refiner.refineExtremum(epoch, rise, set) : rise;
+    }
+
+    private AltAz getAltAz(Sample sample) {
+        return sample.getAltAz();
+    }
+
+    /**
+     * Resets the propagation count to zero.
+     */
+    public void resetStatistics() {
+        propagations = 0;
+        refiner.resetStatistics();
+        Arrays.fill(pruned, 0);
+    }
+
+    /**
+     * Retrieves the number of times the satellite has been propagated.
+     * @return The number of propagations.
+     */
+    public long getPropagationCount() {
+        return propagations + refiner.getPropagationCount();
+    }
+
+    /**
+     * Retrieves the number of passes a filter has rejected for one of its conditions. A pass
+     * is counted against the first condition it fails, in the order they are checked.
+     * @param criterion The condition of the filter.
+     * @return          The number of passes rejected by @p criterion.
+     */
+    public long getPrunedCount(PassFilter.Criterion criterion) {
+        return pruned[criterion.ordinal()];
+    }
+
+    /**
+     * Retrieves the number of passes filters have rejected for any of their conditions.
+     * @return The number of rejected passes.
+     */
+    public long getPrunedCount() {
+        return Arrays.stream(pruned).sum();
+    }
+
+    /**
+     * Retrieves the propagator of the satellite.
+     * @return The propagator passes are found with.
+     */
+    public Propagator getPropagator() {
+        return propagator;
+    }
+
+    /**
+     * Retrieves the GeoPosition of the observer.
+     * @return The GeoPosition passes are found over.
+     */
+    public GeoPosition getGeoPosition() {
+        return observer.getGeoPosition();
+    }
+
+    /**
+     * Retrieves the observer of the passes.
+     * @return The observer passes are found for.
+     */
+    public TopocentricObserver getObserver() {
+        return observer;
+    }
+
+}
@@ -0,0 +1,56 @@
+/** @file
+ * This file contains the PassPage class, a page of satellite passes with the cursor to
+ * find the next page from.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.time.JD;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of visible passes returned by PassFinder#getPage, in chronological order. The
+ * cursor is the time between the last pass on the page and the next one, so the next page
+ * is found by resuming the search from it without repeating any of the work for this page.
+ */
+public class PassPage {
+    private final List<SatellitePass> passes;
+    private final JD cursor;
+
+    /**
+     * Constructs a page of passes.
+     * @param passes    The passes on the page.
+     * @param cursor    Time to resume the search from, or null if there are no more passes.
+     */
+    public PassPage(List<SatellitePass> passes, JD cursor) {
+        this.passes = Collections.unmodifiableList(passes);
+        this.cursor = cursor;
+    }
+
+    /**
+     * Retrieves the passes on this page.
+     * @return An unmodifiable list of the passes.
+     */
+    public List<SatellitePass> getPasses() {
+        return passes;
+    }
+
+    /**
+     * Retrieves the time to resume the search from for the next page.
+     * @return The cursor, or null if the window has been searched to the end.
+     */
+    public JD getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Determines if there may be more passes after this page.
+     * @return True if the cursor is set, false if otherwise.
+     */
+    public boolean hasMore() {
+        return cursor != null;
+    }
+
+}
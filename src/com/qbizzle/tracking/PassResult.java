@@ -0,0 +1,160 @@
+/** @file
+ * This file contains the PassResult class, the outcome of looking for a satellite pass
+ * returned in place of the pass exceptions.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.exception.DaylightPassException;
+import com.qbizzle.exception.NoLightException;
+import com.qbizzle.exception.NoPassException;
+import com.qbizzle.time.JD;
+
+/**
+ * The outcome of looking for a satellite pass. The pass searches that return a PassResult
+ * don't throw, the reason a pass can't be seen is the #getOutcome instead of the type of
+ * exception. The exceptions build a stack trace through every level of the recursive
+ * squeeze searches, which made them most of the cost of a search when used to skip the
+ * times there was no pass.
+ * <p>
+ * A visible result carries the SatellitePass. Daylight and unlit results carry the rise and
+ * set of the pass, so a search can carry on after it, and a result with no pass carries
+ * nothing.
+ */
+public class PassResult {
+    /** The possible outcomes of looking for a pass. */
+    public enum Outcome {
+        /** The satellite passes overhead and is visible for part of the pass. */
+        VISIBLE,
+        /** The satellite passes overhead while the sky is too bright to see it. */
+        DAYLIGHT,
+        /** The satellite passes overhead in the dark but is in the earths shadow the whole time. */
+        UNLIT,
+        /** The satellite is not above the horizon. */
+        NONE
+    }
+
+    private static final PassResult NO_PASS = new PassResult(Outcome.NONE, null, null, null);
+
+    private final Outcome outcome;
+    private final AltAz rise, set;
+    private final SatellitePass pass;
+
+    private PassResult(Outcome outcome, AltAz rise, AltAz set, SatellitePass pass) {
+        this.outcome = outcome;
+        this.rise = rise;
+        this.set = set;
+        this.pass = pass;
+    }
+
+    /**
+     * Constructs the result of a visible pass.
+     * @param rise  AltAz pertaining to the rise time of the pass.
+     * @param set   AltAz pertaining to the set time of the pass.
+     * @param pass  The pass information.
+     * @return      A result with the outcome Outcome#VISIBLE.
+     */
+    public static PassResult visible(AltAz rise, AltAz set, SatellitePass pass) {
+        return new PassResult(Outcome.VISIBLE, rise, set, pass);
+    }
+
+    /**
+     * Constructs the result of a pass that happens in daylight.
+     * @param rise  AltAz pertaining to the rise time of the pass.
+     * @param set   AltAz pertaining to the set time of the pass.
+     * @return      A result with the outcome Outcome#DAYLIGHT.
+     */
+    public static PassResult daylight(AltAz rise, AltAz set) {
+        return new PassResult(Outcome.DAYLIGHT, rise, set, null);
+    }
+
+    /**
+     * Constructs the result of a pass that is never sunlit.
+     * @param rise  AltAz pertaining to the rise time of the pass.
+     * @param set   AltAz pertaining to the set time of the pass.
+     * @return      A result with the outcome Outcome#UNLIT.
+     */
+    public static PassResult unlit(AltAz rise, AltAz set) {
+        return new PassResult(Outcome.UNLIT, rise, set, null);
+    }
+
+    /**
+     * Retrieves the result for when there is no pass. The result holds no state so it is
+     * shared.
+     * @return  A result with the outcome Outcome#NONE.
+     */
+    public static PassResult none() {
+        return NO_PASS;
+    }
+
+    /**
+     * Retrieves the outcome of the search.
+     * @return  The outcome.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Determines if the pass can be seen.
+     * @return  True if the outcome is Outcome#VISIBLE, false if otherwise.
+     */
+    public boolean isVisible() {
+        return outcome == Outcome.VISIBLE;
+    }
+
+    /**
+     * Retrieves the information of a visible pass.
+     * @return  The pass, or null if the outcome isn't Outcome#VISIBLE.
+     */
+    public SatellitePass getPass() {
+        return pass;
+    }
+
+    /**
+     * Retrieves the rise of the pass.
+     * @return  AltAz pertaining to the rise time, or null if the outcome is Outcome#NONE.
+     */
+    public AltAz getRise() {
+        return rise;
+    }
+
+    /**
+     * Retrieves the set of the pass.
+     * @return  AltAz pertaining to the set time, or null if the outcome is Outcome#NONE.
+     */
+    public AltAz getSet() {
+        return set;
+    }
+
+    /**
+     * Retrieves the information of a visible pass, or throws the exception the pass
+     * methods used to signal the outcome. This is for the methods kept as wrappers
+     * around the result API.
+     * @param time  Time the pass was looked for, used in the exception messages.
+     * @return      The pass.
+     * @throws NoPassException
+     *              If the outcome is Outcome#NONE.
+     * @throws NoLightException
+     *              If the outcome is Outcome#UNLIT.
+     * @throws DaylightPassException
+     *              If the outcome is Outcome#DAYLIGHT.
+     */
+    public SatellitePass getPassOrThrow(JD time) {
+        return switch (outcome) {
+            case VISIBLE -> pass;
+            case DAYLIGHT -> throw new DaylightPassException("Pass not visible due to sunlight.");
+            case UNLIT -> throw new NoLightException("Object is eclipsed at " + time.value());
+            case NONE -> throw new NoPassException("No overhead pass at " + time.date());
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "PassResult{" +
+                "outcome=" + outcome +
+                ", pass=" + pass +
+                '}';
+    }
+
+}
@@ -0,0 +1,99 @@
+/** @file
+ * This file contains the RootBracket class, the Illinois method root finder shared by the
+ * pass and twilight searches.
+ */
+
+package com.qbizzle.tracking;
+
+import java.util.function.DoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A bracket around a root of a function of time, narrowed with the Illinois method. Each
+ * step is a secant step, and if the same end of the bracket is kept twice in a row its
+ * function value is halved, which keeps the convergence superlinear instead of stalling like
+ * plain regula falsi.
+ * <p>
+ * The points of the bracket are whatever the caller evaluates the function on, such as the
+ * samples of a pass or plain times, so the points found while narrowing can be used
+ * afterwards without evaluating them again. A bracket holds mutable state and should be
+ * confined to a single thread.
+ * @param <T>   Type of the points.
+ */
+final class RootBracket<T> {
+    private final ToDoubleFunction<T> time;
+    private T a, b, last;
+    private double fa, fb;
+
+    /**
+     * Constructs a bracket from two points the function has already been evaluated at.
+     * @param a     Point at one end of the bracket.
+     * @param fa    Value of the function at @p a.
+     * @param b     Point at the other end of the bracket.
+     * @param fb    Value of the function at @p b, with the opposite sign of @p fa.
+     * @param time  Time of a point.
+     */
+    RootBracket(T a, double fa, T b, double fb, ToDoubleFunction<T> time) {
+        this.time = time;
+        this.a = a;
+        this.fa = fa;
+        this.b = b;
+        this.fb = fb;
+        last = (fa == 0) ? a : b;
+    }
+
+    /**
+     * Narrows the bracket until its ends are within a tolerance of each other, or the root
+     * is found exactly.
+     * @param point         Evaluates a point at a time.
+     * @param function      Function to find the root of.
+     * @param tolerance     Time between the ends of the bracket to stop at.
+     * @param maxIterations Most steps taken, whether or not the tolerance is met.
+     * @return              This bracket.
+     */
+    RootBracket<T> narrow(DoubleFunction<T> point, ToDoubleFunction<T> function, double tolerance, int maxIterations) {
+        if (fa == 0 || fb == 0) return this;
+        double ta = time.applyAsDouble(a), tb = time.applyAsDouble(b);
+        int side = 0;
+        for (int i = 0; i < maxIterations && Math.abs(tb - ta) > tolerance; i++) {
+            double tc = (ta * fb - tb * fa) / (fb - fa);
+            T c = point.apply(tc);
+            double fc = function.applyAsDouble(c);
+            last = c;
+            if (fc == 0) break;
+            if ((fc < 0) == (fb < 0)) {
+                b = c;
+                tb = tc;
+                fb = fc;
+                if (side == -1) fa /= 2;
+                side = -1;
+            } else {
+                a = c;
+                ta = tc;
+                fa = fc;
+                if (side == 1) fb /= 2;
+                side = 1;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Retrieves the last point the function was evaluated at, the nearest estimate of the root.
+     * @return  The root if it was found exactly, otherwise the last point inside the bracket,
+     *          or an end if the bracket was never narrowed.
+     */
+    T getLast() {
+        return last;
+    }
+
+    /**
+     * Retrieves the end of the bracket where the function is negative, for callers that need
+     * a point known to be on that side of the root.
+     * @return  The negative end of the bracket.
+     */
+    T getNegativeEnd() {
+        return (fa < 0) ? a : b;
+    }
+
+}
@@ -7,6 +7,8 @@ package com.qbizzle.tracking;
 
 import com.qbizzle.time.JD;
 
+import java.util.function.Supplier;
+
 /**
  * SatellitePass class contains an epoch, height and direction for five major
  * positions of a pass: when it first rises above the horizon, when it first becomes
@@ -25,12 +27,32 @@ import com.qbizzle.time.JD;
  * <p>
  * Max time is the time the satellite is at its highest point. This can be when the satellite becomes
  * visible, as the satellite disappears, or any other time in between.
+ * <p>
+ * A pass found by a PassFinder only holds its rise and set when it is made. The visible,
+ * disappear and max points are refined by the pass finder, from the rise and set it already
+ * propagated, the first time one of them is asked for, and kept after that, so a list of
+ * passes that only shows the rise and set times never searches for the shadow boundaries.
+ * Until then the pass uses its pass finder, so like the finder it should be confined to a
+ * single thread.
  */
 @SuppressWarnings("unused")
 public class SatellitePass {
-    private final JD riseTime, setTime, visibleTime, maxTime, disappearTime;
-    private final String riseDirection, setDirection, visibleDirection, disappearDirection, maxDirection;
-    private final double riseHeight, setHeight, visibleHeight, disappearHeight, maxHeight;
+    private final double riseTime, setTime;
+    private final double riseHeight, setHeight, riseAzimuth, setAzimuth;
+//    refines the rest of the pass, null once it is refined or if it was given to the constructor
+    private Supplier<AltAz[]> refinement;
+    private Points points;
+
+    /**
+     * One of the points of a pass.
+     * @param time      Time of the point in Julian Days.
+     * @param height    Altitude in degrees.
+     * @param azimuth   Azimuth in degrees clockwise from north.
+     */
+    private record Point(double time, double height, double azimuth) {}
+
+    /** The points of the pass that depend on the sunlight. */
+    private record Points(Point visible, Point disappear, Point max) {}
 
     /**
      * Constructs a SatellitePass based on the attributes of the five major event times of a
@@ -42,33 +64,52 @@ public class SatellitePass {
      * @param max       AltAz pertaining to the maximum time of the pass.
      */
     public SatellitePass(AltAz rise, AltAz set, AltAz visible, AltAz disappear, AltAz max) {
-        // todo: check if this is good enough or are we creating a shallow copy?
-        this.riseTime = rise.getEpoch();
-        this.setTime = set.getEpoch();
-        this.maxTime = max.getEpoch();
-        this.visibleTime = visible.getEpoch();
-        this.disappearTime = disappear.getEpoch();
-        if (riseTime.value() <= visibleTime.value()) {
-            visibleHeight = visible.getAltitude();
-            visibleDirection = setDirections(visible.getAzimuth());
-        } else {
-            visibleHeight = rise.getAltitude();
-            visibleDirection = setDirections(rise.getAzimuth());
-        }
-        if (disappearTime.value() <= setTime.value()) {
-            disappearHeight = disappear.getAltitude();
-            disappearDirection = setDirections(disappear.getAzimuth());
-        } else{
-            disappearHeight = set.getAltitude();
-            disappearDirection = setDirections(set.getAzimuth());
+        this(rise, set, null);
+        points = getPoints(visible, disappear, max);
+    }
+
+    /**
+     * Constructs a SatellitePass from its rise and set, with the rest of the pass refined
+     * when it is first needed. The pass must be visible, the satellite has to be sunlit for
+     * part of it.
+     * @param rise          AltAz pertaining to the rise time of the pass.
+     * @param set           AltAz pertaining to the set time of the pass.
+     * @param refinement    Refines the visible, disappear and max points, in that order.
+     */
+    SatellitePass(AltAz rise, AltAz set, Supplier<AltAz[]> refinement) {
+        this.riseTime = rise.getEpoch().value();
+        this.setTime = set.getEpoch().value();
+        this.riseHeight = rise.getAltitude();
+        this.setHeight = set.getAltitude();
+        this.riseAzimuth = rise.getAzimuth();
+        this.setAzimuth = set.getAzimuth();
+        this.refinement = refinement;
+    }
+
+    /**
+     * Retrieves the visible, disappear and max points, refining them the first time.
+     */
+    private Points points() {
+        if (points == null) {
+            AltAz[] refined = refinement.get();
+            points = getPoints(refined[0], refined[1], refined[2]);
+            refinement = null;
         }
+        return points;
+    }
 
-        maxHeight = max.getAltitude();
-        riseHeight = rise.getAltitude();
-        setHeight = set.getAltitude();
-        maxDirection = setDirections(max.getAzimuth());
-        riseDirection = setDirections(rise.getAzimuth());
-        setDirection = setDirections(set.getAzimuth());
+//    the visible and disappear points take the height and direction of the rise and set if they are outside them
+    private Points getPoints(AltAz visible, AltAz disappear, AltAz max) {
+        double visibleTime = visible.getEpoch().value(), disappearTime = disappear.getEpoch().value();
+        return new Points(
+                (riseTime <= visibleTime)
+                        ? new Point(visibleTime, visible.getAltitude(), visible.getAzimuth())
+                        : new Point(visibleTime, riseHeight, riseAzimuth),
+                (disappearTime <= setTime)
+                        ? new Point(disappearTime, disappear.getAltitude(), disappear.getAzimuth())
+                        : new Point(disappearTime, setHeight, setAzimuth),
+                new Point(max.getEpoch().value(), max.getAltitude(), max.getAzimuth())
+        );
     }
 
     /**
@@ -78,15 +119,15 @@ public class SatellitePass {
     @Override
     public String toString() {
         return "SatellitePass{" +
-                "visibleTime=" + visibleTime.date() +
-                ", visibleDirection='" + visibleDirection + '\'' +
-                ", visibleHeight=" + visibleHeight + ",\n\t " +
-                "maxTime=" + maxTime.date() +
-                ", maxDirection='" + maxDirection + '\'' +
-                ", maxHeight=" + maxHeight + ",\n\t " +
-                "disappearTime=" + disappearTime.date() +
-                ", disappearDirection='" + disappearDirection + '\'' +
-                ", disappearHeight=" + disappearHeight +
+                "visibleTime=" + getVisibleTime().date() +
+                ", visibleDirection='" + getVisibleDirection() + '\'' +
+                ", visibleHeight=" + getVisibleHeight() + ",\n\t " +
+                "maxTime=" + getMaxTime().date() +
+                ", maxDirection='" + getMaxDirection() + '\'' +
+                ", maxHeight=" + getMaxHeight() + ",\n\t " +
+                "disappearTime=" + getDisappearTime().date() +
+                ", disappearDirection='" + getDisappearDirection() + '\'' +
+                ", disappearHeight=" + getDisappearHeight() +
                 '}';
     }
 
@@ -95,7 +136,7 @@ public class SatellitePass {
      * @return The time in Julian Days.
      */
     public JD getRiseTime() {
-        return new JD(riseTime.value());
+        return new JD(riseTime);
     }
 
     /**
@@ -103,7 +144,7 @@ public class SatellitePass {
      * @return The time in Julian Days.
      */
     public JD getSetTime() {
-        return new JD(setTime.value());
+        return new JD(setTime);
     }
 
     /**
@@ -111,7 +152,7 @@ public class SatellitePass {
      * @return The time in Julian Days.
      */
     public JD getVisibleTime() {
-        return new JD(visibleTime.value());
+        return new JD(points().visible().time());
     }
 
     /**
@@ -119,7 +160,7 @@ public class SatellitePass {
      * @return The time in Julian Days.
      */
     public JD getDisappearTime() {
-        return new JD(disappearTime.value());
+        return new JD(points().disappear().time());
     }
 
     /**
@@ -127,7 +168,7 @@ public class SatellitePass {
      * @return The time in Julian Days.
      */
     public JD getMaxTime() {
-        return new JD(maxTime.value());
+        return new JD(points().max().time());
     }
 
     /**
@@ -154,7 +195,7 @@ public class SatellitePass {
      * @return  The height in degrees above the horizon.
      */
     public double getVisibleHeight() {
-        return visibleHeight;
+        return points().visible().height();
     }
 
     /**
@@ -163,7 +204,7 @@ public class SatellitePass {
      * @return  The height in degrees above the horizon.
      */
     public double getDisappearHeight() {
-        return disappearHeight;
+        return points().disappear().height();
     }
 
     /**
@@ -171,7 +212,15 @@ public class SatellitePass {
      * @return The height in degrees above the horizon.
      */
     public double getMaxHeight() {
-        return maxHeight;
+        return points().max().height();
+    }
+
+    /**
+     * Retrieves the azimuth the satellite achieves its maximum height at.
+     * @return The azimuth in degrees clockwise from north.
+     */
+    public double getMaxAzimuth() {
+        return points().max().azimuth();
     }
 
     /**
@@ -179,7 +228,7 @@ public class SatellitePass {
      * @return A String containing an abbreviation of the compass direction.
      */
     public String getRiseDirection() {
-        return riseDirection;
+        return setDirections(riseAzimuth);
     }
 
     /**
@@ -187,7 +236,7 @@ public class SatellitePass {
      * @return A String containing an abbreviation of the compass direction.
      */
     public String getSetDirection() {
-        return setDirection;
+        return setDirections(setAzimuth);
     }
 
     /**
@@ -195,7 +244,7 @@ public class SatellitePass {
      * @return A String containing an abbreviation of the compass direction.
      */
     public String getVisibleDirection() {
-        return visibleDirection;
+        return setDirections(points().visible().azimuth());
     }
 
     /**
@@ -203,7 +252,7 @@ public class SatellitePass {
      * @return A String containing an abbreviation of the compass direction.
      */
     public String getDisappearDirection() {
-        return disappearDirection;
+        return setDirections(points().disappear().azimuth());
     }
 
     /**
@@ -211,16 +260,18 @@ public class SatellitePass {
      * @return A String containing an abbreviation of the compass direction.
      */
     public String getMaxDirection() {
-        return maxDirection;
+        return setDirections(points().max().azimuth());
     }
 
     /**
-     * Converts the compass heading to a String abbreviation of the compass direction.
+     * Converts the compass heading to a String abbreviation of the compass direction. The
+     * abbreviations are constants, so the directions are looked up when asked for rather than
+     * stored.
      * @param azimuth   The azimuth of the satellite, from 0 to 360 measuring clockwise
      *                  from north.
      * @return          The String abbreviation.
      */
-    private String setDirections(double azimuth) {
+    private static String setDirections(double azimuth) {
         azimuth %= 360.0;
         if (azimuth < 0) azimuth += 360.0;
         if (azimuth < 11.25 || azimuth >= 348.75) return "N";
@@ -0,0 +1,85 @@
+/** @file
+ * This file contains the SearchBudget class, the accuracy and cost limits given to the
+ * searches that refine event times.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.time.JD;
+
+/**
+ * How accurately an event time should be refined and how much it may cost. A search stops
+ * as soon as its bracket is narrower than the time tolerance, or after the largest number
+ * of evaluations inside the bracket, whichever comes first, and returns its best estimate.
+ * The evaluations at the ends of the starting bracket aren't counted.
+ * <p>
+ * The defaults are what the searches used before they took a budget. A batch job that only
+ * needs times to the second can use a looser budget such as {@code SearchBudget.of(1.0, 16)}
+ * and skip the last few evaluations of every search, and pointing a telescope may want
+ * {@code SearchBudget.of(0.001, 40)}. Budgets are immutable and can be shared.
+ */
+public class SearchBudget {
+    /** Budget of the searches refining from the elevation rate, see ElevationRefiner. */
+    public static final SearchBudget REFINEMENT = new SearchBudget(ElevationRefiner.TIME_TOLERANCE, ElevationRefiner.MAX_ITERATIONS);
+    /** Budget of the rise, set and sunlight bisections of the Tracker pass methods. */
+    public static final SearchBudget BISECTION = new SearchBudget(0.01, 32);
+    /** Budget of Tracker#getFirstVisibleTime and Tracker#getLastVisibleTime. */
+    public static final SearchBudget ECLIPSE = new SearchBudget(1.0, 32);
+
+    private final double timeTolerance;
+    private final int maxEvaluations;
+
+    private SearchBudget(double timeTolerance, int maxEvaluations) {
+        this.timeTolerance = timeTolerance;
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    /**
+     * Creates a budget.
+     * @param timeTolerance     Width in seconds the bracket of a search is narrowed to.
+     * @param maxEvaluations    Largest number of evaluations a search may make inside its
+     *                          starting bracket.
+     * @return                  The budget.
+     * @throws IllegalArgumentException If @p timeTolerance or @p maxEvaluations is not positive.
+     */
+    public static SearchBudget of(double timeTolerance, int maxEvaluations) {
+        if (!(timeTolerance > 0))
+            throw new IllegalArgumentException("Time tolerance must be positive.");
+        if (maxEvaluations <= 0)
+            throw new IllegalArgumentException("Maximum evaluations must be positive.");
+        return new SearchBudget(timeTolerance, maxEvaluations);
+    }
+
+    /**
+     * Retrieves the time tolerance.
+     * @return  The tolerance in seconds.
+     */
+    public double getTimeTolerance() {
+        return timeTolerance;
+    }
+
+    /**
+     * Retrieves the time tolerance in the units of JD#difference.
+     * @return  The tolerance in days.
+     */
+    public double getTimeToleranceDays() {
+        return timeTolerance / JD.SECONDSPERDAY;
+    }
+
+    /**
+     * Retrieves the largest number of evaluations inside the starting bracket.
+     * @return  The number of evaluations.
+     */
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchBudget{" +
+                "timeTolerance=" + timeTolerance +
+                ", maxEvaluations=" + maxEvaluations +
+                '}';
+    }
+
+}
@@ -0,0 +1,214 @@
+/** @file
+ * This file contains the SolarEphemeris class, a precomputed table of Chebyshev polynomial
+ * segments fit to the position of the Sun from Sun#position2 over a span of time.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.math.ChebyshevSegments;
+import com.qbizzle.math.Vector;
+import com.qbizzle.time.JD;
+
+/**
+ * A compressed ephemeris of the Sun over a fixed span of time. Sun#position2 sums the full
+ * periodic tables of the longitude, latitude and radius of the earth every time it is
+ * called, though a visibility job over a catalog asks for nearly the same instants millions
+ * of times. The span is divided into segments, eight days long by default, and each
+ * component of the position is fit with a Chebyshev polynomial over its segment, so
+ * evaluating the position is a binary search for the segment and three short Clenshaw
+ * recurrences.
+ * <p>
+ * An ephemeris is built with one of the #build methods. Every segment is checked against
+ * Sun#position2 halfway between its nodes and at its ends, and a segment that misses the
+ * requested error bound is split in half and refit. The default bound of a kilometer is
+ * less than a thousandth of an arcsecond at the distance of the Sun, far below the error of
+ * the series itself, and #getMaxPositionError reports the worst error found.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class SolarEphemeris {
+    /** Position error bound in meters used by #build(JD, JD). */
+    public static final double DEFAULT_TOLERANCE = 1000.0;
+    /** Polynomial degree used by #build(JD, JD). */
+    public static final int DEFAULT_DEGREE = 8;
+    /** Initial segment length in days used by #build(JD, JD). */
+    public static final double DEFAULT_SEGMENT_LENGTH = 8.0;
+    /** Segments are never split below this length in days, whether or not they meet the bound. */
+    public static final double MINIMUM_SEGMENT_LENGTH = 1.0 / 24.0;
+
+    private final JD start;
+    private final double tolerance;
+//    three components (x, y, z) in days since the start
+    private final ChebyshevSegments segments;
+
+    private SolarEphemeris(JD start, double tolerance, ChebyshevSegments segments) {
+        this.start = start;
+        this.tolerance = tolerance;
+        this.segments = segments;
+    }
+
+    /**
+     * Builds an ephemeris with the default error bound, polynomial degree and initial
+     * segment length.
+     * @param start Start of the span covered by the ephemeris.
+     * @param end   End of the span covered by the ephemeris.
+     * @return      The fitted ephemeris.
+     * @throws IllegalArgumentException If @p end is not after @p start.
+     */
+    public static SolarEphemeris build(JD start, JD end) {
+        return build(start, end, DEFAULT_TOLERANCE, DEFAULT_DEGREE, DEFAULT_SEGMENT_LENGTH);
+    }
+
+    /**
+     * Builds an ephemeris by fitting Chebyshev polynomials to the position of the Sun from
+     * Sun#position2. The span is divided into segments of @p segmentLength, and any segment
+     * whose position error is larger than @p tolerance is bisected and refit.
+     * @param start         Start of the span covered by the ephemeris.
+     * @param end           End of the span covered by the ephemeris.
+     * @param tolerance     Maximum position error in meters of any segment.
+     * @param degree        Degree of the polynomial fit to each component.
+     * @param segmentLength Initial length of each segment in days.
+     * @return              The fitted ephemeris.
+     * @throws IllegalArgumentException If @p end is not after @p start, or @p tolerance,
+     *                                  @p degree or @p segmentLength are not positive.
+     */
+    public static SolarEphemeris build(JD start, JD end, double tolerance, int degree, double segmentLength) {
+        ChebyshevSegments segments = ChebyshevSegments.fit((times, values) -> {
+            double[] julianDates = new double[times.length];
+            for (int j = 0; j < times.length; j++)
+                julianDates[j] = start.future(times[j]).value();
+            Sun.position2(julianDates, values[0], values[1], values[2]);
+        }, 3, 0.0, end.difference(start), tolerance, degree, segmentLength, MINIMUM_SEGMENT_LENGTH);
+        return new SolarEphemeris(start, tolerance, segments);
+    }
+
+    /**
+     * Evaluates the position of the Sun, see Sun#position2.
+     * @param time  Time to find the position, within the span of the ephemeris.
+     * @return      An earth centered position vector of the Sun.
+     * @throws IllegalArgumentException If @p time is outside the span of the ephemeris.
+     */
+    public Vector getPosition(JD time) {
+        double[] scratch = new double[3];
+        evaluate(time.difference(start), scratch);
+        return new Vector(scratch[0], scratch[1], scratch[2]);
+    }
+
+    /**
+     * Computes the altitude of the Sun and converts it to its twilight type, the same as
+     * Sun#getTwilightType without summing the series.
+     * @param time      Time to find the twilight, within the span of the ephemeris.
+     * @param observer  The observer.
+     * @return          The TwilightType relating to the Sun's altitude.
+     * @throws IllegalArgumentException If @p time is outside the span of the ephemeris.
+     */
+    public Sun.TwilightType getTwilightType(JD time, TopocentricObserver observer) {
+        Vector sunSEZPosition = observer.getSEZPosition(getPosition(time), time);
+        return Sun.getTwilightType(Tracker.getAltAz(sunSEZPosition, time).getAltitude());
+    }
+
+    /**
+     * Evaluates every component at a time. This method allocates nothing.
+     * @param dt    Time since the start of the span in days.
+     * @param out   Array of length 3 to store the position components.
+     */
+    void evaluate(double dt, double[] out) {
+        segments.evaluate(dt, out);
+    }
+
+    /**
+     * Measures the mean time taken to evaluate a position, sweeping evenly across the span
+     * of the ephemeris. The result includes JIT warm up if this is the first use.
+     * @param samples   Number of positions to evaluate.
+     * @return          The mean evaluation time in nanoseconds.
+     */
+    public double measureEvaluationTime(int samples) {
+        return segments.measureEvaluationTime(samples);
+    }
+
+    /**
+     * Retrieves the start of the span covered by the ephemeris.
+     * @return The start time.
+     */
+    public JD getStartTime() {
+        return start;
+    }
+
+    /**
+     * Retrieves the end of the span covered by the ephemeris.
+     * @return The end time.
+     */
+    public JD getEndTime() {
+        return start.future(segments.getEnd());
+    }
+
+    /**
+     * Determines if a time is within the span of the ephemeris.
+     * @param time  The time to check.
+     * @return      True if the ephemeris can be evaluated at @p time.
+     */
+    public boolean contains(JD time) {
+        return segments.contains(time.difference(start));
+    }
+
+    /**
+     * Retrieves the number of segments the span was divided into.
+     * @return The segment count.
+     */
+    public int getSegmentCount() {
+        return segments.getSegmentCount();
+    }
+
+    /**
+     * Retrieves the degree of the polynomials.
+     * @return The polynomial degree.
+     */
+    public int getDegree() {
+        return segments.getDegree();
+    }
+
+    /**
+     * Retrieves the number of coefficients stored, a measure of the memory used.
+     * @return The total coefficient count.
+     */
+    public int getCoefficientCount() {
+        return segments.getCoefficientCount();
+    }
+
+    /**
+     * Retrieves the position error bound the ephemeris was built with.
+     * @return The tolerance in meters.
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Retrieves the largest position error found when checking the segments against
+     * Sun#position2.
+     * @return The maximum position error in meters.
+     */
+    public double getMaxPositionError() {
+        return segments.getMaxError(0);
+    }
+
+    /**
+     * Retrieves the time taken to fit the ephemeris.
+     * @return The build time in milliseconds.
+     */
+    public double getBuildTime() {
+        return segments.getBuildTime();
+    }
+
+    @Override
+    public String toString() {
+        return "SolarEphemeris{" +
+                "segments=" + getSegmentCount() +
+                ", degree=" + getDegree() +
+                ", coefficients=" + getCoefficientCount() +
+                ", maxPositionError=" + getMaxPositionError() +
+                ", buildTime=" + getBuildTime() + "ms" +
+                '}';
+    }
+
+}
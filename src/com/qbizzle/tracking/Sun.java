@@ -10,6 +10,8 @@ import com.qbizzle.math.OrbitalMath;
 import com.qbizzle.math.Vector;
 import com.qbizzle.time.JD;
 
+import java.util.Arrays;
+
 /**
  * A static class with methods for computing the Sun's position and
  * phase of day/night.
@@ -20,6 +22,12 @@ public class Sun {
      */
     public static final double AU = 1.495978707e11; // meters
 
+    /**
+     * Number of evenly spaced times between the direct evaluations of the terms in
+     * #position2(JD, double, int, double[], double[], double[]).
+     */
+    public static final int RECURRENCE_INTERVAL = 64;
+
     /**
      * Computes the position of the Sun in an earth-centered reference frame, from the
      * <a href="https://en.wikipedia.org/wiki/Position_of_the_Sun#:~:text=The%20position%20of%20the%20Sun,circular%20path%20called%20the%20ecliptic.">
@@ -60,16 +68,110 @@ public class Sun {
 //        double JC = (t.Number() - JD.J2000) / 36525.0;
         double JCE = (t.value() - JD.J2000) / 36525.0;
         double JME = JCE / 10.0;
-        double L = Math.toDegrees( expandTableValues(LTable, JME) ) % 360.0;
-        double B = Math.toDegrees( expandTableValues(BTable, JME) ) % 360.0;
-        double R = expandTableValues(RTable, JME);
+        double[] position = new double[3];
+        toPosition(L_SERIES.evaluate(JME), B_SERIES.evaluate(JME), R_SERIES.evaluate(JME), JME, position);
+        return new Vector(position[0], position[1], position[2]);
+    }
+
+    /**
+     * Computes the position of the Sun at many times at once with the same model as
+     * #position2(JD). Each term of the series is evaluated for every time before moving to
+     * the next, over contiguous arrays of the terms, and the positions are written to
+     * primitive arrays so nothing is allocated per time. The positions are exactly the
+     * ones #position2(JD) returns.
+     * @param jd    The times to find the Sun's position, as UTC julian dates.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @throws IllegalArgumentException If any of the arrays are shorter than @p jd.
+     */
+    public static void position2(double[] jd, double[] x, double[] y, double[] z) {
+        int count = jd.length;
+        checkLength(count, x, y, z);
+        double[] JME = new double[count];
+        for (int i = 0; i < count; i++)
+            JME[i] = (jd[i] - JD.J2000) / 36525.0 / 10.0;
+        double[] L = new double[count], B = new double[count], R = new double[count];
+        double[] scratch = new double[count];
+        L_SERIES.evaluate(JME, L, scratch);
+        B_SERIES.evaluate(JME, B, scratch);
+        R_SERIES.evaluate(JME, R, scratch);
+        toPositions(L, B, R, JME, x, y, z);
+    }
+
+    /**
+     * Computes the position of the Sun at evenly spaced times with the same model as
+     * #position2(JD). Every term of the series is a cosine of a linear function of time, so
+     * at evenly spaced times it is rotated from one time to the next with the angle addition
+     * formulas, and only every #RECURRENCE_INTERVAL times is it found with Math#cos and
+     * Math#sin, which also keeps the rounding of the recurrence from growing. The positions
+     * differ from #position2(JD) by about a centimeter, much less than the Sun moves within
+     * the rounding of a julian date.
+     * @param start The time of the first position.
+     * @param step  The time between positions in solar days.
+     * @param count The number of positions.
+     * @param x     Array to store the x-component of the position in meters.
+     * @param y     Array to store the y-component of the position in meters.
+     * @param z     Array to store the z-component of the position in meters.
+     * @throws IllegalArgumentException If @p count is negative or any of the arrays are
+     *                                  shorter than @p count.
+     */
+    public static void position2(JD start, double step, int count, double[] x, double[] y, double[] z) {
+        if (count < 0)
+            throw new IllegalArgumentException("Position count must not be negative.");
+        checkLength(count, x, y, z);
+        double JME0 = (start.value() - JD.J2000) / 36525.0 / 10.0;
+        double JMEStep = step / 36525.0 / 10.0;
+        double[] JME = new double[count];
+        for (int i = 0; i < count; i++)
+            JME[i] = JME0 + JMEStep * i;
+        double[] L = new double[count], B = new double[count], R = new double[count];
+        double[] scratch = new double[count];
+        L_SERIES.evaluateEvenly(JME, JMEStep, L, scratch);
+        B_SERIES.evaluateEvenly(JME, JMEStep, B, scratch);
+        R_SERIES.evaluateEvenly(JME, JMEStep, R, scratch);
+        toPositions(L, B, R, JME, x, y, z);
+    }
+
+    private static void checkLength(int count, double[] x, double[] y, double[] z) {
+        for (double[] array : new double[][]{x, y, z}) {
+            if (array.length < count)
+                throw new IllegalArgumentException("Output array length " + array.length
+                        + " is less than the number of times " + count + ".");
+        }
+    }
+
+    private static void toPositions(double[] L, double[] B, double[] R, double[] JME,
+                                    double[] x, double[] y, double[] z) {
+        double[] position = new double[3];
+        for (int i = 0; i < JME.length; i++) {
+            toPosition(L[i], B[i], R[i], JME[i], position);
+            x[i] = position[0];
+            y[i] = position[1];
+            z[i] = position[2];
+        }
+    }
+
+    /**
+     * Converts the heliocentric longitude, latitude and radius series of #position2(JD) to
+     * the earth centered position of the Sun.
+     * @param LSum      Sum of the longitude series in radians.
+     * @param BSum      Sum of the latitude series in radians.
+     * @param R         Sum of the radius series in astronomical units.
+     * @param JME       Julian ephemeris millennium of the time.
+     * @param position  Array of at least 3 elements the position in meters is written to.
+     */
+    private static void toPosition(double LSum, double BSum, double R, double JME, double[] position) {
+        double L = Math.toDegrees(LSum) % 360.0;
+        double B = Math.toDegrees(BSum) % 360.0;
 
         double geocentricLongitude = (L + 180.0) % 360.0;
         double geocentricLatitude = -B;
 //        double[] dNutation = getNutationDeltas(JCE);
-        double epsilon0 = 0.0;
-        for (int i = 0; i < 11; i++) {
-            epsilon0 += UTable[i] * Math.pow(JME/10.0, i);
+//        obliquity polynomial by Horner's method
+        double epsilon0 = UTable[UTable.length - 1];
+        for (int i = UTable.length - 2; i >= 0; i--) {
+            epsilon0 = epsilon0 * (JME / 10.0) + UTable[i];
         }
         epsilon0 /= 3600.0;
 //        double epsilon = (epsilon0 / 3600.0) + dNutation[1];
@@ -124,44 +226,107 @@ public class Sun {
         double latRad = Math.toRadians(geocentricLatitude);
         double lngRad = Math.toRadians(geocentricLongitude);
         double epsRad = Math.toRadians(epsilon0);
-        return new Vector(
-                R * Math.cos(latRad) * Math.cos(lngRad),
-                R * (Math.cos(latRad) * Math.sin(lngRad) * Math.cos(epsRad) - Math.sin(latRad) * Math.sin(epsRad)),
-                R * (Math.cos(latRad) * Math.sin(lngRad) * Math.sin(epsRad) + Math.sin(latRad) * Math.cos(epsRad))
-        ).scale(AU);
+        position[0] = R * Math.cos(latRad) * Math.cos(lngRad) * AU;
+        position[1] = R * (Math.cos(latRad) * Math.sin(lngRad) * Math.cos(epsRad) - Math.sin(latRad) * Math.sin(epsRad)) * AU;
+        position[2] = R * (Math.cos(latRad) * Math.sin(lngRad) * Math.sin(epsRad) + Math.sin(latRad) * Math.cos(epsRad)) * AU;
     }
 
-    static private double tableSum(double[][] table, double JME) {
-        double sum = 0;
-        for (double[] doubles : table) {
-            double sub = doubles[0] * Math.cos(doubles[1] + doubles[2] * JME);
-            sum += sub;
+    /**
+     * One of the L, B or R tables of #position2(JD) flattened into contiguous arrays. The
+     * table is a polynomial in the julian ephemeris millennium whose coefficients are sums of
+     * cosine terms. The terms of every power are stored one after another in the amplitude,
+     * phase and frequency arrays, and the terms of power @p p are the ones from
+     * {@code powerStart[p]} up to {@code powerStart[p + 1]}. The polynomial is evaluated with
+     * Horner's method.
+     */
+    private static final class Series {
+        private final double[] amplitude, phase, frequency;
+        private final int[] powerStart;
+
+        Series(double[][][] table) {
+            powerStart = new int[table.length + 1];
+            for (int p = 0; p < table.length; p++)
+                powerStart[p + 1] = powerStart[p] + table[p].length;
+            int terms = powerStart[table.length];
+            amplitude = new double[terms];
+            phase = new double[terms];
+            frequency = new double[terms];
+            for (int p = 0; p < table.length; p++) {
+                for (int j = 0; j < table[p].length; j++) {
+                    amplitude[powerStart[p] + j] = table[p][j][0];
+                    phase[powerStart[p] + j] = table[p][j][1];
+                    frequency[powerStart[p] + j] = table[p][j][2];
+                }
+            }
         }
-        return sum;
-    }
 
-    static private double expandTableValues(double[][][] table, double JME) {
-        int tableLength = table.length;
-        double[] arr = new double[tableLength];
-        for (int i = 0; i < tableLength; i++) {
-            arr[i] = tableSum(table[i], JME);
+        double evaluate(double JME) {
+            double sum = 0.0;
+            for (int p = powerStart.length - 2; p >= 0; p--) {
+                double coefficient = 0.0;
+                for (int i = powerStart[p]; i < powerStart[p + 1]; i++)
+                    coefficient += amplitude[i] * Math.cos(phase[i] + frequency[i] * JME);
+                sum = sum * JME + coefficient;
+            }
+            return sum / 1E8;
         }
 
-        double sum = 0.0;
-        for (int i = 0; i < tableLength; i++) {
-            sum += arr[i] * Math.pow(JME, i);
+//        the same sums as evaluate(double), term by term across all the times
+        void evaluate(double[] JME, double[] sum, double[] coefficient) {
+            int count = JME.length;
+            Arrays.fill(sum, 0, count, 0.0);
+            for (int p = powerStart.length - 2; p >= 0; p--) {
+                Arrays.fill(coefficient, 0, count, 0.0);
+                for (int i = powerStart[p]; i < powerStart[p + 1]; i++) {
+                    double a = amplitude[i], b = phase[i], c = frequency[i];
+                    for (int t = 0; t < count; t++)
+                        coefficient[t] += a * Math.cos(b + c * JME[t]);
+                }
+                for (int t = 0; t < count; t++)
+                    sum[t] = sum[t] * JME[t] + coefficient[t];
+            }
+            for (int t = 0; t < count; t++)
+                sum[t] /= 1E8;
+        }
+
+//        times JME must be evenly spaced by step, each cosine is rotated forward by the
+//        angle of one step and found directly every RECURRENCE_INTERVAL times
+        void evaluateEvenly(double[] JME, double step, double[] sum, double[] coefficient) {
+            int count = JME.length;
+            Arrays.fill(sum, 0, count, 0.0);
+            for (int p = powerStart.length - 2; p >= 0; p--) {
+                Arrays.fill(coefficient, 0, count, 0.0);
+                for (int i = powerStart[p]; i < powerStart[p + 1]; i++) {
+                    double a = amplitude[i], b = phase[i], c = frequency[i];
+                    double cosStep = Math.cos(c * step), sinStep = Math.sin(c * step);
+                    double cos = 0.0, sin = 0.0;
+                    for (int t = 0; t < count; t++) {
+                        if (t % RECURRENCE_INTERVAL == 0) {
+                            double angle = b + c * JME[t];
+                            cos = Math.cos(angle);
+                            sin = Math.sin(angle);
+                        }
+                        else {
+                            double next = cos * cosStep - sin * sinStep;
+                            sin = sin * cosStep + cos * sinStep;
+                            cos = next;
+                        }
+                        coefficient[t] += a * cos;
+                    }
+                }
+                for (int t = 0; t < count; t++)
+                    sum[t] = sum[t] * JME[t] + coefficient[t];
+            }
+            for (int t = 0; t < count; t++)
+                sum[t] /= 1E8;
         }
-        return sum / 1E8;
     }
 
     static private double[] getXArray(double JCE) {
         double[] X = new double[5];
         for (int i = 0; i < 5; i++) {
-            double Xi = 0.0;
-            for (int j = 0; j < 4; j++) {
-                Xi += XTable[i][j] * Math.pow(JCE, j);
-            }
-            X[i] = Xi;
+//            cubic in JCE by Horner's method
+            X[i] = ((XTable[i][3] * JCE + XTable[i][2]) * JCE + XTable[i][1]) * JCE + XTable[i][0];
         }
         return X;
     }
@@ -230,14 +395,38 @@ public class Sun {
     public static TwilightType getTwilightType(JD t, GeoPosition geoPosition) {
         Vector sunPos = position2(t);
         Vector sunSEZPos = Tracker.getSEZPosition(sunPos, t, geoPosition);
-        double sunAngle = Tracker.getAltAz(sunSEZPos, t).getAltitude();
-        if (sunAngle < -18) return TwilightType.Night;
-        else if (sunAngle < -12) return TwilightType.Astronomical;
-        else if (sunAngle < -6) return TwilightType.Nautical;
-        else if (sunAngle < -(5.0 / 6.0)) return TwilightType.Civil;
+        return getTwilightType(Tracker.getAltAz(sunSEZPos, t).getAltitude());
+    }
+
+    /**
+     * Converts an altitude of the Sun to its related twilight type.
+     * @param sunAngle  Altitude of the Sun in degrees.
+     * @return          The TwilightType relating to @p sunAngle.
+     */
+    static TwilightType getTwilightType(double sunAngle) {
+        if (sunAngle < getTwilightAltitude(TwilightType.Night)) return TwilightType.Night;
+        else if (sunAngle < getTwilightAltitude(TwilightType.Astronomical)) return TwilightType.Astronomical;
+        else if (sunAngle < getTwilightAltitude(TwilightType.Nautical)) return TwilightType.Nautical;
+        else if (sunAngle < getTwilightAltitude(TwilightType.Civil)) return TwilightType.Civil;
         else return TwilightType.Day;
     }
 
+    /**
+     * Retrieves the altitude of the Sun a twilight type begins below, so the Sun is at
+     * least as dark as @p type whenever it is lower than this.
+     * @param type  The twilight type.
+     * @return      The altitude in degrees, infinite for TwilightType#Day.
+     */
+    static double getTwilightAltitude(TwilightType type) {
+        return switch (type) {
+            case Day -> Double.POSITIVE_INFINITY;
+            case Civil -> -(5.0 / 6.0);
+            case Nautical -> -6.0;
+            case Astronomical -> -12.0;
+            case Night -> -18.0;
+        };
+    }
+
     private static final double[][][] LTable = {
             {
                     {175347046, 0,          0},
@@ -548,4 +737,9 @@ public class Sun {
             27.87, 5.79, 2.45
     };
 
+//    flattened after the tables they're built from, which static initialization needs
+    private static final Series L_SERIES = new Series(LTable);
+    private static final Series B_SERIES = new Series(BTable);
+    private static final Series R_SERIES = new Series(RTable);
+
 }
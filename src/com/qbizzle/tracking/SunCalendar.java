@@ -0,0 +1,381 @@
+/** @file
+ * This file contains the SunCalendar class, which finds the times of sunrise, sunset and
+ * the twilights at an observer day by day.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.time.JD;
+import com.qbizzle.time.SiderealTime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The sunrise, sunset and twilight times at an observer, day by day. Sun#getTwilightType
+ * only answers for one instant, and NightWindows samples the Sun over a whole span before it
+ * can answer anything. The calendar finds the times of a day directly: the hour angle of each
+ * crossing is solved from the right ascension and declination of Sun#coordinates and the
+ * sidereal time, iterating because the Sun moves during the day, and the estimate is then
+ * refined by the crossing search of NightWindows on the altitude from Sun#position2, the
+ * same model as Sun#getTwilightType, to #TIME_TOLERANCE. Whether the Sun crosses an altitude
+ * at all is decided from the declination at the transit only when it clears the altitude by
+ * more than the declination can change in half a day, otherwise from the precise altitudes at
+ * the transit and the lower culminations either side, so the polar days where the Sun just
+ * touches an altitude at midnight or noon are found. A day costs a few dozen precise
+ * positions of the Sun however it is used afterwards.
+ * <p>
+ * A day runs from one local mean midnight at the longitude of the observer to the next, and
+ * its dawns and dusks are the crossings before and after its transit. At high latitudes the
+ * dusk of a day can be after its midnight. The days are remembered by their date, so asking
+ * again is free, and the calendar should be kept for as long as the observer is. It holds
+ * mutable state and should be confined to a single thread.
+ */
+public class SunCalendar {
+    /** Tolerance the crossing times are refined to, in seconds. */
+    public static final double TIME_TOLERANCE = NightWindows.TIME_TOLERANCE;
+//    iterations of the hour angle solution, each moves the Sun to the last estimate
+    private static final int HOUR_ANGLE_ITERATIONS = 4;
+//    rate the hour angle of the Sun changes in degrees / day
+    private static final double HOUR_ANGLE_RATE = 360.0;
+//    allowance in degrees for the culmination altitudes from the declination at the transit, the
+//    declination moves up to 0.2 degrees by the midnights, plus the difference between the
+//    declinations from Sun#coordinates and Sun#position2
+    private static final double MODEL_MARGIN = 0.5;
+//    half width in days of the first bracket around an estimate
+    private static final double FIRST_BRACKET = 2.0 / 1440.0;
+    private static final Sun.TwilightType[] TYPES = Sun.TwilightType.values();
+
+    private final TopocentricObserver observer;
+    private final double latitude, longitude;
+    private final Map<Long, Day> days = new HashMap<>();
+    private long sunPositions = 0;
+
+    /**
+     * The times the Sun crosses the twilight altitudes on one day. The dawn of a twilight type
+     * is when the Sun rises above its altitude and the dusk is when it sinks below, see
+     * Sun#getTwilightAltitude, so the dusk of TwilightType#Civil is sunset and the dusk of
+     * TwilightType#Nautical is the end of civil twilight.
+     */
+    public static class Day {
+        private final JD date, transit;
+        private final JD[] dawns = new JD[TYPES.length], dusks = new JD[TYPES.length];
+//        -1 if the Sun stays below the altitude of a type all day, 1 if it stays above, 0 otherwise
+        private final int[] sides = new int[TYPES.length];
+
+        private Day(JD date, JD transit) {
+            this.date = date;
+            this.transit = transit;
+        }
+
+        /**
+         * Retrieves the start of the day.
+         * @return The local mean midnight at the longitude of the observer.
+         */
+        public JD getDate() {
+            return date;
+        }
+
+        /**
+         * Retrieves the time the Sun crosses the meridian, to about a minute.
+         * @return The time of local apparent noon.
+         */
+        public JD getTransit() {
+            return transit;
+        }
+
+        /**
+         * Retrieves the time the Sun rises.
+         * @return The dawn of TwilightType#Civil, or null if the Sun doesn't rise that day.
+         */
+        public JD getSunrise() {
+            return getDawn(Sun.TwilightType.Civil);
+        }
+
+        /**
+         * Retrieves the time the Sun sets.
+         * @return The dusk of TwilightType#Civil, or null if the Sun doesn't set that day.
+         */
+        public JD getSunset() {
+            return getDusk(Sun.TwilightType.Civil);
+        }
+
+        /**
+         * Retrieves the time the morning stops being as dark as a twilight type.
+         * @param type  The twilight type, darker than TwilightType#Day.
+         * @return      The time the Sun rises above the altitude of @p type, or null if it
+         *              doesn't cross it that morning.
+         * @throws IllegalArgumentException If @p type is TwilightType#Day.
+         */
+        public JD getDawn(Sun.TwilightType type) {
+            return dawns[checkType(type)];
+        }
+
+        /**
+         * Retrieves the time the evening becomes as dark as a twilight type.
+         * @param type  The twilight type, darker than TwilightType#Day.
+         * @return      The time the Sun sinks below the altitude of @p type, or null if it
+         *              doesn't cross it that evening.
+         * @throws IllegalArgumentException If @p type is TwilightType#Day.
+         */
+        public JD getDusk(Sun.TwilightType type) {
+            return dusks[checkType(type)];
+        }
+
+        /**
+         * Determines if the Sun stays below the altitude of a twilight type all day, as in the
+         * polar night.
+         * @param type  The twilight type, darker than TwilightType#Day.
+         * @return      True if the Sun doesn't rise above the altitude of @p type that day.
+         * @throws IllegalArgumentException If @p type is TwilightType#Day.
+         */
+        public boolean isDarkAllDay(Sun.TwilightType type) {
+            return sides[checkType(type)] == -1;
+        }
+
+        /**
+         * Determines if the Sun stays above the altitude of a twilight type all day, as in the
+         * midnight sun.
+         * @param type  The twilight type, darker than TwilightType#Day.
+         * @return      True if the Sun doesn't sink below the altitude of @p type that day.
+         * @throws IllegalArgumentException If @p type is TwilightType#Day.
+         */
+        public boolean isLightAllDay(Sun.TwilightType type) {
+            return sides[checkType(type)] == 1;
+        }
+
+        @Override
+        public String toString() {
+            return "Day{" +
+                    "date=" + date.value() +
+                    ", sunrise=" + format(getSunrise()) +
+                    ", sunset=" + format(getSunset()) +
+                    '}';
+        }
+
+        private static int checkType(Sun.TwilightType type) {
+            if (type == Sun.TwilightType.Day)
+                throw new IllegalArgumentException("Twilight type must be darker than Day.");
+            return type.ordinal();
+        }
+
+        private static String format(JD time) {
+            return (time == null) ? "none" : String.valueOf(time.value());
+        }
+    }
+
+    /**
+     * Constructs an empty calendar.
+     * @param geoPosition   GeoPosition of the observer.
+     */
+    public SunCalendar(GeoPosition geoPosition) {
+        this(new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Constructs an empty calendar for an observer that is already prepared.
+     * @param observer  The observer.
+     */
+    public SunCalendar(TopocentricObserver observer) {
+        this.observer = observer;
+        latitude = Math.toRadians(observer.getGeoPosition().getLatitude());
+        longitude = observer.getGeoPosition().getLongitude();
+    }
+
+    /**
+     * Retrieves the day containing a time, finding its times the first time it is asked for.
+     * @param time  A time on the day.
+     * @return      The day from the local mean midnight before @p time to the one after.
+     */
+    public Day getDay(JD time) {
+        return getDay(getDayNumber(time.value()));
+    }
+
+    /**
+     * Retrieves every day that overlaps a span of time.
+     * @param startTime     Start of the span.
+     * @param endTime       End of the span.
+     * @return              The days in order of date.
+     * @throws IllegalArgumentException If @p endTime is before @p startTime.
+     */
+    public List<Day> getDays(JD startTime, JD endTime) {
+        if (endTime.value() < startTime.value())
+            throw new IllegalArgumentException("End time is before start time.");
+        List<Day> result = new ArrayList<>();
+        for (long number = getDayNumber(startTime.value()); number <= getDayNumber(endTime.value()); number++)
+            result.add(getDay(number));
+        return result;
+    }
+
+    /**
+     * Determines if the Sun is at least as dark as a twilight type from the times of the
+     * days around @p time. Only when the Sun neither crosses the altitude on those days nor
+     * clearly stays on one side of it is its position computed at @p time itself.
+     * @param time  The time to check.
+     * @param type  The twilight type.
+     * @return      True if the Sun is below the altitude of @p type at @p time.
+     */
+    public boolean isDark(JD time, Sun.TwilightType type) {
+        if (type == Sun.TwilightType.Day) return true;
+        double t = time.value();
+        long number = getDayNumber(t);
+        Day day = getDay(number);
+        int i = type.ordinal();
+        if (day.sides[i] != 0) return day.sides[i] == -1;
+        JD dawn = day.dawns[i], dusk = day.dusks[i];
+        if (dawn != null && dusk != null) {
+            if (t >= dawn.value() && t < dusk.value()) return false;
+            Day neighbor = getDay((t < dawn.value()) ? number - 1 : number + 1);
+            JD edge = (t < dawn.value()) ? neighbor.dusks[i] : neighbor.dawns[i];
+            if (edge != null)
+                return (t < dawn.value()) ? t >= edge.value() : t < edge.value();
+            if (neighbor.sides[i] == -1) return true;
+        }
+        return getAltitude(t) < Sun.getTwilightAltitude(type);
+    }
+
+    /**
+     * Finds the twilight at a time from the times of the days around it, see #isDark.
+     * @param time  The time to check.
+     * @return      The TwilightType of the Sun at @p time.
+     */
+    public Sun.TwilightType getTwilightType(JD time) {
+        for (int i = TYPES.length - 1; i > 0; i--) {
+            if (isDark(time, TYPES[i])) return TYPES[i];
+        }
+        return Sun.TwilightType.Day;
+    }
+
+    private long getDayNumber(double time) {
+        return (long) Math.floor(time + 0.5 + longitude / 360.0);
+    }
+
+    private Day getDay(long number) {
+        Day day = days.get(number);
+        if (day == null) {
+            day = computeDay(number);
+            days.put(number, day);
+        }
+        return day;
+    }
+
+    private Day computeDay(long number) {
+        double midnight = number - 0.5 - longitude / 360.0;
+        double transit = solveHourAngle(midnight + 0.5, 0.0);
+        Day day = new Day(new JD(midnight), new JD(transit));
+        double declination = Math.toRadians(Sun.coordinates(new JD(transit)).y());
+//        altitudes of the Sun at the transit and the lower culminations with the declination held
+        double upper = 90.0 - Math.toDegrees(Math.abs(latitude - declination));
+        double lower = Math.toDegrees(Math.abs(latitude + declination)) - 90.0;
+        double[] culminations = null;
+        for (int i = 1; i < TYPES.length; i++) {
+            double altitude = Sun.getTwilightAltitude(TYPES[i]);
+            if (upper < altitude - MODEL_MARGIN) day.sides[i] = -1;
+            else if (lower > altitude + MODEL_MARGIN) day.sides[i] = 1;
+            else {
+//                too close to call from the declination, which changes during the day, so decide
+//                from the precise altitudes at the lower culmination before, the transit and the
+//                lower culmination after
+                if (culminations == null) {
+                    double before = solveHourAngle(transit - 0.5, 180.0);
+                    double after = solveHourAngle(transit + 0.5, 180.0);
+                    culminations = new double[]{before, getAltitude(before), getAltitude(transit), after, getAltitude(after)};
+                }
+                double fBefore = culminations[1] - altitude;
+                double fTransit = culminations[2] - altitude;
+                double fAfter = culminations[4] - altitude;
+                if (fTransit < 0) day.sides[i] = -1;
+                else if (fBefore >= 0 && fAfter >= 0) day.sides[i] = 1;
+                if (fTransit >= 0 && fBefore < 0)
+                    day.dawns[i] = findCrossing(transit, -1.0, altitude, culminations[0], fBefore, transit, fTransit);
+                if (fTransit >= 0 && fAfter < 0)
+                    day.dusks[i] = findCrossing(transit, 1.0, altitude, transit, fTransit, culminations[3], fAfter);
+            }
+        }
+        return day;
+    }
+
+//    cosine of the hour angle the Sun is at altitude, beyond -1 or 1 if it never is
+    private double getCosHourAngle(double altitude, double declination) {
+        return (Math.sin(Math.toRadians(altitude)) - Math.sin(latitude) * Math.sin(declination))
+                / (Math.cos(latitude) * Math.cos(declination));
+    }
+
+//    the time the Sun is at altitude before (sign -1) or after (sign 1) the transit, inside a
+//    bracket from a culmination to the transit that the altitude is known to cross
+    private JD findCrossing(double transit, double sign, double altitude,
+                            double lower, double fLower, double upper, double fUpper) {
+        double estimate = transit;
+        for (int i = 0; i < HOUR_ANGLE_ITERATIONS; i++) {
+            double declination = Math.toRadians(Sun.coordinates(new JD(estimate)).y());
+            double cosHourAngle = getCosHourAngle(altitude, declination);
+            double hourAngle = Math.toDegrees(Math.acos(Math.max(-1.0, Math.min(1.0, cosHourAngle))));
+            estimate = solveHourAngle(estimate, sign * hourAngle);
+        }
+        return refine(Math.max(lower, Math.min(upper, estimate)), altitude, lower, fLower, upper, fUpper);
+    }
+
+//    moves a time to where the hour angle of the Sun is target degrees, iterating on its motion
+    private double solveHourAngle(double time, double target) {
+        for (int i = 0; i < HOUR_ANGLE_ITERATIONS; i++) {
+            JD t = new JD(time);
+            double rightAscension = Sun.coordinates(t).x();
+            double hourAngle = SiderealTime.getSiderealTime(t) * 15.0 + longitude - rightAscension;
+            time += wrapDegrees(target - hourAngle) / HOUR_ANGLE_RATE;
+        }
+        return time;
+    }
+
+    private static double wrapDegrees(double angle) {
+        angle %= 360.0;
+        if (angle >= 180.0) angle -= 360.0;
+        else if (angle < -180.0) angle += 360.0;
+        return angle;
+    }
+
+//    brackets the crossing around the estimate, growing the bracket up to the one known to hold
+//    it, and refines it the same way as NightWindows
+    private JD refine(double estimate, double altitude, double lower, double fLower, double upper, double fUpper) {
+        for (double width = FIRST_BRACKET; ; width *= 2) {
+            double a = Math.max(lower, estimate - width), b = Math.min(upper, estimate + width);
+            double fa = (a == lower) ? fLower : getAltitude(a) - altitude;
+            double fb = (b == upper) ? fUpper : getAltitude(b) - altitude;
+            if ((fa < 0) != (fb < 0))
+                return new JD(NightWindows.findCrossing(this::getAltitude, altitude, a, fa, b, fb));
+        }
+    }
+
+    private double getAltitude(double time) {
+        sunPositions++;
+        return NightWindows.getAltitude(observer, time);
+    }
+
+    /**
+     * Retrieves the observer.
+     * @return The observer the calendar is for.
+     */
+    public TopocentricObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Retrieves the number of days whose times have been found.
+     * @return The number of days remembered.
+     */
+    public int getDayCount() {
+        return days.size();
+    }
+
+    /**
+     * Retrieves the number of times the precise position of the Sun was computed. The
+     * estimates from Sun#coordinates aren't counted.
+     * @return The number of precise Sun positions.
+     */
+    public long getSunPositionCount() {
+        return sunPositions;
+    }
+
+}
@@ -0,0 +1,286 @@
+/** @file
+ * This file contains the TopocentricObserver class, a GeoPosition with the parts of the
+ * topocentric transform that don't change with time computed once.
+ */
+
+package com.qbizzle.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.math.OrbitalMath;
+import com.qbizzle.math.Vector;
+import com.qbizzle.time.JD;
+import com.qbizzle.time.SiderealTime;
+
+/**
+ * An observer at a GeoPosition, prepared for converting positions to its SEZ reference
+ * frame. Tracker#getSEZPosition(Vector, JD, GeoPosition) finds the radius and geocentric
+ * latitude of the site, the local sidereal time twice and a three matrix Euler product every
+ * time it is called. Only the rotation of the earth depends on the time, so the observer
+ * keeps the site position and the rotation from the earth fixed frame to the SEZ frame, and
+ * each conversion is a rotation about the pole by the earth rotation angle, a translation
+ * and a rotation by the fixed matrix. The observer is immutable and can be shared between
+ * threads.
+ * <p>
+ * The earth fixed frame here has its x axis through the Greenwich meridian, and the earth
+ * rotation angle is the Greenwich sidereal time from SiderealTime, so the results are the
+ * same as the GeoPosition methods of Tracker.
+ */
+public class TopocentricObserver {
+    /** Rate of the earth rotation angle in radians / second. */
+    public static final double EARTH_ROTATION_RATE = Math.toRadians(24.065_709_824_419_08 * 15.0 / JD.SECONDSPERDAY);
+
+    private final GeoPosition geoPosition;
+//    site position in the earth fixed frame
+    private final double siteX, siteY, siteZ;
+//    rows of the rotation from the earth fixed frame to the SEZ frame
+    private final double southX, southY, southZ;
+    private final double eastX, eastY;
+    private final double zenithX, zenithY, zenithZ;
+
+    /**
+     * Constructs an observer at a GeoPosition. The site is on the surface of the reference
+     * ellipsoid, like Tracker#getToposPosition the elevation is not used.
+     * @param geoPosition   The GeoPosition of the observer.
+     */
+    public TopocentricObserver(GeoPosition geoPosition) {
+        this.geoPosition = geoPosition;
+        double latitude = Math.toRadians(geoPosition.getLatitude());
+        double longitude = Math.toRadians(geoPosition.getLongitude());
+        double geocentricLatitude = Math.toRadians(GeoPosition.geodeticToGeocentric(geoPosition.getLatitude()));
+        double radius = GeoPosition.radiusAtLatitude(geoPosition.getLatitude());
+        double sinLatitude = Math.sin(latitude), cosLatitude = Math.cos(latitude);
+        double sinLongitude = Math.sin(longitude), cosLongitude = Math.cos(longitude);
+
+        siteX = radius * Math.cos(geocentricLatitude) * cosLongitude;
+        siteY = radius * Math.cos(geocentricLatitude) * sinLongitude;
+        siteZ = radius * Math.sin(geocentricLatitude);
+
+        southX = sinLatitude * cosLongitude;
+        southY = sinLatitude * sinLongitude;
+        southZ = -cosLatitude;
+        eastX = -sinLongitude;
+        eastY = cosLongitude;
+        zenithX = cosLatitude * cosLongitude;
+        zenithY = cosLatitude * sinLongitude;
+        zenithZ = sinLatitude;
+    }
+
+    /**
+     * Constructs an observer moved along the zenith of another, with the same horizon
+     * directions. The screening search of Tracker uses an observer moved below the site, so
+     * everything within a distance of the horizon plane of the site is above its horizon.
+     * @param observer  The observer to move.
+     * @param height    Distance in meters to move the site along the zenith, negative to
+     *                  move it down.
+     */
+    TopocentricObserver(TopocentricObserver observer, double height) {
+        this.geoPosition = observer.geoPosition;
+        siteX = observer.siteX + height * observer.zenithX;
+        siteY = observer.siteY + height * observer.zenithY;
+        siteZ = observer.siteZ + height * observer.zenithZ;
+        southX = observer.southX;
+        southY = observer.southY;
+        southZ = observer.southZ;
+        eastX = observer.eastX;
+        eastY = observer.eastY;
+        zenithX = observer.zenithX;
+        zenithY = observer.zenithY;
+        zenithZ = observer.zenithZ;
+    }
+
+    /**
+     * Computes the angle the earth has rotated from the celestial reference frame, which is
+     * the only part of the transform that changes with time.
+     * @param time  Time to find the angle at.
+     * @return      The Greenwich sidereal time in radians.
+     */
+    public static double getEarthRotationAngle(JD time) {
+        return Math.toRadians(SiderealTime.getSiderealTime(time) * 15.0);
+    }
+
+    /**
+     * Retrieves the GeoPosition of the observer.
+     * @return  The GeoPosition.
+     */
+    public GeoPosition getGeoPosition() {
+        return geoPosition;
+    }
+
+    /**
+     * Computes the position of the observer in the earth centered reference frame.
+     * @param time  Time the position is needed at.
+     * @return      The position vector, the same as Tracker#getToposPosition.
+     */
+    public Vector getToposPosition(JD time) {
+        double angle = getEarthRotationAngle(time);
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        return new Vector(
+                cos * siteX - sin * siteY,
+                sin * siteX + cos * siteY,
+                siteZ
+        );
+    }
+
+    /**
+     * Converts a position from the earth centered reference frame to the SEZ reference frame
+     * of the observer.
+     * @param position  Position vector in the earth centered reference frame.
+     * @param time      Time the object occupies this position.
+     * @return          The position vector in the SEZ reference frame.
+     */
+    public Vector getSEZPosition(Vector position, JD time) {
+        double[] sez = new double[3];
+        computeSEZPosition(position, getEarthRotationAngle(time), sez);
+        return new Vector(sez[0], sez[1], sez[2]);
+    }
+
+    /**
+     * Converts a position from the earth centered reference frame to the SEZ reference frame
+     * of the observer, writing the result into an array so nothing is allocated. Callers
+     * converting many positions at the same time can find the angle once.
+     * @param position              Position vector in the earth centered reference frame.
+     * @param earthRotationAngle    The angle from #getEarthRotationAngle at the time of
+     *                              the position.
+     * @param sez                   Array of at least 3 elements the south, east and zenith
+     *                              components are written to.
+     */
+    public void computeSEZPosition(Vector position, double earthRotationAngle, double[] sez) {
+        computeSEZPosition(position, Math.cos(earthRotationAngle), Math.sin(earthRotationAngle), sez);
+    }
+
+    /**
+     * Converts a position from the earth centered reference frame to the SEZ reference frame
+     * of the observer, with the rotation of the earth taken from a frame shared by everything
+     * converted at that time.
+     * @param position  Position vector in the earth centered reference frame.
+     * @param frame     The environment at the time of the position.
+     * @param sez       Array of at least 3 elements the south, east and zenith components
+     *                  are written to.
+     */
+    public void computeSEZPosition(Vector position, EnvironmentFrame frame, double[] sez) {
+        computeSEZPosition(position, frame.getCosEarthRotation(), frame.getSinEarthRotation(), sez);
+    }
+
+    /**
+     * Converts a position from the earth centered reference frame to the SEZ reference frame
+     * of the observer.
+     * @param position  Position vector in the earth centered reference frame.
+     * @param frame     The environment at the time of the position.
+     * @return          The position vector in the SEZ reference frame.
+     */
+    public Vector getSEZPosition(Vector position, EnvironmentFrame frame) {
+        double[] sez = new double[3];
+        computeSEZPosition(position, frame, sez);
+        return new Vector(sez[0], sez[1], sez[2]);
+    }
+
+    private void computeSEZPosition(Vector position, double cos, double sin, double[] sez) {
+        double x = cos * position.x() + sin * position.y() - siteX;
+        double y = cos * position.y() - sin * position.x() - siteY;
+        double z = position.z() - siteZ;
+        sez[0] = southX * x + southY * y + southZ * z;
+        sez[1] = eastX * x + eastY * y;
+        sez[2] = zenithX * x + zenithY * y + zenithZ * z;
+    }
+
+    /**
+     * Converts a velocity from the earth centered reference frame to the velocity relative
+     * to the observer in its SEZ reference frame, which rotates with the earth. The zenith
+     * component is the rate the height above the horizon plane changes, and the component
+     * along the position is the range rate.
+     * @param position              Position vector in the earth centered reference frame.
+     * @param velocity              Velocity vector in the earth centered reference frame.
+     * @param earthRotationAngle    The angle from #getEarthRotationAngle at the time of
+     *                              the state.
+     * @param sez                   Array of at least 3 elements the south, east and zenith
+     *                              components are written to.
+     */
+    public void computeSEZVelocity(Vector position, Vector velocity, double earthRotationAngle, double[] sez) {
+        double cos = Math.cos(earthRotationAngle), sin = Math.sin(earthRotationAngle);
+//        remove the velocity of the rotating frame before rotating into it
+        double vx = velocity.x() + EARTH_ROTATION_RATE * position.y();
+        double vy = velocity.y() - EARTH_ROTATION_RATE * position.x();
+        double x = cos * vx + sin * vy;
+        double y = cos * vy - sin * vx;
+        double z = velocity.z();
+        sez[0] = southX * x + southY * y + southZ * z;
+        sez[1] = eastX * x + eastY * y;
+        sez[2] = zenithX * x + zenithY * y + zenithZ * z;
+    }
+
+    /**
+     * Converts an acceleration from the earth centered reference frame to the acceleration
+     * relative to the observer in its SEZ reference frame, adding the coriolis and
+     * centrifugal terms of the rotating frame.
+     * @param position              Position vector in the earth centered reference frame.
+     * @param velocity              Velocity vector in the earth centered reference frame.
+     * @param acceleration          Acceleration vector in the earth centered reference frame.
+     * @param earthRotationAngle    The angle from #getEarthRotationAngle at the time of
+     *                              the state.
+     * @param sez                   Array of at least 3 elements the south, east and zenith
+     *                              components are written to.
+     */
+    public void computeSEZAcceleration(Vector position, Vector velocity, Vector acceleration,
+                                       double earthRotationAngle, double[] sez) {
+        double cos = Math.cos(earthRotationAngle), sin = Math.sin(earthRotationAngle);
+        double omega2 = EARTH_ROTATION_RATE * EARTH_ROTATION_RATE;
+        double vx = velocity.x() + EARTH_ROTATION_RATE * position.y();
+        double vy = velocity.y() - EARTH_ROTATION_RATE * position.x();
+        double ax = acceleration.x() + 2 * EARTH_ROTATION_RATE * vy + omega2 * position.x();
+        double ay = acceleration.y() - 2 * EARTH_ROTATION_RATE * vx + omega2 * position.y();
+        double x = cos * ax + sin * ay;
+        double y = cos * ay - sin * ax;
+        double z = acceleration.z();
+        sez[0] = southX * x + southY * y + southZ * z;
+        sez[1] = eastX * x + eastY * y;
+        sez[2] = zenithX * x + zenithY * y + zenithZ * z;
+    }
+
+    /**
+     * Computes the altitude and azimuth of a position seen by the observer.
+     * @param position  Position vector in the earth centered reference frame.
+     * @param time      Time the object occupies this position.
+     * @return          An AltAz object with the epoch set as @p time.
+     */
+    public AltAz getAltAz(Vector position, JD time) {
+        double[] sez = new double[3];
+        computeSEZPosition(position, getEarthRotationAngle(time), sez);
+        return getAltAz(sez, time);
+    }
+
+    /**
+     * Computes the altitude and azimuth of a position seen by the observer.
+     * @param position  Position vector in the earth centered reference frame.
+     * @param frame     The environment at the time of the position.
+     * @return          An AltAz object with the epoch set as the time of @p frame.
+     */
+    public AltAz getAltAz(Vector position, EnvironmentFrame frame) {
+        double[] sez = new double[3];
+        computeSEZPosition(position, frame, sez);
+        return getAltAz(sez, frame.getTime());
+    }
+
+    /**
+     * Converts a position in the SEZ reference frame of the observer to an altitude and
+     * azimuth, the same way as Tracker#getAltAz(Vector, JD).
+     * @param sez   South, east and zenith components of the position.
+     * @param time  Time associated with the position.
+     * @return      An AltAz object with the epoch set as @p time.
+     */
+    public static AltAz getAltAz(double[] sez, JD time) {
+        double range = Math.sqrt(sez[0] * sez[0] + sez[1] * sez[1] + sez[2] * sez[2]);
+        return new AltAz(
+                Math.toDegrees( Math.asin(sez[2] / range) ),
+                Math.toDegrees( OrbitalMath.atan2(sez[1], -sez[0]) ),
+                time
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "TopocentricObserver{" +
+                "geoPosition=" + geoPosition +
+                '}';
+    }
+
+}
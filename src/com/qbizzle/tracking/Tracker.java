@@ -10,7 +10,6 @@ import com.qbizzle.coordinates.GeoPosition;
 import com.qbizzle.exception.DaylightPassException;
 import com.qbizzle.exception.NoLightException;
 import com.qbizzle.exception.NoPassException;
-import com.qbizzle.math.Matrix;
 import com.qbizzle.math.OrbitalMath;
 import com.qbizzle.math.Vector;
 import com.qbizzle.orbit.Eclipse;
@@ -20,7 +19,9 @@ import com.qbizzle.referenceframe.Axis;
 import com.qbizzle.referenceframe.EulerAngles;
 import com.qbizzle.referenceframe.EulerOrderList;
 import com.qbizzle.rotation.Rotation;
+import com.qbizzle.satellite.Propagator;
 import com.qbizzle.satellite.Satellite;
+import com.qbizzle.satellite.SatelliteCache;
 import com.qbizzle.time.JD;
 import com.qbizzle.time.SiderealTime;
 
@@ -28,6 +29,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.Iterator;
+import java.util.stream.Stream;
 
 /** This is a static class with methods that will compute current or predict future positions
  * of satellites, and use that information to plan overhead passes. Many other methods involved
@@ -35,8 +37,6 @@ import java.util.Iterator;
  */
 @SuppressWarnings("unused")
 public class Tracker {
-    static private final double squeezeEpsilon = 1.0 / 8640000.0; // 1/10th of a second
-
     /** Converts an angle in degree notation to hour-minute-seconds notation */
     private static final double DEGREES_PER_HOUR = 15.0;
 
@@ -55,22 +55,31 @@ public class Tracker {
 
     /** Computes the GeoPosition in which the satellite is directly overhead in the
      * past/future.
-     * @param satellite The satellite to track.
-     * @param time      The time to compute the satellites position, in UTC.
-     * @return          The GeoPosition of the satellite.
+     * @param propagator    The propagator of the satellite to track, of any fidelity.
+     * @param time          The time to compute the satellites position, in UTC.
+     * @return              The GeoPosition of the satellite.
      */
 //    public static Coordinates getGeoPositionAt(TLE tle, JD t1) {
 //    public static GeoPosition getGeoPositionAt(TLE tle, JD t) {
-    public static GeoPosition getGeoPositionAt(Satellite satellite, JD time) {
-        // todo: check which ephemeris model to use before calling
+    public static GeoPosition getGeoPositionAt(Propagator propagator, JD time) {
 //        StateVectors stateAtT1 = SGP4.Propagate(tle, t);
-        StateVectors stateAtT1 = satellite.getState(time);
+        StateVectors stateAtT1 = propagator.getState(time);
         double earthOffsetAngle = SiderealTime.earthOffsetAngle(time);
         Vector positionAtT1 = Rotation.rotateFrom(Axis.Direction.Z, -earthOffsetAngle, stateAtT1.position());
 //        return new Coordinates(positionAtT1);
         return new GeoPosition(positionAtT1);
     }
 
+    /** Computes the GeoPosition in which the satellite is directly overhead, with the
+     * rotation of the earth taken from a frame shared by every satellite at that time.
+     * @param propagator    The propagator of the satellite to track, of any fidelity.
+     * @param frame         The environment at the time to compute the satellites position.
+     * @return              The GeoPosition of the satellite.
+     */
+    public static GeoPosition getGeoPositionAt(Propagator propagator, EnvironmentFrame frame) {
+        return frame.getGeoPosition(propagator);
+    }
+
     /** Computes an array of GeoPositions of a satellite over a given period.
      * @param satellite The satellite to track.
      * @param dt        The amount of time to track in solar days.
@@ -165,24 +174,56 @@ public class Tracker {
 
     /**
      * Computes the position of a satellite in a topocentric reference frame.
-     * @param satellite TLE of the satellite.
-     * @param time      Time in which to find the satellite position.
-     * @param geoPosition
-     *                  GeoPosition which corresponds to the center of the reference frame.
+     * @param satellite Satellite to track.
+     * @param dt        Change in time relative to the TLE epoch of @p satellite.
+     * @param observer  Observer at the center of the reference frame.
      * @return          The position vector in SEZ reference frame.
      */
+    public static Vector getSEZPosition(Satellite satellite, double dt, TopocentricObserver observer) {
+        return getSEZPosition(satellite, new JD(satellite.getTle()).future(dt), observer);
+    }
+
+    /**
+     * Computes the position of a satellite in a topocentric reference frame.
+     * @param propagator    Propagator of the satellite, of any fidelity.
+     * @param time          Time in which to find the satellite position.
+     * @param geoPosition   GeoPosition which corresponds to the center of the reference frame.
+     * @return              The position vector in SEZ reference frame.
+     */
 //    public static Vector getSEZPosition(TLE tle, JD t1, Coordinates geoPos) {
 //    public static Vector getSEZPosition(TLE tle, JD t, GeoPosition geoPosition) {
-    public static Vector getSEZPosition(Satellite satellite, JD time, GeoPosition geoPosition) {
-        // todo: check which ephemeris model to use before calling
+    public static Vector getSEZPosition(Propagator propagator, JD time, GeoPosition geoPosition) {
         return getSEZPosition(
 //                SGP4.Propagate(tle, t).Position(),
-                satellite.getState(time).position(),
+                propagator.getState(time).position(),
                 time,
                 geoPosition
         );
     }
 
+    /**
+     * Computes the position of a satellite in a topocentric reference frame.
+     * @param propagator    Propagator of the satellite, of any fidelity.
+     * @param time          Time in which to find the satellite position.
+     * @param observer      Observer at the center of the reference frame.
+     * @return              The position vector in SEZ reference frame.
+     */
+    public static Vector getSEZPosition(Propagator propagator, JD time, TopocentricObserver observer) {
+        return observer.getSEZPosition(propagator.getState(time).position(), time);
+    }
+
+    /**
+     * Computes the position of a satellite in a topocentric reference frame, with the rotation
+     * of the earth taken from a frame shared by every satellite at that time.
+     * @param propagator    Propagator of the satellite, of any fidelity.
+     * @param frame         The environment at the time to find the satellite position.
+     * @param observer      Observer at the center of the reference frame.
+     * @return              The position vector in SEZ reference frame.
+     */
+    public static Vector getSEZPosition(Propagator propagator, EnvironmentFrame frame, TopocentricObserver observer) {
+        return observer.getSEZPosition(propagator.getState(frame.getTime()).position(), frame);
+    }
+
     /**
      * Converts a position vector from a geocentric reference frame to a topocentric
      * reference frame.
@@ -195,20 +236,22 @@ public class Tracker {
 //    public static Vector getSEZPosition(Vector position, JD t1, Coordinates geoPos) {
     public static Vector getSEZPosition(Vector position, JD time, GeoPosition geoPosition) {
 //        double localSiderealTime = SiderealTime.LST(t1, geoPos.getLongitude()) * HOURS_PER_DEGREE;
-        double localSiderealTime = SiderealTime.getLocalSiderealTime(time, geoPosition.getLongitude()) * DEGREES_PER_HOUR;
 //        Vector geoPosVector = getToposPosition(t1, geoPos);
-        Vector geoPositionVector = getToposPosition(time, geoPosition);
-        Matrix sezToIJK = Rotation.getEulerMatrix(
-                EulerOrderList.ZYX,
-                new EulerAngles(
-                        localSiderealTime,
-                        90-geoPosition.getLatitude(),
-                        0
-                )
-        );
-        Vector tmp = rotateTranslate(sezToIJK, geoPositionVector, position);
-//        return rotateTranslate(sezToIJK, geoPositionVector, position);
-        return tmp;
+//        the fixed part of the transform is the same for every call with the same GeoPosition,
+//        callers converting many positions should keep a TopocentricObserver instead
+        return getSEZPosition(position, time, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Converts a position vector from a geocentric reference frame to a topocentric
+     * reference frame.
+     * @param position      Position vector of the satellite in the earth centered reference frame.
+     * @param time          Time in which the satellite occupies this position.
+     * @param observer      Observer at the center of the reference frame.
+     * @return              The position vector in SEZ reference frame.
+     */
+    public static Vector getSEZPosition(Vector position, JD time, TopocentricObserver observer) {
+        return observer.getSEZPosition(position, time);
     }
 
     /**
@@ -234,22 +277,44 @@ public class Tracker {
         );
     }
 
+    /**
+     * Computes the position vector of an observer.
+     * @param time      Time the position vector is needed.
+     * @param observer  The observer at the center of the reference frame.
+     * @return          The position vector in earth centric reference frame.
+     */
+    public static Vector getToposPosition(JD time, TopocentricObserver observer) {
+        return observer.getToposPosition(time);
+    }
+
     /**
      * Generates an AltAz object referencing the altitude and azimuth of a satellite at a
      * given time.
-     * @param satellite     Satellite to track.
+     * @param propagator    Propagator of the satellite to track, of any fidelity.
      * @param time          Time to find the position.
      * @param geoPosition   GeoPosition to find the relative altitude and azimuth for.
      * @return              An AltAz object with the epoch set as @p t.
      */
 //    public static AltAz getAltAz(TLE tle, JD t, Coordinates geoPos) {
 //    public static AltAz getAltAz(TLE tle, JD t, GeoPosition geoPosition) {
-    public static AltAz getAltAz(Satellite satellite, JD time, GeoPosition geoPosition) {
-        return getAltAz(
+    public static AltAz getAltAz(Propagator propagator, JD time, GeoPosition geoPosition) {
+//        return getAltAz(
 //                getSEZPosition(tle, t, geoPosition),
-                getSEZPosition(satellite, time, geoPosition),
-                time
-        );
+//                time
+//        );
+        return getAltAz(propagator, time, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Generates an AltAz object referencing the altitude and azimuth of a satellite at a
+     * given time.
+     * @param propagator    Propagator of the satellite to track, of any fidelity.
+     * @param time          Time to find the position.
+     * @param observer      Observer to find the relative altitude and azimuth for.
+     * @return              An AltAz object with the epoch set as @p time.
+     */
+    public static AltAz getAltAz(Propagator propagator, JD time, TopocentricObserver observer) {
+        return observer.getAltAz(propagator.getState(time).position(), time);
     }
 
     /**
@@ -267,17 +332,38 @@ public class Tracker {
         );
     }
 
-    /* THIS IS A TEMPORARY FIX UNTIL THE 'SQEEZE' METHODS ARE REPLACED */
+    /**
+     * Generates an AltAz object referencing the altitude and azimuth of a satellite at a
+     * given time. The initialized propagator for @p tle is retrieved from the shared
+     * {@link SatelliteCache}, so repeated calls with the same TLE don't re-initialize SGP4.
+     * @param tle           TLE of the satellite to track.
+     * @param time          Time to find the position.
+     * @param geoPosition   GeoPosition to find the relative altitude and azimuth for.
+     * @return              An AltAz object with the epoch set as @p t.
+     */
     public static AltAz getAltAz(TLE tle, JD time, GeoPosition geoPosition) {
         return getAltAz(
-                getSEZPosition(new Satellite(tle), time, geoPosition),
-                time
+                SatelliteCache.getDefault().get(tle),
+                time,
+                geoPosition
         );
     }
 
+    /**
+     * Generates an AltAz object referencing the altitude and azimuth of a satellite at a
+     * given time, with the propagator for @p tle from the shared {@link SatelliteCache}.
+     * @param tle           TLE of the satellite to track.
+     * @param time          Time to find the position.
+     * @param observer      Observer to find the relative altitude and azimuth for.
+     * @return              An AltAz object with the epoch set as @p time.
+     */
+    public static AltAz getAltAz(TLE tle, JD time, TopocentricObserver observer) {
+        return getAltAz(SatelliteCache.getDefault().get(tle), time, observer);
+    }
+
     /**
      * Determines if a satellite is above the horizon for a given GeoPosition and time.
-     * @param satellite     Satellite to track.
+     * @param propagator    Propagator of the satellite to track, of any fidelity.
      * @param time          Time the satellite would be above the horizon.
      * @param geoPosition   GeoPosition for determining the horizon.
      * @return              True if the altitude of the satellite is greater than 0,
@@ -285,13 +371,24 @@ public class Tracker {
      */
 //    public static boolean isAboveHorizon(TLE tle, JD t, Coordinates geoPosition) {
 //        public static boolean isAboveHorizon(TLE tle, JD t, GeoPosition geoPosition) {
-    public static boolean isAboveHorizon(Satellite satellite, JD time, GeoPosition geoPosition) {
-        // todo: wouldn't it be more efficient if we just called for SEZ position and returned (sezPos.z() > 0)
+    public static boolean isAboveHorizon(Propagator propagator, JD time, GeoPosition geoPosition) {
 //        AltAz altaz = getAltAz(tle, t, geoPosition);
-        return (getSEZPosition(satellite, time, geoPosition).z() > 0);
+        return (getSEZPosition(propagator, time, geoPosition).z() > 0);
 //        return (altaz.getAltitude() > 0);
     }
 
+    /**
+     * Determines if a satellite is above the horizon of an observer at a given time.
+     * @param propagator    Propagator of the satellite to track, of any fidelity.
+     * @param time          Time the satellite would be above the horizon.
+     * @param observer      Observer for determining the horizon.
+     * @return              True if the altitude of the satellite is greater than 0,
+     *                      false if otherwise.
+     */
+    public static boolean isAboveHorizon(Propagator propagator, JD time, TopocentricObserver observer) {
+        return (getSEZPosition(propagator, time, observer).z() > 0);
+    }
+
     /**
      * Computes the pass information for a satellite pass.
      * @param tle TLE of the satellite.
@@ -309,48 +406,219 @@ public class Tracker {
      *                  If the pass occurs during daylight and is not visible.
      */
     public static SatellitePass getPassInfo(TLE tle, JD passTime, GeoPosition geoPosition) {
+        return getPassInfo(tle, passTime, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Computes the pass information for a satellite pass.
+     * @param tle       TLE of the satellite.
+     * @param passTime  If there is a valid pass, this value must be between the pass rise
+     *                  and set times.
+     * @param observer  The observer of the pass.
+     * @return          A SatellitePass object containing the pass info.
+     * @throws NoPassException
+     *                  If the satellite is not above the horizon during this time.
+     * @throws NoLightException
+     *                  If the satellite is never in sunlight during a pass.
+     * @throws DaylightPassException
+     *                  If the pass occurs during daylight and is not visible.
+     */
+    public static SatellitePass getPassInfo(TLE tle, JD passTime, TopocentricObserver observer) {
+        return getPassInfo(tle, passTime, observer, SearchBudget.REFINEMENT, SearchBudget.BISECTION);
+    }
+
+    /**
+     * Computes the pass information for a satellite pass, with every event of the pass
+     * refined to the same budget, see #getPassInfo(TLE, JD, TopocentricObserver).
+     * @param tle       TLE of the satellite.
+     * @param passTime  If there is a valid pass, this value must be between the pass rise
+     *                  and set times.
+     * @param observer  The observer of the pass.
+     * @param budget    Accuracy and largest number of evaluations of each search.
+     * @return          A SatellitePass object containing the pass info.
+     * @throws NoPassException
+     *                  If the satellite is not above the horizon during this time.
+     * @throws NoLightException
+     *                  If the satellite is never in sunlight during a pass.
+     * @throws DaylightPassException
+     *                  If the pass occurs during daylight and is not visible.
+     */
+    public static SatellitePass getPassInfo(TLE tle, JD passTime, TopocentricObserver observer, SearchBudget budget) {
+        return getPassInfo(tle, passTime, observer, budget, budget);
+    }
+
+//    the culmination is refined from the elevation rate, the other events are bisected
+    private static SatellitePass getPassInfo(TLE tle, JD passTime, TopocentricObserver observer,
+                                             SearchBudget refinement, SearchBudget bisection) {
 //    public static SatellitePass getPassInfo(Satellite satellite, JD passTime, GeoPosition geoPosition) {
 //        todo: how to we make a better guess than 10 minutes?
-//        todo: checking for daylight first should cut this processing time by half when used by getPasses
-        AltAz rise = riseSqueeze(tle, passTime.future(-10.0 / 1440.0), passTime, geoPosition, null);
-        AltAz set = setSqueeze(tle, rise.getEpoch(), passTime.future(10.0 / 1440.0), geoPosition, null);
-        AltAz first = firstSqueeze(tle, rise.getEpoch(), set.getEpoch(), geoPosition);
-        AltAz last = lastSqueeze(tle, first.getEpoch(), set.getEpoch(), geoPosition, null);
+        AltAz rise = riseSqueeze(tle, passTime.future(-10.0 / 1440.0), passTime, observer, bisection);
+//        a pass in daylight is thrown out before any of the rest of it is searched for, like #getPassResult
+        if (Sun.getTwilightType(passTime, observer.getGeoPosition()).ordinal() < Sun.TwilightType.Nautical.ordinal())
+            throw new DaylightPassException("Pass not visible due to sunlight.");
+        AltAz set = setSqueeze(tle, rise.getEpoch(), passTime.future(10.0 / 1440.0), observer, bisection);
+        AltAz first = firstSqueeze(tle, rise.getEpoch(), set.getEpoch(), observer, bisection);
+        AltAz last = lastSqueeze(tle, first.getEpoch(), set.getEpoch(), observer, bisection);
 
         JD startEpoch = (rise.getEpoch().value() < first.getEpoch().value()) ? first.getEpoch() : rise.getEpoch();
         JD finishEpoch = (set.getEpoch().value() < last.getEpoch().value()) ? set.getEpoch() : last.getEpoch();
-        if (Sun.getTwilightType(passTime, geoPosition).ordinal() >= Sun.TwilightType.Nautical.ordinal()) {
-            return new SatellitePass(
-                    rise, set, first, last,
-                    maxSqueeze(tle, startEpoch, finishEpoch, geoPosition, null)
-            );
-        }
-        else throw new DaylightPassException("Pass not visible due to sunlight.");
+        return new SatellitePass(
+                rise, set, first, last,
+                new ElevationRefiner(SatelliteCache.getDefault().get(tle), observer, refinement).findCulmination(startEpoch, finishEpoch)
+        );
+    }
+    /**
+     * Computes the pass information for a satellite pass, throwing if there isn't a visible
+     * pass. This wraps #getPassResult for callers that expect the pass exceptions.
+     * @param satellite     Propagator of the satellite, of any fidelity.
+     * @param passTime      If there is a valid pass, this value must be between the pass rise
+     *                      and set times.
+     * @param geoPosition   The GeoPosition for the pass.
+     * @return              A SatellitePass object containing the pass info.
+     * @throws NoPassException
+     *                      If the satellite is not above the horizon during this time.
+     * @throws NoLightException
+     *                      If the satellite is never in sunlight during a pass.
+     * @throws DaylightPassException
+     *                      If the pass occurs during daylight and is not visible.
+     */
+    public static SatellitePass getPassInfo3(Propagator satellite, JD passTime, GeoPosition geoPosition) {
+        return getPassInfo3(satellite, passTime, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Computes the pass information for a satellite pass, throwing if there isn't a visible
+     * pass, see #getPassInfo3(Propagator, JD, GeoPosition).
+     * @param satellite     Propagator of the satellite, of any fidelity.
+     * @param passTime      If there is a valid pass, this value must be between the pass rise
+     *                      and set times.
+     * @param observer      The observer of the pass.
+     * @return              A SatellitePass object containing the pass info.
+     */
+    public static SatellitePass getPassInfo3(Propagator satellite, JD passTime, TopocentricObserver observer) {
+        return getPassResult(satellite, passTime, observer).getPassOrThrow(passTime);
+    }
+
+    /**
+     * Computes the pass information for a satellite pass without throwing if there isn't a
+     * visible pass. The rise is looked for in the 15 minutes before @p passTime and the set
+     * in the 15 minutes after. Daylight is checked before the sunlit part of the pass is
+     * searched for, so a pass in daylight that is also never sunlit is reported as daylight.
+     * @param satellite     Propagator of the satellite, of any fidelity.
+     * @param passTime      If there is a valid pass, this value must be between the pass rise
+     *                      and set times.
+     * @param geoPosition   The GeoPosition for the pass.
+     * @return              The result of the search, with the pass if it is visible.
+     */
+    public static PassResult getPassResult(Propagator satellite, JD passTime, GeoPosition geoPosition) {
+        return getPassResult(satellite, passTime, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Computes the pass information for a satellite pass without throwing if there isn't a
+     * visible pass, see #getPassResult(Propagator, JD, GeoPosition).
+     * @param satellite     Propagator of the satellite, of any fidelity.
+     * @param passTime      If there is a valid pass, this value must be between the pass rise
+     *                      and set times.
+     * @param observer      The observer of the pass.
+     * @return              The result of the search, with the pass if it is visible.
+     */
+    public static PassResult getPassResult(Propagator satellite, JD passTime, TopocentricObserver observer) {
+        return getPassResult(new EvaluationMemo(satellite, observer), passTime);
+    }
+
+    /**
+     * Computes the pass information for a satellite pass without throwing, see
+     * #getPassResult(Propagator, JD, GeoPosition). Every search for the events of the pass
+     * evaluates the satellite and the Sun through the memo, so no time is propagated twice,
+     * and the counters of the memo show the cost of the pass afterwards.
+     * @param memo      An empty memo for the satellite and observer of the pass.
+     * @param passTime  If there is a valid pass, this value must be between the pass rise
+     *                  and set times.
+     * @return          The result of the search, with the pass if it is visible.
+     */
+    public static PassResult getPassResult(EvaluationMemo memo, JD passTime) {
+        return getPassResult(memo, passTime, SearchBudget.REFINEMENT, SearchBudget.BISECTION);
+    }
+
+    /**
+     * Computes the pass information for a satellite pass without throwing, with every event
+     * of the pass refined to the same budget, see #getPassResult(EvaluationMemo, JD). A
+     * looser budget than the defaults makes fewer evaluations, which the counters of the
+     * memo show.
+     * @param memo      An empty memo for the satellite and observer of the pass.
+     * @param passTime  If there is a valid pass, this value must be between the pass rise
+     *                  and set times.
+     * @param budget    Accuracy and largest number of evaluations of each search.
+     * @return          The result of the search, with the pass if it is visible.
+     */
+    public static PassResult getPassResult(EvaluationMemo memo, JD passTime, SearchBudget budget) {
+        return getPassResult(memo, passTime, budget, budget);
     }
-    public static SatellitePass getPassInfo3(Satellite satellite, JD passTime, GeoPosition geoPosition) {
-        AltAz rise = riseSqueeze2(satellite, passTime.future(-15.0 / 1440.0), passTime, geoPosition);
-        AltAz set = setSqueeze2(satellite, rise.getEpoch(), passTime.future(15.0 / 1440.0), geoPosition);
-        AltAz first = firstSqueeze2(satellite, rise.getEpoch(), set.getEpoch(), geoPosition);
-        AltAz last = lastSqueeze2(satellite, first.getEpoch(), set.getEpoch(), geoPosition);
+
+//    rise, set and culmination are refined from the elevation rate, the sunlight is bisected
+    private static PassResult getPassResult(EvaluationMemo memo, JD passTime, SearchBudget refinement, SearchBudget bisection) {
+        AltAz rise = riseSqueeze2(memo, passTime.future(-15.0 / 1440.0), passTime, refinement);
+        if (rise == null) return PassResult.none();
+        AltAz set = setSqueeze2(memo, passTime, passTime.future(15.0 / 1440.0), refinement);
+        if (Sun.getTwilightType(passTime, memo.getObserver().getGeoPosition()).ordinal() < Sun.TwilightType.Nautical.ordinal())
+            return PassResult.daylight(rise, set);
+        AltAz first = firstSqueeze2(memo, rise.getEpoch(), set.getEpoch(), bisection);
+        if (first == null) return PassResult.unlit(rise, set);
+        AltAz last = lastSqueeze2(memo, first.getEpoch(), set.getEpoch(), bisection);
 
         JD startEpoch = (rise.getEpoch().value() < first.getEpoch().value()) ? first.getEpoch() : rise.getEpoch();
         JD finishEpoch = (set.getEpoch().value() < last.getEpoch().value()) ? set.getEpoch() : last.getEpoch();
-        if (Sun.getTwilightType(passTime, geoPosition).ordinal() >= Sun.TwilightType.Nautical.ordinal()) {
-            return new SatellitePass(
-                    rise, set, first, last,
-                    maxSqueeze2(satellite, startEpoch, finishEpoch, geoPosition)
-            );
-        }
-        else throw new DaylightPassException("Pass not visible due to sunlight.");
+        return PassResult.visible(rise, set, new SatellitePass(
+                rise, set, first, last,
+                new ElevationRefiner(memo, memo.getObserver(), refinement).findCulmination(startEpoch, finishEpoch)
+        ));
+    }
+
+    /**
+     * Finds the radio contact with a satellite around a time, the geometric part of
+     * #getPassResult. The rise is looked for in the 15 minutes before @p passTime and the set
+     * in the 15 minutes after, and neither the twilight nor the shadow of the earth is
+     * evaluated. ContactPass#getVisibility finds the rest if it is needed.
+     * @param satellite     Propagator of the satellite, of any fidelity.
+     * @param passTime      Time during the contact.
+     * @param geoPosition   The GeoPosition of the observer.
+     * @return              The contact, or null if the satellite isn't above the horizon at
+     *                      @p passTime.
+     */
+    public static ContactPass getContact(Propagator satellite, JD passTime, GeoPosition geoPosition) {
+        return getContact(satellite, passTime, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Finds the radio contact with a satellite around a time, see
+     * #getContact(Propagator, JD, GeoPosition).
+     * @param satellite     Propagator of the satellite, of any fidelity.
+     * @param passTime      Time during the contact.
+     * @param observer      The observer of the contact.
+     * @return              The contact, or null if the satellite isn't above the horizon at
+     *                      @p passTime.
+     */
+    public static ContactPass getContact(Propagator satellite, JD passTime, TopocentricObserver observer) {
+        EvaluationMemo memo = new EvaluationMemo(satellite, observer);
+        AltAz rise = riseSqueeze2(memo, passTime.future(-15.0 / 1440.0), passTime, SearchBudget.REFINEMENT);
+        if (rise == null) return null;
+        AltAz set = setSqueeze2(memo, passTime, passTime.future(15.0 / 1440.0), SearchBudget.REFINEMENT);
+        AltAz max = new ElevationRefiner(memo, observer).findCulmination(rise.getEpoch(), set.getEpoch());
+        return new ContactPass(satellite, observer, rise, set, max);
     }
 
     public static SatellitePass getPassInfo2(Satellite satellite, JD passTime, GeoPosition geoPosition) {
-        Vector pos = getSEZPosition(satellite, passTime, geoPosition);
+        return getPassInfo2(satellite, passTime, new TopocentricObserver(geoPosition));
+    }
+
+    public static SatellitePass getPassInfo2(Satellite satellite, JD passTime, TopocentricObserver observer) {
+        Vector pos = getSEZPosition(satellite, passTime, observer);
         if (pos.z() < 0)
             throw new NoPassException("No overhead pass at " + passTime.date());
 //        can we just call satellite.getRecentState() to compute the AltAz's.
-        JD riseTime = getRiseTime(satellite, passTime, geoPosition);
-        JD setTime = getSetTime(satellite, passTime, geoPosition);
+        JD riseTime = getRiseTime(satellite, passTime, observer);
+        JD setTime = getSetTime(satellite, passTime, observer);
         JD visibleTime, disappearTime;
         boolean riseEclipsed = Eclipse.isEclipsed(satellite, riseTime);
         boolean setEclipsed = Eclipse.isEclipsed(satellite, setTime);
@@ -365,30 +633,30 @@ public class Tracker {
             if (!setEclipsed)
                 disappearTime = setTime;
             else if (!passEclipsed)
-                disappearTime = getLastVisibleTime(satellite, passTime, setTime, geoPosition);
+                disappearTime = getLastVisibleTime(satellite, passTime, setTime, observer);
             else
-                disappearTime = getLastVisibleTime(satellite, riseTime, passTime, geoPosition);
+                disappearTime = getLastVisibleTime(satellite, riseTime, passTime, observer);
         } else  {
 //            riseEclipsed == true
 //            setEclipsed == false
             disappearTime = setTime;
             if (passEclipsed)
-                visibleTime = getFirstVisibleTime(satellite, passTime, setTime, geoPosition);
+                visibleTime = getFirstVisibleTime(satellite, passTime, setTime, observer);
             else
-                visibleTime = getFirstVisibleTime(satellite, riseTime, passTime, geoPosition);
+                visibleTime = getFirstVisibleTime(satellite, riseTime, passTime, observer);
         }
 
         JD startEpoch = (riseTime.value() < visibleTime.value()) ? visibleTime : riseTime;
         JD endEpoch = (disappearTime.value() < setTime.value()) ? disappearTime : setTime;
-//        AltAz max = maxSqueeze(satellite, startEpoch, endEpoch, geoPosition, null);
+//        AltAz max = maxSqueeze(satellite, startEpoch, endEpoch, observer, null);
         AltAz max = new AltAz(0, 0, new JD(0));
 //        todo: make this maxTime instead of passTime
-        if (Sun.getTwilightType(passTime, geoPosition).ordinal() >= Sun.TwilightType.Nautical.ordinal()) {
+        if (Sun.getTwilightType(passTime, observer.getGeoPosition()).ordinal() >= Sun.TwilightType.Nautical.ordinal()) {
             return new SatellitePass(
-                    getAltAz(satellite, riseTime, geoPosition),
-                    getAltAz(satellite, setTime, geoPosition),
-                    getAltAz(satellite, startEpoch, geoPosition),
-                    getAltAz(satellite, endEpoch, geoPosition),
+                    getAltAz(satellite, riseTime, observer),
+                    getAltAz(satellite, setTime, observer),
+                    getAltAz(satellite, startEpoch, observer),
+                    getAltAz(satellite, endEpoch, observer),
                     max
             );
         }
@@ -397,74 +665,169 @@ public class Tracker {
     }
 
     public static JD getRiseTime(Satellite satellite, JD time, GeoPosition geoPosition) {
-        return getHorizonTime(satellite, time, geoPosition, -1.0);
+        return getRiseTime(satellite, time, new TopocentricObserver(geoPosition));
+    }
+
+    public static JD getRiseTime(Satellite satellite, JD time, TopocentricObserver observer) {
+        return getHorizonTime(satellite, time, observer, -1.0);
+    }
+
+    /**
+     * Finds the time a satellite rises before a time, refined within a budget.
+     * @param satellite Satellite to track.
+     * @param time      Time during the pass.
+     * @param observer  Observer of the pass.
+     * @param budget    Accuracy and largest number of propagations of the refinement.
+     * @return          The rise time, see #getHorizonTime(Satellite, JD, TopocentricObserver, double, SearchBudget).
+     */
+    public static JD getRiseTime(Satellite satellite, JD time, TopocentricObserver observer, SearchBudget budget) {
+        return getHorizonTime(satellite, time, observer, -1.0, budget);
     }
 
     public static JD getSetTime(Satellite satellite, JD time, GeoPosition geoPosition) {
-        return getHorizonTime(satellite, time, geoPosition, 1.0);
+        return getSetTime(satellite, time, new TopocentricObserver(geoPosition));
+    }
+
+    public static JD getSetTime(Satellite satellite, JD time, TopocentricObserver observer) {
+        return getHorizonTime(satellite, time, observer, 1.0);
+    }
+
+    /**
+     * Finds the time a satellite sets after a time, refined within a budget.
+     * @param satellite Satellite to track.
+     * @param time      Time during the pass.
+     * @param observer  Observer of the pass.
+     * @param budget    Accuracy and largest number of propagations of the refinement.
+     * @return          The set time, see #getHorizonTime(Satellite, JD, TopocentricObserver, double, SearchBudget).
+     */
+    public static JD getSetTime(Satellite satellite, JD time, TopocentricObserver observer, SearchBudget budget) {
+        return getHorizonTime(satellite, time, observer, 1.0, budget);
     }
 
     static final double ALTITUDE_EPSILON = 1e-4;
+//    largest number of steps taken to bracket the horizon, each twice as long as the last
+    private static final int HORIZON_STEPS = 8;
     //    direction: -1 for rise and +1 for set
     public static JD getHorizonTime(Satellite satellite, JD time, GeoPosition geoPosition, double direction) {
+        return getHorizonTime(satellite, time, new TopocentricObserver(geoPosition), direction);
+    }
+
+    /**
+     * Finds the time a satellite crosses the horizon before or after a time. The horizon is
+     * bracketed by stepping away from @p time, towards the horizon if the satellite is above
+     * it and back towards the pass if it is below, and the crossing is refined by an
+     * ElevationRefiner. Each step is the time the satellite needs to reach the horizon at its
+     * current angular rate, and grows if that doesn't cross it.
+     * @param satellite Satellite to track.
+     * @param time      Time to search from, during the pass for the best results.
+     * @param observer  Observer of the pass.
+     * @param direction -1 to find the rise, 1 to find the set.
+     * @return          The time of the crossing, or @p time if no crossing was bracketed.
+     */
+    public static JD getHorizonTime(Satellite satellite, JD time, TopocentricObserver observer, double direction) {
+        return getHorizonTime(satellite, time, observer, direction, SearchBudget.REFINEMENT);
+    }
+
+    /**
+     * Finds the time a satellite crosses the horizon before or after a time, see
+     * #getHorizonTime(Satellite, JD, TopocentricObserver, double).
+     * @param satellite Satellite to track.
+     * @param time      Time to search from, during the pass for the best results.
+     * @param observer  Observer of the pass.
+     * @param direction -1 to find the rise, 1 to find the set.
+     * @param budget    Accuracy and largest number of propagations of the refinement, the
+     *                  steps that bracket the crossing aren't counted.
+     * @return          The time of the crossing, or @p time if no crossing was bracketed.
+     */
+    public static JD getHorizonTime(Satellite satellite, JD time, TopocentricObserver observer, double direction,
+                                    SearchBudget budget) {
         assert (direction == 1 || direction == -1);
         StateVectors state = satellite.getState(time);
-        Matrix rotationMatrix = Rotation.getEulerMatrix(
-                EulerOrderList.ZYX,
-                new EulerAngles(
-                        SiderealTime.getLocalSiderealTime(time, geoPosition.getLongitude() * 15.0),
-                        90 - geoPosition.getLatitude(),
-                        0.0
-                )
-        );
-        StateVectors sezState = new StateVectors(
-                Tracker.getSEZPosition(state.position(), time, geoPosition),
-                Rotation.rotateTo(rotationMatrix, state.velocity().exclude(state.position()))
-        );
-        AltAz altaz = Tracker.getAltAz(satellite, time, geoPosition);
-//        System.out.println("time: " + time.date(-6) + " alt: " + altaz.getAltitude());
-        if (Math.abs(altaz.getAltitude()) < altitudeEpsilon) return time;
-        else {
-            double angVelocity = sezState.velocity().mag() / sezState.position().mag(); // radians / s
-//            System.out.println("angVelocity: " + angVelocity);
-//            todo: this takes shortest path to horizon, find the proper arc length to horizon
-            double timeToHorizon = Math.toRadians( altaz.getAltitude() ) / angVelocity;
-//            System.out.println("timeToHorizon: " + timeToHorizon);
-            return getHorizonTime(
-                    satellite,
-                    time.future(direction * timeToHorizon / 86400.0),
-                    geoPosition,
-                    direction
-            );
+        Vector sezPosition = observer.getSEZPosition(state.position(), time);
+        double altitude = Math.toRadians( Tracker.getAltAz(sezPosition, time).getAltitude() );
+        if (Math.abs(Math.toDegrees(altitude)) < ALTITUDE_EPSILON) return time;
+//        only the size of the velocity across the line of sight is used, which the rotation to SEZ doesn't change
+        double angVelocity = state.velocity().exclude(state.position()).mag() / sezPosition.mag(); // radians / s
+//        below the horizon the crossing is back towards the pass
+        double sign = (altitude > 0) ? direction : -direction;
+        double step = Math.max(Math.abs(altitude) / angVelocity, 1.0);
+        JD bound = time;
+        for (int i = 0; i < HORIZON_STEPS; i++, step *= 2) {
+            bound = time.future(sign * step / 86400.0);
+            if ((Tracker.getAltAz(satellite, bound, observer).getAltitude() > 0) != (altitude > 0)) {
+                ElevationRefiner refiner = new ElevationRefiner(satellite, observer, budget);
+                AltAz crossing = (sign > 0) ? refiner.findCrossing(time, bound, 0.0) : refiner.findCrossing(bound, time, 0.0);
+                return (crossing == null) ? time : crossing.getEpoch();
+            }
         }
+        return time;
     }
 
-    private static final double ECLIPSE_EPSILON = 1.0 / 86400.0;
     public static JD getFirstVisibleTime(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition) {
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);    //  preserves precision
+        return getFirstVisibleTime(satellite, lower, upper, new TopocentricObserver(geoPosition));
+    }
+
+    public static JD getFirstVisibleTime(Satellite satellite, JD lower, JD upper, TopocentricObserver observer) {
+        return getFirstVisibleTime(satellite, lower, upper, observer, SearchBudget.ECLIPSE);
+    }
+
+    /**
+     * Finds the time a satellite leaves the shadow of the earth by bisection. The satellite
+     * should be sunlit at @p upper, and the bracket only moves up while the lower end and the
+     * middle are both eclipsed.
+     * @param satellite Satellite to track.
+     * @param lower     Lower bound of the search.
+     * @param upper     Upper bound of the search, when the satellite is sunlit.
+     * @param observer  Observer of the pass.
+     * @param budget    Accuracy and largest number of eclipse checks of the bisection.
+     * @return          The middle of the final bracket.
+     * @throws NoLightException
+     *                  If the satellite is eclipsed at the upper end of the final bracket.
+     */
+    public static JD getFirstVisibleTime(Satellite satellite, JD lower, JD upper, TopocentricObserver observer,
+                                         SearchBudget budget) {
+//        the ends are checked once, each step only checks the middle
         boolean lowerEclipsed = Eclipse.isEclipsed(satellite, lower);
-        boolean biEclipsed = Eclipse.isEclipsed(satellite, biTime);
         boolean upperEclipsed = Eclipse.isEclipsed(satellite, upper);
-//        boolean lowerEclipsed = true;
-//        boolean biEclipsed = true;
-//        boolean upperEclipsed = true;
-
-        if (upper.difference(lower) <= ECLIPSE_EPSILON) {
-            if (!upperEclipsed) return biTime;
-            else throw new NoLightException("Object is eclipsed at " + upper.value());
-        } else {
-            if (lowerEclipsed && biEclipsed && !upperEclipsed) return getFirstVisibleTime(satellite, biTime, upper, geoPosition);
-            else return getFirstVisibleTime(satellite, lower, biTime, geoPosition);
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);    //  preserves precision
+            boolean biEclipsed = Eclipse.isEclipsed(satellite, biTime);
+            if (lowerEclipsed && biEclipsed && !upperEclipsed) lower = biTime;
+            else {
+                upper = biTime;
+                upperEclipsed = biEclipsed;
+            }
         }
+        if (upperEclipsed) throw new NoLightException("Object is eclipsed at " + upper.value());
+        return lower.future((upper.value() - lower.value()) / 2.0);
     }
 
     public static JD getLastVisibleTime(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition) {
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);    //  preserves precision
-        if (upper.difference(lower) <= ECLIPSE_EPSILON) return biTime;
-        if (!Eclipse.isEclipsed(satellite, biTime))
-//        if (true)
-            return getLastVisibleTime(satellite, biTime, upper, geoPosition);
-        else return getFirstVisibleTime(satellite, lower, biTime, geoPosition);
+        return getLastVisibleTime(satellite, lower, upper, new TopocentricObserver(geoPosition));
+    }
+
+    public static JD getLastVisibleTime(Satellite satellite, JD lower, JD upper, TopocentricObserver observer) {
+        return getLastVisibleTime(satellite, lower, upper, observer, SearchBudget.ECLIPSE);
+    }
+
+    /**
+     * Finds the time a satellite enters the shadow of the earth by bisection. The satellite
+     * should be sunlit at @p lower.
+     * @param satellite Satellite to track.
+     * @param lower     Lower bound of the search, when the satellite is sunlit.
+     * @param upper     Upper bound of the search.
+     * @param observer  Observer of the pass.
+     * @param budget    Accuracy and largest number of eclipse checks of the bisection.
+     * @return          The middle of the final bracket.
+     */
+    public static JD getLastVisibleTime(Satellite satellite, JD lower, JD upper, TopocentricObserver observer,
+                                        SearchBudget budget) {
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);    //  preserves precision
+            if (!Eclipse.isEclipsed(satellite, biTime)) lower = biTime;
+            else upper = biTime;
+        }
+        return lower.future((upper.value() - lower.value()) / 2.0);
     }
 
 //    put max height method here
@@ -479,54 +842,253 @@ public class Tracker {
      *                  choosing this value.
      * @param geoPosition
      *                  The GeoPosition for the pass.
-     * @return          A SatellitePass object containing the pass info.
-     * @throws NoPassException
-     *                  If the satellite is not above the horizon during this time.
-     * @throws NoLightException
-     *                  If the satellite is never in sunlight during a pass.
-     * @throws DaylightPassException
-     *                  If the pass occurs during daylight and is not visible.
+     * @return          The passes found in the window, see #getPasses(Satellite, JD, JD, GeoPosition).
      */
     public static java.util.Vector<SatellitePass> getPasses(TLE tle, JD startTime, JD endTime, GeoPosition geoPosition) {
-//    public static java.util.Vector<SatellitePass> getPasses(Satellite satellite, JD startTime, JD endTime, GeoPosition geoPosition) {
-        final double dt = 10 / 86400.0; // 10 seconds
-        java.util.Vector<SatellitePass> passList = new java.util.Vector<>();
-        JD currentTime = startTime;
-        SatellitePass satPass;
-        do {
-            try {
-//                satPass = Tracker.getPassInfo(tle, currentTime, geoPosition);
-//                satPass = getPassInfo2(satellite, currentTime, geoPosition);
-                satPass = getPassInfo(tle, currentTime, geoPosition);
-                passList.add(satPass);
-                // todo: because the next guess is programed to guess 10 minutes into the past, it will find this same pass over and over, unless we jump more than 10 minutes into the future
-                currentTime = satPass.getSetTime().future(11/1440.0);
-            } catch (Exception e) {
-                //todo: add a step method to move current JD forward or back in time
-                currentTime = currentTime.future(dt);
-            }
-            //todo: add comparison methods for JD
-        } while(currentTime.value() < endTime.value());
-        return passList;
+        return getPasses(SatelliteCache.getDefault().get(tle), startTime, endTime, geoPosition);
     }
 
+    /**
+     * Computes pass information for any and all passes over an observer for a given duration.
+     * @param tle           TLE of the satellite.
+     * @param startTime     Time to begin looking for passes.
+     * @param endTime       End of period to look for passes.
+     * @param observer      The observer of the passes.
+     * @return              The passes found in the window.
+     */
+    public static java.util.Vector<SatellitePass> getPasses(TLE tle, JD startTime, JD endTime, TopocentricObserver observer) {
+        return getPasses(SatelliteCache.getDefault().get(tle), startTime, endTime, observer);
+    }
+
+    /**
+     * Finds every pass of a satellite over a GeoPosition in a window of time. The horizon
+     * crossings are bracketed and refined with a {@link PassFinder}, which takes a few
+     * hundred propagations per day instead of one or more every ten seconds.
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param geoPosition   GeoPosition of the observer.
+     * @return              The passes found in the window.
+     */
     public static java.util.Vector<SatellitePass> getPasses(Satellite satellite, JD startTime, JD endTime, GeoPosition geoPosition) {
-        final double dt = 10 / 86400.0; // 10 seconds
+        return new PassFinder(satellite, geoPosition).getPasses(startTime, endTime);
+    }
+
+    /**
+     * Finds every pass of a satellite over an observer in a window of time, see
+     * #getPasses(Satellite, JD, JD, GeoPosition).
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param observer      The observer of the passes.
+     * @return              The passes found in the window.
+     */
+    public static java.util.Vector<SatellitePass> getPasses(Satellite satellite, JD startTime, JD endTime, TopocentricObserver observer) {
+        return new PassFinder(satellite, observer).getPasses(startTime, endTime);
+    }
+
+    /**
+     * Finds every pass of a satellite over a GeoPosition in a window of time that meets the
+     * conditions of a filter. The filter is applied during the search rather than after it,
+     * so the result is the same as #filterPasses on the passes from
+     * #getPasses(Satellite, JD, JD, GeoPosition) without refining the rejected passes.
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param geoPosition   GeoPosition of the observer.
+     * @param filter        Conditions the passes must meet.
+     * @return              The passes found in the window that meet the conditions.
+     */
+    public static java.util.Vector<SatellitePass> getPasses(Satellite satellite, JD startTime, JD endTime,
+                                                            GeoPosition geoPosition, PassFilter filter) {
+        return new PassFinder(satellite, geoPosition).getPasses(startTime, endTime, filter);
+    }
+
+    /**
+     * Finds every pass of a satellite over an observer in a window of time that meets the
+     * conditions of a filter, see #getPasses(Satellite, JD, JD, GeoPosition, PassFilter).
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param observer      The observer of the passes.
+     * @param filter        Conditions the passes must meet.
+     * @return              The passes found in the window that meet the conditions.
+     */
+    public static java.util.Vector<SatellitePass> getPasses(Satellite satellite, JD startTime, JD endTime,
+                                                            TopocentricObserver observer, PassFilter filter) {
+        return new PassFinder(satellite, observer).getPasses(startTime, endTime, filter);
+    }
+
+    /**
+     * Finds every visible pass of a satellite in a window of time, taking the darkness from
+     * night windows shared with the searches of other satellites over the same observer, see
+     * PassFinder#PassFinder(Propagator, NightWindows).
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param nightWindows  The night windows of the observer, ideally covering the window.
+     * @return              The passes found in the window.
+     */
+    public static java.util.Vector<SatellitePass> getPasses(Satellite satellite, JD startTime, JD endTime, NightWindows nightWindows) {
+        return new PassFinder(satellite, nightWindows).getPasses(startTime, endTime);
+    }
+
+    /**
+     * Finds the visible passes of a satellite over a GeoPosition lazily, in chronological
+     * order. The search stops as soon as the stream stops being consumed, so taking the
+     * first pass costs no more than finding it.
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param geoPosition   GeoPosition of the observer.
+     * @return              A sequential stream of the visible passes.
+     */
+    public static Stream<SatellitePass> streamPasses(Satellite satellite, JD startTime, JD endTime, GeoPosition geoPosition) {
+        return new PassFinder(satellite, geoPosition).stream(startTime, endTime);
+    }
+
+    /**
+     * Finds the visible passes of a satellite over an observer lazily, in chronological
+     * order, see #streamPasses(Satellite, JD, JD, GeoPosition).
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param observer      The observer of the passes.
+     * @return              A sequential stream of the visible passes.
+     */
+    public static Stream<SatellitePass> streamPasses(Satellite satellite, JD startTime, JD endTime, TopocentricObserver observer) {
+        return new PassFinder(satellite, observer).stream(startTime, endTime);
+    }
+
+    /**
+     * Finds every time a satellite is above a GeoPosition in a window of time, with the
+     * outcome of each pass instead of only the visible ones. Nothing is thrown for the passes
+     * that can't be seen.
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param geoPosition   GeoPosition of the observer.
+     * @return              The results of every pass in the window.
+     */
+    public static java.util.Vector<PassResult> getPassResults(Satellite satellite, JD startTime, JD endTime, GeoPosition geoPosition) {
+        return new PassFinder(satellite, geoPosition).getPassResults(startTime, endTime);
+    }
+
+    /**
+     * Finds every time a satellite is above an observer in a window of time, with the
+     * outcome of each pass, see #getPassResults(Satellite, JD, JD, GeoPosition).
+     * @param satellite     Satellite to find passes for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param observer      The observer of the passes.
+     * @return              The results of every pass in the window.
+     */
+    public static java.util.Vector<PassResult> getPassResults(Satellite satellite, JD startTime, JD endTime, TopocentricObserver observer) {
+        return new PassFinder(satellite, observer).getPassResults(startTime, endTime);
+    }
+
+    /**
+     * Finds every radio contact of a satellite with a GeoPosition in a window of time. This
+     * is the geometry of every pass, found without any of the solar and shadow work of
+     * #getPassResults, see PassFinder#getContacts.
+     * @param satellite     Satellite to find contacts for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param geoPosition   GeoPosition of the observer.
+     * @return              The contacts found in the window.
+     */
+    public static java.util.Vector<ContactPass> getContacts(Satellite satellite, JD startTime, JD endTime, GeoPosition geoPosition) {
+        return new PassFinder(satellite, geoPosition).getContacts(startTime, endTime);
+    }
+
+    /**
+     * Finds every radio contact of a satellite with an observer in a window of time, see
+     * #getContacts(Satellite, JD, JD, GeoPosition).
+     * @param satellite     Satellite to find contacts for.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param observer      The observer of the contacts.
+     * @return              The contacts found in the window.
+     */
+    public static java.util.Vector<ContactPass> getContacts(Satellite satellite, JD startTime, JD endTime, TopocentricObserver observer) {
+        return new PassFinder(satellite, observer).getContacts(startTime, endTime);
+    }
+
+    /**
+     * Finds every pass of a satellite over a GeoPosition in a window of time, screening with
+     * one propagator and refining with another. A PassFinder on @p screening finds the
+     * contacts over a horizon lowered by twice the largest position difference between the
+     * two propagators across the window, and a PassFinder on @p refinement searches only
+     * inside those contacts. Every pass of @p refinement is inside a contact, so the passes
+     * found this way are the same as those of PassFinder#getPasses on @p refinement, with the
+     * steps between the contacts taken by the screening propagator.
+     * @param screening     Cheap propagator used to skip the times the satellite is well
+     *                      below the horizon.
+     * @param refinement    Accurate propagator used to compute the passes.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param geoPosition   GeoPosition of the observer.
+     * @return              The passes found in the window.
+     */
+    public static java.util.Vector<SatellitePass> getPasses(Propagator screening, Propagator refinement,
+                                                            JD startTime, JD endTime, GeoPosition geoPosition) {
+        return getPasses(screening, refinement, startTime, endTime, new TopocentricObserver(geoPosition));
+    }
+
+    /**
+     * Finds every pass of a satellite over an observer in a window of time, screening with
+     * one propagator and refining with another, see
+     * #getPasses(Propagator, Propagator, JD, JD, GeoPosition).
+     * @param screening     Cheap propagator used to skip the times the satellite is well
+     *                      below the horizon.
+     * @param refinement    Accurate propagator used to compute the passes.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @param observer      The observer of the passes.
+     * @return              The passes found in the window.
+     */
+    public static java.util.Vector<SatellitePass> getPasses(Propagator screening, Propagator refinement,
+                                                            JD startTime, JD endTime, TopocentricObserver observer) {
+        double distance = getScreeningDistance(screening, refinement, startTime, endTime);
+        PassFinder refinementFinder = new PassFinder(refinement, new NightWindows(observer, startTime, endTime));
+        if (screening == refinement || Double.isInfinite(distance))
+            return refinementFinder.getPasses(startTime, endTime);
+        PassFinder screeningFinder = new PassFinder(screening, new TopocentricObserver(observer, -distance));
         java.util.Vector<SatellitePass> passList = new java.util.Vector<>();
-        JD currentTime = startTime;
-        SatellitePass satPass;
-        do {
-            try {
-                satPass = getPassInfo3(satellite, currentTime, geoPosition);
-                passList.add(satPass);
-                currentTime = satPass.getSetTime().future(11.0 / 1440.0);
-            } catch (Exception e) {
-                currentTime = currentTime.future(dt);
-            }
-        } while(currentTime.value() < endTime.value());
+        for (ContactPass contact : screeningFinder.getContacts(startTime, endTime))
+            passList.addAll(refinementFinder.getPasses(contact.getAOS().getEpoch(), contact.getLOS().getEpoch()));
         return passList;
     }
 
+    /** Number of times the screening and refinement propagators are compared across a window. */
+    private static final int SCREENING_SAMPLES = 16;
+
+    /**
+     * Computes how far below the horizon plane of an observer a screening propagator may
+     * place a satellite that the refinement propagator has above it, the largest position
+     * difference between the two over the window doubled for safety.
+     * @param screening     Cheap propagator used for screening.
+     * @param refinement    Accurate propagator the screening is checked against.
+     * @param startTime     Start of the window.
+     * @param endTime       End of the window.
+     * @return              The screening distance in meters, infinite if it is as large as
+     *                      the lowest altitude of the satellite and screens nothing out.
+     */
+    private static double getScreeningDistance(Propagator screening, Propagator refinement, JD startTime, JD endTime) {
+        if (screening == refinement) return 0.0;
+        double maxError = 0.0;
+        double minAltitude = Double.MAX_VALUE;
+        double span = endTime.difference(startTime);
+        for (int i = 0; i <= SCREENING_SAMPLES; i++) {
+            JD time = startTime.future(span * i / SCREENING_SAMPLES);
+            Vector position = refinement.getState(time).position();
+            maxError = Math.max(maxError, position.minus(screening.getState(time).position()).mag());
+            minAltitude = Math.min(minAltitude, position.mag() - OrbitalMath.EARTH_EQUITORIAL_RADIUS);
+        }
+        double distance = 2 * maxError;
+        return (distance < minAltitude) ? distance : Double.POSITIVE_INFINITY;
+    }
+
 //    public static java.util.Vector<SatellitePass> getPasses2(Satellite satellite, JD startTime, JD endTime, GeoPosition geoPosition) {
 //        final double dt = 10 / 86400.0; // 10 seconds
 //        java.util.Vector<SatellitePass> passList = new java.util.Vector<>();
@@ -536,28 +1098,8 @@ public class Tracker {
     public static java.util.Vector<SatellitePass> filterPasses(java.util.Vector<SatellitePass> passList, PassFilter filter) {
         Iterator<SatellitePass> iter = passList.iterator();
         while (iter.hasNext()) {
-            SatellitePass pass = iter.next();
-
-            switch (filter.getFilterType()) {
-                case MINIMUM_HEIGHT -> {
-                    if (pass.getMaxHeight() < filter.getMinimumHeight())
-//                        passList.remove(pass);
-                        iter.remove();
-                }
-                case MINIMUM_DURATION -> {
-                    if (pass.getDisappearTime().difference(pass.getRiseTime()) < filter.getMinimumDuration() / 1440.0)
-//                        passList.remove(pass);
-                        iter.remove();
-                }
-                case MINIMUM_HEIGHT_DURATION -> {
-                    if (pass.getMaxHeight() < filter.getMinimumHeight())
-//                        passList.remove(pass);
-                        iter.remove();
-                    else if (pass.getDisappearTime().difference(pass.getRiseTime()) < filter.getMinimumDuration() / 1440.0)
-//                        passList.remove(pass);
-                        iter.remove();
-                }
-            }
+            if (!filter.test(iter.next()))
+                iter.remove();
         }
 //        for (SatellitePass pass :
 //                passList) {
@@ -583,7 +1125,7 @@ public class Tracker {
 
     /**
      * Computes the right-ascension and declination of a satellite.
-     * @param satellite     TLE of the satellite.
+     * @param satellite     Propagator of the satellite, of any fidelity.
      * @param time          Time to find the satellite's position.
      * @param geoPosition   GeoPosition viewing the satellite.
      * @return              A Coordinates object where the latitude is the declination
@@ -591,7 +1133,7 @@ public class Tracker {
      */
 //    static public Coordinates getCelestialCoordinates(TLE tle, JD t, Coordinates coords) {
 //    static public CelestialCoordinates getCelestialCoordinates(TLE tle, JD t, GeoPosition geoPosition) {
-    static public CelestialCoordinates getCelestialCoordinates(Satellite satellite, JD time, GeoPosition geoPosition) {
+    static public CelestialCoordinates getCelestialCoordinates(Propagator satellite, JD time, GeoPosition geoPosition) {
 //        Vector pos = getSEZPosition(tle, t, geoPosition);
 //        Vector pos = getSEZPosition(satellite, time, geoPosition);
         Vector pos = Rotation.rotateFrom(
@@ -604,7 +1146,7 @@ public class Tracker {
                 getSEZPosition(satellite, time, geoPosition)
         );
         double ra = OrbitalMath.atan2(pos.y(), pos.x());
-        final double HOURS_PER_RADIAN = 24.0 * (2.0 * Math.PI);
+        final double HOURS_PER_RADIAN = 24.0 / (2.0 * Math.PI);
 //        if (ra < 0) ra += (2 * Math.PI);
 //        ra = (ra / (2 * Math.PI) * 24.0);
 //        return new Coordinates(
@@ -612,8 +1154,27 @@ public class Tracker {
 //                Math.toDegrees( Math.asin(pos.z() / pos.mag()) )
 //        );
         return new CelestialCoordinates(
-                ra * HOURS_PER_RADIAN,
-                Math.toDegrees( Math.asin(pos.z() / pos.mag()) )
+                Math.toDegrees( Math.asin(pos.z() / pos.mag()) ),
+                ra * HOURS_PER_RADIAN
+        );
+    }
+
+    /**
+     * Computes the topocentric right-ascension and declination of a satellite.
+     * @param satellite     Propagator of the satellite, of any fidelity.
+     * @param time          Time to find the satellite's position.
+     * @param observer      Observer viewing the satellite.
+     * @return              A Coordinates object where the latitude is the declination
+     *                      and the longitude is the right-ascension.
+     */
+    static public CelestialCoordinates getCelestialCoordinates(Propagator satellite, JD time, TopocentricObserver observer) {
+//        the SEZ position rotated back to the celestial frame is the position relative to the observer
+        Vector pos = satellite.getState(time).position().minus(observer.getToposPosition(time));
+        double ra = OrbitalMath.atan2(pos.y(), pos.x());
+        final double HOURS_PER_RADIAN = 24.0 / (2.0 * Math.PI);
+        return new CelestialCoordinates(
+                Math.toDegrees( Math.asin(pos.z() / pos.mag()) ),
+                ra * HOURS_PER_RADIAN
         );
     }
 
@@ -647,20 +1208,6 @@ public class Tracker {
 //        );
     }
 
-    /**
-     * Rotates and then translates said rotated reference frame.
-     * @param rot      Rotation from inertial to rotated reference frame.
-     * @param offset   Vector offset between reference frame origins, with respect to the
-     *                 inertial reference frame, pointing towards the translated origin.
-     * @param original Original vector to rotate and translate.
-     * @return  The rotated and translated vector.
-     */
-    static private Vector rotateTranslate(Matrix rot, Vector offset, Vector original) {
-        Vector rotOrig = rot.transpose().mult(original);
-        Vector rotOffset = rot.transpose().mult(offset);
-        return rotOrig.minus(rotOffset);
-    }
-
     /**
      * Epsilon value for determining if an altitude is considered above the horizon
      * (since it is difficult to find out exactly when altitude is equal to zero).
@@ -668,239 +1215,158 @@ public class Tracker {
     static private final double altitudeEpsilon = 0.01;
 
     /**
-     * Finds the time the satellite rises above the horizon. The method is recursive and uses a
-     * bifurcation method to 'squeeze' the bounds towards the correct value. If the satellite
-     * position at the upper bound is not above the horizon then there is not a valid pass
-     * at that time.
+     * Finds the time the satellite rises above the horizon. The method bisects the bounds in a
+     * loop to 'squeeze' them towards the correct value, until they are within the time
+     * tolerance of the budget or it has made its largest number of evaluations. If the
+     * satellite position at the upper bound is not above the horizon then there is not a
+     * valid pass at that time.
      * @param tle    TLE of the satellite.
      * @param lower  Lower bound of the possible rise times, should be below the actual rise time
-     *               or else the recursion will converge to this time and not be correct.
+     *               or else the search will converge to this time and not be correct.
      * @param upper  Upper bound of the possible rise times, should be during the overhead pass or
      *               else the pass will not be valid and an exception will be thrown.
-     * @param geoPosition
-     *               GeoPosition of the pass.
-     * @param rtn    Value of the previous computation passed to the next call, initial is excepted
-     *               to be {@code null}.
+     * @param observer
+     *               Observer of the pass.
+     * @param budget Accuracy and largest number of evaluations of the search.
      * @return  An AltAz object corresponding to the rise time of the interested pass.
      * @throws NoPassException
      *              Signals if the satellite never rises during the original lower-upper time frame.
      */
 //    static private AltAz riseSqueeze(TLE tle, JD lower, JD upper, Coordinates coords, AltAz rtn) {
-    static private AltAz riseSqueeze(TLE tle, JD lower, JD upper, GeoPosition geoPosition, AltAz rtn) {
-        if (upper.difference(lower) <= squeezeEpsilon) {
-            if (rtn.getAltitude() + altitudeEpsilon > 0) return rtn;
-            else throw new NoPassException("No overhead pass at " + upper.date());
-        }
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-//        AltAz altaz = Tracker.getAltAz(tle, biTime, coords);
-        AltAz altaz = Tracker.getAltAz(tle, biTime, geoPosition);
-//            if (altaz.getAltitude() > 0) return riseSqueeze(tle, lower, biTime, coords, altaz);
-        if (altaz.getAltitude() > 0) return riseSqueeze(tle, lower, biTime, geoPosition, altaz);
-//            else return riseSqueeze(tle, biTime, upper, coords, altaz);
-        else return riseSqueeze(tle, biTime, upper, geoPosition, altaz);
-    }
-    static private AltAz riseSqueeze2(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition) {
-        if (upper.difference(lower) <= squeezeEpsilon) {
-            AltAz altaz = getAltAz(satellite, lower, geoPosition);
-            if (altaz.getAltitude() + altitudeEpsilon > 0) return altaz;
-            else throw new NoPassException("No overhead pass at " + lower.date());
+    static private AltAz riseSqueeze(TLE tle, JD lower, JD upper, TopocentricObserver observer, SearchBudget budget) {
+        AltAz altaz = null;
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
+            altaz = Tracker.getAltAz(tle, biTime, observer);
+            if (altaz.getAltitude() > 0) upper = biTime;
+            else lower = biTime;
         }
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-        AltAz altaz = getAltAz(satellite, biTime, geoPosition);
-        if (altaz.getAltitude() > 0) return riseSqueeze2(satellite, lower, biTime, geoPosition);
-        else return riseSqueeze2(satellite, biTime, upper, geoPosition);
+        if (altaz != null && altaz.getAltitude() + altitudeEpsilon > 0) return altaz;
+        else throw new NoPassException("No overhead pass at " + upper.date());
+    }
+//    the squeezes for propagators return null instead of throwing, see #getPassResult, and
+//    refine the crossing from the elevation rate instead of bisecting
+    static private AltAz riseSqueeze2(EvaluationMemo memo, JD lower, JD upper, SearchBudget budget) {
+        if (memo.getAltAz(upper).getAltitude() + altitudeEpsilon <= 0) return null;
+        AltAz rise = new ElevationRefiner(memo, memo.getObserver(), budget).findCrossing(lower, upper, 0.0);
+        return (rise != null) ? rise : memo.getAltAz(lower);
     }
 
     /*
-     * Finds the time the satellite sets below the horizon. The method is recursive and uses a
-     * bifurcation method to 'squeeze' the bounds towards the correct value. {@link #riseSqueeze(TLE, JD, JD, GeoPosition, AltAz)}
+     * Finds the time the satellite sets below the horizon. The method bisects the bounds in a
+     * loop to 'squeeze' them towards the correct value. {@link #riseSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)}
      * should be called beforehand, since that method will detect if no pass occurs, as well as gives the best
-     * initial lower bounds to the recursion call.
+     * initial lower bounds to the search.
      * @param tle    TLE of the satellite.
      * @param lower  Lower bound of the possible set times, initial value should be the answer from
-     *               {@link #riseSqueeze(TLE, JD, JD, GeoPosition, AltAz)}.
+     *               {@link #riseSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)}.
      * @param upper  Upper bound of the possible set times, should be later than the actual set time or
-     *               else the recursion will converge to this time and not be correct.
-     * @param geoPosition
-     *               GeoPosition of the pass.
-     * @param rtn    Value of the previous computation passed to the next call, initial is excepted
-     *               to be {@code null}.
+     *               else the search will converge to this time and not be correct.
+     * @param observer
+     *               Observer of the pass.
+     * @param budget Accuracy and largest number of evaluations of the search.
      * @return  An AltAz object corresponding to the set time of the interested pass.
      */
 //    static private AltAz setSqueeze(TLE tle, JD lower, JD upper, Coordinates coords, AltAz rtn) {
-    static private AltAz setSqueeze(TLE tle, JD lower, JD upper, GeoPosition geoPosition, AltAz rtn) {
-        if (upper.difference(lower) <= squeezeEpsilon) return rtn;
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-//        AltAz altaz = Tracker.getAltAz(tle, biTime, coords);
-        AltAz altaz = Tracker.getAltAz(tle, biTime, geoPosition);
-//        if (altaz.getAltitude() > 0) return setSqueeze(tle, biTime, upper, coords, altaz);
-        if (altaz.getAltitude() > 0) return setSqueeze(tle, biTime, upper, geoPosition, altaz);
-//        else return setSqueeze(tle, lower, biTime, coords, altaz);
-        else return setSqueeze(tle, lower, biTime, geoPosition, altaz);
-    }
-    static private AltAz setSqueeze2(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition) {
-        if (upper.difference(lower) <= squeezeEpsilon)
-            return getAltAz(satellite, lower, geoPosition);
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-        AltAz altaz = getAltAz(satellite, biTime, geoPosition);
-        if (altaz.getAltitude() > 0) return setSqueeze2(satellite, biTime, upper, geoPosition);
-        else return setSqueeze2(satellite, lower, biTime, geoPosition);
+    static private AltAz setSqueeze(TLE tle, JD lower, JD upper, TopocentricObserver observer, SearchBudget budget) {
+        AltAz altaz = null;
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
+            altaz = Tracker.getAltAz(tle, biTime, observer);
+            if (altaz.getAltitude() > 0) lower = biTime;
+            else upper = biTime;
+        }
+        return (altaz != null) ? altaz : Tracker.getAltAz(tle, lower, observer);
+    }
+//    the lower bound must be above the horizon
+    static private AltAz setSqueeze2(EvaluationMemo memo, JD lower, JD upper, SearchBudget budget) {
+        AltAz set = new ElevationRefiner(memo, memo.getObserver(), budget).findCrossing(lower, upper, 0.0);
+        return (set != null) ? set : memo.getAltAz(upper);
     }
 
     /*
-     * Finds the time the satellite first becomes visible due to sunlight. The method is recursive and uses a
-     * bifurcation method to 'squeeze' the bounds towards the correct value. {@link #riseSqueeze(TLE, JD, JD, GeoPosition, AltAz)}
-     * and {@link #setSqueeze(TLE, JD, JD, GeoPosition, AltAz)} should provide the initial bounds.
+     * Finds the time the satellite first becomes visible due to sunlight. The method bisects the bounds
+     * in a loop to 'squeeze' them towards the correct value. {@link #riseSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)}
+     * and {@link #setSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)} should provide the initial bounds.
      * @param tle    TLE of the satellite.
      * @param lower  Lower bound of the possible first times, initial value should be the answer from
-     *               {@link #riseSqueeze(TLE, JD, JD, GeoPosition, AltAz)} and the method shouldn't
+     *               {@link #riseSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)} and the method shouldn't
      *               be used if a value wasn't returned.
      * @param upper  Upper bound of the possible first times, initial value should be the answer from
-     *               {@link #setSqueeze(TLE, JD, JD, GeoPosition, AltAz)}.
-     * @param geoPosition
-     *               GeoPosition of the pass.
+     *               {@link #setSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)}.
+     * @param observer
+     *               Observer of the pass.
+     * @param budget Accuracy and largest number of evaluations of the search.
      * @return  An AltAz object corresponding to the first visible time of the interested pass.
      * @throws NoLightException
      *              Signals if the satellite doesn't encounter any sunlight during a pass.
      */
 //    static private AltAz firstSqueeze(TLE tle, JD lower, JD upper, Coordinates geoPos) {
-    static private AltAz firstSqueeze(TLE tle, JD lower, JD upper, GeoPosition geoPosition) {
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-        Vector lowerSunPosition = Sun.position(lower);
-        Vector biSunPosition = Sun.position(biTime);
-        Vector upperSunPosition = Sun.position(upper);
-        Vector lowerSatPosition = SGP4.propagate(tle, lower).position();
-        Vector biSatPosition = SGP4.propagate(tle, biTime).position();
-        Vector upperSatPosition = SGP4.propagate(tle, upper).position();
-        boolean lowerEclipsed = Eclipse.isEclipsed(lowerSatPosition, lowerSunPosition);
-        boolean biEclipsed = Eclipse.isEclipsed(biSatPosition, biSunPosition);
-        boolean upperEclipsed = Eclipse.isEclipsed(upperSatPosition, upperSunPosition);
-
-        if (upper.difference(lower) <= squeezeEpsilon) {
-            if (!upperEclipsed) return Tracker.getAltAz(tle, upper, geoPosition);
-            else throw new NoLightException("Object is eclipsed at " + upper.value());
-        } else {
-            if (lowerEclipsed && biEclipsed && !upperEclipsed) return firstSqueeze(tle, biTime, upper, geoPosition);
-            else return firstSqueeze(tle, lower, biTime, geoPosition);
+    static private AltAz firstSqueeze(TLE tle, JD lower, JD upper, TopocentricObserver observer, SearchBudget budget) {
+//        the ends are checked once, each step only checks the middle
+        boolean lowerEclipsed = Eclipse.isEclipsed(SGP4.propagate(tle, lower).position(), Sun.position(lower));
+        boolean upperEclipsed = Eclipse.isEclipsed(SGP4.propagate(tle, upper).position(), Sun.position(upper));
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
+            boolean biEclipsed = Eclipse.isEclipsed(SGP4.propagate(tle, biTime).position(), Sun.position(biTime));
+            if (lowerEclipsed && biEclipsed && !upperEclipsed) lower = biTime;
+            else {
+                upper = biTime;
+                upperEclipsed = biEclipsed;
+            }
         }
+        if (!upperEclipsed) return Tracker.getAltAz(tle, upper, observer);
+        else throw new NoLightException("Object is eclipsed at " + upper.value());
     }
-    static private AltAz firstSqueeze2(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition) {
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-        Vector lowerSunPosition = Sun.position(lower);
-        Vector biSunPosition = Sun.position(biTime);
-        Vector upperSunPosition = Sun.position(upper);
-        Vector lowerSatPosition = satellite.getState(lower).position();
-        Vector biSatPosition = satellite.getState(biTime).position();
-        Vector upperSatPosition = satellite.getState(upper).position();
-        boolean lowerEclipsed = Eclipse.isEclipsed(lowerSatPosition, lowerSunPosition);
-        boolean biEclipsed = Eclipse.isEclipsed(biSatPosition, biSunPosition);
-        boolean upperEclipsed = Eclipse.isEclipsed(upperSatPosition, upperSunPosition);
-
-        if (upper.difference(lower) <= squeezeEpsilon) {
-            if (!upperEclipsed) return getAltAz(satellite, upper, geoPosition);
-            else throw new NoLightException("Object is eclipsed at " + upper.value());
-        } else {
-            if (lowerEclipsed && biEclipsed && !upperEclipsed) return firstSqueeze2(satellite, biTime, upper, geoPosition);
-            else return firstSqueeze2(satellite, lower, biTime, geoPosition);
+//    the memo keeps the ends of each step, so only the middle is propagated
+    static private AltAz firstSqueeze2(EvaluationMemo memo, JD lower, JD upper, SearchBudget budget) {
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
+            if (memo.isEclipsed(lower) && memo.isEclipsed(biTime) && !memo.isEclipsed(upper)) lower = biTime;
+            else upper = biTime;
         }
+        return (!memo.isEclipsed(upper)) ? memo.getAltAz(upper) : null;
     }
 
     /*
-     * Finds the time the satellite is last visible due to sunlight. The method is recursive and uses
-     * a bifurcation method to 'squeeze' the bounds towards the correct value. {@link #firstSqueeze(TLE, JD, JD, GeoPosition)}
+     * Finds the time the satellite is last visible due to sunlight. The method bisects the bounds in
+     * a loop to 'squeeze' them towards the correct value. {@link #firstSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)}
      * should be called before this method to ensure there is a valid lower bound for the time-frame
      * the satellite is lit, as well as provide the initial lower bound.
      * @param tle    The TLE of the satellite.
      * @param lower  Lower bound of the possible last times, initial value should be the answer from
-     *               {@link #firstSqueeze(TLE, JD, JD, GeoPosition)} and the method shouldn't be
+     *               {@link #firstSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)} and the method shouldn't be
      *               used if  a value wasn't returned.
      * @param upper  Upper bound of the possible last times, initial value should be the value returned
-     *               by {@link #setSqueeze(TLE, JD, JD, GeoPosition, AltAz)}.
-     * @param geoPosition
-     *               GeoPosition of the pass.
-     * @param rtn    Value of the previous computation passed to the next call, initial is excepted
-     *               to be {@code null}.
+     *               by {@link #setSqueeze(TLE, JD, JD, TopocentricObserver, SearchBudget)}.
+     * @param observer
+     *               Observer of the pass.
+     * @param budget Accuracy and largest number of evaluations of the search.
      * @return  An AltAz object corresponding to the last visible time of the interested pass.
      */
 //    static private AltAz lastSqueeze(TLE tle, JD lower, JD upper, Coordinates geoPos, AltAz rtn) {
-    static private AltAz lastSqueeze(TLE tle, JD lower, JD upper, GeoPosition geoPosition, AltAz rtn) {
-        if (upper.difference(lower) <= squeezeEpsilon) return rtn;
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-        Vector sunPosition = Sun.position(biTime);
-        Vector satPosition = SGP4.propagate(tle, biTime).position();
-        AltAz altaz = Tracker.getAltAz(
-                getSEZPosition(satPosition, biTime, geoPosition),
-                biTime
-        );
-        if (!Eclipse.isEclipsed(satPosition, sunPosition))
-            return lastSqueeze(tle, biTime, upper, geoPosition, altaz);
-        else return lastSqueeze(tle, lower, biTime, geoPosition, altaz);
-    }
-    static private AltAz lastSqueeze2(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition) {
-        if (upper.difference(lower) <= squeezeEpsilon)
-            return getAltAz(satellite, lower, geoPosition);
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-        Vector sunPosition = Sun.position(biTime);
-        Vector satPosition = satellite.getState(biTime).position();
-        AltAz altaz = getAltAz(
-                getSEZPosition(satPosition, biTime, geoPosition),
-                biTime
-        );
-        if (!Eclipse.isEclipsed(satPosition, sunPosition))
-            return lastSqueeze2(satellite, biTime, upper, geoPosition);
-        else return lastSqueeze2(satellite, lower, biTime, geoPosition);
-    }
-
-//    todo: there's gotta be a better/more accurate way to compute this
-    /**
-     * This method computes the time the satellite achieves its maximum altitude
-     * during a pass. Lower and Upper bounds should not be outside the bounds
-     * of the values returned by .
-     * @param tle
-     *               TLE of the satellite.
-     * @param lower  Lower bound of the possible max times.
-     * @param upper  Upper bound of the possible max times.
-     * @param geoPosition
-     *               GeoPosition of the pass.
-     * @param rtn    Value of the previous computation passed to the next call, initial is expected
-     *               to be {@code null}.
-     * @return  An AltAz object corresponding to the time the satellite achieves its
-     *          maximum altitude.
-     */
-    static AltAz maxSqueeze(TLE tle, JD lower, JD upper, GeoPosition geoPosition, AltAz rtn) {
-//    static AltAz maxSqueeze(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition, AltAz rtn) {
-        if (upper.difference(lower) <= squeezeEpsilon) return rtn;
-        AltAz lowerAltAz = Tracker.getAltAz(tle, lower, geoPosition);
-        JD biTime = new JD((lower.value() + upper.value()) / 2.0);
-        AltAz biAltAz = Tracker.getAltAz(tle, biTime, geoPosition);
-        AltAz upperAltAz = Tracker.getAltAz(tle, upper, geoPosition);
-        if (biAltAz.getAltitude() >= lowerAltAz.getAltitude()) {
-            // path goes up and then down
-            if (biAltAz.getAltitude() >= upperAltAz.getAltitude()) {
-                if (lowerAltAz.getAltitude() >= upperAltAz.getAltitude()) return maxSqueeze(tle, lower, biTime, geoPosition, biAltAz);
-                else return maxSqueeze(tle, biTime, upper, geoPosition, biAltAz);
-            }
-            // only traveling up
-            else return maxSqueeze(tle, biTime, upper, geoPosition, biAltAz);
+    static private AltAz lastSqueeze(TLE tle, JD lower, JD upper, TopocentricObserver observer, SearchBudget budget) {
+        AltAz altaz = null;
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
+            Vector sunPosition = Sun.position(biTime);
+            Vector satPosition = SGP4.propagate(tle, biTime).position();
+            altaz = Tracker.getAltAz(
+                    getSEZPosition(satPosition, biTime, observer),
+                    biTime
+            );
+            if (!Eclipse.isEclipsed(satPosition, sunPosition)) lower = biTime;
+            else upper = biTime;
         }
-        // only traveling down
-        else return maxSqueeze(tle, lower, biTime, geoPosition, biAltAz);
-    }
-    static AltAz maxSqueeze2(Satellite satellite, JD lower, JD upper, GeoPosition geoPosition) {
-        if (upper.difference(lower) <= squeezeEpsilon)
-            return getAltAz(satellite, lower, geoPosition);
-        AltAz lowerAltAz = getAltAz(satellite, lower, geoPosition);
-        JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
-        AltAz biAltAz = getAltAz(satellite, biTime, geoPosition);
-        AltAz upperAltAz = getAltAz(satellite, upper, geoPosition);
-        if (biAltAz.getAltitude() >= lowerAltAz.getAltitude()) {
-            if (biAltAz.getAltitude() >= upperAltAz.getAltitude()) {
-                if (lowerAltAz.getAltitude() >= upperAltAz.getAltitude()) return maxSqueeze2(satellite, lower, biTime, geoPosition);
-                else return maxSqueeze2(satellite, biTime, upper, geoPosition);
-            }
-            else return maxSqueeze2(satellite, biTime, upper, geoPosition);
+        return (altaz != null) ? altaz : Tracker.getAltAz(tle, lower, observer);
+    }
+    static private AltAz lastSqueeze2(EvaluationMemo memo, JD lower, JD upper, SearchBudget budget) {
+        for (int i = 0; i < budget.getMaxEvaluations() && upper.difference(lower) > budget.getTimeToleranceDays(); i++) {
+            JD biTime = lower.future((upper.value() - lower.value()) / 2.0);
+            if (!memo.isEclipsed(biTime)) lower = biTime;
+            else upper = biTime;
         }
-        else return maxSqueeze2(satellite, lower, biTime, geoPosition);
+        return memo.getAltAz(lower);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package test.math;
+
+import com.qbizzle.math.ChebyshevSegments;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChebyshevSegmentsTest {
+//    a circle of radius 1000 and its derivative
+    final ChebyshevSegments.Sampler circle = (times, values) -> {
+        for (int j = 0; j < times.length; j++) {
+            values[0][j] = 1000.0 * Math.cos(times[j]);
+            values[1][j] = 1000.0 * Math.sin(times[j]);
+            values[2][j] = 0.0;
+            values[3][j] = -1000.0 * Math.sin(times[j]);
+            values[4][j] = 1000.0 * Math.cos(times[j]);
+            values[5][j] = 0.0;
+        }
+    };
+
+    @Test
+    @DisplayName("Segment fit test")
+    public void fitTest() {
+        ChebyshevSegments segments = ChebyshevSegments.fit(circle, 6, 0.0, 20.0, 1e-6, 8, 10.0, 0.01);
+        double[] out = new double[6];
+        double[][] expected = new double[6][1];
+        for (double t = 0.0; t <= 20.0; t += 0.0137) {
+            segments.evaluate(t, out);
+            circle.sample(new double[]{t}, expected);
+            for (int c = 0; c < 6; c++)
+                assertEquals(expected[c][0], out[c], 1e-6);
+        }
+//        the initial segments of length 10 miss the bound, so they were split
+        assertAll(() -> assertTrue(segments.getSegmentCount() > 2),
+                () -> assertTrue(segments.getMaxError(0) <= 1e-6),
+                () -> assertTrue(segments.getMaxError(1) > 0.0),
+                () -> assertEquals(segments.getSegmentCount() * 6 * 9, segments.getCoefficientCount()),
+                () -> assertEquals(0.0, segments.getStart()),
+                () -> assertEquals(20.0, segments.getEnd()));
+    }
+
+    @Test
+    @DisplayName("Segment span test")
+    public void spanTest() {
+        ChebyshevSegments segments = ChebyshevSegments.fit(circle, 6, 1.0, 2.0, 1.0, 4, 0.5, 0.1);
+        assertAll(() -> assertTrue(segments.contains(1.0)),
+                () -> assertTrue(segments.contains(2.0)),
+                () -> assertFalse(segments.contains(2.5)),
+                () -> assertThrows(IllegalArgumentException.class, () -> segments.evaluate(0.5, new double[6])),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> ChebyshevSegments.fit(circle, 6, 2.0, 1.0, 1.0, 4, 0.5, 0.1)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> ChebyshevSegments.fit(circle, 4, 1.0, 2.0, 1.0, 4, 0.5, 0.1)));
+    }
+
+}
@@ -0,0 +1,107 @@
+package test.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeepSpaceTest {
+//    verification cases from "Revisiting Spacetrack Report #3" (Vallado et al. 2006), the
+//    tolerance allows for our slightly different Greenwich sidereal time model
+    String strSDP4TLE = "SDP4 TEST               \n" +
+            "1 11801U 80230A   80230.29629788  .01431103  00000-0  14311-1 0    13\n" +
+            "2 11801  46.7916 230.4354 7318036  47.4722  10.4117  2.28537848    13";
+    String strMolniyaTLE = "MOLNIYA 2-14            \n" +
+            "1 08195U 75081A   06176.33215444  .00000099  00000-0  11873-3 0   813\n" +
+            "2 08195  64.1586 279.0717 6877146 264.7651  20.2257  2.00491383225656";
+    String strGEOTLE = "GEO                     \n" +
+            "1 28626U 05008A   06176.46683397 -.00000205  00000-0  10000-3 0  2190\n" +
+            "2 28626   0.0019 286.9433 0000335  13.7918  55.6504  1.00270176  4891";
+    final double positionDelta = 10.0;
+    final double velocityDelta = 1e-3;
+
+    @Test
+    @DisplayName("SDP4 non-resonant test")
+    public void nonResonantTest() {
+        Satellite satellite = new Satellite(new TLE(strSDP4TLE));
+        assertState(satellite.getState(0.0),
+                7473.37102491, 428.94748312, 5828.74846783, 5.107155391, 6.444680305, -0.186133297);
+        assertState(satellite.getState(360.0),
+                -3305.22148694, 32410.84323331, -24697.16974954, -1.301137319, -1.151315600, -0.283335823);
+        assertState(satellite.getState(720.0),
+                14271.29083858, 24110.44309009, -4725.76320143, -0.320504528, 2.679841539, -2.084054355);
+    }
+
+    @Test
+    @DisplayName("SDP4 half day resonance test")
+    public void halfDayResonanceTest() {
+        Satellite satellite = new Satellite(new TLE(strMolniyaTLE));
+        assertState(satellite.getState(0.0),
+                2349.89483350, -14785.93811562, 0.02119378, 2.721488096, -3.256811655, 4.498416672);
+        assertState(satellite.getState(120.0),
+                15223.91713658, -17852.95881986, 25280.39558582, 1.079041732, 0.875187372, 2.485682813);
+    }
+
+    @Test
+    @DisplayName("SDP4 synchronous resonance test")
+    public void synchronousResonanceTest() {
+        Satellite satellite = new Satellite(new TLE(strGEOTLE));
+        assertState(satellite.getState(0.0),
+                42080.71852213, -2646.86387436, 0.81851294, 0.193105177, 3.068688251, 0.000438449);
+    }
+
+    @Test
+    @DisplayName("Resonance checkpoint limit test")
+    public void checkpointLimitTest() {
+//        a year each way is far more steps than checkpoints, thinning them must not change any state
+        TLE tle = new TLE(strMolniyaTLE);
+        Satellite satellite = new Satellite(tle);
+        for (double t = 0; t <= 525600.0; t += 5000.0) {
+            satellite.getState(t);
+            satellite.getState(-t);
+        }
+        for (double t : new double[]{14400.0, -14400.0, 100000.0, 525000.0}) {
+            StateVectors expected = new Satellite(tle).getState(t);
+            StateVectors actual = satellite.getState(t);
+            assertAll(() -> assertEquals(expected.position().x(), actual.position().x()),
+                    () -> assertEquals(expected.position().y(), actual.position().y()),
+                    () -> assertEquals(expected.position().z(), actual.position().z()));
+        }
+    }
+
+    @Test
+    @DisplayName("Resonance checkpoint test")
+    public void checkpointTest() {
+//        resuming from a checkpoint must give exactly the same state as integrating from epoch
+        for (String strTLE : new String[]{strMolniyaTLE, strGEOTLE}) {
+            TLE tle = new TLE(strTLE);
+            StateVectors forward = new Satellite(tle).getState(14400.0);
+            StateVectors backward = new Satellite(tle).getState(-14400.0);
+            Satellite satellite = new Satellite(tle);
+            satellite.getState(30000.0);
+            satellite.getState(-30000.0);
+            StateVectors resumedForward = satellite.getState(14400.0);
+            StateVectors resumedBackward = satellite.getState(-14400.0);
+            assertAll(() -> assertEquals(forward.position().x(), resumedForward.position().x()),
+                    () -> assertEquals(forward.position().y(), resumedForward.position().y()),
+                    () -> assertEquals(forward.position().z(), resumedForward.position().z()),
+                    () -> assertEquals(backward.position().x(), resumedBackward.position().x()),
+                    () -> assertEquals(backward.position().y(), resumedBackward.position().y()),
+                    () -> assertEquals(backward.position().z(), resumedBackward.position().z()));
+        }
+    }
+
+    private void assertState(StateVectors state, double x, double y, double z, double vx, double vy, double vz) {
+        assertAll(() -> assertEquals(x * 1000, state.position().x(), positionDelta),
+                () -> assertEquals(y * 1000, state.position().y(), positionDelta),
+                () -> assertEquals(z * 1000, state.position().z(), positionDelta),
+                () -> assertEquals(vx * 1000, state.velocity().x(), velocityDelta),
+                () -> assertEquals(vy * 1000, state.velocity().y(), velocityDelta),
+                () -> assertEquals(vz * 1000, state.velocity().z(), velocityDelta));
+    }
+
+}
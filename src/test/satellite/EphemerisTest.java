@@ -0,0 +1,65 @@
+package test.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Ephemeris;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.satellite.SteppingPropagator;
+import com.qbizzle.time.JD;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EphemerisTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    Satellite satellite = new Satellite(new TLE(strLEOTLE));
+    JD epoch = new JD(satellite.getTle());
+
+    @Test
+    @DisplayName("Ephemeris error bound test")
+    public void errorBoundTest() {
+        final double tolerance = 1.0;
+        Ephemeris ephemeris = Ephemeris.build(satellite, epoch, epoch.future(1.0), tolerance);
+        SteppingPropagator stepper = new SteppingPropagator(satellite);
+        double maxError = 0, maxSGP4Error = 0;
+        for (int i = 0; i <= 14400; i++) {
+            double dt = i / 10.0;
+            StateVectors expected = stepper.getState(dt);
+            StateVectors actual = ephemeris.getState(dt);
+            maxError = Math.max(maxError, actual.position().minus(expected.position()).mag());
+            maxSGP4Error = Math.max(maxSGP4Error, actual.position().minus(satellite.getState(dt).position()).mag());
+        }
+        final double error = maxError, sgp4Error = maxSGP4Error;
+//        the bound is relative to the converged Kepler solution, plain SGP4 is within a few meters of it
+        assertAll(() -> assertTrue(error < tolerance),
+                () -> assertTrue(sgp4Error < tolerance + 10.0),
+                () -> assertTrue(ephemeris.getMaxPositionError() < tolerance),
+                () -> assertTrue(ephemeris.getSegmentCount() > 0));
+    }
+
+    @Test
+    @DisplayName("Ephemeris bisection test")
+    public void bisectionTest() {
+//        a whole day in one low degree segment can't meet a 1 meter bound
+        Ephemeris ephemeris = Ephemeris.build(satellite, epoch, epoch.future(1.0), 1.0, 8, 1440.0);
+        assertAll(() -> assertTrue(ephemeris.getSegmentCount() > 1),
+                () -> assertTrue(ephemeris.getMaxPositionError() < 1.0));
+    }
+
+    @Test
+    @DisplayName("Ephemeris span test")
+    public void spanTest() {
+        Ephemeris ephemeris = Ephemeris.build(satellite, epoch, epoch.future(0.5), 1.0);
+        assertAll(() -> assertTrue(ephemeris.contains(epoch.future(0.25))),
+                () -> assertFalse(ephemeris.contains(epoch.future(0.75))),
+                () -> assertThrows(IllegalArgumentException.class, () -> ephemeris.getState(epoch.future(0.75))),
+                () -> assertThrows(IllegalArgumentException.class, () -> Ephemeris.build(satellite, epoch, epoch, 1.0)));
+    }
+
+}
@@ -0,0 +1,79 @@
+package test.satellite;
+
+import com.qbizzle.math.FastMath;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.FastMathPropagator;
+import com.qbizzle.satellite.Satellite;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastMathPropagatorTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    String strTestTLE = "SGP4 TEST\n" +
+            "1 88888U 80275A   80275.98708465  .00073094  13844-3  66816-4 0    87\n" +
+            "2 88888  72.8435 115.9689 0086731  52.6988 110.5714 16.05824518  1058";
+
+    @Test
+    @DisplayName("Trigonometric error bound test")
+    public void trigonometricErrorTest() {
+        double[] sinCos = new double[2];
+        double maxError = 0;
+        for (double x = -50.0; x <= 50.0; x += 0.001) {
+            FastMath.sinCos(x, sinCos);
+            maxError = Math.max(maxError, Math.abs(FastMath.sin(x) - Math.sin(x)));
+            maxError = Math.max(maxError, Math.abs(FastMath.cos(x) - Math.cos(x)));
+            maxError = Math.max(maxError, Math.abs(sinCos[0] - Math.sin(x)));
+            maxError = Math.max(maxError, Math.abs(sinCos[1] - Math.cos(x)));
+        }
+        assertTrue(maxError <= FastMath.MAX_ERROR);
+    }
+
+    @Test
+    @DisplayName("Agreement with exact kernel test")
+    public void exactAgreementTest() {
+        for (String strTLE : new String[]{strLEOTLE, strTestTLE}) {
+            Satellite satellite = new Satellite(new TLE(strTLE));
+            FastMathPropagator propagator = new FastMathPropagator(satellite, 0);
+            for (int i = -1440; i <= 1440; i += 11) {
+                StateVectors expected = satellite.getState(i);
+                StateVectors actual = propagator.getState(i);
+                assertAll(() -> assertEquals(0.0, actual.position().minus(expected.position()).mag(), 0.01),
+                        () -> assertEquals(0.0, actual.velocity().minus(expected.velocity()).mag(), 1e-5));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Accuracy report test")
+    public void accuracyReportTest() {
+        FastMathPropagator propagator = new FastMathPropagator(new Satellite(new TLE(strLEOTLE)), 10);
+        int count = 100;
+        double[] x = new double[count], y = new double[count], z = new double[count];
+        double[] vx = new double[count], vy = new double[count], vz = new double[count];
+        propagator.getStates(0.0, 1.0, count, x, y, z, vx, vy, vz);
+        assertAll(() -> assertEquals(100, propagator.getSampleCount()),
+                () -> assertEquals(10, propagator.getCheckCount()),
+                () -> assertTrue(propagator.getMaxPositionError() < 0.01),
+                () -> assertTrue(propagator.getMeanPositionError() <= propagator.getMaxPositionError()));
+        propagator.resetStatistics();
+        assertAll(() -> assertEquals(0, propagator.getSampleCount()),
+                () -> assertEquals(0, propagator.getCheckCount()),
+                () -> assertEquals(0.0, propagator.getMaxPositionError()));
+    }
+
+    @Test
+    @DisplayName("Negative check interval test")
+    public void negativeCheckIntervalTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        assertThrows(IllegalArgumentException.class, () -> new FastMathPropagator(satellite, -1));
+    }
+
+}
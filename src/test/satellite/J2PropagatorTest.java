@@ -0,0 +1,70 @@
+package test.satellite;
+
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.COE;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Ephemeris;
+import com.qbizzle.satellite.FastMathPropagator;
+import com.qbizzle.satellite.J2Propagator;
+import com.qbizzle.satellite.Propagator;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.satellite.StateCache;
+import com.qbizzle.time.JD;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class J2PropagatorTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    TLE tle = new TLE(strLEOTLE);
+
+    @Test
+    @DisplayName("Agreement with SGP4 test")
+    public void sgp4AgreementTest() {
+        Satellite satellite = new Satellite(tle);
+        J2Propagator propagator = new J2Propagator(tle);
+        double maxError = 0;
+        for (int i = 0; i <= 3 * 1440; i += 7) {
+            StateVectors expected = satellite.getState(i);
+            StateVectors actual = propagator.getState(i);
+            maxError = Math.max(maxError, actual.position().minus(expected.position()).mag());
+        }
+//        no periodic terms, so within the size of the SGP4 short periodics, 13.1 km over these three days
+        assertTrue(maxError < 14000.0);
+    }
+
+    @Test
+    @DisplayName("Elements test")
+    public void elementsTest() {
+        J2Propagator propagator = new J2Propagator(tle);
+        JD time = new JD(tle).future(1.23456);
+        COE coe = propagator.getElements(time);
+        Vector position = propagator.getState(time).position();
+//        node regresses about 5 degrees a day at the inclination of the ISS
+        double nodeChange = coe.lan - tle.lan();
+        assertAll(() -> assertEquals(-5.0 * 1.23456, nodeChange, 0.5),
+                () -> assertEquals(tle.inclination(), coe.inc),
+                () -> assertEquals(coe.sma * (1 - coe.ecc * coe.ecc) / (1 + coe.ecc * Math.cos(Math.toRadians(coe.ta))),
+                        position.mag(), 1.0));
+    }
+
+    @Test
+    @DisplayName("Fidelity tier test")
+    public void fidelityTest() {
+        Satellite satellite = new Satellite(tle);
+        JD epoch = new JD(tle);
+        assertAll(() -> assertEquals(Propagator.Fidelity.SCREENING, new J2Propagator(tle).getFidelity()),
+                () -> assertEquals(Propagator.Fidelity.INTERPOLATED, new StateCache(new Satellite(tle)).getFidelity()),
+                () -> assertEquals(Propagator.Fidelity.INTERPOLATED,
+                        Ephemeris.build(satellite, epoch, epoch.future(0.1), 1.0).getFidelity()),
+                () -> assertEquals(Propagator.Fidelity.REDUCED, new FastMathPropagator(satellite).getFidelity()),
+                () -> assertEquals(Propagator.Fidelity.FULL, satellite.getFidelity()));
+    }
+
+}
@@ -0,0 +1,114 @@
+package test.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.PropagationContext;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PropagationContextTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+
+    @Test
+    @DisplayName("Context construction test")
+    public void constructionTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PropagationContext context = new PropagationContext(satellite);
+        assertAll(() -> assertSame(satellite, context.getSatellite()),
+                () -> assertNull(context.getRecentTime()),
+                () -> assertNull(context.getRecentState()));
+    }
+
+    @Test
+    @DisplayName("Context recent state test")
+    public void recentStateTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PropagationContext context = new PropagationContext(satellite);
+        StateVectors state = context.getState(startTime);
+        assertAll(() -> assertEquals(satellite.getState(startTime), state),
+                () -> assertSame(startTime, context.getRecentTime()),
+                () -> assertSame(state, context.getRecentState()),
+                () -> assertSame(state, context.getState(new JD(startTime.value()))));
+
+        JD later = startTime.future(0.01);
+        StateVectors laterState = context.getState(later);
+        assertAll(() -> assertNotSame(state, laterState),
+                () -> assertEquals(satellite.getState(later), laterState),
+                () -> assertSame(later, context.getRecentTime()));
+
+        StateVectors epochState = context.getState(90.0);
+        assertAll(() -> assertEquals(satellite.getState(90.0), epochState),
+                () -> assertSame(epochState, context.getState(90.0)),
+                () -> assertSame(epochState, context.getRecentState()));
+    }
+
+    @Test
+    @DisplayName("Shared satellite test")
+    public void sharedSatelliteTest() throws Exception {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+//        contexts don't see each other's results, the satellite keeps no state of its own
+        PropagationContext first = new PropagationContext(satellite);
+        PropagationContext second = new PropagationContext(satellite);
+        first.getState(startTime);
+        assertNull(second.getRecentState());
+        second.getState(startTime.future(0.5));
+        assertSame(startTime, first.getRecentTime());
+
+        int count = 2000;
+        StateVectors[] expected = new StateVectors[count];
+        for (int i = 0; i < count; i++)
+            expected[i] = satellite.getState(startTime.future(i / 1440.0));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                results.add(executor.submit(() -> {
+                    PropagationContext context = new PropagationContext(satellite);
+                    boolean matches = true;
+                    for (int i = 0; i < count; i++) {
+                        int index = (i * 7 + offset * 501) % count;
+                        matches &= expected[index].equals(context.getState(startTime.future(index / 1440.0)));
+                    }
+                    return matches;
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertTrue(result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Satellite immutability test")
+    public void immutabilityTest() {
+        for (Class<?> type = Satellite.class; type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()))
+                    assertTrue(Modifier.isFinal(field.getModifiers()), type.getSimpleName() + "." + field.getName());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package test.satellite;
+
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.satellite.SatelliteCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SatelliteCacheTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    String strNewerLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22023.50000000  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    String strHighLEOTLE = "HST                     \n" +
+            "1 20580U 90037B   22021.81807870  .00000962  00000+0  46993-4 0  9993\n" +
+            "2 20580  28.4696 136.3934 0002382 146.9963 307.3716 15.10128413547210";
+
+    @Test
+    @DisplayName("Hit and miss counter test")
+    public void hitMissTest() {
+        SatelliteCache cache = new SatelliteCache(4);
+        Satellite first = cache.get(new TLE(strLEOTLE));
+        Satellite second = cache.get(new TLE(strLEOTLE));
+        Satellite newer = cache.get(new TLE(strNewerLEOTLE));
+        assertAll(() -> assertSame(first, second),
+                () -> assertNotSame(first, newer),
+                () -> assertEquals(1, cache.getHits()),
+                () -> assertEquals(2, cache.getMisses()),
+                () -> assertEquals(2, cache.size()));
+    }
+
+    @Test
+    @DisplayName("Least recently used eviction test")
+    public void evictionTest() {
+        SatelliteCache cache = new SatelliteCache(2);
+        Satellite iss = cache.get(new TLE(strLEOTLE));
+        cache.get(new TLE(strHighLEOTLE));
+        cache.get(new TLE(strLEOTLE));
+//        HST is now the least recently used and is evicted
+        cache.get(new TLE(strNewerLEOTLE));
+        assertSame(iss, cache.get(new TLE(strLEOTLE)));
+        cache.get(new TLE(strHighLEOTLE));
+        assertAll(() -> assertEquals(2, cache.size()),
+                () -> assertEquals(2, cache.getHits()),
+                () -> assertEquals(4, cache.getMisses()));
+    }
+
+}
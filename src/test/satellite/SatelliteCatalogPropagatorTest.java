@@ -0,0 +1,48 @@
+package test.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.satellite.SatelliteCatalogPropagator;
+import com.qbizzle.time.JD;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SatelliteCatalogPropagatorTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    String strHighLEOTLE = "HST                     \n" +
+            "1 20580U 90037B   22021.81807870  .00000962  00000+0  46993-4 0  9993\n" +
+            "2 20580  28.4696 136.3934 0002382 146.9963 307.3716 15.10128413547210";
+
+    @Test
+    @DisplayName("Catalog propagation matches single satellite propagation")
+    public void catalogStatesTest() {
+        List<Satellite> catalog = List.of(
+                new Satellite(new TLE(strLEOTLE)),
+                new Satellite(new TLE(strHighLEOTLE))
+        );
+        SatelliteCatalogPropagator propagator = new SatelliteCatalogPropagator(catalog);
+        double[] x = new double[2], y = new double[2], z = new double[2];
+        double[] vx = new double[2], vy = new double[2], vz = new double[2];
+//        the second pass is the same code as Satellite, and the columns are reused between snapshots
+        for (JD time : new JD[]{new JD(1, 24, 2022, 3, 15, 0), new JD(1, 20, 2022, 22, 40, 0)}) {
+            propagator.propagate(time, x, y, z, vx, vy, vz);
+            for (int i = 0; i < catalog.size(); i++) {
+                StateVectors state = catalog.get(i).getState(time);
+                assertEquals(state.position().x(), x[i]);
+                assertEquals(state.position().y(), y[i]);
+                assertEquals(state.position().z(), z[i]);
+                assertEquals(state.velocity().x(), vx[i]);
+                assertEquals(state.velocity().y(), vy[i]);
+                assertEquals(state.velocity().z(), vz[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package test.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SatelliteTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    String strTestTLE = "SGP4 TEST\n" +
+            "1 88888U 80275A   80275.98708465  .00073094  13844-3  66816-4 0    87\n" +
+            "2 88888  72.8435 115.9689 0086731  52.6988 110.5714 16.05824518  1058";
+    Satellite satellite = new Satellite(new TLE(strLEOTLE));
+
+    @Test
+    @DisplayName("Spacetrack Report #3 SGP4 test")
+    public void spacetrackReportTest() {
+//        the published near earth test case, in kilometers and kilometers / second. The drag term
+//        coef1 is coef / psisq^3.5, raising the whole quotient to the power is 2 km off at 360 minutes
+        Satellite testSatellite = new Satellite(new TLE(strTestTLE));
+        double[][] expected = {
+                {0.0, 2328.97048951, -5995.22076416, 1719.97067261, 2.91207230, -0.98341546, -7.09081703},
+                {360.0, 2456.10705566, -6071.93853760, 1222.89727783, 2.67938992, -0.44829041, -7.22879231},
+                {720.0, 2567.56195068, -6112.50384522, 713.96397400, 2.44024599, 0.09810869, -7.31995916},
+                {1080.0, 2663.09078980, -6115.48229980, 196.39640427, 2.19611958, 0.65241995, -7.36282432},
+                {1440.0, 2742.55133057, -6079.67144775, -326.38095856, 1.94850229, 1.21106251, -7.35619372}
+        };
+        for (double[] row : expected) {
+            StateVectors state = testSatellite.getState(row[0]);
+            assertAll(() -> assertEquals(row[1] * 1000.0, state.position().x(), 12.0),
+                    () -> assertEquals(row[2] * 1000.0, state.position().y(), 12.0),
+                    () -> assertEquals(row[3] * 1000.0, state.position().z(), 12.0),
+                    () -> assertEquals(row[4] * 1000.0, state.velocity().x(), 0.015),
+                    () -> assertEquals(row[5] * 1000.0, state.velocity().y(), 0.015),
+                    () -> assertEquals(row[6] * 1000.0, state.velocity().z(), 0.015));
+        }
+    }
+
+    @Test
+    @DisplayName("Time grid batch propagation test")
+    public void gridStatesTest() {
+        final int count = 50;
+        double[] x = new double[count], y = new double[count], z = new double[count];
+        double[] vx = new double[count], vy = new double[count], vz = new double[count];
+        satellite.getStates(-30.0, 7.5, count, x, y, z, vx, vy, vz);
+        for (int i = 0; i < count; i++) {
+            StateVectors state = satellite.getState(-30.0 + 7.5 * i);
+            final int index = i;
+            assertAll(() -> assertEquals(state.position().x(), x[index]),
+                    () -> assertEquals(state.position().y(), y[index]),
+                    () -> assertEquals(state.position().z(), z[index]),
+                    () -> assertEquals(state.velocity().x(), vx[index]),
+                    () -> assertEquals(state.velocity().y(), vy[index]),
+                    () -> assertEquals(state.velocity().z(), vz[index]));
+        }
+    }
+
+    @Test
+    @DisplayName("Time array batch propagation test")
+    public void arrayStatesTest() {
+        double[] times = {0.0, 1.0, 90.0, 1440.0, -720.0};
+        double[] x = new double[5], y = new double[5], z = new double[5];
+        double[] vx = new double[5], vy = new double[5], vz = new double[5];
+        satellite.getStates(times, x, y, z, vx, vy, vz);
+        for (int i = 0; i < times.length; i++) {
+            StateVectors state = satellite.getState(times[i]);
+            assertEquals(state.position().x(), x[i]);
+            assertEquals(state.position().y(), y[i]);
+            assertEquals(state.position().z(), z[i]);
+            assertEquals(state.velocity().x(), vx[i]);
+            assertEquals(state.velocity().y(), vy[i]);
+            assertEquals(state.velocity().z(), vz[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Batch propagation array length test")
+    public void statesLengthTest() {
+        double[] small = new double[2], large = new double[4];
+        assertThrows(IllegalArgumentException.class,
+                () -> satellite.getStates(0.0, 1.0, 4, large, large, large, large, large, small));
+    }
+
+}
@@ -0,0 +1,73 @@
+package test.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.satellite.StateCache;
+import com.qbizzle.time.JD;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateCacheTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    Satellite satellite = new Satellite(new TLE(strLEOTLE));
+    JD epoch = new JD(satellite.getTle());
+
+    @Test
+    @DisplayName("Interpolation error bound test")
+    public void errorBoundTest() {
+//        SGP4 stops Kepler's equation within 1e-6 radians, the cache can straddle the steps that leaves
+        double keplerSteps = 2 * 1e-6 * 6.8e6;
+        for (double step : new double[]{30.0, 60.0}) {
+            StateCache cache = new StateCache(satellite, step, StateCache.DEFAULT_WINDOW);
+            double maxError = 0, maxNodeError = 0;
+            for (int i = 0; i < 20000; i++) {
+                JD time = epoch.future(i * 0.0173 / 1440.0);
+                StateVectors expected = satellite.getState(time);
+                StateVectors actual = cache.getState(time);
+                maxError = Math.max(maxError, actual.position().minus(expected.position()).mag());
+            }
+//            at the nodes the cache returns the states of the satellite
+            for (int i = 0; i < 100; i++) {
+                JD node = new JD(JD.J2000 + Math.ceil((epoch.value() - JD.J2000) * 86400.0 / step + i) * step / 86400.0);
+                maxNodeError = Math.max(maxNodeError, cache.getState(node).position().minus(satellite.getState(node).position()).mag());
+            }
+            final double error = maxError, nodeError = maxNodeError, bound = cache.getErrorBound(epoch);
+            assertAll(() -> assertTrue(error <= bound + keplerSteps),
+                    () -> assertTrue(bound < 2.0),
+                    () -> assertEquals(0.0, nodeError, 1e-6));
+        }
+    }
+
+    @Test
+    @DisplayName("Node reuse and time window eviction test")
+    public void evictionTest() {
+        StateCache cache = new StateCache(satellite, 30.0, 300.0);
+//        two queries inside the same 30 second interval share both nodes
+        JD node = new JD(JD.J2000 + Math.floor((epoch.value() - JD.J2000) * 86400.0 / 30.0) * 30.0 / 86400.0);
+        cache.getState(node.future(10.0 / 86400.0));
+        cache.getState(node.future(20.0 / 86400.0));
+        assertAll(() -> assertEquals(2, cache.getMisses()),
+                () -> assertEquals(2, cache.getHits()));
+//        a day later every node near the start has left the 5 minute window
+        cache.getState(node.future(1.0));
+        assertEquals(2, cache.size());
+        for (int i = 0; i < 200; i++)
+            cache.getState(node.future(1.0 + i * 0.25 / 1440.0));
+        assertTrue(cache.size() <= 2 * 10 + 1);
+    }
+
+    @Test
+    @DisplayName("State cache argument test")
+    public void argumentTest() {
+        assertThrows(IllegalArgumentException.class, () -> new StateCache(satellite, 60.0, 30.0));
+    }
+
+}
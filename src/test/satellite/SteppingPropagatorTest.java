@@ -0,0 +1,60 @@
+package test.satellite;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.satellite.SteppingPropagator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SteppingPropagatorTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    Satellite satellite = new Satellite(new TLE(strLEOTLE));
+//    SGP4 stops iterating once the Kepler correction is below 1e-6 radians, which is
+//    several meters at the radius of the ISS
+    final double positionDelta = 10.0;
+    final double velocityDelta = 1e-2;
+
+    @Test
+    @DisplayName("Stepping matches SGP4 test")
+    public void steppingStateTest() {
+        SteppingPropagator stepper = new SteppingPropagator(satellite);
+        for (int i = 0; i < 1000; i++) {
+            double dt = i / 6.0;
+            StateVectors expected = satellite.getState(dt);
+            StateVectors actual = stepper.getState(dt);
+            assertAll(() -> assertEquals(expected.position().x(), actual.position().x(), positionDelta),
+                    () -> assertEquals(expected.position().y(), actual.position().y(), positionDelta),
+                    () -> assertEquals(expected.position().z(), actual.position().z(), positionDelta),
+                    () -> assertEquals(expected.velocity().x(), actual.velocity().x(), velocityDelta),
+                    () -> assertEquals(expected.velocity().y(), actual.velocity().y(), velocityDelta),
+                    () -> assertEquals(expected.velocity().z(), actual.velocity().z(), velocityDelta));
+        }
+    }
+
+    @Test
+    @DisplayName("Warm start iteration statistics test")
+    public void iterationStatisticsTest() {
+        final int count = 8640;
+        double[] x = new double[count], y = new double[count], z = new double[count];
+        double[] vx = new double[count], vy = new double[count], vz = new double[count];
+        SteppingPropagator stepper = new SteppingPropagator(satellite);
+        stepper.getStates(0.0, 1.0 / 6.0, count, x, y, z, vx, vy, vz);
+        assertAll(() -> assertEquals(count, stepper.getSampleCount()),
+                () -> assertEquals(count - 1, stepper.getWarmStartCount()),
+                () -> assertTrue(stepper.getAverageIterations() < 1.1),
+                () -> assertTrue(stepper.getMaxIterations() <= 3));
+        stepper.resetStatistics();
+        stepper.reset();
+        stepper.getState(30.0);
+        assertAll(() -> assertEquals(1, stepper.getSampleCount()),
+                () -> assertEquals(0, stepper.getWarmStartCount()));
+    }
+
+}
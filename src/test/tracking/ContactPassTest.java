@@ -0,0 +1,98 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.ContactPass;
+import com.qbizzle.tracking.PassFilter;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContactPassTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    JD endTime = startTime.future(3.0);
+    final double oneSecond = 1.0 / 86400.0;
+
+    @Test
+    @DisplayName("Pass result agreement test")
+    public void passResultAgreementTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<PassResult> results = finder.getPassResults(startTime, endTime);
+        Vector<ContactPass> contacts = finder.getContacts(startTime, endTime);
+
+        assertFalse(contacts.isEmpty());
+        assertEquals(results.size(), contacts.size());
+        for (int i = 0; i < contacts.size(); i++) {
+            ContactPass contact = contacts.get(i);
+            PassResult result = results.get(i);
+            assertEquals(result.getRise().getEpoch().value(), contact.getAOS().getEpoch().value(), 0.1 * oneSecond);
+            assertEquals(result.getSet().getEpoch().value(), contact.getLOS().getEpoch().value(), 0.1 * oneSecond);
+            assertTrue(contact.getTCA().getEpoch().value() > contact.getAOS().getEpoch().value());
+            assertTrue(contact.getTCA().getEpoch().value() < contact.getLOS().getEpoch().value());
+
+            PassResult visibility = contact.getVisibility();
+            assertEquals(result.getOutcome(), visibility.getOutcome());
+            assertSame(visibility, contact.getVisibility());
+            if (result.isVisible()) {
+                assertEquals(result.getPass().getVisibleTime().value(), visibility.getPass().getVisibleTime().value(), oneSecond);
+                assertEquals(result.getPass().getMaxHeight(), visibility.getPass().getMaxHeight(), 1e-3);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Contact filter test")
+    public void contactFilterTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<ContactPass> contacts = finder.getContacts(startTime, endTime);
+        PassFilter filter = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_HEIGHT)
+                .setMinimumHeight(10.0);
+        Vector<ContactPass> expected = new Vector<>();
+        for (ContactPass contact : contacts) {
+            if (contact.getMaxElevation() >= 10.0) expected.add(contact);
+        }
+        Vector<ContactPass> actual = finder.getContacts(startTime, endTime, filter);
+        assertTrue(expected.size() < contacts.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(filter.test(actual.get(i)));
+            assertEquals(expected.get(i).getAOS().getEpoch().value(), actual.get(i).getAOS().getEpoch().value(), oneSecond);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> finder.contactIterator(startTime, endTime, new PassFilter().setNightOnly(true)));
+    }
+
+    @Test
+    @DisplayName("Single contact test")
+    public void singleContactTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        ContactPass expected = new PassFinder(satellite, geoPosition).contactIterator(startTime, endTime).next();
+        ContactPass actual = Tracker.getContact(satellite, expected.getTCA().getEpoch(), geoPosition);
+        assertNotNull(actual);
+        assertEquals(expected.getAOS().getEpoch().value(), actual.getAOS().getEpoch().value(), 0.1 * oneSecond);
+        assertEquals(expected.getLOS().getEpoch().value(), actual.getLOS().getEpoch().value(), 0.1 * oneSecond);
+        assertEquals(expected.getMaxElevation(), actual.getMaxElevation(), 1e-3);
+        assertNull(Tracker.getContact(satellite, expected.getLOS().getEpoch().future(60 * oneSecond), geoPosition));
+    }
+
+}
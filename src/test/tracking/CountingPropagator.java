@@ -0,0 +1,31 @@
+package test.tracking;
+
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.satellite.Propagator;
+import com.qbizzle.time.JD;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/** Propagator that counts how many times it was evaluated, and records every time it was asked for. */
+class CountingPropagator implements Propagator {
+    final Propagator propagator;
+    final Set<Double> times = new HashSet<>();
+    long count = 0;
+
+    CountingPropagator(Propagator propagator) {
+        this.propagator = propagator;
+    }
+
+    @Override
+    public StateVectors getState(JD time) {
+        count++;
+        times.add(time.value());
+        return propagator.getState(time);
+    }
+
+    @Override
+    public Fidelity getFidelity() {
+        return propagator.getFidelity();
+    }
+}
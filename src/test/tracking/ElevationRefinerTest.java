@@ -0,0 +1,100 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.AltAz;
+import com.qbizzle.tracking.ElevationRefiner;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.TopocentricObserver;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElevationRefinerTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    final double oneSecond = 1.0 / 86400.0;
+
+    @Test
+    @DisplayName("Pass finder agreement test")
+    public void passFinderAgreementTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        ElevationRefiner refiner = new ElevationRefiner(satellite, observer);
+        int passes = 0;
+        for (Iterator<PassResult> iter = new PassFinder(satellite, observer).iterator(startTime, startTime.future(2.0)); iter.hasNext(); passes++) {
+            PassResult result = iter.next();
+//            brackets a minute either side of each time
+            AltAz rise = refiner.findCrossing(result.getRise().getEpoch().future(-60 * oneSecond), result.getRise().getEpoch().future(60 * oneSecond), 0.0);
+            AltAz set = refiner.findCrossing(result.getSet().getEpoch().future(-60 * oneSecond), result.getSet().getEpoch().future(60 * oneSecond), 0.0);
+            assertNotNull(rise);
+            assertNotNull(set);
+            assertEquals(result.getRise().getEpoch().value(), rise.getEpoch().value(), 0.1 * oneSecond);
+            assertEquals(result.getSet().getEpoch().value(), set.getEpoch().value(), 0.1 * oneSecond);
+            assertEquals(0.0, rise.getAltitude(), 1e-3);
+
+            AltAz culmination = refiner.findCulmination(rise.getEpoch(), set.getEpoch());
+            for (int i = -2; i <= 2; i += 4) {
+                JD neighbour = culmination.getEpoch().future(i * oneSecond);
+                assertTrue(culmination.getAltitude() >= Tracker.getAltAz(satellite, neighbour, observer).getAltitude());
+            }
+        }
+        assertTrue(passes > 0);
+    }
+
+    @Test
+    @DisplayName("Propagation count test")
+    public void propagationCountTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        ElevationRefiner refiner = new ElevationRefiner(satellite, observer);
+        for (Iterator<PassResult> iter = new PassFinder(satellite, observer).iterator(startTime, startTime.future(2.0)); iter.hasNext(); ) {
+            PassResult result = iter.next();
+            JD rise = result.getRise().getEpoch(), set = result.getSet().getEpoch();
+            refiner.resetStatistics();
+            refiner.findCrossing(rise.future(-120 * oneSecond), rise.future(120 * oneSecond), 0.0);
+            assertTrue(refiner.getPropagationCount() < 10);
+            refiner.resetStatistics();
+            refiner.findCulmination(rise, set);
+            assertTrue(refiner.getPropagationCount() < 10);
+        }
+    }
+
+    @Test
+    @DisplayName("No crossing test")
+    public void noCrossingTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        ElevationRefiner refiner = new ElevationRefiner(satellite, observer);
+        PassResult result = new PassFinder(satellite, observer).iterator(startTime, startTime.future(1.0)).next();
+        JD rise = result.getRise().getEpoch(), set = result.getSet().getEpoch();
+        JD middle = rise.future(set.difference(rise) / 2.0);
+        assertNull(refiner.findCrossing(middle, set.future(-oneSecond), 0.0));
+        assertNull(refiner.findCrossing(rise.future(-600 * oneSecond), rise.future(-oneSecond), 0.0));
+    }
+
+    @Test
+    @DisplayName("Horizon time test")
+    public void horizonTimeTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassResult result = new PassFinder(satellite, geoPosition).iterator(startTime, startTime.future(1.0)).next();
+        JD rise = result.getRise().getEpoch(), set = result.getSet().getEpoch();
+        JD middle = rise.future(set.difference(rise) / 2.0);
+        assertEquals(rise.value(), Tracker.getRiseTime(satellite, middle, geoPosition).value(), 0.1 * oneSecond);
+        assertEquals(set.value(), Tracker.getSetTime(satellite, middle, geoPosition).value(), 0.1 * oneSecond);
+    }
+
+}
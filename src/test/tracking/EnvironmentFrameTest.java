@@ -0,0 +1,63 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.Eclipse;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.EnvironmentFrame;
+import com.qbizzle.tracking.Sun;
+import com.qbizzle.tracking.TopocentricObserver;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnvironmentFrameTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+
+    @Test
+    @DisplayName("Frame agreement test")
+    public void agreementTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        int eclipsed = 0;
+        for (EnvironmentFrame frame : EnvironmentFrame.grid(startTime, 7.0 / 1440.0, 200)) {
+            JD time = frame.getTime();
+            Vector position = satellite.getState(time).position();
+            Vector expectedSEZ = observer.getSEZPosition(position, time);
+            Vector actualSEZ = Tracker.getSEZPosition(satellite, frame, observer);
+            GeoPosition expectedGeo = Tracker.getGeoPositionAt(satellite, time);
+            GeoPosition actualGeo = Tracker.getGeoPositionAt(satellite, frame);
+
+            assertEquals(0.0, expectedSEZ.minus(actualSEZ).mag(), 1e-6);
+            assertEquals(expectedGeo.getLatitude(), actualGeo.getLatitude(), 1e-9);
+            assertEquals(expectedGeo.getLongitude(), actualGeo.getLongitude(), 1e-9);
+            assertEquals(Eclipse.isEclipsed(satellite, time), Eclipse.isEclipsed(satellite, frame));
+            assertEquals(observer.getAltAz(position, time).getAltitude(), observer.getAltAz(position, frame).getAltitude(), 1e-9);
+            assertEquals(0.0, Sun.position(time).minus(frame.getSunPosition()).mag(), 1e-6);
+            if (frame.isEclipsed(position)) eclipsed++;
+        }
+        assertTrue(eclipsed > 0);
+    }
+
+    @Test
+    @DisplayName("Frame grid test")
+    public void gridTest() {
+        EnvironmentFrame[] frames = EnvironmentFrame.grid(startTime, 0.5, 3);
+        assertEquals(3, frames.length);
+        assertEquals(startTime.future(1.0).value(), frames[2].getTime().value(), 1e-9);
+        assertEquals(TopocentricObserver.getEarthRotationAngle(startTime), frames[0].getEarthRotationAngle(), 1e-12);
+        assertEquals(0, EnvironmentFrame.grid(startTime, 1.0, 0).length);
+        assertThrows(IllegalArgumentException.class, () -> EnvironmentFrame.grid(startTime, 1.0, -1));
+    }
+
+}
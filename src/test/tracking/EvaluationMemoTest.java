@@ -0,0 +1,91 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.EvaluationMemo;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.SatellitePass;
+import com.qbizzle.tracking.TopocentricObserver;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluationMemoTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+
+    @Test
+    @DisplayName("No repeated propagation test")
+    public void noRepeatTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        int visible = 0;
+        for (PassResult expected : Tracker.getPassResults(satellite, startTime, startTime.future(3.0), observer)) {
+            if (!expected.isVisible()) continue;
+            visible++;
+            CountingPropagator counting = new CountingPropagator(satellite);
+            EvaluationMemo memo = new EvaluationMemo(counting, observer);
+            PassResult result = Tracker.getPassResult(memo, expected.getRise().getEpoch().future(30.0 / 86400.0));
+
+            assertEquals(PassResult.Outcome.VISIBLE, result.getOutcome());
+            assertEquals(expected.getPass().getVisibleTime().value(), result.getPass().getVisibleTime().value(), 1.0 / 86400.0);
+//            every time is propagated once, the searches that came back to it were answered by the memo
+            assertEquals(counting.times.size(), counting.count);
+            assertEquals(counting.count, memo.getPropagationCount());
+            assertTrue(memo.getHits() > 0);
+            assertTrue(memo.getSunPositionCount() <= memo.getPropagationCount());
+        }
+        assertTrue(visible > 0);
+    }
+
+    @Test
+    @DisplayName("Pass finder refinement test")
+    public void passFinderTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        CountingPropagator counting = new CountingPropagator(satellite);
+        PassFinder finder = new PassFinder(counting, geoPosition);
+        Vector<SatellitePass> passes = finder.getPasses(startTime, startTime.future(3.0));
+        assertFalse(passes.isEmpty());
+//        the refinement of each pass, including the points asked for later, never propagates a time twice
+        for (SatellitePass pass : passes) {
+            long before = counting.count;
+            int beforeTimes = counting.times.size();
+            pass.getVisibleTime();
+            pass.getMaxHeight();
+            assertTrue(counting.count > before);
+            assertEquals(counting.count - before, counting.times.size() - beforeTimes);
+        }
+        assertEquals(counting.count, finder.getPropagationCount());
+    }
+
+    @Test
+    @DisplayName("Memoized values test")
+    public void memoizedValuesTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        CountingPropagator counting = new CountingPropagator(satellite);
+        EvaluationMemo memo = new EvaluationMemo(counting, observer);
+        StateVectors state = memo.getState(startTime);
+        assertSame(state, memo.getState(new JD(startTime.value())));
+        assertEquals(Tracker.getAltAz(satellite, startTime, observer).getAltitude(), memo.getAltAz(startTime).getAltitude(), 1e-9);
+        memo.isEclipsed(startTime);
+        memo.isEclipsed(startTime);
+        assertEquals(1, counting.count);
+        assertEquals(1, memo.getSunPositionCount());
+    }
+
+}
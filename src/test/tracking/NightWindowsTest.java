@@ -0,0 +1,111 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.NightWindows;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.SatellitePass;
+import com.qbizzle.tracking.Sun;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NightWindowsTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    JD endTime = startTime.future(3.0);
+    final double oneSecond = 1.0 / 86400.0;
+
+    double getSunAltitude(JD time, GeoPosition geoPosition) {
+        return Tracker.getAltAz(Tracker.getSEZPosition(Sun.position2(time), time, geoPosition), time).getAltitude();
+    }
+
+    @Test
+    @DisplayName("Twilight agreement test")
+    public void twilightAgreementTest() {
+        NightWindows nightWindows = new NightWindows(geoPosition, startTime, endTime);
+        for (double t = 0; t <= 3.0; t += 7.0 / 1440.0) {
+            JD time = startTime.future(t);
+            Sun.TwilightType expected = Sun.getTwilightType(time, geoPosition);
+//            only within the tolerance of a crossing can they differ
+            if (expected != nightWindows.getTwilightType(time)) {
+                assertTrue(Sun.getTwilightType(time.future(-2 * oneSecond), geoPosition) != expected
+                        || Sun.getTwilightType(time.future(2 * oneSecond), geoPosition) != expected);
+            }
+        }
+        for (NightWindows.Window window : nightWindows.getWindows(Sun.TwilightType.Nautical)) {
+            assertTrue(window.getDuration() > 0);
+            if (window.getStart().value() > startTime.value())
+                assertEquals(-6.0, getSunAltitude(window.getStart(), geoPosition), 0.01);
+            if (window.getEnd().value() < endTime.value())
+                assertEquals(-6.0, getSunAltitude(window.getEnd(), geoPosition), 0.01);
+        }
+        assertEquals(3, nightWindows.getWindows(Sun.TwilightType.Night).size());
+    }
+
+    @Test
+    @DisplayName("Midsummer high latitude test")
+    public void highLatitudeTest() {
+//        the Sun only just sets at midnight, so the civil windows are short and the rest never start
+        GeoPosition north = new GeoPosition(65.0, 20.0);
+        JD solstice = new JD(6, 20, 2022, 0, 0, 0);
+        NightWindows nightWindows = new NightWindows(north, solstice, solstice.future(2.0));
+        List<NightWindows.Window> civil = nightWindows.getWindows(Sun.TwilightType.Civil);
+        assertEquals(2, civil.size());
+        for (NightWindows.Window window : civil) {
+            assertTrue(window.getDuration() < 0.25);
+            JD middle = window.getStart().future(window.getDuration() / 2.0);
+            assertEquals(Sun.TwilightType.Civil, Sun.getTwilightType(middle, north));
+        }
+        assertTrue(nightWindows.getWindows(Sun.TwilightType.Nautical).isEmpty());
+        assertFalse(nightWindows.isDark(solstice.future(0.5), Sun.TwilightType.Civil));
+    }
+
+    @Test
+    @DisplayName("Daylight skipping test")
+    public void daylightSkippingTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> expected = new Vector<>();
+        for (PassResult result : finder.getPassResults(startTime, endTime)) {
+            if (result.isVisible()) expected.add(result.getPass());
+        }
+        long allCount = finder.getPropagationCount();
+        finder.resetStatistics();
+        Vector<SatellitePass> actual = finder.getPasses(startTime, endTime);
+        long nightCount = finder.getPropagationCount();
+
+        NightWindows shared = new NightWindows(geoPosition, startTime, endTime);
+        Vector<SatellitePass> sharedPasses = new PassFinder(satellite, shared).getPasses(startTime, endTime);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.size(), sharedPasses.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getRiseTime().value(), actual.get(i).getRiseTime().value(), oneSecond);
+            assertEquals(expected.get(i).getRiseTime().value(), sharedPasses.get(i).getRiseTime().value(), oneSecond);
+        }
+        assertTrue(nightCount < allCount);
+    }
+
+    @Test
+    @DisplayName("Invalid span test")
+    public void invalidSpanTest() {
+        assertThrows(IllegalArgumentException.class, () -> new NightWindows(geoPosition, endTime, startTime));
+    }
+
+}
@@ -0,0 +1,143 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.ContactPass;
+import com.qbizzle.tracking.PassFilter;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.SatellitePass;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PassFilterTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    JD endTime = startTime.future(3.0);
+
+    void assertSamePasses(Vector<SatellitePass> expected, Vector<SatellitePass> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i).getRiseTime().value(), actual.get(i).getRiseTime().value(), 1.0 / 86400.0);
+    }
+
+    @Test
+    @DisplayName("Filter pushdown agreement test")
+    public void pushdownAgreementTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> passes = finder.getPasses(startTime, endTime);
+        PassFilter heightFilter = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_HEIGHT)
+                .setMinimumHeight(10.0);
+//        filtering afterwards refines the highest point of every pass with the same finder
+        Vector<SatellitePass> expected = Tracker.filterPasses(new Vector<>(passes), heightFilter);
+        long unfilteredCount = finder.getPropagationCount();
+        finder.resetStatistics();
+        Vector<SatellitePass> actual = finder.getPasses(startTime, endTime, heightFilter);
+        assertFalse(expected.isEmpty());
+        assertTrue(expected.size() < passes.size());
+        assertSamePasses(expected, actual);
+        assertTrue(finder.getPrunedCount(PassFilter.Criterion.HEIGHT) > 0);
+        assertTrue(finder.getPropagationCount() < unfilteredCount);
+
+        PassFilter durationFilter = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_DURATION)
+                .setMinimumDuration(4.0);
+        assertSamePasses(Tracker.filterPasses(new Vector<>(passes), durationFilter),
+                Tracker.getPasses(satellite, startTime, endTime, geoPosition, durationFilter));
+    }
+
+    @Test
+    @DisplayName("Low height pushdown test")
+    public void lowHeightPushdownTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        JD end = startTime.future(20.0);
+//        short passes peak inside the step that finds their rise, which must still bound their height
+        for (GeoPosition site : new GeoPosition[]{geoPosition, new GeoPosition(0.0, 0.0), new GeoPosition(65.0, 25.0)}) {
+            PassFinder finder = new PassFinder(satellite, site);
+            List<ContactPass> contacts = finder.getContacts(startTime, end);
+            for (double height : new double[]{1.0, 1.1, 1.2, 2.0, 5.0}) {
+                PassFilter filter = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_HEIGHT)
+                        .setMinimumHeight(height);
+                List<ContactPass> expected = contacts.stream().filter(c -> c.getMaxElevation() >= height).toList();
+                List<ContactPass> actual = finder.getContacts(startTime, end, filter);
+                assertEquals(expected.size(), actual.size(), site + " " + height);
+                for (int i = 0; i < expected.size(); i++)
+                    assertEquals(expected.get(i).getAOS().getEpoch().value(), actual.get(i).getAOS().getEpoch().value(), 1.0 / 86400.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Azimuth range test")
+    public void azimuthRangeTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> passes = finder.getPasses(startTime, endTime);
+        assertFalse(passes.isEmpty());
+        double azimuth = passes.get(0).getMaxAzimuth();
+
+//        a range wrapping past north that holds the azimuth of the first pass, and the rest of the circle
+        PassFilter inside = new PassFilter().addAzimuthRange(azimuth + 300.0, azimuth + 60.0);
+        PassFilter outside = new PassFilter().addAzimuthRange(azimuth + 61.0, azimuth + 299.0);
+        assertTrue(inside.test(passes.get(0)));
+        assertFalse(outside.test(passes.get(0)));
+        for (SatellitePass pass : passes)
+            assertNotEquals(inside.test(pass), outside.test(pass));
+        assertSamePasses(Tracker.filterPasses(new Vector<>(passes), outside), finder.getPasses(startTime, endTime, outside));
+    }
+
+    @Test
+    @DisplayName("Filter composition test")
+    public void compositionTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> passes = finder.getPasses(startTime, endTime);
+        PassFilter height = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_HEIGHT)
+                .setMinimumHeight(20.0);
+        PassFilter duration = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_DURATION)
+                .setMinimumDuration(3.0);
+        PassFilter both = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_HEIGHT)
+                .setMinimumHeight(20.0).and(duration);
+        for (SatellitePass pass : passes)
+            assertEquals(height.test(pass) && duration.test(pass), both.test(pass));
+        assertSamePasses(Tracker.filterPasses(new Vector<>(passes), both), finder.getPasses(startTime, endTime, both));
+    }
+
+    @Test
+    @DisplayName("Night and sunlit only test")
+    public void nightSunlitTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        int visible = 0, all = 0;
+        for (Iterator<PassResult> iter = finder.iterator(startTime, endTime); iter.hasNext(); all++) {
+            if (iter.next().isVisible()) visible++;
+        }
+
+        PassFilter filter = new PassFilter().setFilterType(PassFilter.FilterParameter.MINIMUM_DURATION)
+                .setNightOnly(true).setSunlitOnly(true);
+        int filtered = 0;
+        for (Iterator<PassResult> iter = finder.iterator(startTime, endTime, filter); iter.hasNext(); filtered++)
+            assertEquals(PassResult.Outcome.VISIBLE, iter.next().getOutcome());
+        assertTrue(visible < all);
+        assertEquals(visible, filtered);
+        assertEquals(all - visible, finder.getPrunedCount(PassFilter.Criterion.NIGHT)
+                + finder.getPrunedCount(PassFilter.Criterion.SUNLIT));
+        assertEquals(all - visible, finder.getPrunedCount());
+    }
+
+}
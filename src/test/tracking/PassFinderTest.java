@@ -0,0 +1,183 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.J2Propagator;
+import com.qbizzle.satellite.Propagator;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.PassPage;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.SatellitePass;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PassFinderTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    String strHighLEOTLE = "GLOBALSTAR M063\n" +
+            "1 38040U 12003A   22022.51424612 -.00000092  00000+0  00000+0 0  9995\n" +
+            "2 38040  51.9807 245.3871 0000871  92.7716 267.3198 12.62269587470145";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    JD endTime = startTime.future(3.0);
+
+    /**
+     * The ten second scan the pass finder replaced, refining every step the satellite is
+     * above the horizon until a visible pass is found.
+     */
+    static Vector<SatellitePass> scan(Propagator propagator, JD startTime, JD endTime, GeoPosition geoPosition) {
+        final double dt = 10 / 86400.0;
+        Vector<SatellitePass> passList = new Vector<>();
+        JD currentTime = startTime;
+        do {
+            if (Tracker.getAltAz(propagator, currentTime, geoPosition).getAltitude() < 0) {
+                currentTime = currentTime.future(dt);
+                continue;
+            }
+            PassResult result = Tracker.getPassResult(propagator, currentTime, geoPosition);
+            if (!result.isVisible()) {
+                currentTime = currentTime.future(dt);
+                continue;
+            }
+            passList.add(result.getPass());
+            currentTime = result.getPass().getSetTime().future(11.0 / 1440.0);
+        } while (currentTime.value() < endTime.value());
+        return passList;
+    }
+
+    @Test
+    @DisplayName("Agreement with fixed step scan test")
+    public void scanAgreementTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        CountingPropagator scanned = new CountingPropagator(satellite);
+        Vector<SatellitePass> expected = scan(scanned, startTime, endTime, geoPosition);
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> actual = finder.getPasses(startTime, endTime);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SatellitePass expectedPass = expected.get(i), actualPass = actual.get(i);
+            assertAll(() -> assertEquals(expectedPass.getRiseTime().value(), actualPass.getRiseTime().value(), 1.0 / 86400.0),
+                    () -> assertEquals(expectedPass.getSetTime().value(), actualPass.getSetTime().value(), 1.0 / 86400.0),
+                    () -> assertEquals(expectedPass.getVisibleTime().value(), actualPass.getVisibleTime().value(), 1.0 / 86400.0),
+                    () -> assertEquals(expectedPass.getDisappearTime().value(), actualPass.getDisappearTime().value(), 1.0 / 86400.0),
+                    () -> assertEquals(expectedPass.getMaxHeight(), actualPass.getMaxHeight(), 0.01));
+        }
+//        the scan propagates at least once every ten seconds, 42350 times against 448 over these three days
+        assertTrue(finder.getPropagationCount() * 50 < scanned.count);
+    }
+
+    @Test
+    @DisplayName("High orbit pass test")
+    public void highOrbitTest() {
+        Satellite satellite = new Satellite(new TLE(strHighLEOTLE));
+        CountingPropagator scanned = new CountingPropagator(satellite);
+        Vector<SatellitePass> expected = scan(scanned, startTime, endTime, geoPosition);
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> actual = finder.getPasses(startTime, endTime);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SatellitePass actualPass = actual.get(i);
+            assertEquals(expected.get(i).getRiseTime().value(), actualPass.getRiseTime().value(), 1.0 / 86400.0);
+//            the scan only looks 15 minutes past the rise for the set, so check the set is on the horizon instead
+            assertEquals(0.0, Tracker.getAltAz(satellite, actualPass.getSetTime(), geoPosition).getAltitude(), 1e-3);
+        }
+        assertTrue(finder.getPropagationCount() * 50 < scanned.count);
+    }
+
+    @Test
+    @DisplayName("Two tier screening test")
+    public void screeningTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        CountingPropagator full = new CountingPropagator(satellite);
+        Vector<SatellitePass> expected = new PassFinder(full, geoPosition).getPasses(startTime, endTime);
+        CountingPropagator refined = new CountingPropagator(satellite);
+        Vector<SatellitePass> actual = Tracker.getPasses(new J2Propagator(new TLE(strLEOTLE)), refined, startTime, endTime, geoPosition);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SatellitePass expectedPass = expected.get(i), actualPass = actual.get(i);
+            assertAll(() -> assertEquals(expectedPass.getRiseTime().value(), actualPass.getRiseTime().value(), PassFinder.TIME_TOLERANCE / 86400.0),
+                    () -> assertEquals(expectedPass.getSetTime().value(), actualPass.getSetTime().value(), PassFinder.TIME_TOLERANCE / 86400.0));
+        }
+//        the full propagator only refines inside the contacts the screening propagator finds
+        assertTrue(refined.count * 2 < full.count);
+    }
+
+    @Test
+    @DisplayName("Pass in progress test")
+    public void passInProgressTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        SatellitePass first = finder.getPasses(startTime, endTime).get(0);
+        JD midPass = first.getRiseTime().future(first.getSetTime().difference(first.getRiseTime()) / 2.0);
+        Vector<SatellitePass> passes = finder.getPasses(midPass, endTime);
+        assertEquals(first.getRiseTime().value(), passes.get(0).getRiseTime().value(), 1.0 / 86400.0);
+    }
+
+    @Test
+    @DisplayName("Lazy stream test")
+    public void lazyStreamTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> passes = finder.getPasses(startTime, endTime);
+        long windowCount = finder.getPropagationCount();
+        finder.resetStatistics();
+        SatellitePass first = finder.stream(startTime, endTime).findFirst().orElseThrow();
+        assertAll(() -> assertEquals(passes.get(0).getRiseTime(), first.getRiseTime()),
+                () -> assertTrue(finder.getPropagationCount() < windowCount));
+    }
+
+    @Test
+    @DisplayName("Paging test")
+    public void pagingTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        Vector<SatellitePass> passes = finder.getPasses(startTime, endTime);
+        List<SatellitePass> paged = new ArrayList<>();
+        PassPage page = finder.getPage(startTime, 2, endTime);
+        paged.addAll(page.getPasses());
+        while (page.hasMore()) {
+            page = finder.getPage(page.getCursor(), 2, endTime);
+            paged.addAll(page.getPasses());
+        }
+        assertEquals(passes.size(), paged.size());
+        for (int i = 0; i < passes.size(); i++)
+            assertEquals(passes.get(i).getRiseTime().value(), paged.get(i).getRiseTime().value(), 1.0 / 86400.0);
+    }
+
+    @Test
+    @DisplayName("Iterator cursor test")
+    public void iteratorCursorTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        PassFinder finder = new PassFinder(satellite, geoPosition);
+        PassFinder.PassIterator iterator = finder.iterator(startTime, endTime);
+        iterator.next();
+        iterator.next();
+        Iterator<PassResult> resumed = finder.iterator(iterator.getCursor(), endTime);
+        PassResult expected = iterator.next();
+        assertEquals(expected.getRise().getEpoch().value(), resumed.next().getRise().getEpoch().value(), 1.0 / 86400.0);
+//        no pass in the first minute of the window
+        assertNull(finder.getPage(startTime, 1, startTime.future(1.0 / 1440.0)).getCursor());
+    }
+
+}
@@ -0,0 +1,72 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.exception.NoPassException;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.SatellitePass;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PassResultTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    Satellite satellite = new Satellite(new TLE(strLEOTLE));
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    JD endTime = startTime.future(2.0);
+
+    @Test
+    @DisplayName("Pass results test")
+    public void passResultsTest() {
+        Vector<PassResult> results = Tracker.getPassResults(satellite, startTime, endTime, geoPosition);
+        Vector<SatellitePass> passes = Tracker.getPasses(satellite, startTime, endTime, geoPosition);
+        long visible = results.stream().filter(PassResult::isVisible).count();
+//        the ISS passes several times a day, most of them not visible
+        assertAll(() -> assertEquals(passes.size(), visible),
+                () -> assertTrue(results.size() > visible));
+        for (PassResult result : results) {
+            assertNotEquals(PassResult.Outcome.NONE, result.getOutcome());
+            assertTrue(result.getRise().getEpoch().value() < result.getSet().getEpoch().value());
+            if (!result.isVisible()) assertNull(result.getPass());
+        }
+    }
+
+    @Test
+    @DisplayName("No pass test")
+    public void noPassTest() {
+        PassResult pass = Tracker.getPassResults(satellite, startTime, endTime, geoPosition).get(0);
+//        halfway between the set of one pass and the rise of the next the satellite is below the horizon
+        JD time = pass.getSet().getEpoch().future(45.0 / 1440.0);
+        PassResult result = Tracker.getPassResult(satellite, time, geoPosition);
+        assertAll(() -> assertEquals(PassResult.Outcome.NONE, result.getOutcome()),
+                () -> assertNull(result.getRise()),
+                () -> assertThrows(NoPassException.class, () -> Tracker.getPassInfo3(satellite, time, geoPosition)));
+    }
+
+    @Test
+    @DisplayName("Visible pass test")
+    public void visiblePassTest() {
+        SatellitePass expected = Tracker.getPasses(satellite, startTime, endTime, geoPosition).get(0);
+        JD time = expected.getRiseTime().future(30.0 / 86400.0);
+        PassResult result = Tracker.getPassResult(satellite, time, geoPosition);
+        assertAll(() -> assertEquals(PassResult.Outcome.VISIBLE, result.getOutcome()),
+                () -> assertEquals(expected.getRiseTime().value(), result.getPass().getRiseTime().value(), 1.0 / 86400.0),
+                () -> assertEquals(result.getPass().getMaxTime().value(),
+                        Tracker.getPassInfo3(satellite, time, geoPosition).getMaxTime().value()));
+    }
+
+}
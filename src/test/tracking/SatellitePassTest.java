@@ -0,0 +1,82 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.AltAz;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.SatellitePass;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SatellitePassTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    final double oneSecond = 1.0 / 86400.0;
+
+    @Test
+    @DisplayName("Lazy pass agreement test")
+    public void lazyPassTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        CountingPropagator counting = new CountingPropagator(satellite);
+        Vector<SatellitePass> passes = new PassFinder(counting, geoPosition).getPasses(startTime, startTime.future(3.0));
+        assertFalse(passes.isEmpty());
+        for (SatellitePass pass : passes) {
+//            the rise and set are kept from the search
+            long found = counting.count;
+            int foundTimes = counting.times.size();
+            pass.getRiseTime();
+            pass.getSetTime();
+            assertEquals(found, counting.count);
+
+//            the rest is refined once, without propagating the rise and set again
+            JD maxTime = pass.getMaxTime();
+            long refined = counting.count;
+            assertTrue(refined > found);
+            assertEquals(refined - found, counting.times.size() - foundTimes);
+            assertEquals(maxTime.value(), pass.getMaxTime().value());
+            assertEquals(refined, counting.count);
+
+            SatellitePass expected = Tracker.getPassResult(satellite, pass.getRiseTime().future(30 * oneSecond), geoPosition).getPass();
+            assertAll(() -> assertEquals(expected.getVisibleTime().value(), pass.getVisibleTime().value(), oneSecond),
+                    () -> assertEquals(expected.getDisappearTime().value(), pass.getDisappearTime().value(), oneSecond),
+                    () -> assertEquals(expected.getMaxTime().value(), pass.getMaxTime().value(), oneSecond),
+                    () -> assertEquals(expected.getMaxHeight(), pass.getMaxHeight(), 1e-3),
+                    () -> assertEquals(expected.getRiseDirection(), pass.getRiseDirection()));
+            assertEquals(refined, counting.count);
+        }
+    }
+
+    @Test
+    @DisplayName("Visible outside of rise and set test")
+    public void clampedPointsTest() {
+        JD rise = new JD(2459603.0);
+        SatellitePass pass = new SatellitePass(
+                new AltAz(0.0, 10.0, rise),
+                new AltAz(0.0, 190.0, rise.future(5.0 / 1440.0)),
+                new AltAz(-1.0, 350.0, rise.future(-1.0 / 1440.0)),
+                new AltAz(-1.0, 170.0, rise.future(6.0 / 1440.0)),
+                new AltAz(45.0, 100.0, rise.future(2.5 / 1440.0))
+        );
+//        points before the rise or after the set take the height and direction of the rise or set
+        assertAll(() -> assertEquals(0.0, pass.getVisibleHeight()),
+                () -> assertEquals("N", pass.getVisibleDirection()),
+                () -> assertEquals(0.0, pass.getDisappearHeight()),
+                () -> assertEquals("S", pass.getDisappearDirection()),
+                () -> assertEquals("E", pass.getMaxDirection()),
+                () -> assertEquals(100.0, pass.getMaxAzimuth()));
+    }
+
+}
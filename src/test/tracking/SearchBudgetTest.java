@@ -0,0 +1,77 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.EvaluationMemo;
+import com.qbizzle.tracking.PassFinder;
+import com.qbizzle.tracking.PassResult;
+import com.qbizzle.tracking.SearchBudget;
+import com.qbizzle.tracking.TopocentricObserver;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchBudgetTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    final double oneSecond = 1.0 / 86400.0;
+
+    @Test
+    @DisplayName("Loose budget test")
+    public void looseBudgetTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        int visible = 0;
+        for (PassResult expected : Tracker.getPassResults(satellite, startTime, startTime.future(3.0), observer)) {
+            if (!expected.isVisible()) continue;
+            visible++;
+            JD passTime = expected.getRise().getEpoch().future(30 * oneSecond);
+            EvaluationMemo tight = new EvaluationMemo(satellite, observer);
+            EvaluationMemo loose = new EvaluationMemo(satellite, observer);
+            PassResult tightResult = Tracker.getPassResult(tight, passTime);
+            PassResult looseResult = Tracker.getPassResult(loose, passTime, SearchBudget.of(1.0, 16));
+
+            assertEquals(tightResult.getOutcome(), looseResult.getOutcome());
+            assertTrue(loose.getPropagationCount() < tight.getPropagationCount());
+            assertEquals(tightResult.getRise().getEpoch().value(), looseResult.getRise().getEpoch().value(), oneSecond);
+            assertEquals(tightResult.getSet().getEpoch().value(), looseResult.getSet().getEpoch().value(), oneSecond);
+            assertEquals(tightResult.getPass().getVisibleTime().value(), looseResult.getPass().getVisibleTime().value(), oneSecond);
+            assertEquals(tightResult.getPass().getDisappearTime().value(), looseResult.getPass().getDisappearTime().value(), oneSecond);
+        }
+        assertTrue(visible > 0);
+    }
+
+    @Test
+    @DisplayName("Evaluation limit test")
+    public void evaluationLimitTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        JD rise = new PassFinder(satellite, observer).getPasses(startTime, startTime.future(1.0)).get(0).getRiseTime();
+        JD passTime = rise.future(60 * oneSecond);
+//        one evaluation is still a valid, if rough, answer
+        JD rough = Tracker.getRiseTime(satellite, passTime, observer, SearchBudget.of(0.01, 1));
+        JD fine = Tracker.getRiseTime(satellite, passTime, observer, SearchBudget.of(0.001, 40));
+        assertEquals(rise.value(), fine.value(), 0.01 * oneSecond);
+        assertEquals(rise.value(), rough.value(), 2 * oneSecond);
+        assertTrue(Math.abs(fine.difference(rise)) <= Math.abs(rough.difference(rise)));
+    }
+
+    @Test
+    @DisplayName("Invalid budget test")
+    public void invalidBudgetTest() {
+        assertThrows(IllegalArgumentException.class, () -> SearchBudget.of(0.0, 10));
+        assertThrows(IllegalArgumentException.class, () -> SearchBudget.of(Double.NaN, 10));
+        assertThrows(IllegalArgumentException.class, () -> SearchBudget.of(1.0, 0));
+        assertEquals(0.01 * oneSecond, SearchBudget.BISECTION.getTimeToleranceDays(), 1e-15);
+    }
+
+}
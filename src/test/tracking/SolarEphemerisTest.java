@@ -0,0 +1,80 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.NightWindows;
+import com.qbizzle.tracking.SolarEphemeris;
+import com.qbizzle.tracking.Sun;
+import com.qbizzle.tracking.TopocentricObserver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolarEphemerisTest {
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 1, 2022, 0, 0, 0);
+
+    @Test
+    @DisplayName("Solar ephemeris error bound test")
+    public void errorBoundTest() {
+        SolarEphemeris ephemeris = SolarEphemeris.build(startTime, startTime.future(365.0));
+        double maxError = 0;
+        for (int i = 0; i <= 10000; i++) {
+            JD time = startTime.future(365.0 * i / 10000);
+            maxError = Math.max(maxError, ephemeris.getPosition(time).minus(Sun.position2(time)).mag());
+        }
+        final double error = maxError;
+        assertAll(() -> assertTrue(error < SolarEphemeris.DEFAULT_TOLERANCE),
+                () -> assertTrue(ephemeris.getMaxPositionError() < SolarEphemeris.DEFAULT_TOLERANCE),
+                () -> assertTrue(ephemeris.getSegmentCount() > 0));
+    }
+
+    @Test
+    @DisplayName("Solar ephemeris bisection test")
+    public void bisectionTest() {
+//        a whole year in one low degree segment can't meet a 1 kilometer bound
+        SolarEphemeris ephemeris = SolarEphemeris.build(startTime, startTime.future(365.0), 1000.0, 4, 365.0);
+        assertAll(() -> assertTrue(ephemeris.getSegmentCount() > 1),
+                () -> assertTrue(ephemeris.getMaxPositionError() < 1000.0));
+    }
+
+    @Test
+    @DisplayName("Solar ephemeris span test")
+    public void spanTest() {
+        SolarEphemeris ephemeris = SolarEphemeris.build(startTime, startTime.future(30.0));
+        assertAll(() -> assertTrue(ephemeris.contains(startTime.future(15.0))),
+                () -> assertFalse(ephemeris.contains(startTime.future(31.0))),
+                () -> assertEquals(startTime.future(30.0).value(), ephemeris.getEndTime().value(), 1e-9),
+                () -> assertThrows(IllegalArgumentException.class, () -> ephemeris.getPosition(startTime.future(31.0))),
+                () -> assertThrows(IllegalArgumentException.class, () -> SolarEphemeris.build(startTime, startTime)));
+    }
+
+    @Test
+    @DisplayName("Solar ephemeris twilight test")
+    public void twilightTest() {
+        SolarEphemeris ephemeris = SolarEphemeris.build(startTime, startTime.future(10.0));
+        TopocentricObserver observer = new TopocentricObserver(geoPosition);
+        NightWindows expected = new NightWindows(observer, startTime, startTime.future(10.0));
+        NightWindows actual = new NightWindows(observer, startTime, startTime.future(10.0), ephemeris);
+        List<NightWindows.Window> expectedWindows = expected.getWindows(Sun.TwilightType.Nautical);
+        List<NightWindows.Window> actualWindows = actual.getWindows(Sun.TwilightType.Nautical);
+        assertEquals(expectedWindows.size(), actualWindows.size());
+        for (int i = 0; i < expectedWindows.size(); i++) {
+            assertEquals(expectedWindows.get(i).getStart().value(), actualWindows.get(i).getStart().value(), 2.0 / 86400.0);
+            assertEquals(expectedWindows.get(i).getEnd().value(), actualWindows.get(i).getEnd().value(), 2.0 / 86400.0);
+        }
+        assertEquals(0, actual.getSunPositionCount());
+        for (double t = 0.1; t < 10.0; t += 0.1) {
+            JD time = startTime.future(t);
+            assertEquals(Sun.getTwilightType(time, geoPosition), ephemeris.getTwilightType(time, observer));
+        }
+    }
+
+}
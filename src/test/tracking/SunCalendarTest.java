@@ -0,0 +1,132 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.NightWindows;
+import com.qbizzle.tracking.Sun;
+import com.qbizzle.tracking.SunCalendar;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SunCalendarTest {
+    GeoPosition geoPosition = new GeoPosition(40.0, -105.0);
+    JD startTime = new JD(1, 23, 2022, 0, 0, 0);
+    final double oneSecond = 1.0 / 86400.0;
+
+    double getSunAltitude(JD time, GeoPosition geoPosition) {
+        return Tracker.getAltAz(Tracker.getSEZPosition(Sun.position2(time), time, geoPosition), time).getAltitude();
+    }
+
+    @Test
+    @DisplayName("Calendar agreement test")
+    public void agreementTest() {
+        SunCalendar calendar = new SunCalendar(geoPosition);
+        NightWindows nightWindows = new NightWindows(geoPosition, startTime, startTime.future(5.0));
+        List<SunCalendar.Day> days = calendar.getDays(startTime, startTime.future(5.0));
+        assertEquals(6, days.size());
+        for (SunCalendar.Day day : days) {
+            assertTrue(day.getSunrise().value() < day.getTransit().value());
+            assertTrue(day.getSunset().value() > day.getTransit().value());
+            assertEquals(-5.0 / 6.0, getSunAltitude(day.getSunrise(), geoPosition), 0.01);
+            assertEquals(-12.0, getSunAltitude(day.getDusk(Sun.TwilightType.Astronomical), geoPosition), 0.01);
+            assertTrue(day.getDawn(Sun.TwilightType.Night).value() < day.getDawn(Sun.TwilightType.Nautical).value());
+        }
+//        the dusk of the calendar is the start of the night window the same evening
+        for (NightWindows.Window window : nightWindows.getWindows(Sun.TwilightType.Nautical)) {
+            if (window.getStart().value() <= startTime.value()) continue;
+            JD dusk = calendar.getDay(window.getStart()).getDusk(Sun.TwilightType.Nautical);
+            assertEquals(window.getStart().value(), dusk.value(), 2 * oneSecond);
+        }
+        for (double t = 0.01; t < 5.0; t += 7.0 / 1440.0) {
+            JD time = startTime.future(t);
+            Sun.TwilightType expected = Sun.getTwilightType(time, geoPosition);
+            if (expected != calendar.getTwilightType(time)) {
+                assertTrue(Sun.getTwilightType(time.future(-2 * oneSecond), geoPosition) != expected
+                        || Sun.getTwilightType(time.future(2 * oneSecond), geoPosition) != expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Calendar cache test")
+    public void cacheTest() {
+        SunCalendar calendar = new SunCalendar(geoPosition);
+        SunCalendar.Day day = calendar.getDay(startTime);
+        long count = calendar.getSunPositionCount();
+        assertSame(day, calendar.getDay(startTime.future(0.1)));
+//        between the dawn and dusk of a day it is the only day needed
+        assertFalse(calendar.isDark(day.getTransit(), Sun.TwilightType.Nautical));
+        assertEquals(count, calendar.getSunPositionCount());
+        assertEquals(1, calendar.getDayCount());
+    }
+
+    @Test
+    @DisplayName("Midnight sun test")
+    public void midnightSunTest() {
+        GeoPosition north = new GeoPosition(78.0, 15.0);
+        JD solstice = new JD(6, 20, 2022, 0, 0, 0);
+        SunCalendar calendar = new SunCalendar(north);
+        SunCalendar.Day day = calendar.getDay(solstice);
+        assertNull(day.getSunset());
+        assertTrue(day.isLightAllDay(Sun.TwilightType.Civil));
+        for (double t = 0; t < 1.0; t += 0.1)
+            assertEquals(Sun.TwilightType.Day, calendar.getTwilightType(solstice.future(t)));
+        assertEquals(0, calendar.getSunPositionCount());
+
+//        further south the Sun sets, but it doesn't get past civil twilight
+        SunCalendar.Day southern = new SunCalendar(new GeoPosition(65.0, 20.0)).getDay(solstice);
+        assertNotNull(southern.getSunset());
+        assertNull(southern.getDusk(Sun.TwilightType.Nautical));
+        assertTrue(southern.isLightAllDay(Sun.TwilightType.Nautical));
+    }
+
+    @Test
+    @DisplayName("Polar transition test")
+    public void polarTransitionTest() {
+//        the Sun moves in declination more in half a day than it clears the altitudes by at
+//        midnight, so it crosses them on some days and not on the days either side
+        GeoPosition north = new GeoPosition(80.0, 10.0);
+        GeoPosition south = new GeoPosition(-80.0, 100.0);
+        SunCalendar northCalendar = new SunCalendar(north);
+        SunCalendar southCalendar = new SunCalendar(south);
+        JD northTime = new JD(2459821.465), southTime = new JD(2459649.21);
+        assertEquals(Sun.TwilightType.Civil, northCalendar.getTwilightType(northTime));
+        assertNotNull(northCalendar.getDay(northTime).getSunset());
+        assertFalse(northCalendar.getDay(northTime).isLightAllDay(Sun.TwilightType.Civil));
+        assertEquals(Sun.TwilightType.Nautical, southCalendar.getTwilightType(southTime));
+
+        for (Object[] site : new Object[][]{{north, northCalendar, northTime}, {south, southCalendar, southTime}}) {
+            GeoPosition position = (GeoPosition) site[0];
+            SunCalendar calendar = (SunCalendar) site[1];
+            JD center = (JD) site[2];
+            for (double t = -6.0; t < 6.0; t += 7.0 / 1440.0) {
+                JD time = center.future(t);
+                Sun.TwilightType expected = Sun.getTwilightType(time, position);
+                if (expected != calendar.getTwilightType(time)) {
+                    assertTrue(Sun.getTwilightType(time.future(-2 * oneSecond), position) != expected
+                            || Sun.getTwilightType(time.future(2 * oneSecond), position) != expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid calendar argument test")
+    public void invalidArgumentTest() {
+        SunCalendar calendar = new SunCalendar(geoPosition);
+        assertThrows(IllegalArgumentException.class, () -> calendar.getDay(startTime).getDusk(Sun.TwilightType.Day));
+        assertThrows(IllegalArgumentException.class, () -> calendar.getDays(startTime.future(1.0), startTime));
+    }
+
+}
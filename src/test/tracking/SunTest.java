@@ -0,0 +1,55 @@
+package test.tracking;
+
+import com.qbizzle.math.Vector;
+import com.qbizzle.time.JD;
+import com.qbizzle.tracking.Sun;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SunTest {
+    JD startTime = new JD(1, 1, 2022, 0, 0, 0);
+
+    @Test
+    @DisplayName("Batch position test")
+    public void batchPositionTest() {
+        int count = 500;
+        double[] jd = new double[count];
+        double[] x = new double[count], y = new double[count], z = new double[count];
+        for (int i = 0; i < count; i++)
+            jd[i] = startTime.future(0.73 * i).value();
+        Sun.position2(jd, x, y, z);
+        for (int i = 0; i < count; i++) {
+            Vector expected = Sun.position2(new JD(jd[i]));
+            assertEquals(expected.x(), x[i]);
+            assertEquals(expected.y(), y[i]);
+            assertEquals(expected.z(), z[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Evenly spaced position test")
+    public void evenlySpacedTest() {
+//        long enough for several direct evaluations and the recurrence between them
+        int count = 10 * Sun.RECURRENCE_INTERVAL + 7;
+        double step = 1.0 / 24.0;
+        double[] x = new double[count], y = new double[count], z = new double[count];
+        Sun.position2(startTime, step, count, x, y, z);
+        for (int i = 0; i < count; i++) {
+            Vector expected = Sun.position2(startTime.future(step * i));
+            assertEquals(0.0, expected.minus(new Vector(x[i], y[i], z[i])).mag(), 10.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Batch argument test")
+    public void batchArgumentTest() {
+        double[] jd = new double[3], shorter = new double[2], enough = new double[3];
+        assertThrows(IllegalArgumentException.class, () -> Sun.position2(jd, enough, shorter, enough));
+        assertThrows(IllegalArgumentException.class, () -> Sun.position2(startTime, 1.0, 3, enough, enough, shorter));
+        assertThrows(IllegalArgumentException.class, () -> Sun.position2(startTime, 1.0, -1, enough, enough, enough));
+    }
+
+}
@@ -0,0 +1,109 @@
+package test.tracking;
+
+import com.qbizzle.coordinates.CelestialCoordinates;
+import com.qbizzle.coordinates.GeoPosition;
+import com.qbizzle.math.Matrix;
+import com.qbizzle.math.Vector;
+import com.qbizzle.orbit.StateVectors;
+import com.qbizzle.orbit.TLE;
+import com.qbizzle.referenceframe.EulerAngles;
+import com.qbizzle.referenceframe.EulerOrderList;
+import com.qbizzle.rotation.Rotation;
+import com.qbizzle.satellite.Satellite;
+import com.qbizzle.time.JD;
+import com.qbizzle.time.SiderealTime;
+import com.qbizzle.tracking.AltAz;
+import com.qbizzle.tracking.TopocentricObserver;
+import com.qbizzle.tracking.Tracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopocentricObserverTest {
+    String strLEOTLE = "ISS (ZARYA)             \n" +
+            "1 25544U 98067A   22022.91470718  .00005958  00000+0  11386-3 0  9993\n" +
+            "2 25544  51.6445 336.0056 0006830  51.7508  17.5213 15.49594026322655";
+    GeoPosition[] geoPositions = {
+            new GeoPosition(40.0, -105.0),
+            new GeoPosition(-33.9, 18.4),
+            new GeoPosition(0.0, 0.0),
+            new GeoPosition(78.2, 15.6)
+    };
+    JD time = new JD(1, 23, 2022, 6, 30, 0);
+
+    /** The SEZ transform as Tracker used to compute it, from the Euler matrix of the site. */
+    Vector eulerSEZPosition(Vector position, JD time, GeoPosition geoPosition) {
+        Matrix sezToIJK = Rotation.getEulerMatrix(
+                EulerOrderList.ZYX,
+                new EulerAngles(
+                        SiderealTime.getLocalSiderealTime(time, geoPosition.getLongitude()) * 15.0,
+                        90 - geoPosition.getLatitude(),
+                        0
+                )
+        );
+        return sezToIJK.transpose().mult(position.minus(Tracker.getToposPosition(time, geoPosition)));
+    }
+
+    @Test
+    @DisplayName("Euler matrix agreement test")
+    public void eulerAgreementTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        for (GeoPosition geoPosition : geoPositions) {
+            TopocentricObserver observer = new TopocentricObserver(geoPosition);
+            for (int i = 0; i < 10; i++) {
+                JD sampleTime = time.future(i * 0.37);
+                Vector position = satellite.getState(sampleTime).position();
+                Vector expected = eulerSEZPosition(position, sampleTime, geoPosition);
+                Vector actual = observer.getSEZPosition(position, sampleTime);
+                assertAll(() -> assertEquals(expected.x(), actual.x(), 1e-6),
+                        () -> assertEquals(expected.y(), actual.y(), 1e-6),
+                        () -> assertEquals(expected.z(), actual.z(), 1e-6));
+                assertEquals(0.0, observer.getToposPosition(sampleTime).minus(Tracker.getToposPosition(sampleTime, geoPosition)).mag(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Tracker overload agreement test")
+    public void trackerOverloadTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        for (GeoPosition geoPosition : geoPositions) {
+            TopocentricObserver observer = new TopocentricObserver(geoPosition);
+            AltAz expected = Tracker.getAltAz(satellite, time, geoPosition);
+            AltAz actual = Tracker.getAltAz(satellite, time, observer);
+            assertAll(() -> assertEquals(expected.getAltitude(), actual.getAltitude(), 1e-9),
+                    () -> assertEquals(expected.getAzimuth(), actual.getAzimuth(), 1e-9));
+
+//            topocentric right ascension and declination straight from the line of sight
+            Vector lineOfSight = satellite.getState(time).position().minus(Tracker.getToposPosition(time, geoPosition));
+            double rightAscension = (Math.toDegrees(Math.atan2(lineOfSight.y(), lineOfSight.x())) / 15.0 + 24.0) % 24.0;
+            double declination = Math.toDegrees(Math.asin(lineOfSight.z() / lineOfSight.mag()));
+            for (CelestialCoordinates coordinates : new CelestialCoordinates[]{
+                    Tracker.getCelestialCoordinates(satellite, time, geoPosition),
+                    Tracker.getCelestialCoordinates(satellite, time, observer)}) {
+                assertAll(() -> assertEquals(rightAscension, coordinates.getRightAscension(), 1e-9),
+                        () -> assertEquals(declination, coordinates.getDeclination(), 1e-9));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("SEZ velocity test")
+    public void velocityTest() {
+        Satellite satellite = new Satellite(new TLE(strLEOTLE));
+        TopocentricObserver observer = new TopocentricObserver(geoPositions[0]);
+        final double dt = 5.0;
+        double[] velocity = new double[3], before = new double[3], after = new double[3];
+        StateVectors state = satellite.getState(time);
+        observer.computeSEZVelocity(state.position(), state.velocity(), TopocentricObserver.getEarthRotationAngle(time), velocity);
+        JD beforeTime = time.future(-dt / JD.SECONDSPERDAY), afterTime = time.future(dt / JD.SECONDSPERDAY);
+        observer.computeSEZPosition(satellite.getState(beforeTime).position(), TopocentricObserver.getEarthRotationAngle(beforeTime), before);
+        observer.computeSEZPosition(satellite.getState(afterTime).position(), TopocentricObserver.getEarthRotationAngle(afterTime), after);
+//        central difference, the JD rounding and the curvature of the path limit the agreement to a few cm/s
+        for (int i = 0; i < 3; i++)
+            assertEquals((after[i] - before[i]) / (2 * dt), velocity[i], 0.1);
+    }
+
+}